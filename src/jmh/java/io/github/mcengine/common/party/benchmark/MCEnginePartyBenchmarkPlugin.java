@@ -0,0 +1,59 @@
+package io.github.mcengine.common.party.benchmark;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * Builds a minimal {@link Plugin} for running party backends outside a server.
+ * Only the methods the backends use (config, data folder, logger, name) are implemented.
+ */
+public final class MCEnginePartyBenchmarkPlugin {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MCEnginePartyBenchmarkPlugin() {}
+
+    /**
+     * Creates a plugin whose data folder and config point at the given directory and settings.
+     *
+     * @param dataFolder directory used as the plugin data folder
+     * @param config     plugin configuration returned by {@link Plugin#getConfig()}
+     * @return a plugin stub
+     */
+    public static Plugin create(File dataFolder, FileConfiguration config) {
+        Logger logger = Logger.getLogger("MCEngineParty-Benchmark");
+        return (Plugin) Proxy.newProxyInstance(
+                Plugin.class.getClassLoader(),
+                new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getConfig" -> config;
+                    case "getDataFolder" -> dataFolder;
+                    case "getLogger" -> logger;
+                    case "getName", "toString" -> "MCEngineParty-Benchmark";
+                    case "isEnabled" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                });
+    }
+
+    /**
+     * Creates a plugin configured for a SQLite database file inside the given directory.
+     *
+     * @param dataFolder directory used as the plugin data folder
+     * @param fileName   SQLite database file name
+     * @return a plugin stub
+     */
+    public static Plugin sqlite(File dataFolder, String fileName) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("database.type", "sqlite");
+        config.set("database.sqlite.path", fileName);
+        return create(dataFolder, config);
+    }
+}
@@ -0,0 +1,235 @@
+package io.github.mcengine.common.party.benchmark;
+
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import io.github.mcengine.common.party.database.sqlite.MCEnginePartySQLite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of the core {@link MCEnginePartySQLite} operations against a temp-file database
+ * pre-seeded with {@link #members} players in parties of {@link #PARTY_SIZE}.
+ * <p>
+ * Read benchmarks pick a random seeded player or party. Write benchmarks use fresh players whose
+ * rows are deleted after every iteration, so each iteration starts from the seeded table size.
+ * Run with {@code ./gradlew jmh}; the {@code gc} profiler reports allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MCEnginePartySQLiteBenchmark {
+
+    /**
+     * Number of members in each seeded party, owner included.
+     */
+    private static final int PARTY_SIZE = 5;
+
+    /**
+     * Most significant bits shared by every seeded player UUID.
+     */
+    private static final long SEED_MSB = 0x0000000000004000L;
+
+    /**
+     * Least significant bits shared by every seeded player UUID; the player number fills the rest.
+     */
+    private static final long SEED_LSB = 0x8000000000000000L;
+
+    /**
+     * Most significant bits of players created during a benchmark ({@code ffffffff-ffff-4fff-...}).
+     */
+    private static final long FRESH_MSB = 0xffffffffffff4fffL;
+
+    /**
+     * Number of seeded party members.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int members;
+
+    /**
+     * Temporary directory holding the database file.
+     */
+    private File dataFolder;
+
+    /**
+     * The backend under test.
+     */
+    private MCEnginePartySQLite db;
+
+    /**
+     * Number of seeded parties.
+     */
+    private int parties;
+
+    /**
+     * Counter for fresh player UUIDs.
+     */
+    private long fresh;
+
+    /**
+     * Creates the database in a temp directory and seeds {@link #members} players.
+     *
+     * @throws IOException if the temp directory cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("mcengine-party-bench").toFile();
+        db = new MCEnginePartySQLite(MCEnginePartyBenchmarkPlugin.sqlite(dataFolder, "party.db"));
+        parties = members / PARTY_SIZE;
+        // Player n is "00000000-0000-4000-8000-<n as 12 digits>"; party k is owned by player (k - 1) * PARTY_SIZE
+        db.executeSqls(new String[]{
+                "WITH RECURSIVE seq(n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < " + (parties - 1) + ") "
+                        + "INSERT INTO party (party_id, party_owner_id) "
+                        + "SELECT n + 1, printf('00000000-0000-4000-8000-%012d', n * " + PARTY_SIZE + ") FROM seq",
+                "WITH RECURSIVE seq(n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < " + (members - 1) + ") "
+                        + "INSERT INTO party_member (party_member_id, party_id) "
+                        + "SELECT printf('00000000-0000-4000-8000-%012d', n), n / " + PARTY_SIZE + " + 1 FROM seq",
+                "ANALYZE"
+        });
+    }
+
+    /**
+     * Removes every row created by write benchmarks during the iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void resetWrites() {
+        db.executeSqls(new String[]{
+                "DELETE FROM party_member WHERE party_id IN (SELECT party_id FROM party WHERE party_owner_id LIKE 'ffffffff-%')",
+                "DELETE FROM party WHERE party_owner_id LIKE 'ffffffff-%'",
+                "DELETE FROM party_member WHERE party_member_id LIKE 'ffffffff-%'"
+        });
+    }
+
+    /**
+     * Closes the backend and deletes the temp directory.
+     *
+     * @throws IOException if the temp files cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        db.close();
+        try (Stream<Path> files = Files.walk(dataFolder.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Creates a party for a fresh player.
+     *
+     * @return the new party ID
+     */
+    @Benchmark
+    public int createParty() {
+        return db.createParty(freshPlayer());
+    }
+
+    /**
+     * Adds a fresh player to a random seeded party.
+     */
+    @Benchmark
+    public void invitePlayerToParty() {
+        db.invitePlayerToParty(randomParty(), freshPlayer());
+    }
+
+    /**
+     * Looks up the party of a random seeded player.
+     *
+     * @return the party ID
+     */
+    @Benchmark
+    public int findPlayerPartyId() {
+        return db.findPlayerPartyId(seededPlayer(randomMember()));
+    }
+
+    /**
+     * Resolves the role of a random seeded player in their party.
+     *
+     * @return the role
+     */
+    @Benchmark
+    public MCEnginePartyRole getPlayerPartyRole() {
+        int member = randomMember();
+        return db.getPlayerPartyRole(member / PARTY_SIZE + 1, seededPlayer(member));
+    }
+
+    /**
+     * Counts the members of a random seeded party.
+     *
+     * @return the member count
+     */
+    @Benchmark
+    public int getPartyCount() {
+        return db.getPartyCount(randomParty());
+    }
+
+    /**
+     * Adds a fresh player to a random seeded party and has them leave again, so the
+     * table size stays constant. Subtract {@link #invitePlayerToParty()} for the cost of the leave.
+     */
+    @Benchmark
+    public void leaveParty() {
+        int partyId = randomParty();
+        UUID player = freshPlayer();
+        db.invitePlayerToParty(partyId, player);
+        db.leaveParty(partyId, player);
+    }
+
+    /**
+     * Picks a random seeded player number.
+     *
+     * @return a player number in {@code [0, members)}
+     */
+    private int randomMember() {
+        return ThreadLocalRandom.current().nextInt(members);
+    }
+
+    /**
+     * Picks a random seeded party ID.
+     *
+     * @return a party ID in {@code [1, parties]}
+     */
+    private int randomParty() {
+        return ThreadLocalRandom.current().nextInt(parties) + 1;
+    }
+
+    /**
+     * Builds the UUID of seeded player {@code n} without string formatting, so lookups measure
+     * the backend rather than UUID parsing. The decimal digits of {@code n} fill the hex node field.
+     *
+     * @param n the seeded player number
+     * @return the player's UUID
+     */
+    private static UUID seededPlayer(int n) {
+        long digits = 0L;
+        int shift = 0;
+        for (int v = n; v > 0; v /= 10, shift += 4) {
+            digits |= (long) (v % 10) << shift;
+        }
+        return new UUID(SEED_MSB, SEED_LSB | digits);
+    }
+
+    /**
+     * Creates a player UUID that was not seeded and is removed after the iteration.
+     *
+     * @return a fresh player UUID
+     */
+    private UUID freshPlayer() {
+        return new UUID(FRESH_MSB, ++fresh);
+    }
+}
@@ -1,9 +1,32 @@
 package io.github.mcengine.common.party;
 
 import io.github.mcengine.api.core.util.MCEngineCoreApiDispatcher;
+import io.github.mcengine.common.party.command.MCEnginePartyReportCommand;
+import io.github.mcengine.common.party.command.MCEnginePartyStatsCommand;
+import io.github.mcengine.common.party.database.IMCEnginePartyAsyncDB;
 import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.IMCEnginePartyMembershipIndex;
+import io.github.mcengine.common.party.database.MCEnginePartyDBException;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import io.github.mcengine.common.party.database.async.MCEnginePartyAsyncDB;
+import io.github.mcengine.common.party.database.breaker.MCEnginePartyCircuitBreaker;
+import io.github.mcengine.common.party.database.cache.MCEnginePartyCache;
+import io.github.mcengine.common.party.database.journal.MCEnginePartyJournal;
+import io.github.mcengine.common.party.database.memory.MCEnginePartyMemory;
+import io.github.mcengine.common.party.database.metrics.MCEnginePartyMetricsDB;
 import io.github.mcengine.common.party.database.mysql.MCEnginePartyMySQL;
 import io.github.mcengine.common.party.database.sqlite.MCEnginePartySQLite;
+import io.github.mcengine.common.party.database.sweep.IMCEnginePartySweepable;
+import io.github.mcengine.common.party.database.sweep.MCEnginePartySweeper;
+import io.github.mcengine.common.party.database.sync.IMCEnginePartyChangeSource;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChangePoller;
+import io.github.mcengine.common.party.database.watchdog.MCEnginePartyWatchdogDB;
+import io.github.mcengine.common.party.database.writebehind.MCEnginePartyWriteBehind;
+import io.github.mcengine.common.party.invite.MCEnginePartyInvites;
+import io.github.mcengine.common.party.listener.MCEnginePartyPreLoginListener;
+import io.github.mcengine.common.party.tabcompleter.MCEnginePartyNameIndex;
 
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandExecutor;
@@ -11,6 +34,16 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * Common logic handler for the MCEngine Party plugin.
  * Handles database backend initialization and provides access to party data methods.
@@ -27,6 +60,46 @@ public class MCEnginePartyCommon {
      */
     private final IMCEnginePartyDB db;
 
+    /**
+     * Per-operation metrics recorded around the backend, or {@code null} when disabled.
+     */
+    private final MCEnginePartyMetricsDB metrics;
+
+    /**
+     * Outermost decorator reporting database calls made on the server thread, or {@code null} when disabled.
+     */
+    private final MCEnginePartyWatchdogDB watchdog;
+
+    /**
+     * Circuit breaker directly around the backend, or {@code null} when disabled.
+     */
+    private final MCEnginePartyCircuitBreaker breaker;
+
+    /**
+     * Write-through membership cache in front of the backend, or {@code null} when disabled.
+     */
+    private final MCEnginePartyCache cache;
+
+    /**
+     * Write-behind queue for quit-driven leaves, or {@code null} when disabled.
+     */
+    private final MCEnginePartyWriteBehind writeBehind;
+
+    /**
+     * Poller applying other servers' changes to {@link #cache}, or {@code null} when sync is disabled.
+     */
+    private final MCEnginePartyChangePoller syncPoller;
+
+    /**
+     * Background remover of orphaned rows, or {@code null} when sweeping is disabled or the backend is not SQL-based.
+     */
+    private final MCEnginePartySweeper sweeper;
+
+    /**
+     * Asynchronous view of {@link #db}, running operations on a bounded database executor.
+     */
+    private final MCEnginePartyAsyncDB async;
+
     /**
      * The Bukkit plugin instance.
      */
@@ -37,6 +110,26 @@ public class MCEnginePartyCommon {
      */
     private final int partyLimit;
 
+    /**
+     * Maximum number of player names suggested by tab completion.
+     */
+    private final int tabCompleteLimit;
+
+    /**
+     * Prefix index of online player names used by tab completion.
+     */
+    private final MCEnginePartyNameIndex nameIndex = new MCEnginePartyNameIndex();
+
+    /**
+     * In-memory membership view used by tab completion, or {@code null} when nothing holds memberships in memory.
+     */
+    private final IMCEnginePartyMembershipIndex membershipIndex;
+
+    /**
+     * Pending party invites, expired by a timing wheel.
+     */
+    private final MCEnginePartyInvites invites;
+
     /**
      * Internal command dispatcher used for registering command namespaces and subcommands.
      */
@@ -50,8 +143,31 @@ public class MCEnginePartyCommon {
      * <ul>
      *     <li>{@code sqlite}</li>
      *     <li>{@code mysql}</li>
+     *     <li>{@code memory} - heap only, with periodic snapshots ({@link MCEnginePartyMemory})</li>
+     *     <li>{@code journal} - heap state backed by a memory-mapped append-only log ({@link MCEnginePartyJournal})</li>
      * </ul>
      *
+     * Unless {@code database.breaker.enabled} is {@code false}, the SQL backends are guarded by a
+     * {@link MCEnginePartyCircuitBreaker} that fails calls fast while the database is unavailable, leaving
+     * the cache to answer from memory. Unless {@code database.metrics.enabled} is {@code false}, every backend operation is timed by
+     * {@link MCEnginePartyMetricsDB}. Unless {@code database.cache.enabled} is {@code false}, the backend is wrapped in a
+     * {@link MCEnginePartyCache} so repeated lookups do not hit the database; for MySQL, which other servers may
+     * write to, the cache is only enabled by default together with {@code database.sync.enabled}. Unless
+     * {@code database.write-behind.enabled} is {@code false}, quit-driven leaves are batched by
+     * {@link MCEnginePartyWriteBehind}. When several servers share a SQL database, setting
+     * {@code database.sync.enabled} to {@code true} on every server records each change in a change log
+     * that {@link MCEnginePartyChangePoller} applies to the other servers' caches. While the cache is enabled,
+     * the parties of players already online are loaded into it in the background, and
+     * {@link MCEnginePartyPreLoginListener} loads each joining player's party before login completes.
+     * Unless {@code database.sweep.enabled} is {@code false}, SQL backends are cleaned of orphaned memberships
+     * and ownerless parties in the background by {@link MCEnginePartySweeper}. Setting {@code database.watchdog.enabled}
+     * to {@code true} wraps everything in a {@link MCEnginePartyWatchdogDB} that reports database calls made on the
+     * server thread through {@code /party report}.
+     * <p>
+     * Asynchronous access runs on {@code database.async.threads} worker threads (default {@code 4} for
+     * MySQL, which can use parallel pooled connections, and for SQLite in WAL mode, which reads in parallel
+     * and groups concurrent writes into one commit; otherwise {@code 1}) with at most {@code database.async.queue} pending operations.
+     *
      * @param plugin the Bukkit plugin instance
      * @throws IllegalArgumentException if the configured database type is not supported
      */
@@ -60,14 +176,96 @@ public class MCEnginePartyCommon {
         this.plugin = plugin;
         // Read the party limit from config.yml (key: "limit"). Default is 6. 0 means no limit.
         this.partyLimit = plugin.getConfig().getInt("limit", 6);
+        this.tabCompleteLimit = Math.max(1, plugin.getConfig().getInt("tab-complete.max-results", 50));
         this.dispatcher = new MCEngineCoreApiDispatcher();
 
         String dbType = plugin.getConfig().getString("database.type", "sqlite").toLowerCase();
+        IMCEnginePartyDB backend;
         switch (dbType) {
-            case "sqlite" -> this.db = new MCEnginePartySQLite(plugin);
-            case "mysql" -> this.db = new MCEnginePartyMySQL(plugin);
+            case "sqlite" -> backend = new MCEnginePartySQLite(plugin);
+            case "mysql" -> backend = new MCEnginePartyMySQL(plugin);
+            case "memory" -> backend = new MCEnginePartyMemory(plugin);
+            case "journal" -> backend = new MCEnginePartyJournal(plugin);
             default -> throw new IllegalArgumentException("Unsupported database type: " + dbType);
         }
+
+        // The memory and journal backends already answer from the heap, so they are not cached by default
+        boolean heapBackend = "memory".equals(dbType) || "journal".equals(dbType);
+        IMCEnginePartyDB front = backend;
+        if (plugin.getConfig().getBoolean("database.breaker.enabled", !heapBackend)) {
+            this.breaker = new MCEnginePartyCircuitBreaker(plugin, front);
+            front = breaker;
+        } else {
+            this.breaker = null;
+        }
+        if (plugin.getConfig().getBoolean("database.metrics.enabled", true)) {
+            this.metrics = new MCEnginePartyMetricsDB(front);
+            front = metrics;
+        } else {
+            this.metrics = null;
+        }
+        // A MySQL database may be shared, and other servers' changes only reach the cache through sync
+        boolean cacheByDefault = "mysql".equals(dbType)
+                ? plugin.getConfig().getBoolean("database.sync.enabled", false)
+                : !heapBackend;
+        if (plugin.getConfig().getBoolean("database.cache.enabled", cacheByDefault)) {
+            this.cache = new MCEnginePartyCache(front);
+            front = cache;
+        } else {
+            this.cache = null;
+        }
+        if (plugin.getConfig().getBoolean("database.write-behind.enabled", true)) {
+            this.writeBehind = new MCEnginePartyWriteBehind(plugin, front);
+            front = writeBehind;
+        } else {
+            this.writeBehind = null;
+        }
+        if (plugin.getConfig().getBoolean("database.watchdog.enabled", false)) {
+            this.watchdog = new MCEnginePartyWatchdogDB(plugin, front);
+            watchdog.start();
+            front = watchdog;
+        } else {
+            this.watchdog = null;
+        }
+        this.db = front;
+        if (cache != null && backend instanceof IMCEnginePartyChangeSource source && source.getChangeLog() != null) {
+            this.syncPoller = new MCEnginePartyChangePoller(plugin, source, cache);
+            syncPoller.start();
+        } else {
+            this.syncPoller = null;
+        }
+        if (backend instanceof IMCEnginePartySweepable sweepable && plugin.getConfig().getBoolean("database.sweep.enabled", true)) {
+            this.sweeper = new MCEnginePartySweeper(plugin, sweepable, cache);
+            sweeper.start();
+        } else {
+            this.sweeper = null;
+        }
+        // The cache when enabled, otherwise a backend that keeps all state on the heap
+        this.membershipIndex = cache != null ? cache
+                : backend instanceof IMCEnginePartyMembershipIndex index ? index : null;
+
+        boolean concurrent = "mysql".equals(dbType)
+                || ("sqlite".equals(dbType) && plugin.getConfig().getBoolean("database.sqlite.wal", true));
+        int threads = plugin.getConfig().getInt("database.async.threads", concurrent ? 4 : 1);
+        int queue = plugin.getConfig().getInt("database.async.queue", 1024);
+        this.async = new MCEnginePartyAsyncDB(db, Math.max(1, threads), Math.max(1, queue));
+
+        this.invites = new MCEnginePartyInvites(plugin);
+        invites.start();
+
+        // Players already online (e.g. after a reload) never fire a join event
+        List<UUID> online = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            nameIndex.add(player.getUniqueId(), player.getName());
+            online.add(player.getUniqueId());
+        }
+        if (cache != null) {
+            // One bulk load instead of a lazy lookup per player on their first command; failures are logged by the backend
+            if (!online.isEmpty()) {
+                async.getPlayerPartiesAsync(online);
+            }
+            Bukkit.getPluginManager().registerEvents(new MCEnginePartyPreLoginListener(this), plugin);
+        }
     }
 
     /**
@@ -88,6 +286,43 @@ public class MCEnginePartyCommon {
         return plugin;
     }
 
+    /**
+     * Gets the asynchronous party database API.
+     * Futures complete off the main thread; switch back with the Bukkit scheduler before using the Bukkit API.
+     *
+     * @return the async party database API
+     */
+    public IMCEnginePartyAsyncDB getAsync() {
+        return async;
+    }
+
+    /**
+     * Drops pending invites, stops change polling, orphan sweeping and the database executor, waiting briefly for queued operations to finish,
+     * writes queued leaves, then closes the database backend (including the MySQL connection pool).
+     * Should be called from the plugin's {@code onDisable}.
+     */
+    public void shutdown() {
+        invites.shutdown();
+        if (syncPoller != null) {
+            syncPoller.close();
+        }
+        if (sweeper != null) {
+            sweeper.close();
+        }
+        async.shutdown();
+        db.close();
+    }
+
+    /**
+     * Gets the pending invites, which players accept or deny with
+     * {@code /party default accept} and {@code /party default deny}.
+     *
+     * @return the pending invite store
+     */
+    public MCEnginePartyInvites getInvites() {
+        return invites;
+    }
+
     /**
      * Gets the configured party limit from {@code config.yml}.
      * A value of {@code 0} indicates there is no limit.
@@ -98,6 +333,37 @@ public class MCEnginePartyCommon {
         return partyLimit;
     }
 
+    /**
+     * Gets the maximum number of player names suggested by tab completion
+     * ({@code tab-complete.max-results}, default {@code 50}).
+     *
+     * @return the suggestion cap
+     */
+    public int getTabCompleteLimit() {
+        return tabCompleteLimit;
+    }
+
+    /**
+     * Gets the prefix index of online player names, kept up to date by
+     * {@link io.github.mcengine.common.party.listener.MCEnginePartyListener}.
+     *
+     * @return the online name index
+     */
+    public MCEnginePartyNameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    /**
+     * Gets the in-memory membership view, which answers without database queries but may not
+     * know every player. Used by tab completion.
+     *
+     * @return the membership cache, the heap-based backend, or {@code null} when the backend is
+     *         SQL-based and {@code database.cache.enabled} is {@code false}
+     */
+    public IMCEnginePartyMembershipIndex getMembershipIndex() {
+        return membershipIndex;
+    }
+
     /**
      * Registers a command namespace (e.g. {@code "party"}) for this plugin's dispatcher.
      *
@@ -149,6 +415,192 @@ public class MCEnginePartyCommon {
         return dispatcher.getDispatcher(namespace);
     }
 
+    /**
+     * Registers the admin subcommands under the specified namespace:
+     * <ul>
+     *     <li>{@code stats} - per-operation database metrics ({@link MCEnginePartyStatsCommand})</li>
+     *     <li>{@code report} - database calls made on the server thread ({@link MCEnginePartyReportCommand})</li>
+     * </ul>
+     *
+     * @param namespace the command namespace
+     */
+    public void registerAdminSubCommands(String namespace) {
+        registerSubCommand(namespace, "stats", new MCEnginePartyStatsCommand(this));
+        registerSubCommand(namespace, "report", new MCEnginePartyReportCommand(this));
+    }
+
+    /**
+     * Gets the poller that applies changes made by other servers sharing the database.
+     *
+     * @return the change poller, or {@code null} if {@code database.sync.enabled} is {@code false},
+     *         the cache is disabled or the backend is not SQL-based
+     */
+    public MCEnginePartyChangePoller getSyncPoller() {
+        return syncPoller;
+    }
+
+    /**
+     * Gets the per-operation database metrics, for other plugins to read or export.
+     *
+     * @return the metrics decorator, or {@code null} if {@code database.metrics.enabled} is {@code false}
+     */
+    public MCEnginePartyMetricsDB getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the watchdog that reports database calls made on the server thread.
+     *
+     * @return the watchdog, or {@code null} if {@code database.watchdog.enabled} is {@code false}
+     */
+    public MCEnginePartyWatchdogDB getWatchdog() {
+        return watchdog;
+    }
+
+    /**
+     * Gets the circuit breaker guarding the database backend.
+     *
+     * @return the breaker, or {@code null} if {@code database.breaker.enabled} is {@code false}
+     */
+    public MCEnginePartyCircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Gets the background sweeper that removes orphaned memberships and ownerless parties.
+     *
+     * @return the sweeper, or {@code null} if {@code database.sweep.enabled} is {@code false} or
+     *         the backend is not SQL-based
+     */
+    public MCEnginePartySweeper getSweeper() {
+        return sweeper;
+    }
+
+    /**
+     * Gets the membership cache in front of the database, exposing hit/miss counters.
+     *
+     * @return the cache, or {@code null} if {@code database.cache.enabled} is {@code false}
+     */
+    public MCEnginePartyCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets the write-behind queue for quit-driven leaves.
+     *
+     * @return the write-behind queue, or {@code null} if {@code database.write-behind.enabled} is false
+     */
+    public MCEnginePartyWriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Removes a player who quit from their party.
+     * The leave is queued for the next write-behind batch; if write-behind is disabled or its
+     * queue is full, it is applied on the database executor instead. Never blocks.
+     * The player's cache entries, and their party's once no member is online, are then released
+     * (see {@link MCEnginePartyCache#releasePlayer(UUID, java.util.function.Predicate)}).
+     *
+     * @param player UUID of the player who quit
+     */
+    public void leaveOnQuit(UUID player) {
+        if (writeBehind == null || !writeBehind.enqueueLeave(player)) {
+            async.leavePlayersAsync(List.of(player)).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    plugin.getLogger().warning("Failed to remove " + player + " from party on quit: " + error.getMessage());
+                }
+            });
+        }
+        if (cache != null) {
+            cache.releasePlayer(player, member -> nameIndex.getName(member) != null);
+        }
+    }
+
+    /**
+     * Captures the members of a party for a later {@link #broadcast(Collection, String, UUID)},
+     * e.g. before the party is disbanded. Answered from the in-memory membership index when it
+     * holds the party, otherwise with a single member query.
+     *
+     * @param partyId the ID of the party
+     * @return future completing with a copy of the member UUIDs
+     */
+    public CompletableFuture<Collection<UUID>> snapshotMembers(int partyId) {
+        Collection<UUID> members = membershipIndex == null ? null : membershipIndex.peekPartyMembers(partyId);
+        if (members != null) {
+            return CompletableFuture.completedFuture(List.copyOf(members));
+        }
+        return async.getPartyMembersAsync(partyId).thenApply(loaded -> loaded);
+    }
+
+    /**
+     * Sends a message to every online member of a party. Members are resolved from the in-memory
+     * membership index when it holds the party, otherwise with a single member query.
+     * Safe to call from any thread.
+     *
+     * @param partyId the ID of the party
+     * @param message the message, built once for all members
+     * @param except  UUID of a member who is not sent the message (e.g. the actor), or null
+     */
+    public void broadcast(int partyId, String message, UUID except) {
+        Collection<UUID> members = membershipIndex == null ? null : membershipIndex.peekPartyMembers(partyId);
+        if (members != null) {
+            broadcast(members, message, except);
+            return;
+        }
+        async.getPartyMembersAsync(partyId).whenComplete((loaded, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Failed to load members of party " + partyId + " for a broadcast: " + error.getMessage());
+            } else {
+                broadcast(loaded, message, except);
+            }
+        });
+    }
+
+    /**
+     * Sends a message to every online player among the given members. Offline members are
+     * filtered out with the online name index on the calling thread; the remaining players are
+     * messaged in one pass on the main thread (directly, or in a single scheduled task when called
+     * from another thread). Safe to call from any thread.
+     *
+     * @param members UUIDs of the party members, e.g. from {@link #snapshotMembers(int)}
+     * @param message the message, built once for all members
+     * @param except  UUID of a member who is not sent the message (e.g. the actor), or null
+     */
+    public void broadcast(Collection<UUID> members, String message, UUID except) {
+        List<UUID> online = new ArrayList<>(members.size());
+        for (UUID member : members) {
+            if (!member.equals(except) && nameIndex.getName(member) != null) {
+                online.add(member);
+            }
+        }
+        if (online.isEmpty()) {
+            return;
+        }
+        if (Bukkit.isPrimaryThread()) {
+            deliver(online, message);
+        } else if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> deliver(online, message));
+        }
+    }
+
+    /**
+     * Runs several party operations as one transaction, e.g. creating a party and inviting its
+     * members with a single commit. The work receives the party database and may call any of its
+     * methods; everything it does is committed when it returns and rolled back if it throws.
+     * The memory and journal backends apply each operation immediately instead.
+     * <p>
+     * This blocks on database I/O; from the main thread use
+     * {@link IMCEnginePartyAsyncDB#inTransactionAsync(Function)} via {@link #getAsync()}.
+     *
+     * @param work the operations to run against the given database
+     * @param <T>  result type
+     * @return the result of the work
+     * @throws MCEnginePartyDBException if an operation or the commit fails
+     */
+    public <T> T inTransaction(Function<IMCEnginePartyDB, T> work) {
+        return db.inTransaction(work);
+    }
+
     /**
      * Gets the current number of members in a given party.
      *
@@ -156,16 +608,18 @@ public class MCEnginePartyCommon {
      * @return the number of members currently in the party
      */
     public int getPartyCount(String partyId) {
-        return db.getPartyCount(partyId);
+        return orElse(() -> db.getPartyCount(partyId), 0);
     }
 
     /**
      * Creates a new party and assigns the given player as the owner.
      *
+     * Use {@link #createParty(UUID)} to get the new party's ID.
+     *
      * @param player the player who will be the owner of the new party
      */
     public void createParty(Player player) {
-        db.createParty(player);
+        ignoreFailure(() -> db.createParty(player));
     }
 
     /**
@@ -173,9 +627,10 @@ public class MCEnginePartyCommon {
      *
      * @param partyId the ID of the party to which the player is being invited
      * @param player the player to be invited to the party
+     * @throws IllegalArgumentException if the party ID is not a valid party ID
      */
     public void invitePlayerToParty(String partyId, Player player) {
-        db.invitePlayerToParty(partyId, player);
+        ignoreFailure(() -> db.invitePlayerToParty(partyId, player));
     }
 
     /**
@@ -184,9 +639,10 @@ public class MCEnginePartyCommon {
      *
      * @param partyId the ID of the party
      * @param player the player to be removed from the party
+     * @throws IllegalArgumentException if the party ID is not a valid party ID
      */
     public void kickPlayerFromParty(String partyId, Player player) {
-        db.kickPlayerFromParty(partyId, player);
+        ignoreFailure(() -> db.kickPlayerFromParty(partyId, player));
     }
 
     /**
@@ -196,9 +652,10 @@ public class MCEnginePartyCommon {
      *
      * @param partyId the ID of the party
      * @param player the player who is leaving the party
+     * @throws IllegalArgumentException if the party ID is not a valid party ID
      */
     public void leaveParty(String partyId, Player player) {
-        db.leaveParty(partyId, player);
+        ignoreFailure(() -> db.leaveParty(partyId, player));
     }
 
     /**
@@ -209,7 +666,7 @@ public class MCEnginePartyCommon {
      * @return true if the player is a member of the party, false otherwise
      */
     public boolean isMember(String partyId, Player player) {
-        return db.isMember(partyId, player);
+        return orElse(() -> db.isMember(partyId, player), false);
     }
 
     /**
@@ -218,7 +675,7 @@ public class MCEnginePartyCommon {
      * @param sqls an array of SQL statements to execute
      */
     public void executeSqls(String[] sqls) {
-        db.executeSqls(sqls);
+        ignoreFailure(() -> db.executeSqls(sqls));
     }
 
     /**
@@ -231,7 +688,7 @@ public class MCEnginePartyCommon {
      * @return "owner", "member", or null
      */
     public String getPlayerPartyRole(String partyId, Player player) {
-        return db.getPlayerPartyRole(partyId, player);
+        return orElse(() -> db.getPlayerPartyRole(partyId, player), null);
     }
 
     /**
@@ -241,7 +698,7 @@ public class MCEnginePartyCommon {
      * @return The party ID if found, or null
      */
     public String findPlayerPartyId(Player player) {
-        return db.findPlayerPartyId(player);
+        return orElse(() -> db.findPlayerPartyId(player), null);
     }
 
     /**
@@ -251,9 +708,10 @@ public class MCEnginePartyCommon {
      * @param player  The player attempting to set the party name
      * @param name    The new party name to set
      * @return true if the party name was set, false otherwise
+     * @throws IllegalArgumentException if the party ID is not a valid party ID
      */
     public boolean setPartyName(String partyId, Player player, String name) {
-        return db.setPartyName(partyId, player, name);
+        return orElse(() -> db.setPartyName(partyId, player, name), false);
     }
 
     /**
@@ -265,8 +723,276 @@ public class MCEnginePartyCommon {
     public String findPlayerPartyId(String playerName) {
         Player player = Bukkit.getPlayerExact(playerName);
         if (player != null) {
-            return db.findPlayerPartyId(player);
+            return orElse(() -> db.findPlayerPartyId(player), null);
         }
         return null;
     }
+
+    /**
+     * Gets the UUID of the owner of the specified party.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID as a string, or null if the party does not exist
+     */
+    public String getPartyOwner(String partyId) {
+        return orElse(() -> db.getPartyOwner(partyId), null);
+    }
+
+    /**
+     * Gets the UUIDs of every member of the specified party, including the owner.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs as strings
+     */
+    public List<String> getPartyMembers(String partyId) {
+        return orElse(() -> db.getPartyMembers(partyId), new ArrayList<>());
+    }
+
+    /**
+     * Resolves the player's party, role, owner, party name and member count at once.
+     * Prefer this over separate {@link #findPlayerPartyId(Player)} / {@link #getPlayerPartyRole(String, Player)}
+     * / {@link #getPartyCount(String)} calls.
+     *
+     * @param player the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    public MCEnginePartyMembership getPlayerMembership(Player player) {
+        return orElse(() -> db.getPlayerMembership(player), null);
+    }
+
+    /**
+     * Loads the owner, name and member list of a party at once.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null if the party does not exist
+     */
+    public MCEnginePartyInfo getParty(String partyId) {
+        return orElse(() -> db.getParty(partyId), null);
+    }
+
+    /**
+     * Creates a new party owned by the given player.
+     *
+     * @param owner UUID of the party owner
+     * @return the new party ID, or {@link IMCEnginePartyDB#NO_PARTY} if it could not be created
+     */
+    public int createParty(UUID owner) {
+        return orElse(() -> db.createParty(owner), IMCEnginePartyDB.NO_PARTY);
+    }
+
+    /**
+     * Adds a player to a party.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player to add
+     */
+    public void invitePlayerToParty(int partyId, UUID player) {
+        ignoreFailure(() -> db.invitePlayerToParty(partyId, player));
+    }
+
+    /**
+     * Removes a player from a party.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player to remove
+     */
+    public void kickPlayerFromParty(int partyId, UUID player) {
+        ignoreFailure(() -> db.kickPlayerFromParty(partyId, player));
+    }
+
+    /**
+     * Removes the player from the party, disbanding it if the player is the owner.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player who is leaving
+     */
+    public void leaveParty(int partyId, UUID player) {
+        ignoreFailure(() -> db.leaveParty(partyId, player));
+    }
+
+    /**
+     * Checks whether a player is a member of a party.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player to check
+     * @return true if the player is a member
+     */
+    public boolean isMember(int partyId, UUID player) {
+        return orElse(() -> db.isMember(partyId, player), false);
+    }
+
+    /**
+     * Gets the role of a player in a party.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player
+     * @return the player's role, or null if the player is not in the party
+     */
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        return orElse(() -> db.getPlayerPartyRole(partyId, player), null);
+    }
+
+    /**
+     * Finds the party a player belongs to.
+     *
+     * @param player UUID of the player
+     * @return the party ID, or {@link IMCEnginePartyDB#NO_PARTY} if the player is not in a party
+     */
+    public int findPlayerPartyId(UUID player) {
+        return orElse(() -> db.findPlayerPartyId(player), IMCEnginePartyDB.NO_PARTY);
+    }
+
+    /**
+     * Sets the party name if the player is the owner.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player setting the name
+     * @param name    the new party name
+     * @return true if the name was set
+     */
+    public boolean setPartyName(int partyId, UUID player, String name) {
+        return orElse(() -> db.setPartyName(partyId, player, name), false);
+    }
+
+    /**
+     * Gets the number of members in a party.
+     *
+     * @param partyId the party ID
+     * @return the member count
+     */
+    public int getPartyCount(int partyId) {
+        return orElse(() -> db.getPartyCount(partyId), 0);
+    }
+
+    /**
+     * Gets the owner of a party.
+     *
+     * @param partyId the party ID
+     * @return the owner's UUID, or null if the party does not exist
+     */
+    public UUID getPartyOwner(int partyId) {
+        return orElse(() -> db.getPartyOwner(partyId), null);
+    }
+
+    /**
+     * Gets every member of a party, including the owner.
+     *
+     * @param partyId the party ID
+     * @return list of member UUIDs
+     */
+    public List<UUID> getPartyMembers(int partyId) {
+        return orElse(() -> db.getPartyMembers(partyId), new ArrayList<>());
+    }
+
+    /**
+     * Resolves a player's party context in one lookup.
+     *
+     * @param player UUID of the player
+     * @return the membership, or null if the player is not in a party
+     */
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        return orElse(() -> db.getPlayerMembership(player), null);
+    }
+
+    /**
+     * Loads a party snapshot in one lookup.
+     *
+     * @param partyId the party ID
+     * @return the party snapshot, or null if the party does not exist
+     */
+    public MCEnginePartyInfo getParty(int partyId) {
+        return orElse(() -> db.getParty(partyId), null);
+    }
+
+    /**
+     * Finds the parties of many players with a few bulk queries instead of one lookup per player.
+     * This blocks on database I/O; from the main thread use
+     * {@link IMCEnginePartyAsyncDB#findPlayerPartyIdsAsync(Collection)} via {@link #getAsync()}.
+     *
+     * @param players UUIDs of the players
+     * @return map from each player to their party ID, or {@link IMCEnginePartyDB#NO_PARTY}; empty if the database fails
+     */
+    public Map<UUID, Integer> findPlayerPartyIds(Collection<UUID> players) {
+        return orElse(() -> db.findPlayerPartyIds(players), new HashMap<>());
+    }
+
+    /**
+     * Gets the members of many parties with a few bulk queries.
+     *
+     * @param partyIds the party IDs
+     * @return map from each party ID to its member UUIDs; empty if the database fails
+     */
+    public Map<Integer, List<UUID>> getPartyMembers(Collection<Integer> partyIds) {
+        return orElse(() -> db.getPartyMembers(partyIds), new HashMap<>());
+    }
+
+    /**
+     * Counts the members of many parties with a few bulk queries.
+     *
+     * @param partyIds the party IDs
+     * @return map from each party ID to its member count; empty if the database fails
+     */
+    public Map<Integer, Integer> getPartyCounts(Collection<Integer> partyIds) {
+        return orElse(() -> db.getPartyCounts(partyIds), new HashMap<>());
+    }
+
+    /**
+     * Loads the parties of the given players, with their members, into the membership cache in one bulk query,
+     * so later lookups for these players do not touch the database. Does nothing when the cache is disabled.
+     * This blocks on database I/O and is meant for login threads; from the main thread use
+     * {@link IMCEnginePartyAsyncDB#getPlayerPartiesAsync(Collection)} via {@link #getAsync()}.
+     *
+     * @param players UUIDs of the players
+     */
+    public void prefetch(Collection<UUID> players) {
+        if (cache != null && !players.isEmpty()) {
+            ignoreFailure(() -> db.getPlayerParties(players));
+        }
+    }
+
+    /**
+     * Runs a call of the synchronous API, returning a fallback when the database fails.
+     * Backends log failures before throwing {@link MCEnginePartyDBException}, so it is not logged again.
+     *
+     * @param call     the database call
+     * @param fallback value returned when the call fails
+     * @param <T>      result type
+     * @return the call's result, or {@code fallback} on failure
+     */
+    private static <T> T orElse(Supplier<T> call, T fallback) {
+        try {
+            return call.get();
+        } catch (MCEnginePartyDBException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Runs a call of the synchronous API that has no result, ignoring database failures,
+     * which the backend has already logged.
+     *
+     * @param call the database call
+     */
+    private static void ignoreFailure(Runnable call) {
+        try {
+            call.run();
+        } catch (MCEnginePartyDBException ignored) {
+            // Logged by the backend
+        }
+    }
+
+    /**
+     * Sends a message to each player that is still online. Must run on the main thread.
+     *
+     * @param recipients UUIDs of the recipients
+     * @param message    the message
+     */
+    private static void deliver(List<UUID> recipients, String message) {
+        for (UUID recipient : recipients) {
+            Player player = Bukkit.getPlayer(recipient);
+            if (player != null) {
+                player.sendMessage(message);
+            }
+        }
+    }
 }
@@ -19,6 +19,8 @@ import org.bukkit.entity.Player;
  * <ul>
  *     <li>/party default create</li>
  *     <li>/party default invite &lt;player&gt;</li>
+ *     <li>/party default accept</li>
+ *     <li>/party default deny</li>
  *     <li>/party default kick &lt;player&gt;</li>
  *     <li>/party default leave</li>
  *     <li>/party default set name &lt;name&gt;</li>
@@ -58,19 +60,41 @@ public class MCEnginePartyCommand implements CommandExecutor {
     private static final String[] USAGE_LINES = new String[]{
             "/party default create",
             "/party default invite <player>",
+            "/party default accept",
+            "/party default deny",
             "/party default kick <player>",
             "/party default leave",
             "/party default set name <name>",
             "/party default find <player>"
     };
 
+    /**
+     * Usage lines as sent in chat, colored once.
+     */
+    private static final String[] USAGE_CHAT_LINES = new String[USAGE_LINES.length];
+
+    static {
+        for (int i = 0; i < USAGE_LINES.length; i++) {
+            USAGE_CHAT_LINES[i] = ChatColor.GRAY + USAGE_LINES[i];
+        }
+    }
+
+    /**
+     * Shared usage hologram renderer, rate-limited per player.
+     */
+    private final MCEnginePartyUsageHologram usageHologram;
+
     /**
      * Constructs a new party command executor.
+     * Players see the usage hologram at most once per {@code hologram.cooldown-seconds}
+     * (default {@value #DEFAULT_HOLOGRAM_SECONDS}) and never while their previous one is visible.
      *
      * @param partyCommon the shared party logic handler
      */
     public MCEnginePartyCommand(MCEnginePartyCommon partyCommon) {
         this.partyCommon = partyCommon;
+        int cooldown = partyCommon.getPlugin().getConfig().getInt("hologram.cooldown-seconds", DEFAULT_HOLOGRAM_SECONDS);
+        this.usageHologram = new MCEnginePartyUsageHologram(SUGGEST_PREFIX, USAGE_LINES, DEFAULT_HOLOGRAM_SECONDS, cooldown);
     }
 
     /**
@@ -119,24 +143,16 @@ public class MCEnginePartyCommand implements CommandExecutor {
                     player.sendMessage(ChatColor.RED + "Usage: /party default invite <player>");
                     showUsageHologram(player);
                 } else {
-                    // Enforce party size limit before attempting to invite.
-                    // Limit is read from config via MCEnginePartyCommon#getPartyLimit().
-                    // A limit of 0 means unlimited size.
-                    int limit = partyCommon.getPartyLimit();
-                    if (limit > 0) {
-                        String inviterPartyId = partyCommon.findPlayerPartyId(player);
-                        if (inviterPartyId != null) {
-                            int count = partyCommon.getPartyCount(inviterPartyId);
-                            if (count >= limit) {
-                                player.sendMessage(ChatColor.RED + "Your party is full (" + count + "/" + limit + ").");
-                                return true;
-                            }
-                        }
-                    }
+                    // The party size limit (MCEnginePartyCommon#getPartyLimit(), 0 = unlimited)
+                    // is enforced off the main thread inside handleInvite.
                     MCEnginePartyCommandUtil.handleInvite(player, args[2], partyCommon);
                 }
             }
 
+            case "accept" -> MCEnginePartyCommandUtil.handleAccept(player, partyCommon);
+
+            case "deny" -> MCEnginePartyCommandUtil.handleDeny(player, partyCommon);
+
             case "kick" -> {
                 if (args.length < 3) {
                     player.sendMessage(ChatColor.RED + "Usage: /party default kick <player>");
@@ -182,18 +198,27 @@ public class MCEnginePartyCommand implements CommandExecutor {
      */
     private void sendUsage(Player player) {
         player.sendMessage(ChatColor.RED + "Usage:");
-        for (String line : USAGE_LINES) {
-            player.sendMessage(ChatColor.GRAY + line);
+        for (String line : USAGE_CHAT_LINES) {
+            player.sendMessage(line);
         }
     }
 
     /**
-     * Displays a usage hologram to the player with clickable suggestions that prefill chat input.
+     * Displays a usage hologram to the player with clickable suggestions that prefill chat input,
+     * unless the player's previous hologram is still visible or on cooldown.
      *
      * @param player the recipient of the hologram
      */
     private void showUsageHologram(Player player) {
-        new MCEngineHologramApi()
-                .getUsageHologram(player, SUGGEST_PREFIX, USAGE_LINES);
+        usageHologram.show(player);
+    }
+
+    /**
+     * Gets the usage hologram renderer, e.g. to forget players who left the server.
+     *
+     * @return the usage hologram renderer
+     */
+    public MCEnginePartyUsageHologram getUsageHologram() {
+        return usageHologram;
     }
 }
@@ -0,0 +1,114 @@
+package io.github.mcengine.common.party.command;
+
+import io.github.mcengine.common.party.MCEnginePartyCommon;
+import io.github.mcengine.common.party.database.watchdog.MCEnginePartyWatchdogDB;
+import io.github.mcengine.common.party.database.watchdog.MCEnginePartyWatchdogOperation;
+import io.github.mcengine.common.party.database.watchdog.MCEnginePartyWatchdogSite;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+
+/**
+ * Command executor for the <code>/party report</code> admin subcommand.
+ * <p>
+ * Prints the main-thread watchdog's findings: how many ticks spent more than the budget in
+ * party database calls, the server-thread totals per operation and the most frequently sampled
+ * call sites with their stacks. <code>/party report reset</code> clears them.
+ * Requires the permission {@code mcengine.party.admin}; usable from the console.
+ */
+public class MCEnginePartyReportCommand implements CommandExecutor {
+
+    /**
+     * Maximum number of call sites printed.
+     */
+    private static final int MAX_SITES = 5;
+
+    /**
+     * Maximum number of frames printed per call site.
+     */
+    private static final int MAX_FRAMES = 4;
+
+    /**
+     * Reference to the party API exposing the watchdog.
+     */
+    private final MCEnginePartyCommon partyCommon;
+
+    /**
+     * Constructs the report command executor.
+     *
+     * @param partyCommon the shared party logic handler
+     */
+    public MCEnginePartyReportCommand(MCEnginePartyCommon partyCommon) {
+        this.partyCommon = partyCommon;
+    }
+
+    /**
+     * Handles <code>/party report [reset]</code>.
+     *
+     * @param sender  The command sender
+     * @param command The command
+     * @param label   The command label used
+     * @param args    The command arguments, starting with the subcommand label
+     * @return always true
+     */
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission(MCEnginePartyStatsCommand.PERMISSION)) {
+            sender.sendMessage(ChatColor.RED + "You do not have permission to use this command.");
+            return true;
+        }
+
+        MCEnginePartyWatchdogDB watchdog = partyCommon.getWatchdog();
+        if (watchdog == null) {
+            sender.sendMessage(ChatColor.RED + "The main-thread watchdog is disabled (database.watchdog.enabled).");
+            return true;
+        }
+
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            watchdog.reset();
+            sender.sendMessage(ChatColor.GREEN + "Main-thread watchdog report has been reset.");
+            return true;
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "Party database calls on the server thread:");
+        sender.sendMessage(ChatColor.AQUA + "ticks" + ChatColor.GRAY + ": "
+                + (watchdog.getTicksOverBudget() > 0 ? ChatColor.RED : ChatColor.GRAY) + watchdog.getTicksOverBudget()
+                + ChatColor.GRAY + " of " + watchdog.getTicks() + " over the " + formatNanos(watchdog.getBudgetNanos())
+                + " budget, worst " + formatNanos(watchdog.getWorstTickNanos()));
+
+        List<MCEnginePartyWatchdogOperation> operations = watchdog.getOperations();
+        if (operations.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "No database calls on the server thread recorded yet.");
+            return true;
+        }
+        for (MCEnginePartyWatchdogOperation op : operations) {
+            sender.sendMessage(ChatColor.AQUA + op.operation() + ChatColor.GRAY + ": "
+                    + op.calls() + " calls, " + formatNanos(op.totalNanos()) + " total, max " + formatNanos(op.maxNanos())
+                    + (op.overBudget() > 0 ? ChatColor.RED + ", " + op.overBudget() + " over budget" : ""));
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "Top call sites (1 in " + watchdog.getSampleRate() + " calls sampled, plus every call over budget):");
+        for (MCEnginePartyWatchdogSite site : watchdog.getSites(MAX_SITES)) {
+            sender.sendMessage(ChatColor.AQUA + site.operation() + ChatColor.GRAY + ": "
+                    + site.samples() + " samples, " + formatNanos(site.totalNanos()) + " total, max " + formatNanos(site.maxNanos()));
+            List<StackTraceElement> frames = site.frames();
+            for (int i = 0; i < Math.min(MAX_FRAMES, frames.size()); i++) {
+                sender.sendMessage(ChatColor.DARK_GRAY + "  at " + frames.get(i));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Formats a duration in nanoseconds as milliseconds with two decimals.
+     *
+     * @param nanos the duration in nanoseconds
+     * @return the formatted duration, e.g. {@code "1.25ms"}
+     */
+    private static String formatNanos(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.mcengine.common.party.command;
+
+import io.github.mcengine.common.party.MCEnginePartyCommon;
+import io.github.mcengine.common.party.database.breaker.MCEnginePartyCircuitBreaker;
+import io.github.mcengine.common.party.database.cache.MCEnginePartyCache;
+import io.github.mcengine.common.party.database.metrics.MCEnginePartyMetricsDB;
+import io.github.mcengine.common.party.database.metrics.MCEnginePartyOperationStats;
+import io.github.mcengine.common.party.database.sweep.MCEnginePartySweeper;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChangePoller;
+import io.github.mcengine.common.party.database.writebehind.MCEnginePartyWriteBehind;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Command executor for the <code>/party stats</code> admin subcommand.
+ * <p>
+ * Prints per-operation database call counts, error counts and latency percentiles, plus cache,
+ * write-behind, cross-server sync, orphan sweep and circuit breaker counters. <code>/party stats reset</code> clears the operation statistics.
+ * Requires the permission {@code mcengine.party.admin}; usable from the console.
+ */
+public class MCEnginePartyStatsCommand implements CommandExecutor {
+
+    /**
+     * Permission required to view or reset the statistics.
+     */
+    public static final String PERMISSION = "mcengine.party.admin";
+
+    /**
+     * Reference to the party API exposing the metrics.
+     */
+    private final MCEnginePartyCommon partyCommon;
+
+    /**
+     * Constructs the stats command executor.
+     *
+     * @param partyCommon the shared party logic handler
+     */
+    public MCEnginePartyStatsCommand(MCEnginePartyCommon partyCommon) {
+        this.partyCommon = partyCommon;
+    }
+
+    /**
+     * Handles <code>/party stats [reset]</code>.
+     *
+     * @param sender  The command sender
+     * @param command The command
+     * @param label   The command label used
+     * @param args    The command arguments, starting with the subcommand label
+     * @return always true
+     */
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission(PERMISSION)) {
+            sender.sendMessage(ChatColor.RED + "You do not have permission to use this command.");
+            return true;
+        }
+
+        MCEnginePartyMetricsDB metrics = partyCommon.getMetrics();
+        if (metrics == null) {
+            sender.sendMessage(ChatColor.RED + "Database metrics are disabled (database.metrics.enabled).");
+            return true;
+        }
+
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage(ChatColor.GREEN + "Party database statistics have been reset.");
+            return true;
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "Party database statistics:");
+        boolean any = false;
+        for (MCEnginePartyOperationStats stats : metrics.getStats()) {
+            if (stats.calls() == 0) {
+                continue;
+            }
+            any = true;
+            sender.sendMessage(ChatColor.AQUA + stats.operation() + ChatColor.GRAY + ": "
+                    + stats.calls() + " calls, "
+                    + (stats.errors() > 0 ? ChatColor.RED : ChatColor.GRAY) + stats.errors() + " errors" + ChatColor.GRAY
+                    + ", p50 " + formatNanos(stats.p50Nanos())
+                    + ", p99 " + formatNanos(stats.p99Nanos())
+                    + ", max " + formatNanos(stats.maxNanos()));
+        }
+        if (!any) {
+            sender.sendMessage(ChatColor.GRAY + "No database operations recorded yet.");
+        }
+
+        MCEnginePartyCache cache = partyCommon.getCache();
+        if (cache != null) {
+            sender.sendMessage(ChatColor.AQUA + "cache" + ChatColor.GRAY + ": "
+                    + cache.getHits() + " hits, " + cache.getMisses() + " misses");
+        }
+        MCEnginePartyWriteBehind writeBehind = partyCommon.getWriteBehind();
+        if (writeBehind != null) {
+            sender.sendMessage(ChatColor.AQUA + "quit leaves" + ChatColor.GRAY + ": "
+                    + writeBehind.getQueuedCount() + " queued, " + writeBehind.getWrittenCount()
+                    + " written in " + writeBehind.getBatchCount() + " batches, "
+                    + writeBehind.getDroppedCount() + " dropped");
+        }
+        MCEnginePartyChangePoller syncPoller = partyCommon.getSyncPoller();
+        if (syncPoller != null) {
+            sender.sendMessage(ChatColor.AQUA + "sync" + ChatColor.GRAY + ": "
+                    + syncPoller.getApplied() + " remote changes applied (" + syncPoller.getLate() + " late, "
+                    + syncPoller.getResets() + " cache resets), at #"
+                    + syncPoller.getLastSeen());
+        }
+        MCEnginePartyCircuitBreaker breaker = partyCommon.getBreaker();
+        if (breaker != null) {
+            sender.sendMessage(ChatColor.AQUA + "breaker" + ChatColor.GRAY + ": "
+                    + breaker.getState() + ", opened " + breaker.getOpened() + " times, "
+                    + breaker.getRejected() + " calls rejected");
+        }
+        MCEnginePartySweeper sweeper = partyCommon.getSweeper();
+        if (sweeper != null) {
+            sender.sendMessage(ChatColor.AQUA + "sweep" + ChatColor.GRAY + ": "
+                    + sweeper.getRemovedParties() + " parties and " + sweeper.getRemovedMembers() + " members removed, "
+                    + sweeper.getScanned() + " scanned in " + sweeper.getRuns() + " runs (" + sweeper.getPasses()
+                    + " passes, " + sweeper.getOverBudget() + " over budget), last " + formatNanos(sweeper.getLastRunNanos())
+                    + ", max " + formatNanos(sweeper.getMaxRunNanos()));
+        }
+        return true;
+    }
+
+    /**
+     * Formats a duration in nanoseconds as milliseconds with two decimals.
+     *
+     * @param nanos the duration in nanoseconds
+     * @return the formatted duration, e.g. {@code "1.25ms"}
+     */
+    private static String formatNanos(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.mcengine.common.party.command;
+
+import io.github.mcengine.api.hologram.MCEngineHologramApi;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared, rate-limited renderer of a command's usage hologram.
+ * <p>
+ * The hologram API instance and the usage payload are created once. A player is shown the
+ * hologram at most once per cooldown, and never while their previous hologram is still visible,
+ * so repeated bad input costs one map lookup instead of an entity spawn.
+ */
+public class MCEnginePartyUsageHologram {
+
+    /**
+     * Hologram API used for every player.
+     */
+    private final MCEngineHologramApi hologramApi = new MCEngineHologramApi();
+
+    /**
+     * Command prefix prefilled in chat when a usage line is clicked.
+     */
+    private final String suggestPrefix;
+
+    /**
+     * Usage lines shown in the hologram, copied once so callers cannot change the payload.
+     */
+    private final String[] usageLines;
+
+    /**
+     * Minimum time between two holograms for the same player, covering the visible duration.
+     */
+    private final long cooldownNanos;
+
+    /**
+     * Player UUID -> {@link System#nanoTime()} when their last hologram was shown.
+     */
+    private final Map<UUID, Long> shownAt = new ConcurrentHashMap<>();
+
+    /**
+     * Map size at which expired entries are pruned next; doubles with the live size so pruning stays amortized O(1).
+     */
+    private volatile int pruneAt = 64;
+
+    /**
+     * Creates a renderer for one usage payload.
+     *
+     * @param suggestPrefix   command prefix prefilled in chat on click
+     * @param usageLines      usage lines shown in the hologram
+     * @param visibleSeconds  how long a hologram stays visible
+     * @param cooldownSeconds minimum time between two holograms for the same player
+     */
+    public MCEnginePartyUsageHologram(String suggestPrefix, String[] usageLines, int visibleSeconds, int cooldownSeconds) {
+        this.suggestPrefix = suggestPrefix;
+        this.usageLines = usageLines.clone();
+        this.cooldownNanos = Math.max(visibleSeconds, cooldownSeconds) * 1_000_000_000L;
+    }
+
+    /**
+     * Shows the usage hologram unless the player saw one within the cooldown.
+     *
+     * @param player the recipient
+     * @return true if a hologram was spawned
+     */
+    public boolean show(Player player) {
+        long now = System.nanoTime();
+        UUID id = player.getUniqueId();
+        Long last = shownAt.get(id);
+        if (last != null && now - last < cooldownNanos) {
+            return false;
+        }
+        // Only the caller that wins the update spawns, even if two commands race
+        if (last == null ? shownAt.putIfAbsent(id, now) != null : !shownAt.replace(id, last, now)) {
+            return false;
+        }
+        hologramApi.getUsageHologram(player, suggestPrefix, usageLines);
+        if (shownAt.size() >= pruneAt) {
+            prune(now);
+        }
+        return true;
+    }
+
+    /**
+     * Forgets a player, e.g. when they leave the server.
+     *
+     * @param id the player's UUID
+     */
+    public void forget(UUID id) {
+        shownAt.remove(id);
+    }
+
+    /**
+     * Drops entries whose cooldown has passed.
+     *
+     * @param now the current {@link System#nanoTime()}
+     */
+    private void prune(long now) {
+        shownAt.values().removeIf(last -> now - last >= cooldownNanos);
+        pruneAt = Math.max(64, shownAt.size() * 2);
+    }
+}
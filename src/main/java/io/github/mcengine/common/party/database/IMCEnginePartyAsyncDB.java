@@ -0,0 +1,198 @@
+package io.github.mcengine.common.party.database;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous counterpart of {@link IMCEnginePartyDB}.
+ * <p>
+ * Every operation is executed on a dedicated database executor and returns a
+ * {@link CompletableFuture}. Futures complete on the executor thread, so callers must
+ * switch back to the server main thread before touching the Bukkit API (e.g. sending messages).
+ */
+public interface IMCEnginePartyAsyncDB {
+
+    /**
+     * Creates a new party and assigns the given player as the owner.
+     *
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return future completing with the ID of the new party, or {@link IMCEnginePartyDB#NO_PARTY}
+     */
+    CompletableFuture<Integer> createPartyAsync(UUID owner);
+
+    /**
+     * Invites another player to the specified party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to add
+     * @return future completing when the player has been added
+     */
+    CompletableFuture<Void> invitePlayerToPartyAsync(int partyId, UUID player);
+
+    /**
+     * Removes a player from the specified party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to remove
+     * @return future completing when the player has been removed
+     */
+    CompletableFuture<Void> kickPlayerFromPartyAsync(int partyId, UUID player);
+
+    /**
+     * Removes the player from the specified party, disbanding it if the player is the owner.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving
+     * @return future completing when the player has left
+     */
+    CompletableFuture<Void> leavePartyAsync(int partyId, UUID player);
+
+    /**
+     * Checks if a player is a member of a specific party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
+     * @return future completing with true if the player is a member of the party
+     */
+    CompletableFuture<Boolean> isMemberAsync(int partyId, UUID player);
+
+    /**
+     * Executes one or more raw SQL statements directly against the database.
+     *
+     * @param sqls an array of SQL statements to execute
+     * @return future completing when all statements have been executed
+     */
+    CompletableFuture<Void> executeSqlsAsync(String[] sqls);
+
+    /**
+     * Sets the party name if the given player is the owner of the party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party
+     * @return future completing with true if the name was set
+     */
+    CompletableFuture<Boolean> setPartyNameAsync(int partyId, UUID player, String name);
+
+    /**
+     * Gets the role of the specified player in the party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return future completing with the player's role, or null if not in the party
+     */
+    CompletableFuture<MCEnginePartyRole> getPlayerPartyRoleAsync(int partyId, UUID player);
+
+    /**
+     * Finds the party ID that the specified player belongs to.
+     *
+     * @param player UUID of the player to look up
+     * @return future completing with the party ID, or {@link IMCEnginePartyDB#NO_PARTY}
+     */
+    CompletableFuture<Integer> findPlayerPartyIdAsync(UUID player);
+
+    /**
+     * Gets the number of members currently in the specified party.
+     *
+     * @param partyId the ID of the party
+     * @return future completing with the member count
+     */
+    CompletableFuture<Integer> getPartyCountAsync(int partyId);
+
+    /**
+     * Gets the UUID of the owner of the specified party.
+     *
+     * @param partyId the ID of the party
+     * @return future completing with the owner's UUID, or null if the party does not exist
+     */
+    CompletableFuture<UUID> getPartyOwnerAsync(int partyId);
+
+    /**
+     * Gets the UUIDs of every member of the specified party, including the owner.
+     *
+     * @param partyId the ID of the party
+     * @return future completing with the member UUIDs
+     */
+    CompletableFuture<List<UUID>> getPartyMembersAsync(int partyId);
+
+    /**
+     * Resolves the player's party, role, owner, party name and member count in one query.
+     *
+     * @param player UUID of the player to look up
+     * @return future completing with the membership, or null if the player is not in a party
+     */
+    CompletableFuture<MCEnginePartyMembership> getPlayerMembershipAsync(UUID player);
+
+    /**
+     * Loads the owner, name and member list of a party in one query.
+     *
+     * @param partyId the ID of the party
+     * @return future completing with the party snapshot, or null if the party does not exist
+     */
+    CompletableFuture<MCEnginePartyInfo> getPartyAsync(int partyId);
+
+    /**
+     * Finds the parties of many players at once (see {@link IMCEnginePartyDB#findPlayerPartyIds(Collection)}).
+     *
+     * @param players UUIDs of the players to look up
+     * @return future completing with each given player's party ID, or {@link IMCEnginePartyDB#NO_PARTY}
+     */
+    CompletableFuture<Map<UUID, Integer>> findPlayerPartyIdsAsync(Collection<UUID> players);
+
+    /**
+     * Gets the members of many parties at once (see {@link IMCEnginePartyDB#getPartyMembers(Collection)}).
+     *
+     * @param partyIds the IDs of the parties
+     * @return future completing with each given party's member UUIDs
+     */
+    CompletableFuture<Map<Integer, List<UUID>>> getPartyMembersAsync(Collection<Integer> partyIds);
+
+    /**
+     * Counts the members of many parties at once (see {@link IMCEnginePartyDB#getPartyCounts(Collection)}).
+     *
+     * @param partyIds the IDs of the parties
+     * @return future completing with each given party's member count
+     */
+    CompletableFuture<Map<Integer, Integer>> getPartyCountsAsync(Collection<Integer> partyIds);
+
+    /**
+     * Loads the parties of many players at once (see {@link IMCEnginePartyDB#getPlayerParties(Collection)}).
+     *
+     * @param players UUIDs of the players
+     * @return future completing with a map from party ID to party snapshot
+     */
+    CompletableFuture<Map<Integer, MCEnginePartyInfo>> getPlayerPartiesAsync(Collection<UUID> players);
+
+    /**
+     * Removes each player from their party, disbanding parties the player owns.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     * @return future completing when every player has been removed
+     */
+    CompletableFuture<Void> leavePlayersAsync(Collection<UUID> players);
+
+    /**
+     * Runs several party operations as one transaction on the database executor
+     * (see {@link IMCEnginePartyDB#inTransaction(Function)}).
+     *
+     * @param work the operations to run against the given database
+     * @param <T>  result type
+     * @return future completing with the result of the work once it is committed
+     */
+    <T> CompletableFuture<T> inTransactionAsync(Function<IMCEnginePartyDB, T> work);
+
+    /**
+     * Runs arbitrary work against the database on the database executor.
+     * Useful for add-ons that need to combine several synchronous calls in one task.
+     *
+     * @param task the work to run
+     * @param <T>  result type
+     * @return future completing with the result of the task
+     */
+    <T> CompletableFuture<T> supplyAsync(Supplier<T> task);
+}
@@ -2,11 +2,31 @@ package io.github.mcengine.common.party.database;
 
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
 /**
  * Interface defining the operations for managing party-related data in the MC Engine plugin.
+ * <p>
+ * The primary API is typed: players are identified by {@link UUID} and parties by a primitive
+ * {@code int} ID, with {@link #NO_PARTY} meaning "no party". The original String/{@link Player}
+ * methods remain as thin default adapters over the typed ones, so implementations only need to
+ * provide the typed operations.
+ * <p>
+ * Implementations report failed operations by throwing {@link MCEnginePartyDBException}.
  */
 public interface IMCEnginePartyDB {
 
+    /**
+     * Party ID returned when a player is not in a party or a party could not be created.
+     */
+    int NO_PARTY = -1;
+
     /**
      * Initializes the party database system.
      * This method should be called before any other methods to ensure the database is ready for operations.
@@ -16,25 +36,254 @@ public interface IMCEnginePartyDB {
     /**
      * Creates a new party and assigns the given player as the owner.
      *
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return the ID of the newly created party, or {@link #NO_PARTY} if it could not be created
+     */
+    int createParty(UUID owner);
+
+    /**
+     * Adds a player to the specified party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to add
+     */
+    void invitePlayerToParty(int partyId, UUID player);
+
+    /**
+     * Removes a player from the specified party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to remove
+     */
+    void kickPlayerFromParty(int partyId, UUID player);
+
+    /**
+     * Removes the player from the specified party.
+     * If the player is the owner, the party will be disbanded.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving
+     */
+    void leaveParty(int partyId, UUID player);
+
+    /**
+     * Checks if a player is a member of a specific party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
+     * @return true if the player is a member of the party, false otherwise
+     */
+    boolean isMember(int partyId, UUID player);
+
+    /**
+     * Executes one or more raw SQL statements directly against the database.
+     *
+     * @param sqls an array of SQL statements to execute
+     */
+    void executeSqls(String[] sqls);
+
+    /**
+     * Sets the party name if the given player is the owner of the party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party
+     * @return true if the name was set, false otherwise
+     */
+    boolean setPartyName(int partyId, UUID player, String name);
+
+    /**
+     * Gets the role of the specified player in the party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return the player's role, or null if the player is not in the party
+     */
+    MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player);
+
+    /**
+     * Finds the party ID that the specified player belongs to.
+     *
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY} if the player is not in a party
+     */
+    int findPlayerPartyId(UUID player);
+
+    /**
+     * Gets the number of members currently in the specified party.
+     *
+     * @param partyId the ID of the party
+     * @return the count of members in the party
+     */
+    int getPartyCount(int partyId);
+
+    /**
+     * Gets the UUID of the owner of the specified party.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null if the party does not exist
+     */
+    UUID getPartyOwner(int partyId);
+
+    /**
+     * Gets the UUIDs of every member of the specified party, including the owner.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs, empty if the party has no members
+     */
+    List<UUID> getPartyMembers(int partyId);
+
+    /**
+     * Resolves the player's party, role, owner, party name and member count in one query.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    MCEnginePartyMembership getPlayerMembership(UUID player);
+
+    /**
+     * Loads the owner, name and member list of a party in one query.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null if the party does not exist
+     */
+    MCEnginePartyInfo getParty(int partyId);
+
+    /**
+     * Finds the parties of many players at once, e.g. to refresh a scoreboard for every online player.
+     * SQL backends override this with chunked {@code IN (...)} queries.
+     *
+     * @param players UUIDs of the players to look up
+     * @return map from each given player to their party ID, or {@link #NO_PARTY}
+     */
+    default Map<UUID, Integer> findPlayerPartyIds(Collection<UUID> players) {
+        Map<UUID, Integer> parties = new HashMap<>();
+        for (UUID player : players) {
+            parties.put(player, findPlayerPartyId(player));
+        }
+        return parties;
+    }
+
+    /**
+     * Gets the members of many parties at once, including each owner.
+     * SQL backends override this with chunked {@code IN (...)} queries.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member UUIDs, empty for parties without members
+     */
+    default Map<Integer, List<UUID>> getPartyMembers(Collection<Integer> partyIds) {
+        Map<Integer, List<UUID>> members = new HashMap<>();
+        for (int partyId : partyIds) {
+            members.put(partyId, getPartyMembers(partyId));
+        }
+        return members;
+    }
+
+    /**
+     * Counts the members of many parties at once.
+     * SQL backends override this with chunked {@code IN (...)} queries.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member count, {@code 0} for parties without members
+     */
+    default Map<Integer, Integer> getPartyCounts(Collection<Integer> partyIds) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int partyId : partyIds) {
+            counts.put(partyId, getPartyCount(partyId));
+        }
+        return counts;
+    }
+
+    /**
+     * Loads the whole party of each of many players at once, e.g. to warm a cache for players who
+     * are about to join. SQL backends override this with one chunked {@code IN (...)} query that
+     * resolves the players' parties and their members together.
+     *
+     * @param players UUIDs of the players
+     * @return map from party ID to party snapshot for every party one of the players belongs to
+     */
+    default Map<Integer, MCEnginePartyInfo> getPlayerParties(Collection<UUID> players) {
+        Map<Integer, MCEnginePartyInfo> parties = new HashMap<>();
+        for (int partyId : findPlayerPartyIds(players).values()) {
+            if (partyId != NO_PARTY && !parties.containsKey(partyId)) {
+                MCEnginePartyInfo info = getParty(partyId);
+                if (info != null) {
+                    parties.put(partyId, info);
+                }
+            }
+        }
+        return parties;
+    }
+
+    /**
+     * Removes each player from their party, disbanding parties the player owns.
+     * Used for quit-driven leaves; backends override this to apply all removals in one transaction.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     */
+    default void leavePlayers(Collection<UUID> players) {
+        for (UUID player : players) {
+            int partyId = findPlayerPartyId(player);
+            if (partyId != NO_PARTY) {
+                leaveParty(partyId, player);
+            }
+        }
+    }
+
+    /**
+     * Runs several party operations as one atomic unit: the work receives this database, every
+     * operation it performs on it is committed together when it returns, and nothing is committed
+     * if it throws. Calls from inside the work join the outer transaction.
+     * <p>
+     * The default implementation, used by the heap-based backends, simply runs the work; each
+     * operation is applied as it is made.
+     *
+     * @param work the operations to run
+     * @param <T>  result type
+     * @return the result of the work
+     * @throws MCEnginePartyDBException if the transaction could not be committed
+     */
+    default <T> T inTransaction(Function<IMCEnginePartyDB, T> work) {
+        return work.apply(this);
+    }
+
+    /**
+     * Releases all database resources (connections, pools, files).
+     * No other method may be called afterwards.
+     */
+    void close();
+
+    /**
+     * Creates a new party and assigns the given player as the owner.
+     * Use {@link #createParty(UUID)} to get the new party's ID.
+     *
      * @param player the player who will be the owner of the new party
      */
-    void createParty(Player player);
+    default void createParty(Player player) {
+        createParty(player.getUniqueId());
+    }
 
     /**
      * Invites another player to the specified party.
      *
      * @param party_id the ID of the party to which the player is being invited
      * @param player the player to be invited to the party
+     * @throws IllegalArgumentException if the party ID is not a valid party ID
      */
-    void invitePlayerToParty(String party_id, Player player);
+    default void invitePlayerToParty(String party_id, Player player) {
+        invitePlayerToParty(toPartyId(party_id), player.getUniqueId());
+    }
 
     /**
      * Removes a player from the specified party.
      *
      * @param party_id the ID of the party
      * @param player the player to be removed
+     * @throws IllegalArgumentException if the party ID is not a valid party ID
      */
-    void kickPlayerFromParty(String party_id, Player player);
+    default void kickPlayerFromParty(String party_id, Player player) {
+        kickPlayerFromParty(toPartyId(party_id), player.getUniqueId());
+    }
 
     /**
      * Removes the player from the specified party.
@@ -43,8 +292,11 @@ public interface IMCEnginePartyDB {
      *
      * @param party_id the ID of the party
      * @param player the player who is leaving
+     * @throws IllegalArgumentException if the party ID is not a valid party ID
      */
-    void leaveParty(String party_id, Player player);
+    default void leaveParty(String party_id, Player player) {
+        leaveParty(toPartyId(party_id), player.getUniqueId());
+    }
 
     /**
      * Checks if a player is a member of a specific party.
@@ -53,14 +305,9 @@ public interface IMCEnginePartyDB {
      * @param player the player to check
      * @return true if the player is a member of the party, false otherwise
      */
-    boolean isMember(String party_id, Player player);
-
-    /**
-     * Executes one or more raw SQL statements directly against the database.
-     *
-     * @param sqls an array of SQL statements to execute
-     */
-    void executeSqls(String[] sqls);
+    default boolean isMember(String party_id, Player player) {
+        return isMember(lookupPartyId(party_id), player.getUniqueId());
+    }
 
     /**
      * Sets the party name if the given player is the owner of the party.
@@ -69,8 +316,11 @@ public interface IMCEnginePartyDB {
      * @param player the player attempting to set the name
      * @param name the new name for the party
      * @return true if the name was set, false otherwise
+     * @throws IllegalArgumentException if the party ID is not a valid party ID
      */
-    boolean setPartyName(String party_id, Player player, String name);
+    default boolean setPartyName(String party_id, Player player, String name) {
+        return setPartyName(toPartyId(party_id), player.getUniqueId(), name);
+    }
 
     /**
      * Gets the role of the specified player in the party.
@@ -80,7 +330,10 @@ public interface IMCEnginePartyDB {
      * @param player the player whose role is to be checked
      * @return "owner", "member", or null
      */
-    String getPlayerPartyRole(String party_id, Player player);
+    default String getPlayerPartyRole(String party_id, Player player) {
+        MCEnginePartyRole role = getPlayerPartyRole(lookupPartyId(party_id), player.getUniqueId());
+        return role == null ? null : role.getName();
+    }
 
     /**
      * Finds the party ID that the specified player belongs to.
@@ -89,7 +342,9 @@ public interface IMCEnginePartyDB {
      * @param player the player to look up
      * @return party ID if found, or null
      */
-    String findPlayerPartyId(Player player);
+    default String findPlayerPartyId(Player player) {
+        return toLegacyId(findPlayerPartyId(player.getUniqueId()));
+    }
 
     /**
      * Gets the number of members currently in the specified party.
@@ -97,5 +352,101 @@ public interface IMCEnginePartyDB {
      * @param party_id the ID of the party
      * @return the count of members in the party
      */
-    int getPartyCount(String party_id);
+    default int getPartyCount(String party_id) {
+        return getPartyCount(lookupPartyId(party_id));
+    }
+
+    /**
+     * Gets the UUID of the owner of the specified party.
+     *
+     * @param party_id the ID of the party
+     * @return the owner's UUID as a string, or null if the party does not exist
+     */
+    default String getPartyOwner(String party_id) {
+        UUID owner = getPartyOwner(lookupPartyId(party_id));
+        return owner == null ? null : owner.toString();
+    }
+
+    /**
+     * Gets the UUIDs of every member of the specified party, including the owner.
+     *
+     * @param party_id the ID of the party
+     * @return list of member UUIDs as strings, empty if the party has no members
+     */
+    default List<String> getPartyMembers(String party_id) {
+        List<UUID> members = getPartyMembers(lookupPartyId(party_id));
+        List<String> result = new ArrayList<>(members.size());
+        for (UUID member : members) {
+            result.add(member.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the player's party, role, owner, party name and member count in one query.
+     *
+     * @param player the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    default MCEnginePartyMembership getPlayerMembership(Player player) {
+        return getPlayerMembership(player.getUniqueId());
+    }
+
+    /**
+     * Loads the owner, name and member list of a party in one query.
+     *
+     * @param party_id the ID of the party
+     * @return the party snapshot, or null if the party does not exist
+     */
+    default MCEnginePartyInfo getParty(String party_id) {
+        return getParty(lookupPartyId(party_id));
+    }
+
+    /**
+     * Parses a legacy String party ID.
+     *
+     * @param partyId the party ID as a string
+     * @return the numeric party ID
+     * @throws IllegalArgumentException if the string is null, not a number or negative,
+     *                                  so that no operation runs against an invalid party
+     */
+    static int toPartyId(String partyId) {
+        if (partyId == null) {
+            throw new IllegalArgumentException("Party ID must not be null");
+        }
+        try {
+            int parsed = Integer.parseInt(partyId.trim());
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Invalid party ID: " + partyId);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid party ID: " + partyId, e);
+        }
+    }
+
+    /**
+     * Parses a legacy String party ID for a lookup. A party that cannot exist reads as missing,
+     * so e.g. {@code getPartyCount(findPlayerPartyId(player))} stays safe for players without a party.
+     *
+     * @param partyId the party ID as a string
+     * @return the numeric party ID, or {@link #NO_PARTY} if the string is null or not a valid ID
+     */
+    static int lookupPartyId(String partyId) {
+        try {
+            return partyId == null ? NO_PARTY : toPartyId(partyId);
+        } catch (IllegalArgumentException e) {
+            return NO_PARTY;
+        }
+    }
+
+    /**
+     * Formats a numeric party ID for the legacy String API.
+     *
+     * @param partyId the numeric party ID
+     * @return the party ID as a string, or null for {@link #NO_PARTY}
+     */
+    static String toLegacyId(int partyId) {
+        return partyId == NO_PARTY ? null : String.valueOf(partyId);
+    }
 }
@@ -0,0 +1,31 @@
+package io.github.mcengine.common.party.database;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Read-only view of the party memberships a component already holds in memory.
+ * <p>
+ * Lookups never touch the database and never block, so they are safe on latency-critical paths
+ * such as tab completion. The trade-off is that a lookup may not know the answer: a {@code null}
+ * result means "not in memory", not "no party".
+ */
+public interface IMCEnginePartyMembershipIndex {
+
+    /**
+     * Gets the party of the player if it is held in memory.
+     *
+     * @param player UUID of the player
+     * @return the party ID, {@link IMCEnginePartyDB#NO_PARTY} if the player is known to have no
+     *         party, or null if the player's party is not held in memory
+     */
+    Integer peekPlayerPartyId(UUID player);
+
+    /**
+     * Gets the members of the party, including the owner, if they are held in memory.
+     *
+     * @param partyId the ID of the party
+     * @return an unmodifiable view or copy of the members, or null if the party is not held in memory
+     */
+    Collection<UUID> peekPartyMembers(int partyId);
+}
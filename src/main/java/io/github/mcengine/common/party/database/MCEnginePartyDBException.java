@@ -0,0 +1,18 @@
+package io.github.mcengine.common.party.database;
+
+/**
+ * Unchecked exception thrown by {@link IMCEnginePartyDB} implementations when a database
+ * operation fails. The underlying cause (usually a {@link java.sql.SQLException}) is preserved.
+ */
+public class MCEnginePartyDBException extends RuntimeException {
+
+    /**
+     * Creates an exception describing a failed party database operation.
+     *
+     * @param message description of the failed operation
+     * @param cause   the underlying failure
+     */
+    public MCEnginePartyDBException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
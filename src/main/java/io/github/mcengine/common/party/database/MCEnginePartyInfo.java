@@ -0,0 +1,22 @@
+package io.github.mcengine.common.party.database;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a whole party, resolved in a single database round trip.
+ *
+ * @param partyId   the ID of the party
+ * @param ownerId   UUID of the party owner
+ * @param partyName the party name, or {@code null} if none has been set
+ * @param members   UUIDs of all members, including the owner; an unmodifiable copy is kept
+ */
+public record MCEnginePartyInfo(int partyId, UUID ownerId, String partyName, List<UUID> members) {
+
+    /**
+     * Creates a snapshot, copying the member list so later changes to it are not seen.
+     */
+    public MCEnginePartyInfo {
+        members = List.copyOf(members);
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.mcengine.common.party.database;
+
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a player's party context, resolved in a single database round trip.
+ *
+ * @param partyId     the ID of the party the player belongs to
+ * @param role        the player's role in the party
+ * @param ownerId     UUID of the party owner
+ * @param partyName   the party name, or {@code null} if none has been set
+ * @param memberCount number of members in the party, including the owner
+ */
+public record MCEnginePartyMembership(int partyId, MCEnginePartyRole role, UUID ownerId, String partyName, int memberCount) {
+
+    /**
+     * Checks whether the player this membership was resolved for owns the party.
+     *
+     * @return true if the role is {@link MCEnginePartyRole#OWNER}
+     */
+    public boolean isOwner() {
+        return role == MCEnginePartyRole.OWNER;
+    }
+}
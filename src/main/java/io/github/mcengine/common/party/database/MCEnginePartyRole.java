@@ -0,0 +1,40 @@
+package io.github.mcengine.common.party.database;
+
+/**
+ * Role of a player within a party.
+ */
+public enum MCEnginePartyRole {
+
+    /**
+     * The player who created the party. Only the owner may invite, kick and rename.
+     */
+    OWNER("owner"),
+
+    /**
+     * Any other player in the party.
+     */
+    MEMBER("member");
+
+    /**
+     * Lower-case name used by the legacy String API and in messages.
+     */
+    private final String name;
+
+    /**
+     * Creates a role constant.
+     *
+     * @param name lower-case role name
+     */
+    MCEnginePartyRole(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the lower-case role name, {@code "owner"} or {@code "member"}.
+     *
+     * @return the role name
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,338 @@
+package io.github.mcengine.common.party.database.async;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyAsyncDB;
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@link IMCEnginePartyDB} operations on a dedicated, bounded executor.
+ * <p>
+ * The executor uses a fixed number of daemon threads and a bounded work queue. When the queue
+ * is full, new operations are rejected and their futures complete exceptionally instead of
+ * blocking the calling (usually main) thread.
+ */
+public class MCEnginePartyAsyncDB implements IMCEnginePartyAsyncDB {
+
+    /**
+     * The synchronous database the operations are delegated to.
+     */
+    private final IMCEnginePartyDB db;
+
+    /**
+     * Bounded executor running all database work.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates an async wrapper around the given database.
+     *
+     * @param db            the synchronous database implementation
+     * @param threads       number of database worker threads
+     * @param queueCapacity maximum number of operations waiting for a worker
+     */
+    public MCEnginePartyAsyncDB(IMCEnginePartyDB db, int threads, int queueCapacity) {
+        this.db = db;
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "MCEngineParty-DB-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                factory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#createParty(UUID)} on the database executor.
+     *
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return future completing with the ID of the new party
+     */
+    @Override
+    public CompletableFuture<Integer> createPartyAsync(UUID owner) {
+        return supplyAsync(() -> db.createParty(owner));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#invitePlayerToParty(int, UUID)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to add
+     * @return future completing when the player has been added
+     */
+    @Override
+    public CompletableFuture<Void> invitePlayerToPartyAsync(int partyId, UUID player) {
+        return runAsync(() -> db.invitePlayerToParty(partyId, player));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#kickPlayerFromParty(int, UUID)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to remove
+     * @return future completing when the player has been removed
+     */
+    @Override
+    public CompletableFuture<Void> kickPlayerFromPartyAsync(int partyId, UUID player) {
+        return runAsync(() -> db.kickPlayerFromParty(partyId, player));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#leaveParty(int, UUID)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving
+     * @return future completing when the player has left
+     */
+    @Override
+    public CompletableFuture<Void> leavePartyAsync(int partyId, UUID player) {
+        return runAsync(() -> db.leaveParty(partyId, player));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#isMember(int, UUID)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
+     * @return future completing with the membership result
+     */
+    @Override
+    public CompletableFuture<Boolean> isMemberAsync(int partyId, UUID player) {
+        return supplyAsync(() -> db.isMember(partyId, player));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#executeSqls(String[])} on the database executor.
+     *
+     * @param sqls an array of SQL statements to execute
+     * @return future completing when all statements have been executed
+     */
+    @Override
+    public CompletableFuture<Void> executeSqlsAsync(String[] sqls) {
+        return runAsync(() -> db.executeSqls(sqls));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#setPartyName(int, UUID, String)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party
+     * @return future completing with true if the name was set
+     */
+    @Override
+    public CompletableFuture<Boolean> setPartyNameAsync(int partyId, UUID player, String name) {
+        return supplyAsync(() -> db.setPartyName(partyId, player, name));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#getPlayerPartyRole(int, UUID)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return future completing with the role, or null
+     */
+    @Override
+    public CompletableFuture<MCEnginePartyRole> getPlayerPartyRoleAsync(int partyId, UUID player) {
+        return supplyAsync(() -> db.getPlayerPartyRole(partyId, player));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#findPlayerPartyId(UUID)} on the database executor.
+     *
+     * @param player UUID of the player to look up
+     * @return future completing with the party ID, or {@link IMCEnginePartyDB#NO_PARTY}
+     */
+    @Override
+    public CompletableFuture<Integer> findPlayerPartyIdAsync(UUID player) {
+        return supplyAsync(() -> db.findPlayerPartyId(player));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#getPartyCount(int)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @return future completing with the member count
+     */
+    @Override
+    public CompletableFuture<Integer> getPartyCountAsync(int partyId) {
+        return supplyAsync(() -> db.getPartyCount(partyId));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#getPartyOwner(int)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @return future completing with the owner's UUID, or null
+     */
+    @Override
+    public CompletableFuture<UUID> getPartyOwnerAsync(int partyId) {
+        return supplyAsync(() -> db.getPartyOwner(partyId));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#getPartyMembers(int)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @return future completing with the member UUIDs
+     */
+    @Override
+    public CompletableFuture<List<UUID>> getPartyMembersAsync(int partyId) {
+        return supplyAsync(() -> db.getPartyMembers(partyId));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#getPlayerMembership(UUID)} on the database executor.
+     *
+     * @param player UUID of the player to look up
+     * @return future completing with the membership, or null
+     */
+    @Override
+    public CompletableFuture<MCEnginePartyMembership> getPlayerMembershipAsync(UUID player) {
+        return supplyAsync(() -> db.getPlayerMembership(player));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#getParty(int)} on the database executor.
+     *
+     * @param partyId the ID of the party
+     * @return future completing with the party snapshot, or null
+     */
+    @Override
+    public CompletableFuture<MCEnginePartyInfo> getPartyAsync(int partyId) {
+        return supplyAsync(() -> db.getParty(partyId));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#findPlayerPartyIds(Collection)} on the database executor.
+     *
+     * @param players UUIDs of the players to look up
+     * @return future completing with each given player's party ID
+     */
+    @Override
+    public CompletableFuture<Map<UUID, Integer>> findPlayerPartyIdsAsync(Collection<UUID> players) {
+        return supplyAsync(() -> db.findPlayerPartyIds(players));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#getPartyMembers(Collection)} on the database executor.
+     *
+     * @param partyIds the IDs of the parties
+     * @return future completing with each given party's member UUIDs
+     */
+    @Override
+    public CompletableFuture<Map<Integer, List<UUID>>> getPartyMembersAsync(Collection<Integer> partyIds) {
+        return supplyAsync(() -> db.getPartyMembers(partyIds));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#getPartyCounts(Collection)} on the database executor.
+     *
+     * @param partyIds the IDs of the parties
+     * @return future completing with each given party's member count
+     */
+    @Override
+    public CompletableFuture<Map<Integer, Integer>> getPartyCountsAsync(Collection<Integer> partyIds) {
+        return supplyAsync(() -> db.getPartyCounts(partyIds));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#getPlayerParties(Collection)} on the database executor.
+     *
+     * @param players UUIDs of the players
+     * @return future completing with a map from party ID to party snapshot
+     */
+    @Override
+    public CompletableFuture<Map<Integer, MCEnginePartyInfo>> getPlayerPartiesAsync(Collection<UUID> players) {
+        return supplyAsync(() -> db.getPlayerParties(players));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#leavePlayers(Collection)} on the database executor.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     * @return future completing when every player has been removed
+     */
+    @Override
+    public CompletableFuture<Void> leavePlayersAsync(Collection<UUID> players) {
+        return runAsync(() -> db.leavePlayers(players));
+    }
+
+    /**
+     * Runs {@link IMCEnginePartyDB#inTransaction(Function)} on the database executor.
+     *
+     * @param work the operations to run against the given database
+     * @param <T>  result type
+     * @return future completing with the result of the work once it is committed
+     */
+    @Override
+    public <T> CompletableFuture<T> inTransactionAsync(Function<IMCEnginePartyDB, T> work) {
+        return supplyAsync(() -> db.inTransaction(work));
+    }
+
+    /**
+     * Runs arbitrary work on the database executor.
+     *
+     * @param task the work to run
+     * @param <T>  result type
+     * @return future completing with the result of the task
+     */
+    @Override
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RuntimeException e) {
+            // Rejected because the queue is full or the executor was shut down
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs a task without a result on the database executor.
+     *
+     * @param task the work to run
+     * @return future completing when the task has finished
+     */
+    private CompletableFuture<Void> runAsync(Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, executor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Stops accepting new work and waits briefly for queued operations to finish,
+     * so pending writes are not lost on plugin disable.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
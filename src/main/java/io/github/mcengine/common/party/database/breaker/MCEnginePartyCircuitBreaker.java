@@ -0,0 +1,515 @@
+package io.github.mcengine.common.party.database.breaker;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.MCEnginePartyDBException;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decorator that stops calling an unavailable backend, so a database outage costs callers
+ * an exception instead of a blocked thread.
+ * <p>
+ * After {@code failure-threshold} consecutive failed calls the circuit opens: every call throws
+ * {@link MCEnginePartyCircuitOpenException} immediately for {@code open-ms}. The circuit then turns
+ * half-open and lets a single probe call through; its success closes the circuit, its failure opens
+ * it again. Only {@link MCEnginePartyDBException}s caused by the database being unreachable count as
+ * failures: timeouts (including the MySQL pool's acquire timeout), lost or refused connections and
+ * SQL state class {@code 08}. Constraint violations and other query errors prove the database answered,
+ * so they count as successes.
+ * <p>
+ * The cache above the breaker keeps answering from memory while the circuit is open, and
+ * {@link io.github.mcengine.common.party.MCEnginePartyCommon} falls back to its defaults for the
+ * rest, so players keep their last-known party state. Settings are read from {@code database.breaker.*}.
+ */
+public class MCEnginePartyCircuitBreaker implements IMCEnginePartyDB {
+
+    /**
+     * State of the circuit.
+     */
+    public enum State {
+
+        /**
+         * Calls reach the backend.
+         */
+        CLOSED,
+
+        /**
+         * Calls are rejected until the open period ends.
+         */
+        OPEN,
+
+        /**
+         * One probe call reaches the backend to test whether it has recovered.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * The plugin instance used for logging.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The guarded backend.
+     */
+    private final IMCEnginePartyDB delegate;
+
+    /**
+     * Consecutive failures that open the circuit.
+     */
+    private final int failureThreshold;
+
+    /**
+     * Nanoseconds the circuit stays open before a probe is let through.
+     */
+    private final long openNanos;
+
+    /**
+     * Current state. Written under the breaker's lock; read without it on the fast path.
+     */
+    private volatile State state = State.CLOSED;
+
+    /**
+     * Consecutive failures while closed. Written under the breaker's lock.
+     */
+    private volatile int failures;
+
+    /**
+     * {@link System#nanoTime()} at which an open circuit turns half-open. Guarded by the breaker's lock.
+     */
+    private long reopenAt;
+
+    /**
+     * Whether the half-open probe is in flight. Guarded by the breaker's lock.
+     */
+    private boolean probing;
+
+    /**
+     * Number of calls rejected while the circuit was open.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Number of times the circuit opened.
+     */
+    private final LongAdder opened = new LongAdder();
+
+    /**
+     * Creates the breaker around the given backend.
+     *
+     * @param plugin   the Bukkit plugin instance
+     * @param delegate the backend to guard
+     */
+    public MCEnginePartyCircuitBreaker(Plugin plugin, IMCEnginePartyDB delegate) {
+        this.plugin = plugin;
+        this.delegate = delegate;
+        this.failureThreshold = Math.max(1, plugin.getConfig().getInt("database.breaker.failure-threshold", 5));
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(100L, plugin.getConfig().getLong("database.breaker.open-ms", 5000L)));
+    }
+
+    /**
+     * Initializes the backend, bypassing the breaker.
+     */
+    @Override
+    public void init() {
+        delegate.init();
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param owner UUID of the party owner
+     * @return the new party ID
+     */
+    @Override
+    public int createParty(UUID owner) {
+        return call(() -> delegate.createParty(owner));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     */
+    @Override
+    public void invitePlayerToParty(int partyId, UUID player) {
+        run(() -> delegate.invitePlayerToParty(partyId, player));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     */
+    @Override
+    public void kickPlayerFromParty(int partyId, UUID player) {
+        run(() -> delegate.kickPlayerFromParty(partyId, player));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     */
+    @Override
+    public void leaveParty(int partyId, UUID player) {
+        run(() -> delegate.leaveParty(partyId, player));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     * @return true if the player is a member
+     */
+    @Override
+    public boolean isMember(int partyId, UUID player) {
+        return call(() -> delegate.isMember(partyId, player));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param sqls the SQL statements
+     */
+    @Override
+    public void executeSqls(String[] sqls) {
+        run(() -> delegate.executeSqls(sqls));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player renaming the party
+     * @param name    the new name
+     * @return true if the party was renamed
+     */
+    @Override
+    public boolean setPartyName(int partyId, UUID player, String name) {
+        return call(() -> delegate.setPartyName(partyId, player, name));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     * @return the player's role
+     */
+    @Override
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        return call(() -> delegate.getPlayerPartyRole(partyId, player));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY}
+     */
+    @Override
+    public int findPlayerPartyId(UUID player) {
+        return call(() -> delegate.findPlayerPartyId(player));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @return the member count
+     */
+    @Override
+    public int getPartyCount(int partyId) {
+        return call(() -> delegate.getPartyCount(partyId));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null
+     */
+    @Override
+    public UUID getPartyOwner(int partyId) {
+        return call(() -> delegate.getPartyOwner(partyId));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs
+     */
+    @Override
+    public List<UUID> getPartyMembers(int partyId) {
+        return call(() -> delegate.getPartyMembers(partyId));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null
+     */
+    @Override
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        return call(() -> delegate.getPlayerMembership(player));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null
+     */
+    @Override
+    public MCEnginePartyInfo getParty(int partyId) {
+        return call(() -> delegate.getParty(partyId));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param players UUIDs of the players to look up
+     * @return map from each given player to their party ID
+     */
+    @Override
+    public Map<UUID, Integer> findPlayerPartyIds(Collection<UUID> players) {
+        return call(() -> delegate.findPlayerPartyIds(players));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member UUIDs
+     */
+    @Override
+    public Map<Integer, List<UUID>> getPartyMembers(Collection<Integer> partyIds) {
+        return call(() -> delegate.getPartyMembers(partyIds));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member count
+     */
+    @Override
+    public Map<Integer, Integer> getPartyCounts(Collection<Integer> partyIds) {
+        return call(() -> delegate.getPartyCounts(partyIds));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param players UUIDs of the players
+     * @return map from party ID to party snapshot
+     */
+    @Override
+    public Map<Integer, MCEnginePartyInfo> getPlayerParties(Collection<UUID> players) {
+        return call(() -> delegate.getPlayerParties(players));
+    }
+
+    /**
+     * Delegates unless the circuit is open.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     */
+    @Override
+    public void leavePlayers(Collection<UUID> players) {
+        run(() -> delegate.leavePlayers(players));
+    }
+    /**
+     * Runs the whole transaction as one guarded call. The work is given the backend itself, so the
+     * calls it makes are not checked again, whichever thread the backend runs the work on.
+     *
+     * @param work the operations to run atomically
+     * @param <T>  result type
+     * @return the result of the work
+     */
+    @Override
+    public <T> T inTransaction(Function<IMCEnginePartyDB, T> work) {
+        return call(() -> delegate.inTransaction(work));
+    }
+
+    /**
+     * Closes the backend, bypassing the breaker.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Gets the current state of the circuit.
+     *
+     * @return the state
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the number of calls rejected while the circuit was open.
+     *
+     * @return the rejected call count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the number of times the circuit opened.
+     *
+     * @return the open count
+     */
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    /**
+     * Runs a backend call through the circuit.
+     *
+     * @param call the backend call
+     * @param <T>  result type
+     * @return the call's result
+     * @throws MCEnginePartyCircuitOpenException if the circuit is open
+     */
+    private <T> T call(Supplier<T> call) {
+        acquire();
+        boolean failed = false;
+        try {
+            return call.get();
+        } catch (MCEnginePartyDBException e) {
+            failed = isOutage(e);
+            throw e;
+        } finally {
+            release(failed);
+        }
+    }
+
+    /**
+     * Checks whether a database error means the database could not be reached, as opposed to a
+     * statement the database rejected.
+     *
+     * @param error the error thrown by the backend
+     * @return true if a connectivity failure is found in the cause chain
+     */
+    private static boolean isOutage(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTimeoutException
+                    || cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs a backend call without a result through the circuit.
+     *
+     * @param call the backend call
+     * @throws MCEnginePartyCircuitOpenException if the circuit is open
+     */
+    private void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Admits a call, turning an expired open circuit half-open for a single probe.
+     *
+     * @throws MCEnginePartyCircuitOpenException if the call is rejected
+     */
+    private void acquire() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && System.nanoTime() - reopenAt >= 0) {
+                state = State.HALF_OPEN;
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.HALF_OPEN && !probing) {
+                probing = true;
+                return;
+            }
+        }
+        rejected.increment();
+        throw new MCEnginePartyCircuitOpenException("The party database is unavailable; retrying after the circuit half-opens");
+    }
+
+    /**
+     * Records the outcome of an admitted call.
+     *
+     * @param failed whether the call failed with a database error
+     */
+    private void release(boolean failed) {
+        if (!failed && state == State.CLOSED) {
+            if (failures != 0) {
+                synchronized (this) {
+                    failures = 0;
+                }
+            }
+            return;
+        }
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                probing = false;
+                if (failed) {
+                    open("Party database is still failing");
+                } else {
+                    state = State.CLOSED;
+                    failures = 0;
+                    plugin.getLogger().info("Party database recovered; circuit closed");
+                }
+            } else if (failed && state == State.CLOSED && ++failures >= failureThreshold) {
+                open("Party database failed " + failureThreshold + " times in a row");
+            }
+        }
+    }
+
+    /**
+     * Opens the circuit for {@code open-ms}. Must hold the breaker's lock.
+     *
+     * @param reason why the circuit opens, for the log
+     */
+    private void open(String reason) {
+        state = State.OPEN;
+        failures = 0;
+        reopenAt = System.nanoTime() + openNanos;
+        opened.increment();
+        plugin.getLogger().warning(reason + "; failing fast for " + TimeUnit.NANOSECONDS.toMillis(openNanos) + "ms");
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.mcengine.common.party.database.breaker;
+
+import io.github.mcengine.common.party.database.MCEnginePartyDBException;
+
+/**
+ * Thrown instead of calling the backend while {@link MCEnginePartyCircuitBreaker} is open.
+ * Callers that handle {@link MCEnginePartyDBException} degrade the same way as for a failed call.
+ */
+public class MCEnginePartyCircuitOpenException extends MCEnginePartyDBException {
+
+    /**
+     * Creates an exception for a call rejected by the open circuit.
+     *
+     * @param message description of the rejection
+     */
+    public MCEnginePartyCircuitOpenException(String message) {
+        super(message, null);
+    }
+}
@@ -0,0 +1,982 @@
+package io.github.mcengine.common.party.database.cache;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.IMCEnginePartyMembershipIndex;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import io.github.mcengine.common.party.database.breaker.MCEnginePartyCircuitOpenException;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChange;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChangeType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Write-through in-memory cache placed in front of an {@link IMCEnginePartyDB} backend.
+ * <p>
+ * Keeps player UUID -> party ID, party ID -> owner/name and party ID -> members in memory so that
+ * repeated lookups (party ID, role, membership, member count) are answered without touching
+ * the database. Mutations are forwarded to the backend first and then applied to the cache.
+ * <p>
+ * Cached entries can also be read without ever loading through {@link IMCEnginePartyMembershipIndex}.
+ * <p>
+ * The cache assumes it is the only writer to the underlying database, unless changes made by other
+ * servers are fed to {@link #applyChange(MCEnginePartyChange)} (see
+ * {@link io.github.mcengine.common.party.database.sync.MCEnginePartyChangePoller}). Raw SQL executed
+ * through {@link #executeSqls(String[])} invalidates every entry.
+ * <p>
+ * Every change to the cache bumps a generation counter. A load remembers the generation it started
+ * at and is only stored if no change was made while it read from the backend and no transaction is
+ * open, so a load that raced a kick, leave or create never caches the state from before it.
+ */
+public class MCEnginePartyCache implements IMCEnginePartyDB, IMCEnginePartyMembershipIndex {
+
+    /**
+     * The backend that owns the persistent party data.
+     */
+    private final IMCEnginePartyDB delegate;
+
+    /**
+     * Player UUID -> party ID, or {@link #NO_PARTY} when the player is known to have no party.
+     */
+    private final Map<UUID, Integer> playerParty = new ConcurrentHashMap<>();
+
+    /**
+     * Party ID -> cached owner, name and member set.
+     */
+    private final Map<Integer, PartyEntry> parties = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped by every change to the cached entries, so loads that overlapped a change are not stored.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Number of transactions running through this cache. Loads are not stored while one is open,
+     * since they may read state the transaction is about to change or roll back.
+     */
+    private final AtomicInteger transactions = new AtomicInteger();
+
+    /**
+     * Keys changed by each open transaction, so a failed transaction drops only those entries.
+     */
+    private final Set<TransactionKeys> openTransactions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Serializes storing loads against changes, so a load cannot be stored between a change's
+     * generation bump and the change being applied.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Number of lookups answered from memory.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Number of lookups that had to be loaded from the backend.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache in front of the given backend.
+     *
+     * @param delegate the backend that stores party data
+     */
+    public MCEnginePartyCache(IMCEnginePartyDB delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Initializes the underlying backend.
+     */
+    @Override
+    public void init() {
+        delegate.init();
+    }
+
+    /**
+     * Creates the party in the backend and caches it with the player as owner and only member.
+     *
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return the ID of the newly created party, or {@link #NO_PARTY} if it could not be created
+     */
+    @Override
+    public int createParty(UUID owner) {
+        int partyId = delegate.createParty(owner);
+        if (partyId != NO_PARTY) {
+            touch(partyId, owner, null);
+            synchronized (lock) {
+                generation.incrementAndGet();
+                PartyEntry entry = new PartyEntry(owner, null);
+                entry.members.add(owner);
+                parties.put(partyId, entry);
+                playerParty.put(owner, partyId);
+            }
+        }
+        return partyId;
+    }
+
+    /**
+     * Adds the player to the party in the backend and in the cache. The player is only mapped to the
+     * party when it is cached and the player is cached without a party; otherwise the player's mapping
+     * is left to load from the backend.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to add
+     */
+    @Override
+    public void invitePlayerToParty(int partyId, UUID player) {
+        // Load the party first so that the new member is added to a cached entry
+        party(partyId);
+        touch(partyId, player, null);
+        delegate.invitePlayerToParty(partyId, player);
+        synchronized (lock) {
+            generation.incrementAndGet();
+            PartyEntry entry = parties.get(partyId);
+            if (entry != null) {
+                entry.members.add(player);
+                // A player already in another party keeps it, matching the backends' owner-first lookup
+                playerParty.replace(player, NO_PARTY, partyId);
+            } else {
+                playerParty.remove(player, NO_PARTY);
+            }
+        }
+    }
+
+    /**
+     * Removes the player from the party in the backend and in the cache.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to remove
+     */
+    @Override
+    public void kickPlayerFromParty(int partyId, UUID player) {
+        touch(partyId, player, null);
+        delegate.kickPlayerFromParty(partyId, player);
+        synchronized (lock) {
+            generation.incrementAndGet();
+            removeMember(partyId, player);
+        }
+    }
+
+    /**
+     * Removes the player from the party in the backend and in the cache.
+     * When the player owns the party, the whole party is evicted.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving
+     */
+    @Override
+    public void leaveParty(int partyId, UUID player) {
+        // Load the party first so that the members of a disbanded party can be released
+        PartyEntry entry = party(partyId);
+        touch(partyId, player, entry);
+        delegate.leaveParty(partyId, player);
+        synchronized (lock) {
+            generation.incrementAndGet();
+            if (entry != null && player.equals(entry.ownerId)) {
+                evictParty(partyId, entry);
+            } else {
+                removeMember(partyId, player);
+            }
+        }
+    }
+
+    /**
+     * Checks membership using the cached member set of the party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
+     * @return true if the player is a member of the party, false otherwise
+     */
+    @Override
+    public boolean isMember(int partyId, UUID player) {
+        PartyEntry entry = party(partyId);
+        return entry != null && entry.members.contains(player);
+    }
+
+    /**
+     * Executes raw SQL against the backend and drops every cached entry,
+     * since the statements may have changed any party.
+     *
+     * @param sqls an array of SQL statements to execute
+     */
+    @Override
+    public void executeSqls(String[] sqls) {
+        delegate.executeSqls(sqls);
+        invalidateAll();
+    }
+
+    /**
+     * Sets the party name in the backend and in the cache.
+     * Non-owners are rejected from the cache without a database round trip.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party
+     * @return true if the name was set, false otherwise
+     */
+    @Override
+    public boolean setPartyName(int partyId, UUID player, String name) {
+        PartyEntry entry = party(partyId);
+        if (entry == null || !player.equals(entry.ownerId)) {
+            return false;
+        }
+        touch(partyId, player, null);
+        boolean updated = delegate.setPartyName(partyId, player, name);
+        if (updated) {
+            synchronized (lock) {
+                generation.incrementAndGet();
+                PartyEntry cached = parties.get(partyId);
+                if (cached != null) {
+                    cached.name = name;
+                }
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Resolves the role of the player from the cached owner and member set.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return the player's role, or null if the player is not in the party
+     */
+    @Override
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        PartyEntry entry = party(partyId);
+        if (entry == null) {
+            return null;
+        }
+        if (player.equals(entry.ownerId)) {
+            return MCEnginePartyRole.OWNER;
+        }
+        return entry.members.contains(player) ? MCEnginePartyRole.MEMBER : null;
+    }
+
+    /**
+     * Finds the party of the player, loading the player's party into the cache on a miss.
+     *
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY} if the player is not in a party
+     */
+    @Override
+    public int findPlayerPartyId(UUID player) {
+        Integer cached = playerParty.get(player);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long seen = generation.get();
+        MCEnginePartyMembership membership = delegate.getPlayerMembership(player);
+        int partyId = membership == null ? NO_PARTY : membership.partyId();
+        synchronized (lock) {
+            if (isCurrent(seen)) {
+                playerParty.put(player, partyId);
+            }
+        }
+        if (partyId != NO_PARTY && !parties.containsKey(partyId)) {
+            // Warm the party so the role/count checks that usually follow are hits; this is part of
+            // the miss counted above, not a lookup of its own
+            load(partyId);
+        }
+        return partyId;
+    }
+
+    /**
+     * Gets the member count from the cached member set.
+     *
+     * @param partyId the ID of the party
+     * @return the count of members in the party
+     */
+    @Override
+    public int getPartyCount(int partyId) {
+        PartyEntry entry = party(partyId);
+        return entry == null ? 0 : entry.members.size();
+    }
+
+    /**
+     * Gets the owner from the cache.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null if the party does not exist
+     */
+    @Override
+    public UUID getPartyOwner(int partyId) {
+        PartyEntry entry = party(partyId);
+        return entry == null ? null : entry.ownerId;
+    }
+
+    /**
+     * Gets a copy of the cached member set.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs, empty if the party has no members
+     */
+    @Override
+    public List<UUID> getPartyMembers(int partyId) {
+        PartyEntry entry = party(partyId);
+        return entry == null ? new ArrayList<>() : new ArrayList<>(entry.members);
+    }
+
+    /**
+     * Builds the player's membership from the cached party.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    @Override
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        int partyId = findPlayerPartyId(player);
+        if (partyId == NO_PARTY) {
+            return null;
+        }
+        PartyEntry entry = party(partyId);
+        if (entry == null) {
+            return null;
+        }
+        return new MCEnginePartyMembership(
+                partyId,
+                player.equals(entry.ownerId) ? MCEnginePartyRole.OWNER : MCEnginePartyRole.MEMBER,
+                entry.ownerId,
+                entry.name,
+                entry.members.size());
+    }
+
+    /**
+     * Builds a party snapshot from the cache.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null if the party does not exist
+     */
+    @Override
+    public MCEnginePartyInfo getParty(int partyId) {
+        PartyEntry entry = party(partyId);
+        return entry == null ? null : snapshot(partyId, entry);
+    }
+
+    /**
+     * Answers cached players from memory and looks up the rest with one bulk backend call.
+     * Loaded results are cached when the player has no party or their party is cached, so that
+     * later changes to the party keep the entry correct.
+     *
+     * @param players UUIDs of the players to look up
+     * @return map from each given player to their party ID, or {@link #NO_PARTY}
+     */
+    @Override
+    public Map<UUID, Integer> findPlayerPartyIds(Collection<UUID> players) {
+        Map<UUID, Integer> result = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID player : players) {
+            Integer cached = playerParty.get(player);
+            if (cached != null) {
+                result.put(player, cached);
+            } else {
+                missing.add(player);
+            }
+        }
+        hits.add(result.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+        misses.add(missing.size());
+        long seen = generation.get();
+        Map<UUID, Integer> loaded = delegate.findPlayerPartyIds(missing);
+        result.putAll(loaded);
+        synchronized (lock) {
+            if (isCurrent(seen)) {
+                for (Map.Entry<UUID, Integer> entry : loaded.entrySet()) {
+                    int partyId = entry.getValue();
+                    if (partyId == NO_PARTY || parties.containsKey(partyId)) {
+                        playerParty.putIfAbsent(entry.getKey(), partyId);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Answers cached parties from memory and loads the rest with one bulk backend call.
+     * The loaded member lists are not cached, since they carry no owner or name.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member UUIDs
+     */
+    @Override
+    public Map<Integer, List<UUID>> getPartyMembers(Collection<Integer> partyIds) {
+        Map<Integer, List<UUID>> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int partyId : partyIds) {
+            PartyEntry entry = parties.get(partyId);
+            if (entry != null) {
+                result.put(partyId, new ArrayList<>(entry.members));
+            } else {
+                missing.add(partyId);
+            }
+        }
+        hits.add(result.size());
+        if (!missing.isEmpty()) {
+            misses.add(missing.size());
+            result.putAll(delegate.getPartyMembers(missing));
+        }
+        return result;
+    }
+
+    /**
+     * Answers cached parties from memory and counts the rest with one bulk backend call.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member count
+     */
+    @Override
+    public Map<Integer, Integer> getPartyCounts(Collection<Integer> partyIds) {
+        Map<Integer, Integer> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int partyId : partyIds) {
+            PartyEntry entry = parties.get(partyId);
+            if (entry != null) {
+                result.put(partyId, entry.members.size());
+            } else {
+                missing.add(partyId);
+            }
+        }
+        hits.add(result.size());
+        if (!missing.isEmpty()) {
+            misses.add(missing.size());
+            result.putAll(delegate.getPartyCounts(missing));
+        }
+        return result;
+    }
+
+    /**
+     * Answers players whose party is cached from memory and loads the parties of the rest, with their
+     * members, in one bulk backend call. The loaded parties are cached and players without a party are
+     * remembered as such, so this warms the cache for players who are about to join.
+     *
+     * @param players UUIDs of the players
+     * @return map from party ID to party snapshot for every party one of the players belongs to
+     */
+    @Override
+    public Map<Integer, MCEnginePartyInfo> getPlayerParties(Collection<UUID> players) {
+        Map<Integer, MCEnginePartyInfo> result = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID player : players) {
+            Integer partyId = playerParty.get(player);
+            PartyEntry entry = partyId == null ? null : parties.get(partyId);
+            if (entry != null) {
+                result.put(partyId, snapshot(partyId, entry));
+            } else if (partyId == null || partyId != NO_PARTY) {
+                missing.add(player);
+            }
+        }
+        hits.add(players.size() - missing.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+        misses.add(missing.size());
+        long seen = generation.get();
+        Collection<MCEnginePartyInfo> loaded = delegate.getPlayerParties(missing).values();
+        synchronized (lock) {
+            boolean store = isCurrent(seen);
+            Set<UUID> found = new HashSet<>();
+            for (MCEnginePartyInfo info : loaded) {
+                PartyEntry raced = null;
+                if (store) {
+                    PartyEntry entry = new PartyEntry(info.ownerId(), info.partyName());
+                    entry.members.addAll(info.members());
+                    raced = parties.putIfAbsent(info.partyId(), entry);
+                    if (raced == null) {
+                        for (UUID member : info.members()) {
+                            playerParty.put(member, info.partyId());
+                        }
+                    }
+                }
+                found.addAll(info.members());
+                result.put(info.partyId(), raced == null ? info : snapshot(info.partyId(), raced));
+            }
+            if (store) {
+                for (UUID player : missing) {
+                    if (!found.contains(player)) {
+                        playerParty.put(player, NO_PARTY);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the players in the backend, then evicts parties they owned, removes their
+     * memberships and forgets the players, since quit-driven leaves concern offline players.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     */
+    @Override
+    public void leavePlayers(Collection<UUID> players) {
+        if (!openTransactions.isEmpty()) {
+            for (UUID player : players) {
+                touch(playerParty.getOrDefault(player, NO_PARTY), player, null);
+            }
+        }
+        delegate.leavePlayers(players);
+        synchronized (lock) {
+            generation.incrementAndGet();
+            for (UUID player : players) {
+                Integer partyId = playerParty.remove(player);
+                if (partyId == null || partyId == NO_PARTY) {
+                    continue;
+                }
+                PartyEntry entry = parties.get(partyId);
+                if (entry != null && player.equals(entry.ownerId)) {
+                    evictParty(partyId, entry);
+                } else if (entry != null) {
+                    entry.members.remove(player);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the transaction in the backend with operations passing through this cache.
+     * If it fails, the cache may hold changes that were rolled back, so the parties and players the
+     * transaction changed are dropped; a transaction the circuit breaker rejected never started and
+     * leaves the cache alone. No load is stored while it runs, and loads that started before it
+     * ends are discarded.
+     *
+     * @param work the operations to run
+     * @param <T>  result type
+     * @return the result of the work
+     */
+    @Override
+    public <T> T inTransaction(Function<IMCEnginePartyDB, T> work) {
+        TransactionKeys keys = new TransactionKeys();
+        openTransactions.add(keys);
+        transactions.incrementAndGet();
+        try {
+            return delegate.inTransaction(ignored -> work.apply(this));
+        } catch (MCEnginePartyCircuitOpenException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            for (int partyId : keys.parties) {
+                invalidateParty(partyId);
+            }
+            for (UUID player : keys.players) {
+                invalidatePlayer(player);
+            }
+            throw e;
+        } finally {
+            openTransactions.remove(keys);
+            synchronized (lock) {
+                generation.incrementAndGet();
+                transactions.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Closes the underlying backend and drops every cached entry.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+        invalidateAll();
+    }
+
+    /**
+     * Gets the cached party of the player without loading it. Not counted as a hit or miss.
+     *
+     * @param player UUID of the player
+     * @return the party ID, {@link #NO_PARTY}, or null if the player is not cached
+     */
+    @Override
+    public Integer peekPlayerPartyId(UUID player) {
+        return playerParty.get(player);
+    }
+
+    /**
+     * Gets the cached members of the party without loading them. Not counted as a hit or miss.
+     *
+     * @param partyId the ID of the party
+     * @return an unmodifiable live view of the members, or null if the party is not cached
+     */
+    @Override
+    public Collection<UUID> peekPartyMembers(int partyId) {
+        PartyEntry entry = parties.get(partyId);
+        return entry == null ? null : Collections.unmodifiableSet(entry.members);
+    }
+
+    /**
+     * Gets the number of lookups answered from memory.
+     *
+     * @return cache hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that had to go to the backend.
+     *
+     * @return cache miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Applies a change made by another server to the cached entries it concerns. Parties and
+     * players that are not cached are left alone; they load fresh on their next lookup.
+     *
+     * @param change a change read from the shared change log, in sequence order
+     */
+    public void applyChange(MCEnginePartyChange change) {
+        int partyId = change.partyId();
+        UUID player = change.player();
+        synchronized (lock) {
+            generation.incrementAndGet();
+            applyChangeLocked(change.type(), partyId, player, change.name());
+        }
+    }
+
+    /**
+     * Applies a change to the cached entries. Called with {@link #lock} held.
+     *
+     * @param type    the kind of change
+     * @param partyId the ID of the party it concerns
+     * @param player  UUID of the player it concerns, or null
+     * @param name    the new party name for renames, or null
+     */
+    private void applyChangeLocked(MCEnginePartyChangeType type, int partyId, UUID player, String name) {
+        switch (type) {
+            case RESET -> invalidateAll();
+            case CREATE -> {
+                // Only cache the new party if this server already tracks its owner
+                if (playerParty.containsKey(player)) {
+                    PartyEntry entry = new PartyEntry(player, null);
+                    entry.members.add(player);
+                    parties.put(partyId, entry);
+                    playerParty.put(player, partyId);
+                }
+            }
+            case JOIN -> {
+                PartyEntry entry = parties.get(partyId);
+                if (entry != null) {
+                    entry.members.add(player);
+                    playerParty.put(player, partyId);
+                } else {
+                    playerParty.computeIfPresent(player, (ignored, previous) -> partyId);
+                }
+            }
+            case LEAVE -> {
+                PartyEntry entry = parties.get(partyId);
+                if (entry != null) {
+                    entry.members.remove(player);
+                }
+                playerParty.replace(player, partyId, NO_PARTY);
+            }
+            case RENAME -> {
+                PartyEntry entry = parties.get(partyId);
+                if (entry != null) {
+                    entry.name = name;
+                }
+            }
+            case DISBAND -> evictParty(partyId, null);
+        }
+    }
+
+    /**
+     * Drops the cached entries a change concerns, so they reload from the backend. Used for
+     * changes that arrive out of sequence order, which must not be applied over newer state.
+     *
+     * @param change a change read from the shared change log
+     */
+    public void forgetChange(MCEnginePartyChange change) {
+        if (change.type() == MCEnginePartyChangeType.RESET) {
+            invalidateAll();
+            return;
+        }
+        synchronized (lock) {
+            generation.incrementAndGet();
+            PartyEntry entry = parties.remove(change.partyId());
+            if (entry != null) {
+                for (UUID member : entry.members) {
+                    playerParty.remove(member, change.partyId());
+                }
+            }
+            if (change.player() != null) {
+                playerParty.remove(change.player());
+            }
+        }
+    }
+
+    /**
+     * Releases the entries of a player who left the server, so the cache only grows with the players
+     * online. A player without a party, or whose party is not cached, is dropped at once. A cached
+     * party is dropped with its members' mappings once none of its other members is online;
+     * otherwise it is kept, and the player's queued leave removes them from it when written.
+     * Dropped entries reload from the backend on their next lookup.
+     *
+     * @param player UUID of the player who quit
+     * @param online tells whether another member is still online
+     */
+    public void releasePlayer(UUID player, Predicate<UUID> online) {
+        synchronized (lock) {
+            Integer partyId = playerParty.get(player);
+            if (partyId == null) {
+                return;
+            }
+            PartyEntry entry = partyId == NO_PARTY ? null : parties.get(partyId);
+            if (entry == null) {
+                generation.incrementAndGet();
+                playerParty.remove(player, partyId);
+                return;
+            }
+            for (UUID member : entry.members) {
+                if (!member.equals(player) && online.test(member)) {
+                    return;
+                }
+            }
+            generation.incrementAndGet();
+            parties.remove(partyId, entry);
+            for (UUID member : entry.members) {
+                playerParty.remove(member, partyId);
+            }
+        }
+    }
+
+    /**
+     * Drops the cached party mapping of a single player.
+     *
+     * @param player UUID of the player
+     */
+    public void invalidatePlayer(UUID player) {
+        synchronized (lock) {
+            generation.incrementAndGet();
+            playerParty.remove(player);
+        }
+    }
+
+    /**
+     * Drops a party that was removed behind the cache, e.g. by the orphan sweeper, and every
+     * player mapped to it, including players whose mapping outlived the cached entry.
+     *
+     * @param partyId the ID of the removed party
+     */
+    public void invalidateParty(int partyId) {
+        synchronized (lock) {
+            generation.incrementAndGet();
+            parties.remove(partyId);
+            playerParty.values().removeIf(cached -> cached == partyId);
+        }
+    }
+
+    /**
+     * Drops every cached entry. Subsequent lookups reload from the backend.
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            generation.incrementAndGet();
+            playerParty.clear();
+            parties.clear();
+        }
+    }
+
+    /**
+     * Returns the cached entry for a party, loading it from the backend in one query on a miss.
+     *
+     * @param partyId the ID of the party
+     * @return the cached entry, or null if the party does not exist
+     */
+    private PartyEntry party(int partyId) {
+        if (partyId == NO_PARTY) {
+            return null;
+        }
+        PartyEntry entry = parties.get(partyId);
+        if (entry != null) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        return load(partyId);
+    }
+
+    /**
+     * Loads a party from the backend in one query and caches it unless the cache changed meanwhile.
+     * Not counted as a hit or miss.
+     *
+     * @param partyId the ID of the party
+     * @return the cached entry, an uncached entry if the load was stale, or null if the party does not exist
+     */
+    private PartyEntry load(int partyId) {
+        long seen = generation.get();
+        MCEnginePartyInfo info = delegate.getParty(partyId);
+        if (info == null) {
+            return null;
+        }
+        PartyEntry loaded = new PartyEntry(info.ownerId(), info.partyName());
+        loaded.members.addAll(info.members());
+        synchronized (lock) {
+            if (!isCurrent(seen)) {
+                return loaded;
+            }
+            PartyEntry raced = parties.putIfAbsent(partyId, loaded);
+            if (raced != null) {
+                return raced;
+            }
+            for (UUID member : info.members()) {
+                playerParty.put(member, partyId);
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Records a party and player about to be changed in every open transaction, together with the
+     * party's members, whose mappings change when the party is disbanded.
+     *
+     * @param partyId the ID of the party, or {@link #NO_PARTY}
+     * @param player  UUID of the player, or null
+     * @param known   the party as loaded by the caller, used when it is not cached, or null
+     */
+    private void touch(int partyId, UUID player, PartyEntry known) {
+        if (openTransactions.isEmpty()) {
+            return;
+        }
+        PartyEntry entry = partyId == NO_PARTY ? null : parties.get(partyId);
+        if (entry == null) {
+            entry = known;
+        }
+        for (TransactionKeys keys : openTransactions) {
+            if (partyId != NO_PARTY) {
+                keys.parties.add(partyId);
+            }
+            if (player != null) {
+                keys.players.add(player);
+            }
+            if (entry != null) {
+                keys.players.addAll(entry.members);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a load that started at the given generation may be stored.
+     * Called with {@link #lock} held.
+     *
+     * @param seen the generation read before the load queried the backend
+     * @return true if nothing changed since and no transaction is open
+     */
+    private boolean isCurrent(long seen) {
+        return generation.get() == seen && transactions.get() == 0;
+    }
+
+    /**
+     * Copies a cached party into a snapshot.
+     *
+     * @param partyId the ID of the party
+     * @param entry   the cached entry
+     * @return the party snapshot
+     */
+    private static MCEnginePartyInfo snapshot(int partyId, PartyEntry entry) {
+        return new MCEnginePartyInfo(partyId, entry.ownerId, entry.name, List.copyOf(entry.members));
+    }
+
+    /**
+     * Removes a single member from a cached party and marks the player party-less if they were mapped
+     * to it. Called with {@link #lock} held.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the member
+     */
+    private void removeMember(int partyId, UUID player) {
+        PartyEntry entry = parties.get(partyId);
+        if (entry != null) {
+            entry.members.remove(player);
+        }
+        playerParty.replace(player, partyId, NO_PARTY);
+    }
+
+    /**
+     * Removes a disbanded party and marks all of its members as party-less. Called with {@link #lock} held.
+     *
+     * @param partyId the ID of the party
+     * @param known   the party as loaded by the caller, used when it was not cached, or null
+     */
+    private void evictParty(int partyId, PartyEntry known) {
+        PartyEntry entry = parties.remove(partyId);
+        if (entry == null) {
+            entry = known;
+        }
+        if (entry != null) {
+            for (UUID member : entry.members) {
+                playerParty.replace(member, partyId, NO_PARTY);
+            }
+        }
+    }
+
+    /**
+     * Parties and players changed by one transaction.
+     */
+    private static final class TransactionKeys {
+
+        /**
+         * IDs of the parties the transaction changed.
+         */
+        private final Set<Integer> parties = ConcurrentHashMap.newKeySet();
+
+        /**
+         * UUIDs of the players whose mapping the transaction changed.
+         */
+        private final Set<UUID> players = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Cached state of a single party.
+     */
+    private static final class PartyEntry {
+
+        /**
+         * UUID of the party owner.
+         */
+        private final UUID ownerId;
+
+        /**
+         * The party name, or null if none has been set.
+         */
+        private volatile String name;
+
+        /**
+         * UUIDs of all members, including the owner.
+         */
+        private final Set<UUID> members = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Creates an entry for a party owned by the given player.
+         *
+         * @param ownerId UUID of the party owner
+         * @param name    the party name, or null
+         */
+        private PartyEntry(UUID ownerId, String name) {
+            this.ownerId = ownerId;
+            this.name = name;
+        }
+    }
+}
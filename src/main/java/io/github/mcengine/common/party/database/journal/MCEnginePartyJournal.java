@@ -0,0 +1,512 @@
+package io.github.mcengine.common.party.database.journal;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.IMCEnginePartyMembershipIndex;
+import io.github.mcengine.common.party.database.MCEnginePartyDBException;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import io.github.mcengine.common.party.database.memory.MCEnginePartyMemoryStore;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journaled implementation of the party system for MC Engine ({@code database.type: journal}).
+ * <p>
+ * Party state lives in a {@link MCEnginePartyMemoryStore}. Every mutation is first appended as a
+ * fixed-size record to a memory-mapped log ({@link MCEnginePartyJournalLog}) at
+ * {@code database.journal.path} (default {@code party.journal}) and then applied to the store; the
+ * log is replayed on startup. Records reach the page cache without a system call, so they survive a
+ * server crash at once, and are forced to disk every {@code database.journal.force-interval-ms}
+ * (default {@code 1000}; {@code 0} forces after every record, a negative value only on close).
+ * <p>
+ * When the log grows past {@code database.journal.compact-threshold-mb} (default {@code 64}) it is
+ * compacted in the background: the current state is written to a new log as one record per party
+ * and member, records appended meanwhile are copied over, and the new log replaces the old one.
+ */
+public class MCEnginePartyJournal implements IMCEnginePartyDB, IMCEnginePartyMembershipIndex {
+
+    /**
+     * The plugin instance used for configuration and logging.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The party state.
+     */
+    private final MCEnginePartyMemoryStore store = new MCEnginePartyMemoryStore();
+
+    /**
+     * Journal file in the plugin data folder.
+     */
+    private final Path journalFile;
+
+    /**
+     * The open log. Guarded by {@code this}.
+     */
+    private MCEnginePartyJournalLog log;
+
+    /**
+     * Whether every record is forced to disk as it is written.
+     */
+    private final boolean forceEachRecord;
+
+    /**
+     * Log size in bytes that triggers compaction.
+     */
+    private final long compactThreshold;
+
+    /**
+     * Log size at which the next compaction starts. Guarded by {@code this}.
+     */
+    private long nextCompaction;
+
+    /**
+     * Whether a compaction is scheduled or running. Guarded by {@code this}.
+     */
+    private boolean compacting;
+
+    /**
+     * Serializes compactions, each of which relies on the log not being swapped underneath it.
+     */
+    private final Object compactLock = new Object();
+
+    /**
+     * Background thread forcing the log to disk and compacting it.
+     */
+    private final ScheduledExecutorService maintenance;
+
+    /**
+     * Constructs the journal backend, replays the log and starts background maintenance.
+     *
+     * @param plugin the Bukkit plugin instance
+     */
+    public MCEnginePartyJournal(Plugin plugin) {
+        this.plugin = plugin;
+        String fileName = plugin.getConfig().getString("database.journal.path", "party.journal");
+        if (!plugin.getDataFolder().exists()) {
+            plugin.getDataFolder().mkdirs();
+        }
+        this.journalFile = new File(plugin.getDataFolder(), fileName).toPath();
+        long forceInterval = plugin.getConfig().getLong("database.journal.force-interval-ms", 1000L);
+        this.forceEachRecord = forceInterval == 0;
+        this.compactThreshold = plugin.getConfig().getLong("database.journal.compact-threshold-mb", 64L) << 20;
+        this.nextCompaction = compactThreshold;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MCEngineParty-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        init();
+
+        if (forceInterval > 0) {
+            maintenance.scheduleWithFixedDelay(this::force, forceInterval, forceInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Opens the log and replays it into the empty store.
+     *
+     * @throws MCEnginePartyDBException if the log cannot be opened
+     */
+    @Override
+    public synchronized void init() {
+        try {
+            log = new MCEnginePartyJournalLog(journalFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to open party journal: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to open party journal " + journalFile, e);
+        }
+        log.replay(this::apply);
+        nextCompaction = Math.max(compactThreshold, 2L * log.position());
+        plugin.getLogger().info("Replayed " + log.position() / MCEnginePartyJournalLog.RECORD_SIZE
+                + " journal records into " + store.size() + " parties");
+    }
+
+    /**
+     * Creates the party and journals it.
+     *
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return the ID of the newly created party
+     */
+    @Override
+    public synchronized int createParty(UUID owner) {
+        int partyId = store.getNextPartyId();
+        append(MCEnginePartyJournalLog.CREATE, partyId, owner, null, "create party");
+        store.restoreParty(partyId, owner, null, List.of(owner));
+        return partyId;
+    }
+
+    /**
+     * Adds the player to the party and journals it.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to add
+     */
+    @Override
+    public synchronized void invitePlayerToParty(int partyId, UUID player) {
+        if (store.getOwner(partyId) == null || store.isMember(partyId, player)) {
+            return;
+        }
+        append(MCEnginePartyJournalLog.INVITE, partyId, player, null, "invite player");
+        store.addMember(partyId, player);
+    }
+
+    /**
+     * Removes the player from the party and journals it.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to remove
+     */
+    @Override
+    public synchronized void kickPlayerFromParty(int partyId, UUID player) {
+        if (!store.isMember(partyId, player)) {
+            return;
+        }
+        append(MCEnginePartyJournalLog.KICK, partyId, player, null, "kick player");
+        store.removeMember(partyId, player);
+    }
+
+    /**
+     * Removes the player from the party, disbanding it if the player is the owner, and journals it.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving
+     */
+    @Override
+    public synchronized void leaveParty(int partyId, UUID player) {
+        if (!store.isMember(partyId, player)) {
+            return;
+        }
+        append(MCEnginePartyJournalLog.LEAVE, partyId, player, null, "leave party");
+        store.leave(partyId, player);
+    }
+
+    /**
+     * Checks membership in memory.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
+     * @return true if the player is a member of the party, false otherwise
+     */
+    @Override
+    public boolean isMember(int partyId, UUID player) {
+        return store.isMember(partyId, player);
+    }
+
+    /**
+     * Sets the party name if the player is the owner, and journals it.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party, at most {@link MCEnginePartyJournalLog#MAX_NAME_BYTES} UTF-8 bytes
+     * @return true if the name was set, false otherwise
+     */
+    @Override
+    public synchronized boolean setPartyName(int partyId, UUID player, String name) {
+        if (!player.equals(store.getOwner(partyId))) {
+            return false;
+        }
+        append(MCEnginePartyJournalLog.RENAME, partyId, player, name, "set party name");
+        return store.setName(partyId, player, name);
+    }
+
+    /**
+     * Gets the role of the player in the party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return the player's role, or null if the player is not in the party
+     */
+    @Override
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        return store.getRole(partyId, player);
+    }
+
+    /**
+     * Finds the party of the player.
+     *
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY} if the player is not in a party
+     */
+    @Override
+    public int findPlayerPartyId(UUID player) {
+        return store.findPartyId(player);
+    }
+
+    /**
+     * Gets the member count of the party.
+     *
+     * @param partyId the ID of the party
+     * @return the count of members in the party
+     */
+    @Override
+    public int getPartyCount(int partyId) {
+        return store.getMemberCount(partyId);
+    }
+
+    /**
+     * Gets the owner of the party.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null if the party does not exist
+     */
+    @Override
+    public UUID getPartyOwner(int partyId) {
+        return store.getOwner(partyId);
+    }
+
+    /**
+     * Gets every member of the party, including the owner.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs, empty if the party has no members
+     */
+    @Override
+    public List<UUID> getPartyMembers(int partyId) {
+        return store.getMembers(partyId);
+    }
+
+    /**
+     * Resolves the player's party context.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    @Override
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        return store.getMembership(player);
+    }
+
+    /**
+     * Builds a snapshot of the party.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null if the party does not exist
+     */
+    @Override
+    public MCEnginePartyInfo getParty(int partyId) {
+        return store.getParty(partyId);
+    }
+
+    /**
+     * Gets the party of the player; all state is in memory, so the answer is always known.
+     *
+     * @param player UUID of the player
+     * @return the party ID, or {@link #NO_PARTY}
+     */
+    @Override
+    public Integer peekPlayerPartyId(UUID player) {
+        return store.findPartyId(player);
+    }
+
+    /**
+     * Gets a copy of the party's members; all state is in memory, so the answer is always known.
+     *
+     * @param partyId the ID of the party
+     * @return member UUIDs, empty if the party does not exist
+     */
+    @Override
+    public Collection<UUID> peekPartyMembers(int partyId) {
+        return store.getMembers(partyId);
+    }
+
+    /**
+     * Raw SQL cannot be executed against the journal backend.
+     *
+     * @param sqls ignored
+     * @throws MCEnginePartyDBException always
+     */
+    @Override
+    public void executeSqls(String[] sqls) {
+        plugin.getLogger().warning("Cannot execute external SQL: database.type is journal");
+        throw new MCEnginePartyDBException("Raw SQL is not supported by the journal backend", null);
+    }
+
+    /**
+     * Compacts the log now, regardless of its size.
+     *
+     * @throws IOException if the compacted log could not be written
+     */
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            compactLocked();
+        }
+    }
+
+    /**
+     * Writes the compacted log and swaps it in. Must be called with {@link #compactLock} held.
+     *
+     * @throws IOException if the compacted log could not be written
+     */
+    private void compactLocked() throws IOException {
+        List<MCEnginePartyInfo> parties;
+        int nextPartyId;
+        int from;
+        synchronized (this) {
+            parties = store.snapshot();
+            nextPartyId = store.getNextPartyId();
+            from = log.position();
+        }
+
+        // Write the snapshot without holding the lock, so mutations keep flowing
+        Path tmp = journalFile.resolveSibling(journalFile.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer scratch = ByteBuffer.allocate(MCEnginePartyJournalLog.RECORD_SIZE);
+            for (MCEnginePartyInfo party : parties) {
+                MCEnginePartyJournalLog.write(out, scratch, MCEnginePartyJournalLog.CREATE, party.partyId(), party.ownerId(), null);
+                for (UUID member : party.members()) {
+                    if (!member.equals(party.ownerId())) {
+                        MCEnginePartyJournalLog.write(out, scratch, MCEnginePartyJournalLog.INVITE, party.partyId(), member, null);
+                    }
+                }
+                if (party.partyName() != null) {
+                    MCEnginePartyJournalLog.write(out, scratch, MCEnginePartyJournalLog.RENAME, party.partyId(), party.ownerId(), party.partyName());
+                }
+            }
+            MCEnginePartyJournalLog.write(out, scratch, MCEnginePartyJournalLog.RESERVE, nextPartyId, null, null);
+
+            // Records appended since the snapshot follow it, then the new log replaces the old one
+            synchronized (this) {
+                log.copyTail(from, out);
+                out.force(true);
+                log.replaceWith(tmp);
+                nextCompaction = Math.max(compactThreshold, 2L * log.position());
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Stops background maintenance and closes the log.
+     */
+    @Override
+    public void close() {
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to close party journal: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Gets the party state, e.g. for inspection or migration tools.
+     *
+     * @return the in-memory store
+     */
+    public MCEnginePartyMemoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the current size of the log.
+     *
+     * @return the log size in bytes
+     */
+    public synchronized long getJournalSize() {
+        return log.position();
+    }
+
+    /**
+     * Appends a record to the log and schedules compaction when the log has grown past the threshold.
+     * Must be called with the lock held, before the mutation is applied to the store.
+     *
+     * @param type      record type
+     * @param partyId   party ID
+     * @param player    player UUID
+     * @param name      party name, or null
+     * @param operation description used in error messages
+     * @throws MCEnginePartyDBException if the record could not be written
+     */
+    private void append(byte type, int partyId, UUID player, String name, String operation) {
+        try {
+            log.append(type, partyId, player, name);
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().warning("Error journaling " + operation + ": " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to " + operation + " in journal", e);
+        }
+        if (forceEachRecord) {
+            log.force();
+        }
+        if (!compacting && log.position() >= nextCompaction && !maintenance.isShutdown()) {
+            compacting = true;
+            maintenance.execute(this::compactQuietly);
+        }
+    }
+
+    /**
+     * Applies a replayed record to the store.
+     *
+     * @param entry the record
+     */
+    private void apply(MCEnginePartyJournalLog.Entry entry) {
+        switch (entry.type()) {
+            case MCEnginePartyJournalLog.CREATE -> store.restoreParty(entry.partyId(), entry.player(), null, List.of(entry.player()));
+            case MCEnginePartyJournalLog.INVITE -> store.addMember(entry.partyId(), entry.player());
+            case MCEnginePartyJournalLog.KICK -> store.removeMember(entry.partyId(), entry.player());
+            case MCEnginePartyJournalLog.LEAVE -> store.leave(entry.partyId(), entry.player());
+            case MCEnginePartyJournalLog.RENAME -> store.setName(entry.partyId(), entry.player(), entry.name());
+            case MCEnginePartyJournalLog.RESERVE -> store.reserveUpTo(entry.partyId());
+            default -> plugin.getLogger().warning("Skipping unknown party journal record type " + entry.type());
+        }
+    }
+
+    /**
+     * Forces written records to disk, logging instead of propagating failures.
+     */
+    private synchronized void force() {
+        try {
+            log.force();
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to force party journal: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Compacts the log, logging instead of propagating failures. After a failure the next attempt
+     * waits until the log has doubled, so a compaction that keeps failing (e.g. a full disk) is not
+     * retried on every append.
+     */
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().warning("Failed to compact party journal: " + e.getMessage());
+            e.printStackTrace();
+            synchronized (this) {
+                nextCompaction = Math.max(nextCompaction, 2L * log.position());
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+}
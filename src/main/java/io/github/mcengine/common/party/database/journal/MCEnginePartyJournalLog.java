@@ -0,0 +1,365 @@
+package io.github.mcengine.common.party.database.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of fixed-size party mutation records, written through a {@link MappedByteBuffer}.
+ * <p>
+ * Every record is {@value #RECORD_SIZE} bytes:
+ * <pre>
+ * offset size
+ *      0    1  record type ({@code 0} marks the end of the log)
+ *      1    1  name length in bytes
+ *      2    2  reserved
+ *      4    4  party ID
+ *      8   16  player UUID (most, least significant bits)
+ *     24   96  party name, UTF-8 (rename records only)
+ *    120    4  reserved
+ *    124    4  CRC32 of bytes 0..123
+ * </pre>
+ * The file is pre-extended with zeros, so the end of the log is the first record whose type is
+ * {@code 0} or whose checksum does not match (a record torn by a crash). Writes land in the page
+ * cache and survive a process crash immediately; {@link #force()} makes them survive a power loss.
+ * This class is not thread-safe; callers serialize access.
+ */
+public class MCEnginePartyJournalLog {
+
+    /**
+     * Size of every record in bytes.
+     */
+    public static final int RECORD_SIZE = 128;
+
+    /**
+     * Maximum party name length in UTF-8 bytes.
+     */
+    public static final int MAX_NAME_BYTES = 96;
+
+    /**
+     * A party was created: party ID and owner.
+     */
+    public static final byte CREATE = 1;
+
+    /**
+     * A player joined a party.
+     */
+    public static final byte INVITE = 2;
+
+    /**
+     * A player was kicked from a party.
+     */
+    public static final byte KICK = 3;
+
+    /**
+     * A player left a party; an owner leaving disbands it.
+     */
+    public static final byte LEAVE = 4;
+
+    /**
+     * A party was renamed by its owner.
+     */
+    public static final byte RENAME = 5;
+
+    /**
+     * Party IDs below the record's party ID are taken (written by compaction).
+     */
+    public static final byte RESERVE = 6;
+
+    /**
+     * Offset of the checksum within a record.
+     */
+    private static final int CRC_OFFSET = RECORD_SIZE - 4;
+
+    /**
+     * Minimum mapped size, so small logs do not remap on every few appends.
+     */
+    private static final int MIN_CAPACITY = 1 << 20;
+
+    /**
+     * Maximum mapped size; a single mapping cannot exceed 2 GiB.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * The log file.
+     */
+    private final Path file;
+
+    /**
+     * Open channel of {@link #file}.
+     */
+    private FileChannel channel;
+
+    /**
+     * Mapping of the first {@code buffer.capacity()} bytes of the file.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * Offset of the next record to write.
+     */
+    private int position;
+
+    /**
+     * Reusable checksum calculator.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Opens (or creates) the log and finds its end.
+     *
+     * @param file the log file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MCEnginePartyJournalLog(Path file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    /**
+     * Passes every valid record, in order, to the consumer.
+     *
+     * @param consumer receives each record
+     */
+    public void replay(Consumer<Entry> consumer) {
+        for (int offset = 0; offset < position; offset += RECORD_SIZE) {
+            consumer.accept(decode(buffer, offset));
+        }
+    }
+
+    /**
+     * Appends a record, growing the mapping when needed.
+     *
+     * @param type    record type
+     * @param partyId party ID
+     * @param player  player UUID, or null
+     * @param name    party name for rename records, or null
+     * @throws IOException if the file could not be grown
+     */
+    public void append(byte type, int partyId, UUID player, String name) throws IOException {
+        if (position + RECORD_SIZE > buffer.capacity()) {
+            if (buffer.capacity() >= MAX_CAPACITY) {
+                throw new IOException("Party journal is full: " + file);
+            }
+            map(Math.max(MIN_CAPACITY, buffer.capacity() * 2));
+        }
+        encode(buffer, position, crc, type, partyId, player, encodeName(name));
+        position += RECORD_SIZE;
+    }
+
+    /**
+     * Gets the size of the log in bytes, i.e. the offset of the next record.
+     *
+     * @return the log size
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Flushes written records to the storage device.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Copies the records in {@code [from, position())} to the end of another channel.
+     *
+     * @param from offset of the first record to copy
+     * @param out  destination channel
+     * @throws IOException if writing fails
+     */
+    public void copyTail(int from, FileChannel out) throws IOException {
+        ByteBuffer tail = buffer.duplicate();
+        tail.limit(position).position(from);
+        while (tail.hasRemaining()) {
+            out.write(tail);
+        }
+    }
+
+    /**
+     * Replaces the log file with {@code replacement} and reopens it.
+     *
+     * @param replacement a complete log, e.g. written by compaction
+     * @throws IOException if the file could not be replaced or reopened
+     */
+    public void replaceWith(Path replacement) throws IOException {
+        buffer.force();
+        channel.close();
+        try {
+            Files.move(replacement, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            open();
+        }
+    }
+
+    /**
+     * Flushes and closes the log.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Writes records to a standalone log file through a plain channel (used for compaction).
+     *
+     * @param out     destination channel, positioned at the end of the log being written
+     * @param scratch buffer of at least {@link #RECORD_SIZE} bytes
+     * @param type    record type
+     * @param partyId party ID
+     * @param player  player UUID, or null
+     * @param name    party name, or null
+     * @throws IOException if writing fails
+     */
+    public static void write(FileChannel out, ByteBuffer scratch, byte type, int partyId, UUID player, String name) throws IOException {
+        CRC32 checksum = new CRC32();
+        scratch.clear();
+        encode(scratch, 0, checksum, type, partyId, player, encodeName(name));
+        scratch.position(0).limit(RECORD_SIZE);
+        while (scratch.hasRemaining()) {
+            out.write(scratch);
+        }
+    }
+
+    /**
+     * Encodes a party name for a record.
+     *
+     * @param name the name, or null
+     * @return the UTF-8 bytes, empty for null
+     * @throws IllegalArgumentException if the name is longer than {@link #MAX_NAME_BYTES}
+     */
+    private static byte[] encodeName(String name) {
+        if (name == null) {
+            return new byte[0];
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Party name exceeds " + MAX_NAME_BYTES + " UTF-8 bytes");
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes one record at an absolute offset.
+     *
+     * @param buf     destination buffer
+     * @param offset  record offset
+     * @param crc     checksum calculator
+     * @param type    record type
+     * @param partyId party ID
+     * @param player  player UUID, or null
+     * @param name    encoded party name
+     */
+    private static void encode(ByteBuffer buf, int offset, CRC32 crc, byte type, int partyId, UUID player, byte[] name) {
+        buf.put(offset, type);
+        buf.put(offset + 1, (byte) name.length);
+        buf.putShort(offset + 2, (short) 0);
+        buf.putInt(offset + 4, partyId);
+        buf.putLong(offset + 8, player == null ? 0L : player.getMostSignificantBits());
+        buf.putLong(offset + 16, player == null ? 0L : player.getLeastSignificantBits());
+        for (int i = 0; i < MAX_NAME_BYTES + 4; i++) {
+            buf.put(offset + 24 + i, i < name.length ? name[i] : 0);
+        }
+        crc.reset();
+        crc.update(buf.duplicate().limit(offset + CRC_OFFSET).position(offset));
+        buf.putInt(offset + CRC_OFFSET, (int) crc.getValue());
+    }
+
+    /**
+     * Reads the record at an absolute offset.
+     *
+     * @param buf    source buffer
+     * @param offset record offset
+     * @return the record
+     */
+    private static Entry decode(ByteBuffer buf, int offset) {
+        int nameLength = buf.get(offset + 1) & 0xFF;
+        String name = null;
+        if (nameLength > 0) {
+            byte[] bytes = new byte[nameLength];
+            buf.get(offset + 24, bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        long msb = buf.getLong(offset + 8);
+        long lsb = buf.getLong(offset + 16);
+        return new Entry(buf.get(offset), buf.getInt(offset + 4), msb == 0L && lsb == 0L ? null : new UUID(msb, lsb), name);
+    }
+
+    /**
+     * Checks that a record is present and not torn.
+     *
+     * @param offset record offset
+     * @return true if the record is valid
+     */
+    private boolean isValid(int offset) {
+        if (buffer.get(offset) == 0) {
+            return false;
+        }
+        crc.reset();
+        crc.update(buffer.duplicate().limit(offset + CRC_OFFSET).position(offset));
+        return buffer.getInt(offset + CRC_OFFSET) == (int) crc.getValue();
+    }
+
+    /**
+     * Opens the file, maps it and scans for the end of the log.
+     *
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size > MAX_CAPACITY) {
+            throw new IOException("Party journal is too large to map: " + file);
+        }
+        map((int) Math.max(MIN_CAPACITY, size));
+        position = 0;
+        int end = (int) (size - size % RECORD_SIZE);
+        while (position < end && isValid(position)) {
+            position += RECORD_SIZE;
+        }
+        // Zero a torn tail so it cannot be mistaken for a record after later appends
+        for (int i = position; i < Math.min(end + RECORD_SIZE, buffer.capacity()); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * Maps the first {@code capacity} bytes of the file, extending it with zeros if needed.
+     *
+     * @param capacity mapping size in bytes
+     * @throws IOException if the mapping fails
+     */
+    private void map(int capacity) throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * A decoded journal record.
+     *
+     * @param type    record type
+     * @param partyId party ID
+     * @param player  player UUID, or null
+     * @param name    party name for rename records, or null
+     */
+    public record Entry(byte type, int partyId, UUID player, String name) {}
+}
@@ -0,0 +1,335 @@
+package io.github.mcengine.common.party.database.memory;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.IMCEnginePartyMembershipIndex;
+import io.github.mcengine.common.party.database.MCEnginePartyDBException;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory implementation of the party system for MC Engine ({@code database.type: memory}).
+ * <p>
+ * All party data lives in a {@link MCEnginePartyMemoryStore}, so lookups are plain map reads.
+ * The state is saved as a binary snapshot ({@link MCEnginePartyMemorySnapshot}) to
+ * {@code database.memory.path} (default {@code party.snapshot}) in the plugin data folder every
+ * {@code database.memory.snapshot-interval-seconds} (default {@code 60}, {@code 0} disables
+ * periodic saves) when it has changed, and on {@link #close()}. The snapshot is loaded on startup.
+ * Changes made after the last snapshot are lost if the server crashes.
+ */
+public class MCEnginePartyMemory implements IMCEnginePartyDB, IMCEnginePartyMembershipIndex {
+
+    /**
+     * The plugin instance used for configuration and logging.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The party state.
+     */
+    private final MCEnginePartyMemoryStore store = new MCEnginePartyMemoryStore();
+
+    /**
+     * Snapshot file in the plugin data folder.
+     */
+    private final Path snapshotFile;
+
+    /**
+     * Background thread saving periodic snapshots, or null when periodic saves are disabled.
+     */
+    private final ScheduledExecutorService snapshotter;
+
+    /**
+     * Store version contained in the last saved or loaded snapshot. Guarded by {@code this}.
+     */
+    private long savedVersion = -1L;
+
+    /**
+     * Constructs the in-memory backend, loads the last snapshot and starts periodic saves.
+     *
+     * @param plugin the Bukkit plugin instance
+     */
+    public MCEnginePartyMemory(Plugin plugin) {
+        this.plugin = plugin;
+        String fileName = plugin.getConfig().getString("database.memory.path", "party.snapshot");
+        if (!plugin.getDataFolder().exists()) {
+            plugin.getDataFolder().mkdirs();
+        }
+        this.snapshotFile = new File(plugin.getDataFolder(), fileName).toPath();
+
+        init();
+
+        long interval = plugin.getConfig().getLong("database.memory.snapshot-interval-seconds", 60L);
+        if (interval > 0) {
+            this.snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "MCEngineParty-Snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotter.scheduleWithFixedDelay(this::saveQuietly, interval, interval, TimeUnit.SECONDS);
+        } else {
+            this.snapshotter = null;
+        }
+    }
+
+    /**
+     * Loads the last snapshot, if any, into the empty store.
+     * A corrupt snapshot is logged and left in place, and the backend starts empty.
+     */
+    @Override
+    public synchronized void init() {
+        try {
+            if (MCEnginePartyMemorySnapshot.load(store, snapshotFile)) {
+                plugin.getLogger().info("Loaded " + store.size() + " parties from " + snapshotFile.getFileName());
+            }
+            savedVersion = store.getVersion();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load party snapshot: " + e.getMessage());
+            e.printStackTrace();
+            store.clear();
+        }
+    }
+
+    /**
+     * Creates the party in memory.
+     *
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return the ID of the newly created party
+     */
+    @Override
+    public int createParty(UUID owner) {
+        return store.createParty(owner);
+    }
+
+    /**
+     * Adds the player to the party in memory.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to add
+     */
+    @Override
+    public void invitePlayerToParty(int partyId, UUID player) {
+        store.addMember(partyId, player);
+    }
+
+    /**
+     * Removes the player from the party in memory.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to remove
+     */
+    @Override
+    public void kickPlayerFromParty(int partyId, UUID player) {
+        store.removeMember(partyId, player);
+    }
+
+    /**
+     * Removes the player from the party, disbanding it if the player is the owner.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving
+     */
+    @Override
+    public void leaveParty(int partyId, UUID player) {
+        store.leave(partyId, player);
+    }
+
+    /**
+     * Checks membership in memory.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
+     * @return true if the player is a member of the party, false otherwise
+     */
+    @Override
+    public boolean isMember(int partyId, UUID player) {
+        return store.isMember(partyId, player);
+    }
+
+    /**
+     * Sets the party name if the player is the owner.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party
+     * @return true if the name was set, false otherwise
+     */
+    @Override
+    public boolean setPartyName(int partyId, UUID player, String name) {
+        return store.setName(partyId, player, name);
+    }
+
+    /**
+     * Gets the role of the player in the party.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return the player's role, or null if the player is not in the party
+     */
+    @Override
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        return store.getRole(partyId, player);
+    }
+
+    /**
+     * Finds the party of the player.
+     *
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY} if the player is not in a party
+     */
+    @Override
+    public int findPlayerPartyId(UUID player) {
+        return store.findPartyId(player);
+    }
+
+    /**
+     * Gets the member count of the party.
+     *
+     * @param partyId the ID of the party
+     * @return the count of members in the party
+     */
+    @Override
+    public int getPartyCount(int partyId) {
+        return store.getMemberCount(partyId);
+    }
+
+    /**
+     * Gets the owner of the party.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null if the party does not exist
+     */
+    @Override
+    public UUID getPartyOwner(int partyId) {
+        return store.getOwner(partyId);
+    }
+
+    /**
+     * Gets every member of the party, including the owner.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs, empty if the party has no members
+     */
+    @Override
+    public List<UUID> getPartyMembers(int partyId) {
+        return store.getMembers(partyId);
+    }
+
+    /**
+     * Resolves the player's party context.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    @Override
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        return store.getMembership(player);
+    }
+
+    /**
+     * Builds a snapshot of the party.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null if the party does not exist
+     */
+    @Override
+    public MCEnginePartyInfo getParty(int partyId) {
+        return store.getParty(partyId);
+    }
+
+    /**
+     * Gets the party of the player; all state is in memory, so the answer is always known.
+     *
+     * @param player UUID of the player
+     * @return the party ID, or {@link #NO_PARTY}
+     */
+    @Override
+    public Integer peekPlayerPartyId(UUID player) {
+        return store.findPartyId(player);
+    }
+
+    /**
+     * Gets a copy of the party's members; all state is in memory, so the answer is always known.
+     *
+     * @param partyId the ID of the party
+     * @return member UUIDs, empty if the party does not exist
+     */
+    @Override
+    public Collection<UUID> peekPartyMembers(int partyId) {
+        return store.getMembers(partyId);
+    }
+
+    /**
+     * Raw SQL cannot be executed against the in-memory backend.
+     *
+     * @param sqls ignored
+     * @throws MCEnginePartyDBException always
+     */
+    @Override
+    public void executeSqls(String[] sqls) {
+        plugin.getLogger().warning("Cannot execute external SQL: database.type is memory");
+        throw new MCEnginePartyDBException("Raw SQL is not supported by the memory backend", null);
+    }
+
+    /**
+     * Saves a snapshot now if the state changed since the last one.
+     *
+     * @throws IOException if the snapshot could not be written
+     */
+    public synchronized void save() throws IOException {
+        long version = store.getVersion();
+        if (version == savedVersion) {
+            return;
+        }
+        MCEnginePartyMemorySnapshot.save(store, snapshotFile);
+        savedVersion = version;
+    }
+
+    /**
+     * Stops periodic saves and writes a final snapshot.
+     */
+    @Override
+    public void close() {
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            try {
+                snapshotter.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        saveQuietly();
+    }
+
+    /**
+     * Gets the party state, e.g. for inspection or migration tools.
+     *
+     * @return the in-memory store
+     */
+    public MCEnginePartyMemoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Saves a snapshot, logging instead of propagating failures.
+     */
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save party snapshot: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.mcengine.common.party.database.memory;
+
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary snapshot format for {@link MCEnginePartyMemoryStore}.
+ * <p>
+ * Layout (big-endian): magic {@code "MCPS"}, format version, next party ID, party count, then per
+ * party its ID, owner UUID, optional name and member UUIDs, followed by a CRC32 of everything
+ * before it. Snapshots are written to a temporary file, forced to disk and atomically renamed
+ * over the previous snapshot, so a crash never leaves a half-written file behind.
+ */
+public final class MCEnginePartyMemorySnapshot {
+
+    /**
+     * File magic, {@code "MCPS"}.
+     */
+    private static final int MAGIC = 0x4D435053;
+
+    /**
+     * Current format version.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MCEnginePartyMemorySnapshot() {}
+
+    /**
+     * Atomically replaces {@code file} with a snapshot of the store.
+     *
+     * @param store the store to save
+     * @param file  the snapshot file
+     * @throws IOException if the snapshot could not be written
+     */
+    public static void save(MCEnginePartyMemoryStore store, Path file) throws IOException {
+        int nextPartyId = store.getNextPartyId();
+        List<MCEnginePartyInfo> parties = store.snapshot();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tmp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fileOut), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(nextPartyId);
+            out.writeInt(parties.size());
+            for (MCEnginePartyInfo party : parties) {
+                out.writeInt(party.partyId());
+                writeUuid(out, party.ownerId());
+                out.writeBoolean(party.partyName() != null);
+                if (party.partyName() != null) {
+                    out.writeUTF(party.partyName());
+                }
+                out.writeInt(party.members().size());
+                for (UUID member : party.members()) {
+                    writeUuid(out, member);
+                }
+            }
+            // The checksum covers everything written so far; write it outside the checked stream
+            out.flush();
+            DataOutputStream trailer = new DataOutputStream(new BufferedOutputStream(fileOut));
+            trailer.writeLong(crc.getValue());
+            trailer.flush();
+            fileOut.getChannel().force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Loads a snapshot into an empty store. Does nothing if the file does not exist.
+     *
+     * @param store the store to fill
+     * @param file  the snapshot file
+     * @return true if a snapshot was loaded
+     * @throws IOException if the file is unreadable, truncated or corrupt
+     */
+    public static boolean load(MCEnginePartyMemoryStore store, Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (InputStream fileIn = new BufferedInputStream(Files.newInputStream(file))) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(fileIn, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a party snapshot: " + file);
+            }
+            int formatVersion = in.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported party snapshot version " + formatVersion + ": " + file);
+            }
+            int nextPartyId = in.readInt();
+            int count = in.readInt();
+            List<MCEnginePartyInfo> parties = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int partyId = in.readInt();
+                UUID owner = readUuid(in);
+                String name = in.readBoolean() ? in.readUTF() : null;
+                int memberCount = in.readInt();
+                List<UUID> members = new ArrayList<>(memberCount);
+                for (int j = 0; j < memberCount; j++) {
+                    members.add(readUuid(in));
+                }
+                parties.add(new MCEnginePartyInfo(partyId, owner, name, members));
+            }
+            long expected = crc.getValue();
+            if (new DataInputStream(fileIn).readLong() != expected) {
+                throw new IOException("Party snapshot checksum mismatch: " + file);
+            }
+            // Only touch the store once the whole file has been validated
+            for (MCEnginePartyInfo party : parties) {
+                store.restoreParty(party.partyId(), party.ownerId(), party.partyName(), party.members());
+            }
+            store.reserveUpTo(nextPartyId);
+            return true;
+        }
+    }
+
+    /**
+     * Writes a UUID as two longs.
+     *
+     * @param out  the stream
+     * @param uuid the UUID
+     * @throws IOException if writing fails
+     */
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Reads a UUID written by {@link #writeUuid(DataOutputStream, UUID)}.
+     *
+     * @param in the stream
+     * @return the UUID
+     * @throws IOException if reading fails
+     */
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
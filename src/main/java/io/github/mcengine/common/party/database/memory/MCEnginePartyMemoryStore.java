@@ -0,0 +1,351 @@
+package io.github.mcengine.common.party.database.memory;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap-resident party state shared by the in-memory backends.
+ * <p>
+ * Reads are lock-free lookups in concurrent maps. Mutations are serialized on the store so that
+ * the party table, the member sets and the player index always change together, and so that
+ * {@link #snapshot()} sees a consistent state. Semantics match the SQL backends: the owner is a
+ * member of their party, and an owner leaving disbands the party.
+ */
+public class MCEnginePartyMemoryStore {
+
+    /**
+     * Party ID -> party state.
+     */
+    private final Map<Integer, Party> parties = new ConcurrentHashMap<>();
+
+    /**
+     * Player UUID -> ID of the party the player belongs to.
+     */
+    private final Map<UUID, Integer> playerParty = new ConcurrentHashMap<>();
+
+    /**
+     * Number of mutations applied so far, used to detect unsaved changes.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Next party ID to hand out. Guarded by {@code this}.
+     */
+    private int nextPartyId = 1;
+
+    /**
+     * Creates a new party owned by the player.
+     *
+     * @param owner UUID of the owner
+     * @return the new party ID
+     */
+    public synchronized int createParty(UUID owner) {
+        int partyId = nextPartyId++;
+        restoreParty(partyId, owner, null, List.of(owner));
+        return partyId;
+    }
+
+    /**
+     * Adds a party with a known ID, e.g. when loading a snapshot or replaying a journal.
+     * Later party IDs are allocated above it.
+     *
+     * @param partyId the party ID
+     * @param owner   UUID of the owner
+     * @param name    the party name, or null
+     * @param members UUIDs of every member, including the owner
+     */
+    public synchronized void restoreParty(int partyId, UUID owner, String name, Collection<UUID> members) {
+        Party party = new Party(owner, name);
+        party.members.addAll(members);
+        parties.put(partyId, party);
+        for (UUID member : members) {
+            playerParty.putIfAbsent(member, partyId);
+        }
+        // The owner's own party takes precedence, as in the SQL backends
+        playerParty.put(owner, partyId);
+        nextPartyId = Math.max(nextPartyId, partyId + 1);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Adds a player to a party.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player
+     * @return true if the party exists and the player was added
+     */
+    public synchronized boolean addMember(int partyId, UUID player) {
+        Party party = parties.get(partyId);
+        if (party == null || !party.members.add(player)) {
+            return false;
+        }
+        playerParty.putIfAbsent(player, partyId);
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes a player from a party without disbanding it.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player
+     * @return true if the player was a member
+     */
+    public synchronized boolean removeMember(int partyId, UUID player) {
+        Party party = parties.get(partyId);
+        if (party == null || !party.members.remove(player)) {
+            return false;
+        }
+        playerParty.remove(player, partyId);
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes the player from the party, disbanding it if the player is the owner.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player
+     * @return true if anything changed
+     */
+    public synchronized boolean leave(int partyId, UUID player) {
+        Party party = parties.get(partyId);
+        if (party == null) {
+            return false;
+        }
+        if (!player.equals(party.ownerId)) {
+            return removeMember(partyId, player);
+        }
+        parties.remove(partyId);
+        for (UUID member : party.members) {
+            playerParty.remove(member, partyId);
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Sets the party name if the player owns the party.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player setting the name
+     * @param name    the new name
+     * @return true if the name was set
+     */
+    public synchronized boolean setName(int partyId, UUID player, String name) {
+        Party party = parties.get(partyId);
+        if (party == null || !player.equals(party.ownerId)) {
+            return false;
+        }
+        party.name = name;
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Checks whether the player is a member of the party.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player
+     * @return true if the player is a member
+     */
+    public boolean isMember(int partyId, UUID player) {
+        Party party = parties.get(partyId);
+        return party != null && party.members.contains(player);
+    }
+
+    /**
+     * Gets the role of the player in the party.
+     *
+     * @param partyId the party ID
+     * @param player  UUID of the player
+     * @return the role, or null if the player is not in the party
+     */
+    public MCEnginePartyRole getRole(int partyId, UUID player) {
+        Party party = parties.get(partyId);
+        if (party == null) {
+            return null;
+        }
+        if (player.equals(party.ownerId)) {
+            return MCEnginePartyRole.OWNER;
+        }
+        return party.members.contains(player) ? MCEnginePartyRole.MEMBER : null;
+    }
+
+    /**
+     * Finds the party of the player.
+     *
+     * @param player UUID of the player
+     * @return the party ID, or {@link IMCEnginePartyDB#NO_PARTY}
+     */
+    public int findPartyId(UUID player) {
+        Integer partyId = playerParty.get(player);
+        return partyId == null ? IMCEnginePartyDB.NO_PARTY : partyId;
+    }
+
+    /**
+     * Gets the member count of the party.
+     *
+     * @param partyId the party ID
+     * @return the member count, 0 if the party does not exist
+     */
+    public int getMemberCount(int partyId) {
+        Party party = parties.get(partyId);
+        return party == null ? 0 : party.members.size();
+    }
+
+    /**
+     * Gets the owner of the party.
+     *
+     * @param partyId the party ID
+     * @return the owner's UUID, or null if the party does not exist
+     */
+    public UUID getOwner(int partyId) {
+        Party party = parties.get(partyId);
+        return party == null ? null : party.ownerId;
+    }
+
+    /**
+     * Gets a copy of the party's members.
+     *
+     * @param partyId the party ID
+     * @return member UUIDs, empty if the party does not exist
+     */
+    public List<UUID> getMembers(int partyId) {
+        Party party = parties.get(partyId);
+        return party == null ? new ArrayList<>() : new ArrayList<>(party.members);
+    }
+
+    /**
+     * Resolves the player's party context.
+     *
+     * @param player UUID of the player
+     * @return the membership, or null if the player is not in a party
+     */
+    public MCEnginePartyMembership getMembership(UUID player) {
+        Integer partyId = playerParty.get(player);
+        Party party = partyId == null ? null : parties.get(partyId);
+        if (party == null) {
+            return null;
+        }
+        return new MCEnginePartyMembership(
+                partyId,
+                player.equals(party.ownerId) ? MCEnginePartyRole.OWNER : MCEnginePartyRole.MEMBER,
+                party.ownerId,
+                party.name,
+                party.members.size());
+    }
+
+    /**
+     * Builds a snapshot of one party.
+     *
+     * @param partyId the party ID
+     * @return the party snapshot, or null if the party does not exist
+     */
+    public MCEnginePartyInfo getParty(int partyId) {
+        Party party = parties.get(partyId);
+        return party == null ? null : new MCEnginePartyInfo(partyId, party.ownerId, party.name, List.copyOf(party.members));
+    }
+
+    /**
+     * Copies every party in a consistent state.
+     *
+     * @return one snapshot per party
+     */
+    public synchronized List<MCEnginePartyInfo> snapshot() {
+        List<MCEnginePartyInfo> snapshot = new ArrayList<>(parties.size());
+        for (Map.Entry<Integer, Party> entry : parties.entrySet()) {
+            Party party = entry.getValue();
+            snapshot.add(new MCEnginePartyInfo(entry.getKey(), party.ownerId, party.name, List.copyOf(party.members)));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets the next party ID that will be allocated.
+     *
+     * @return the next party ID
+     */
+    public synchronized int getNextPartyId() {
+        return nextPartyId;
+    }
+
+    /**
+     * Raises the next party ID, e.g. so IDs of disbanded parties are not reused after a restart.
+     *
+     * @param partyId the lowest ID the store may hand out next
+     */
+    public synchronized void reserveUpTo(int partyId) {
+        nextPartyId = Math.max(nextPartyId, partyId);
+    }
+
+    /**
+     * Gets the number of mutations applied so far. Changes when the state changes.
+     *
+     * @return the state version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gets the number of parties.
+     *
+     * @return party count
+     */
+    public int size() {
+        return parties.size();
+    }
+
+    /**
+     * Removes every party.
+     */
+    public synchronized void clear() {
+        parties.clear();
+        playerParty.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Mutable state of a single party.
+     */
+    private static final class Party {
+
+        /**
+         * UUID of the party owner.
+         */
+        private final UUID ownerId;
+
+        /**
+         * The party name, or null if none has been set.
+         */
+        private volatile String name;
+
+        /**
+         * UUIDs of all members, including the owner.
+         */
+        private final Set<UUID> members = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Creates a party owned by the given player.
+         *
+         * @param ownerId UUID of the party owner
+         * @param name    the party name, or null
+         */
+        private Party(UUID ownerId, String name) {
+            this.ownerId = ownerId;
+            this.name = name;
+        }
+    }
+}
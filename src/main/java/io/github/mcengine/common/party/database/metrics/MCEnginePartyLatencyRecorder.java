@@ -0,0 +1,188 @@
+package io.github.mcengine.common.party.database.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free call, error and latency recorder for a single database operation.
+ * <p>
+ * Latencies go into a log-linear histogram: each power of two is split into
+ * {@value #SUB_BUCKETS} buckets, so reported percentiles are within 12.5% of the true value.
+ * Recording is a few atomic increments and never allocates.
+ */
+public class MCEnginePartyLatencyRecorder {
+
+    /**
+     * Number of linear sub-buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 8;
+
+    /**
+     * log2 of {@link #SUB_BUCKETS}.
+     */
+    private static final int SUB_BITS = 3;
+
+    /**
+     * Number of buckets needed to cover every non-negative {@code long}.
+     */
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    /**
+     * Name of the recorded operation.
+     */
+    private final String operation;
+
+    /**
+     * Number of completed calls, successful or not.
+     */
+    private final LongAdder calls = new LongAdder();
+
+    /**
+     * Number of calls that threw.
+     */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Sum of all latencies, in nanoseconds.
+     */
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Largest latency seen, in nanoseconds.
+     */
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Latency histogram bucket counts.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Creates a recorder for the named operation.
+     *
+     * @param operation the operation name, e.g. {@code "createParty"}
+     */
+    public MCEnginePartyLatencyRecorder(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Records a completed call that started at {@code startNanos}.
+     *
+     * @param startNanos value of {@link System#nanoTime()} when the call started
+     */
+    public void record(long startNanos) {
+        long nanos = Math.max(0L, System.nanoTime() - startNanos);
+        calls.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets.incrementAndGet(bucketOf(nanos));
+    }
+
+    /**
+     * Records that a call failed. The call's latency is still recorded by {@link #record(long)}.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Takes a point-in-time snapshot of the recorded values.
+     * Concurrent recording may make the fields slightly inconsistent with each other.
+     *
+     * @return the operation's statistics
+     */
+    public MCEnginePartyOperationStats snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long callCount = calls.sum();
+        return new MCEnginePartyOperationStats(
+                operation,
+                callCount,
+                errors.sum(),
+                callCount == 0 ? 0L : totalNanos.sum() / callCount,
+                percentile(counts, total, 0.50),
+                percentile(counts, total, 0.99),
+                maxNanos.get());
+    }
+
+    /**
+     * Clears every counter and the histogram.
+     */
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0L);
+        }
+    }
+
+    /**
+     * Gets the recorded operation name.
+     *
+     * @return the operation name
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Finds the histogram bucket of a latency.
+     *
+     * @param nanos latency in nanoseconds, non-negative
+     * @return the bucket index
+     */
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BITS + 1) << SUB_BITS) | sub;
+    }
+
+    /**
+     * Gets the largest latency that falls into a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the bucket's upper bound in nanoseconds
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+        long lower = (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+    /**
+     * Computes a percentile from bucket counts, reporting the upper bound of the matching bucket.
+     *
+     * @param counts   bucket counts
+     * @param total    sum of {@code counts}
+     * @param quantile the quantile, between 0 and 1
+     * @return the latency in nanoseconds, or 0 when nothing was recorded
+     */
+    private static long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * quantile));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(counts.length - 1);
+    }
+}
@@ -0,0 +1,577 @@
+package io.github.mcengine.common.party.database.metrics;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Decorator that records call counts, error counts and latency percentiles for every
+ * {@link IMCEnginePartyDB} operation of the wrapped backend.
+ * <p>
+ * A call counts as an error when it throws (backends throw
+ * {@link io.github.mcengine.common.party.database.MCEnginePartyDBException}).
+ * Recording is lock-free and allocation-free; see {@link MCEnginePartyLatencyRecorder}.
+ */
+public class MCEnginePartyMetricsDB implements IMCEnginePartyDB {
+
+    /**
+     * The instrumented backend.
+     */
+    private final IMCEnginePartyDB delegate;
+
+    /**
+     * Every recorder, in declaration order, for reporting.
+     */
+    private final List<MCEnginePartyLatencyRecorder> recorders = new ArrayList<>();
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#createParty(UUID)}.
+     */
+    private final MCEnginePartyLatencyRecorder createPartyStats = recorder("createParty");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#invitePlayerToParty(int, UUID)}.
+     */
+    private final MCEnginePartyLatencyRecorder invitePlayerToPartyStats = recorder("invitePlayerToParty");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#kickPlayerFromParty(int, UUID)}.
+     */
+    private final MCEnginePartyLatencyRecorder kickPlayerFromPartyStats = recorder("kickPlayerFromParty");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#leaveParty(int, UUID)}.
+     */
+    private final MCEnginePartyLatencyRecorder leavePartyStats = recorder("leaveParty");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#isMember(int, UUID)}.
+     */
+    private final MCEnginePartyLatencyRecorder isMemberStats = recorder("isMember");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#executeSqls(String[])}.
+     */
+    private final MCEnginePartyLatencyRecorder executeSqlsStats = recorder("executeSqls");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#setPartyName(int, UUID, String)}.
+     */
+    private final MCEnginePartyLatencyRecorder setPartyNameStats = recorder("setPartyName");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#getPlayerPartyRole(int, UUID)}.
+     */
+    private final MCEnginePartyLatencyRecorder getPlayerPartyRoleStats = recorder("getPlayerPartyRole");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#findPlayerPartyId(UUID)}.
+     */
+    private final MCEnginePartyLatencyRecorder findPlayerPartyIdStats = recorder("findPlayerPartyId");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#getPartyCount(int)}.
+     */
+    private final MCEnginePartyLatencyRecorder getPartyCountStats = recorder("getPartyCount");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#getPartyOwner(int)}.
+     */
+    private final MCEnginePartyLatencyRecorder getPartyOwnerStats = recorder("getPartyOwner");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#getPartyMembers(int)}.
+     */
+    private final MCEnginePartyLatencyRecorder getPartyMembersStats = recorder("getPartyMembers");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#getPlayerMembership(UUID)}.
+     */
+    private final MCEnginePartyLatencyRecorder getPlayerMembershipStats = recorder("getPlayerMembership");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#getParty(int)}.
+     */
+    private final MCEnginePartyLatencyRecorder getPartyStats = recorder("getParty");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#findPlayerPartyIds(Collection)}.
+     */
+    private final MCEnginePartyLatencyRecorder findPlayerPartyIdsStats = recorder("findPlayerPartyIds");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#getPartyMembers(Collection)}.
+     */
+    private final MCEnginePartyLatencyRecorder getPartyMembersBulkStats = recorder("getPartyMembers(bulk)");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#getPartyCounts(Collection)}.
+     */
+    private final MCEnginePartyLatencyRecorder getPartyCountsStats = recorder("getPartyCounts");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#getPlayerParties(Collection)}.
+     */
+    private final MCEnginePartyLatencyRecorder getPlayerPartiesStats = recorder("getPlayerParties");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#leavePlayers(Collection<UUID>)}.
+     */
+    private final MCEnginePartyLatencyRecorder leavePlayersStats = recorder("leavePlayers");
+
+    /**
+     * Recorder for {@link IMCEnginePartyDB#inTransaction(Function)}, covering the whole transaction.
+     */
+    private final MCEnginePartyLatencyRecorder inTransactionStats = recorder("inTransaction");
+
+    /**
+     * Creates the decorator around the given backend.
+     *
+     * @param delegate the backend to instrument
+     */
+    public MCEnginePartyMetricsDB(IMCEnginePartyDB delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Takes a snapshot of every operation's statistics, in a stable order.
+     *
+     * @return one entry per operation, including operations that were never called
+     */
+    public List<MCEnginePartyOperationStats> getStats() {
+        List<MCEnginePartyOperationStats> stats = new ArrayList<>(recorders.size());
+        for (MCEnginePartyLatencyRecorder recorder : recorders) {
+            stats.add(recorder.snapshot());
+        }
+        return stats;
+    }
+
+    /**
+     * Clears every counter and histogram.
+     */
+    public void reset() {
+        for (MCEnginePartyLatencyRecorder recorder : recorders) {
+            recorder.reset();
+        }
+    }
+
+    /**
+     * Initializes the underlying backend.
+     */
+    @Override
+    public void init() {
+        delegate.init();
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return the ID of the newly created party, or {@link #NO_PARTY}
+     */
+    @Override
+    public int createParty(UUID owner) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createParty(owner);
+        } catch (RuntimeException e) {
+            createPartyStats.recordError();
+            throw e;
+        } finally {
+            createPartyStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to add
+     */
+    @Override
+    public void invitePlayerToParty(int partyId, UUID player) {
+        long start = System.nanoTime();
+        try {
+            delegate.invitePlayerToParty(partyId, player);
+        } catch (RuntimeException e) {
+            invitePlayerToPartyStats.recordError();
+            throw e;
+        } finally {
+            invitePlayerToPartyStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to remove
+     */
+    @Override
+    public void kickPlayerFromParty(int partyId, UUID player) {
+        long start = System.nanoTime();
+        try {
+            delegate.kickPlayerFromParty(partyId, player);
+        } catch (RuntimeException e) {
+            kickPlayerFromPartyStats.recordError();
+            throw e;
+        } finally {
+            kickPlayerFromPartyStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving
+     */
+    @Override
+    public void leaveParty(int partyId, UUID player) {
+        long start = System.nanoTime();
+        try {
+            delegate.leaveParty(partyId, player);
+        } catch (RuntimeException e) {
+            leavePartyStats.recordError();
+            throw e;
+        } finally {
+            leavePartyStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
+     * @return true if the player is a member of the party, false otherwise
+     */
+    @Override
+    public boolean isMember(int partyId, UUID player) {
+        long start = System.nanoTime();
+        try {
+            return delegate.isMember(partyId, player);
+        } catch (RuntimeException e) {
+            isMemberStats.recordError();
+            throw e;
+        } finally {
+            isMemberStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param sqls an array of SQL statements to execute
+     */
+    @Override
+    public void executeSqls(String[] sqls) {
+        long start = System.nanoTime();
+        try {
+            delegate.executeSqls(sqls);
+        } catch (RuntimeException e) {
+            executeSqlsStats.recordError();
+            throw e;
+        } finally {
+            executeSqlsStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party
+     * @return true if the name was set, false otherwise
+     */
+    @Override
+    public boolean setPartyName(int partyId, UUID player, String name) {
+        long start = System.nanoTime();
+        try {
+            return delegate.setPartyName(partyId, player, name);
+        } catch (RuntimeException e) {
+            setPartyNameStats.recordError();
+            throw e;
+        } finally {
+            setPartyNameStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return the player's role, or null if the player is not in the party
+     */
+    @Override
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPlayerPartyRole(partyId, player);
+        } catch (RuntimeException e) {
+            getPlayerPartyRoleStats.recordError();
+            throw e;
+        } finally {
+            getPlayerPartyRoleStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY} if the player is not in a party
+     */
+    @Override
+    public int findPlayerPartyId(UUID player) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findPlayerPartyId(player);
+        } catch (RuntimeException e) {
+            findPlayerPartyIdStats.recordError();
+            throw e;
+        } finally {
+            findPlayerPartyIdStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @return the count of members in the party
+     */
+    @Override
+    public int getPartyCount(int partyId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPartyCount(partyId);
+        } catch (RuntimeException e) {
+            getPartyCountStats.recordError();
+            throw e;
+        } finally {
+            getPartyCountStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null if the party does not exist
+     */
+    @Override
+    public UUID getPartyOwner(int partyId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPartyOwner(partyId);
+        } catch (RuntimeException e) {
+            getPartyOwnerStats.recordError();
+            throw e;
+        } finally {
+            getPartyOwnerStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs, empty if the party has no members
+     */
+    @Override
+    public List<UUID> getPartyMembers(int partyId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPartyMembers(partyId);
+        } catch (RuntimeException e) {
+            getPartyMembersStats.recordError();
+            throw e;
+        } finally {
+            getPartyMembersStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    @Override
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPlayerMembership(player);
+        } catch (RuntimeException e) {
+            getPlayerMembershipStats.recordError();
+            throw e;
+        } finally {
+            getPlayerMembershipStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null if the party does not exist
+     */
+    @Override
+    public MCEnginePartyInfo getParty(int partyId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getParty(partyId);
+        } catch (RuntimeException e) {
+            getPartyStats.recordError();
+            throw e;
+        } finally {
+            getPartyStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param players UUIDs of the players to look up
+     * @return map from each given player to their party ID, or {@link #NO_PARTY}
+     */
+    @Override
+    public Map<UUID, Integer> findPlayerPartyIds(Collection<UUID> players) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findPlayerPartyIds(players);
+        } catch (RuntimeException e) {
+            findPlayerPartyIdsStats.recordError();
+            throw e;
+        } finally {
+            findPlayerPartyIdsStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member UUIDs
+     */
+    @Override
+    public Map<Integer, List<UUID>> getPartyMembers(Collection<Integer> partyIds) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPartyMembers(partyIds);
+        } catch (RuntimeException e) {
+            getPartyMembersBulkStats.recordError();
+            throw e;
+        } finally {
+            getPartyMembersBulkStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member count
+     */
+    @Override
+    public Map<Integer, Integer> getPartyCounts(Collection<Integer> partyIds) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPartyCounts(partyIds);
+        } catch (RuntimeException e) {
+            getPartyCountsStats.recordError();
+            throw e;
+        } finally {
+            getPartyCountsStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param players UUIDs of the players
+     * @return map from party ID to party snapshot
+     */
+    @Override
+    public Map<Integer, MCEnginePartyInfo> getPlayerParties(Collection<UUID> players) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPlayerParties(players);
+        } catch (RuntimeException e) {
+            getPlayerPartiesStats.recordError();
+            throw e;
+        } finally {
+            getPlayerPartiesStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the call.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     */
+    @Override
+    public void leavePlayers(Collection<UUID> players) {
+        long start = System.nanoTime();
+        try {
+            delegate.leavePlayers(players);
+        } catch (RuntimeException e) {
+            leavePlayersStats.recordError();
+            throw e;
+        } finally {
+            leavePlayersStats.record(start);
+        }
+    }
+
+    /**
+     * Delegates and records the whole transaction. Operations inside it pass through this
+     * decorator and are recorded individually as well.
+     *
+     * @param work the operations to run
+     * @param <T>  result type
+     * @return the result of the work
+     */
+    @Override
+    public <T> T inTransaction(Function<IMCEnginePartyDB, T> work) {
+        long start = System.nanoTime();
+        try {
+            return delegate.inTransaction(ignored -> work.apply(this));
+        } catch (RuntimeException e) {
+            inTransactionStats.recordError();
+            throw e;
+        } finally {
+            inTransactionStats.record(start);
+        }
+    }
+
+    /**
+     * Closes the underlying backend.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Creates and registers the recorder of one operation.
+     *
+     * @param operation the operation name
+     * @return the new recorder
+     */
+    private MCEnginePartyLatencyRecorder recorder(String operation) {
+        MCEnginePartyLatencyRecorder recorder = new MCEnginePartyLatencyRecorder(operation);
+        recorders.add(recorder);
+        return recorder;
+    }
+}
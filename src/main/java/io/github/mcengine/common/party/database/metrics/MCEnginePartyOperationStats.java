@@ -0,0 +1,22 @@
+package io.github.mcengine.common.party.database.metrics;
+
+/**
+ * Snapshot of the statistics of one database operation.
+ *
+ * @param operation  the operation name, e.g. {@code "createParty"}
+ * @param calls      number of completed calls, including failed ones
+ * @param errors     number of failed calls
+ * @param meanNanos  mean latency in nanoseconds
+ * @param p50Nanos   median latency in nanoseconds
+ * @param p99Nanos   99th percentile latency in nanoseconds
+ * @param maxNanos   largest latency in nanoseconds
+ */
+public record MCEnginePartyOperationStats(
+        String operation,
+        long calls,
+        long errors,
+        long meanNanos,
+        long p50Nanos,
+        long p99Nanos,
+        long maxNanos) {
+}
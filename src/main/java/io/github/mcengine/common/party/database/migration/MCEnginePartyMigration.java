@@ -0,0 +1,14 @@
+package io.github.mcengine.common.party.database.migration;
+
+/**
+ * A single versioned schema change.
+ * <p>
+ * Migrations are applied in ascending {@code version} order and recorded in the
+ * {@code schema_version} table, so each one runs exactly once per database.
+ *
+ * @param version     strictly increasing schema version this migration upgrades to
+ * @param description short human-readable summary stored alongside the version
+ * @param statements  SQL statements executed in order on a single connection
+ */
+public record MCEnginePartyMigration(int version, String description, String... statements) {
+}
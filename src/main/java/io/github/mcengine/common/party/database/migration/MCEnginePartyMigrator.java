@@ -0,0 +1,132 @@
+package io.github.mcengine.common.party.database.migration;
+
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Applies ordered {@link MCEnginePartyMigration}s to a party database and tracks the
+ * installed version in a {@code schema_version} table.
+ * <p>
+ * Each pending migration runs in its own transaction together with the insert of its
+ * {@code schema_version} row. If a migration fails it is rolled back and no later migrations
+ * are attempted, so the database is always left at a well-defined version.
+ * Note that MySQL commits DDL statements implicitly, so a failed MySQL migration may be
+ * partially applied; MySQL migrations therefore guard each DDL statement so that they can be re-run.
+ */
+public class MCEnginePartyMigrator {
+
+    /**
+     * DDL for the version tracking table, valid on both SQLite and MySQL.
+     */
+    private static final String CREATE_VERSION_TABLE = """
+        CREATE TABLE IF NOT EXISTS schema_version (
+            version INT NOT NULL PRIMARY KEY,
+            description VARCHAR(255) NOT NULL,
+            installed_at BIGINT NOT NULL
+        );
+    """;
+
+    /**
+     * The plugin instance used for logging.
+     */
+    private final Plugin plugin;
+
+    /**
+     * Name of the backend, used in log messages.
+     */
+    private final String backendName;
+
+    /**
+     * Creates a migrator for one backend.
+     *
+     * @param plugin      the Bukkit plugin instance
+     * @param backendName backend name used in log messages (e.g. {@code "SQLite"})
+     */
+    public MCEnginePartyMigrator(Plugin plugin, String backendName) {
+        this.plugin = plugin;
+        this.backendName = backendName;
+    }
+
+    /**
+     * Brings the database up to the newest version in {@code migrations}.
+     *
+     * @param conn       connection to migrate; its auto-commit mode is restored afterwards
+     * @param migrations all migrations for the backend's SQL dialect, in any order
+     * @return the schema version after migrating
+     * @throws SQLException if the version table cannot be read or a migration fails
+     */
+    public int migrate(Connection conn, List<MCEnginePartyMigration> migrations) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_VERSION_TABLE);
+        }
+
+        int current = currentVersion(conn);
+        List<MCEnginePartyMigration> ordered = new ArrayList<>(migrations);
+        ordered.sort(Comparator.comparingInt(MCEnginePartyMigration::version));
+
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            for (MCEnginePartyMigration migration : ordered) {
+                if (migration.version() <= current) {
+                    continue;
+                }
+                apply(conn, migration);
+                current = migration.version();
+                plugin.getLogger().info("Migrated " + backendName + " party schema to version "
+                        + current + ": " + migration.description());
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return current;
+    }
+
+    /**
+     * Reads the highest installed schema version.
+     *
+     * @param conn the database connection
+     * @return the installed version, or {@code 0} for a database that was never migrated
+     * @throws SQLException if the version table cannot be read
+     */
+    public int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Runs a single migration and records it, all in one transaction.
+     *
+     * @param conn      the database connection
+     * @param migration the migration to apply
+     * @throws SQLException if any statement fails; the transaction is rolled back
+     */
+    private void apply(Connection conn, MCEnginePartyMigration migration) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement record = conn.prepareStatement(
+                     "INSERT INTO schema_version (version, description, installed_at) VALUES (?, ?, ?)")) {
+            for (String sql : migration.statements()) {
+                stmt.execute(sql);
+            }
+            record.setInt(1, migration.version());
+            record.setString(2, migration.description());
+            record.setLong(3, System.currentTimeMillis());
+            record.executeUpdate();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Party schema migration " + migration.version()
+                    + " (" + migration.description() + ") failed: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,15 +1,47 @@
 package io.github.mcengine.common.party.database.mysql;
 
 import io.github.mcengine.common.party.database.IMCEnginePartyDB;
-import org.bukkit.entity.Player;
+import io.github.mcengine.common.party.database.MCEnginePartyDBException;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import io.github.mcengine.common.party.database.migration.MCEnginePartyMigrator;
+import io.github.mcengine.common.party.database.statement.IMCEnginePartySQLWork;
+import io.github.mcengine.common.party.database.statement.MCEnginePartyBulkQuery;
+import io.github.mcengine.common.party.database.statement.MCEnginePartyStatementCache;
+import io.github.mcengine.common.party.database.sweep.IMCEnginePartySweepable;
+import io.github.mcengine.common.party.database.sweep.MCEnginePartyOrphanSweep;
+import io.github.mcengine.common.party.database.sweep.MCEnginePartySweepStep;
+import io.github.mcengine.common.party.database.sync.IMCEnginePartyChangeSource;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChange;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChangeLog;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChangeType;
 import org.bukkit.plugin.Plugin;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * MySQL implementation of the party system for MC Engine.
+ * <p>
+ * Operations that issue several statements run in one transaction on one pooled connection and
+ * are rolled back as a whole on failure. {@link #inTransaction(Function)} binds a connection to the
+ * calling thread, so every operation the work performs joins the same transaction.
+ * <p>
+ * With {@code database.sync.enabled}, every mutation also records a row in the {@code party_change}
+ * table in the same transaction (see {@link MCEnginePartyChangeLog}), so servers sharing the database
+ * can keep their caches in sync.
  */
-public class MCEnginePartyMySQL implements IMCEnginePartyDB {
+public class MCEnginePartyMySQL implements IMCEnginePartyDB, IMCEnginePartyChangeSource, IMCEnginePartySweepable {
 
     /**
      * The plugin instance used for configuration and logging.
@@ -17,17 +49,87 @@ public class MCEnginePartyMySQL implements IMCEnginePartyDB {
     private final Plugin plugin;
 
     /**
-     * The persistent connection to the MySQL database.
+     * Pool of connections to the MySQL database. Every operation borrows a connection
+     * for its own duration, so concurrent callers use parallel connections.
      */
-    private final Connection conn;
+    private final MCEnginePartyMySQLPool pool;
 
     /**
-     * Constructs the MySQL handler and connects to the database.
+     * Prepared statements reused across calls, kept per pooled physical connection.
+     * Every statement times out after {@code database.mysql.query-timeout-seconds}.
+     */
+    private final MCEnginePartyStatementCache statements;
+
+    /**
+     * Connection of the transaction opened by {@link #inTransaction(Function)} on the current thread.
+     */
+    private final ThreadLocal<Connection> transaction = new ThreadLocal<>();
+
+    /**
+     * Change log written by every mutation, or {@code null} if {@code database.sync.enabled} is {@code false}.
+     */
+    private final MCEnginePartyChangeLog changeLog;
+
+    /**
+     * Orphan sweep steps run by {@link io.github.mcengine.common.party.database.sweep.MCEnginePartySweeper}.
+     */
+    private final MCEnginePartyOrphanSweep sweep;
+
+    /**
+     * Finds the parties of many players; every key is bound twice, once per union branch.
+     */
+    private final MCEnginePartyBulkQuery bulkPartyIds;
+
+    /**
+     * Lists the members of many parties.
+     */
+    private final MCEnginePartyBulkQuery bulkMembers;
+
+    /**
+     * Counts the members of many parties.
+     */
+    private final MCEnginePartyBulkQuery bulkCounts;
+
+    /**
+     * Loads the parties of many players with their members; every key is bound twice, once per union branch.
+     */
+    private final MCEnginePartyBulkQuery bulkPlayerParties;
+
+    /**
+     * Constructs the MySQL handler and opens the connection pool.
+     * Pool settings are read from {@code database.mysql.pool.*}. Statements time out after
+     * {@code database.mysql.query-timeout-seconds} (default {@code 5}); connecting and socket reads
+     * give up after {@code database.mysql.connect-timeout-ms} and {@code database.mysql.socket-timeout-ms},
+     * so an unreachable server fails calls instead of blocking them on TCP timeouts.
      *
      * @param plugin the Bukkit plugin instance
      */
     public MCEnginePartyMySQL(Plugin plugin) {
         this.plugin = plugin;
+        this.statements = new MCEnginePartyStatementCache(plugin.getConfig().getInt("database.mysql.query-timeout-seconds", 5));
+        this.changeLog = plugin.getConfig().getBoolean("database.sync.enabled", false)
+                ? new MCEnginePartyChangeLog(statements) : null;
+        this.sweep = new MCEnginePartyOrphanSweep(statements, changeLog);
+        int chunkSize = plugin.getConfig().getInt("database.bulk.chunk-size", 256);
+        this.bulkPartyIds = new MCEnginePartyBulkQuery("""
+            SELECT party_owner_id AS player_id, party_id, 0 AS preference FROM party WHERE party_owner_id IN (%s)
+            UNION ALL
+            SELECT party_member_id AS player_id, party_id, 1 AS preference FROM party_member WHERE party_member_id IN (%s)
+        """, chunkSize);
+        this.bulkMembers = new MCEnginePartyBulkQuery(
+                "SELECT party_id, party_member_id FROM party_member WHERE party_id IN (%s)", chunkSize);
+        this.bulkCounts = new MCEnginePartyBulkQuery(
+                "SELECT party_id, COUNT(*) AS cnt FROM party_member WHERE party_id IN (%s) GROUP BY party_id", chunkSize);
+        this.bulkPlayerParties = new MCEnginePartyBulkQuery("""
+            SELECT p.party_id, p.party_owner_id, p.party_name, m.party_member_id
+            FROM party p
+            LEFT JOIN party_member m ON m.party_id = p.party_id
+            WHERE p.party_id IN (
+                SELECT party_id FROM party WHERE party_owner_id IN (%s)
+                UNION
+                SELECT party_id FROM party_member WHERE party_member_id IN (%s)
+            )
+        """, chunkSize);
 
         String host = plugin.getConfig().getString("database.mysql.host", "localhost");
         String port = plugin.getConfig().getString("database.mysql.port", "3306");
@@ -35,47 +137,31 @@ public class MCEnginePartyMySQL implements IMCEnginePartyDB {
         String user = plugin.getConfig().getString("database.mysql.user", "root");
         String pass = plugin.getConfig().getString("database.mysql.password", "");
 
-        String jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + dbName + "?useSSL=false&autoReconnect=true";
+        // Broken connections are detected and replaced by the pool, so no autoReconnect.
+        // Statements are cached per connection, so server-side prepares are paid once.
+        // The socket timeout also bounds statements whose query timeout cannot be cancelled on a dead server.
+        long connectTimeoutMs = Math.max(0L, plugin.getConfig().getLong("database.mysql.connect-timeout-ms", 3000L));
+        long socketTimeoutMs = Math.max(0L, plugin.getConfig().getLong("database.mysql.socket-timeout-ms", 10000L));
+        String jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + dbName + "?useSSL=false&useServerPrepStmts=true"
+                + "&connectTimeout=" + connectTimeoutMs + "&socketTimeout=" + socketTimeoutMs;
 
-        Connection tempConn = null;
-        try {
-            tempConn = DriverManager.getConnection(jdbcUrl, user, pass);
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to connect to MySQL: " + e.getMessage());
-            e.printStackTrace();
-        }
-        this.conn = tempConn;
+        this.pool = new MCEnginePartyMySQLPool(plugin, jdbcUrl, user, pass);
+        pool.setDiscardListener(statements::invalidate);
 
         init();
     }
 
     /**
-     * Initializes the MySQL tables for the party system if they do not already exist.
+     * Initializes the MySQL party schema by applying all pending versioned migrations
+     * (see {@link MCEnginePartyMySQLMigrations}). Existing databases are upgraded in place.
      * This method must be called before any other database operations are performed.
      */
     @Override
     public void init() {
-        String createPartyTable = """
-            CREATE TABLE IF NOT EXISTS party (
-                party_id INT AUTO_INCREMENT PRIMARY KEY,
-                party_owner_id VARCHAR(36) NOT NULL,
-                party_name VARCHAR(255) DEFAULT NULL
-            );
-        """;
-
-        String createPartyMemberTable = """
-            CREATE TABLE IF NOT EXISTS party_member (
-                party_member_id VARCHAR(36) NOT NULL,
-                party_id INT NOT NULL,
-                FOREIGN KEY (party_id) REFERENCES party(party_id)
-            );
-        """;
-
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(createPartyTable);
-            stmt.execute(createPartyMemberTable);
+        try (Connection conn = connection()) {
+            new MCEnginePartyMigrator(plugin, "MySQL").migrate(conn, MCEnginePartyMySQLMigrations.all());
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to create party tables: " + e.getMessage());
+            plugin.getLogger().warning("Failed to migrate party tables: " + e.getMessage());
             e.printStackTrace();
         }
     }
@@ -84,70 +170,95 @@ public class MCEnginePartyMySQL implements IMCEnginePartyDB {
      * Creates a new party with the specified player as the owner and member.
      * Inserts the player as both the owner in the party table and as a member in the party_member table.
      *
-     * @param player the player who will be the owner of the new party
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return the ID of the newly created party, or {@link #NO_PARTY} if it could not be created
      */
     @Override
-    public void createParty(Player player) {
+    public int createParty(UUID owner) {
+        String uuid = owner.toString();
         String insertParty = "INSERT INTO party (party_owner_id) VALUES (?)";
         String insertMember = "INSERT INTO party_member (party_member_id, party_id) VALUES (?, ?)";
 
-        try (PreparedStatement stmt = conn.prepareStatement(insertParty, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, player.getUniqueId().toString());
-            stmt.executeUpdate();
-
-            ResultSet rs = stmt.getGeneratedKeys();
-            if (rs.next()) {
-                int partyId = rs.getInt(1);
-                try (PreparedStatement memberStmt = conn.prepareStatement(insertMember)) {
-                    memberStmt.setString(1, player.getUniqueId().toString());
-                    memberStmt.setInt(2, partyId);
-                    memberStmt.executeUpdate();
-                }
-            }
+        try {
+            return write(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, insertParty, Statement.RETURN_GENERATED_KEYS);
+                stmt.setString(1, uuid);
+                stmt.executeUpdate();
 
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        int partyId = rs.getInt(1);
+                        PreparedStatement memberStmt = statements.prepare(conn, insertMember);
+                        memberStmt.setString(1, uuid);
+                        memberStmt.setInt(2, partyId);
+                        memberStmt.executeUpdate();
+                        if (changeLog != null) {
+                            changeLog.record(conn, MCEnginePartyChangeType.CREATE, partyId, owner, null);
+                        }
+                        return partyId;
+                    }
+                }
+                return NO_PARTY;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to create party: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to create party", e);
         }
     }
 
     /**
      * Invites a player to an existing party by adding them as a member in the party_member table.
      *
-     * @param party_id the ID of the party to which the player is being invited
-     * @param player the player to be invited to the party
+     * @param partyId the ID of the party to which the player is being invited
+     * @param player  UUID of the player to be invited to the party
      */
     @Override
-    public void invitePlayerToParty(String party_id, Player player) {
+    public void invitePlayerToParty(int partyId, UUID player) {
         String insertSql = "INSERT INTO party_member (party_member_id, party_id) VALUES (?, ?)";
 
-        try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
-            stmt.setString(1, player.getUniqueId().toString());
-            stmt.setInt(2, Integer.parseInt(party_id));
-            stmt.executeUpdate();
+        try {
+            write(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, insertSql);
+                stmt.setString(1, player.toString());
+                stmt.setInt(2, partyId);
+                stmt.executeUpdate();
+                if (changeLog != null) {
+                    changeLog.record(conn, MCEnginePartyChangeType.JOIN, partyId, player, null);
+                }
+                return null;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to invite player to party: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to invite player to party", e);
         }
     }
 
     /**
      * Kicks a player from the specified party by removing their record from the party_member table.
      *
-     * @param party_id the ID of the party
-     * @param player the player to be removed from the party
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to be removed from the party
      */
     @Override
-    public void kickPlayerFromParty(String party_id, Player player) {
+    public void kickPlayerFromParty(int partyId, UUID player) {
         String deleteSql = "DELETE FROM party_member WHERE party_id = ? AND party_member_id = ?";
 
-        try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
-            stmt.setInt(1, Integer.parseInt(party_id));
-            stmt.setString(2, player.getUniqueId().toString());
-            stmt.executeUpdate();
+        try {
+            write(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, deleteSql);
+                stmt.setInt(1, partyId);
+                stmt.setString(2, player.toString());
+                if (stmt.executeUpdate() > 0 && changeLog != null) {
+                    changeLog.record(conn, MCEnginePartyChangeType.LEAVE, partyId, player, null);
+                }
+                return null;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to kick player from party: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to kick player from party", e);
         }
     }
 
@@ -156,151 +267,174 @@ public class MCEnginePartyMySQL implements IMCEnginePartyDB {
      * If the player is the owner, the entire party and its members will be deleted.
      * If the player is a regular member, only their party_member record is removed.
      *
-     * @param party_id the ID of the party
-     * @param player the player who is leaving the party
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving the party
      */
     @Override
-    public void leaveParty(String party_id, Player player) {
-        String checkOwnerSql = "SELECT party_owner_id FROM party WHERE party_id = ?";
+    public void leaveParty(int partyId, UUID player) {
+        String uuid = player.toString();
+        String checkOwnerSql = "SELECT party_owner_id FROM party WHERE party_id = ? FOR UPDATE";
 
-        try (PreparedStatement stmt = conn.prepareStatement(checkOwnerSql)) {
-            stmt.setInt(1, Integer.parseInt(party_id));
-            ResultSet rs = stmt.executeQuery();
+        try {
+            write(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, checkOwnerSql);
+                stmt.setInt(1, partyId);
+                String ownerUuid;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    ownerUuid = rs.getString("party_owner_id");
+                }
 
-            if (rs.next()) {
-                String ownerUuid = rs.getString("party_owner_id");
-                if (ownerUuid.equals(player.getUniqueId().toString())) {
+                if (ownerUuid.equals(uuid)) {
                     // Owner: delete party and members
-                    try (
-                        PreparedStatement deleteMembers = conn.prepareStatement("DELETE FROM party_member WHERE party_id = ?");
-                        PreparedStatement deleteParty = conn.prepareStatement("DELETE FROM party WHERE party_id = ?")
-                    ) {
-                        deleteMembers.setInt(1, Integer.parseInt(party_id));
-                        deleteParty.setInt(1, Integer.parseInt(party_id));
-                        deleteMembers.executeUpdate();
-                        deleteParty.executeUpdate();
+                    PreparedStatement deleteMembers = statements.prepare(conn, "DELETE FROM party_member WHERE party_id = ?");
+                    PreparedStatement deleteParty = statements.prepare(conn, "DELETE FROM party WHERE party_id = ?");
+                    deleteMembers.setInt(1, partyId);
+                    deleteParty.setInt(1, partyId);
+                    deleteMembers.executeUpdate();
+                    deleteParty.executeUpdate();
+                    if (changeLog != null) {
+                        changeLog.record(conn, MCEnginePartyChangeType.DISBAND, partyId, null, null);
                     }
                 } else {
-                    // Member: remove from party
-                    kickPlayerFromParty(party_id, player);
+                    // Member: remove from party on the same connection
+                    PreparedStatement deleteMember = statements.prepare(conn, "DELETE FROM party_member WHERE party_id = ? AND party_member_id = ?");
+                    deleteMember.setInt(1, partyId);
+                    deleteMember.setString(2, uuid);
+                    if (deleteMember.executeUpdate() > 0 && changeLog != null) {
+                        changeLog.record(conn, MCEnginePartyChangeType.LEAVE, partyId, player, null);
+                    }
                 }
-            }
+                return null;
+            });
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to process leaveParty: " + e.getMessage());
+            plugin.getLogger().warning("Failed to leave party: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to leave party", e);
         }
     }
 
     /**
      * Checks whether the specified player is a member of the specified party.
      *
-     * @param party_id the ID of the party
-     * @param player the player to check
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
      * @return true if the player is a member of the party, false otherwise
      */
     @Override
-    public boolean isMember(String party_id, Player player) {
+    public boolean isMember(int partyId, UUID player) {
         String sql = "SELECT 1 FROM party_member WHERE party_id = ? AND party_member_id = ? LIMIT 1";
 
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, Integer.parseInt(party_id));
-            stmt.setString(2, player.getUniqueId().toString());
-            ResultSet rs = stmt.executeQuery();
-            return rs.next();
-        } catch (SQLException | NumberFormatException e) {
+        try (Connection conn = connection()) {
+            PreparedStatement stmt = statements.prepare(conn, sql);
+            stmt.setInt(1, partyId);
+            stmt.setString(2, player.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
             plugin.getLogger().warning("Failed to check party membership: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            throw new MCEnginePartyDBException("Failed to check party membership", e);
         }
     }
 
     /**
      * Executes one or more raw SQL statements.
+     * Ad-hoc SQL is not cached. With the change log enabled, a reset is recorded so other
+     * servers drop their cached parties.
      *
      * @param sqls an array of SQL strings to execute
      */
     @Override
     public void executeSqls(String[] sqls) {
-        try (Statement stmt = conn.createStatement()) {
+        try (Connection conn = connection(); Statement stmt = conn.createStatement()) {
             for (String sql : sqls) {
                 stmt.execute(sql);
             }
+            if (changeLog != null) {
+                changeLog.record(conn, MCEnginePartyChangeType.RESET, NO_PARTY, null, null);
+            }
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to execute external SQL: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to execute external SQL", e);
         }
     }
 
     /**
      * Sets the party name if the given player is the owner of the party.
      *
-     * @param party_id the ID of the party
-     * @param player the player attempting to set the name
-     * @param name the new name for the party
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party
      * @return true if the name was set, false otherwise
      */
     @Override
-    public boolean setPartyName(String party_id, Player player, String name) {
-        String checkOwnerSql = "SELECT party_owner_id FROM party WHERE party_id = ?";
+    public boolean setPartyName(int partyId, UUID player, String name) {
+        String checkOwnerSql = "SELECT party_owner_id FROM party WHERE party_id = ? FOR UPDATE";
         String updateNameSql = "UPDATE party SET party_name = ? WHERE party_id = ?";
-        try (PreparedStatement checkStmt = conn.prepareStatement(checkOwnerSql)) {
-            checkStmt.setInt(1, Integer.parseInt(party_id));
-            ResultSet rs = checkStmt.executeQuery();
-            if (rs.next()) {
-                String ownerUuid = rs.getString("party_owner_id");
-                if (ownerUuid.equals(player.getUniqueId().toString())) {
-                    try (PreparedStatement updateStmt = conn.prepareStatement(updateNameSql)) {
-                        updateStmt.setString(1, name);
-                        updateStmt.setInt(2, Integer.parseInt(party_id));
-                        updateStmt.executeUpdate();
-                        return true;
+        try {
+            return write(conn -> {
+                PreparedStatement checkStmt = statements.prepare(conn, checkOwnerSql);
+                checkStmt.setInt(1, partyId);
+                try (ResultSet rs = checkStmt.executeQuery()) {
+                    if (!rs.next() || !rs.getString("party_owner_id").equals(player.toString())) {
+                        return false;
                     }
                 }
-            }
+                PreparedStatement updateStmt = statements.prepare(conn, updateNameSql);
+                updateStmt.setString(1, name);
+                updateStmt.setInt(2, partyId);
+                updateStmt.executeUpdate();
+                if (changeLog != null) {
+                    changeLog.record(conn, MCEnginePartyChangeType.RENAME, partyId, player, name);
+                }
+                return true;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to set party name: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to set party name", e);
         }
-        return false;
     }
 
     /**
      * Gets the role of the specified player in the party.
-     * Returns "owner" if the player is the owner, "member" if they are a member, or null if not found.
      *
-     * @param party_id the ID of the party
-     * @param player the player whose role is to be checked
-     * @return "owner", "member", or null
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return the player's role, or null if the player is not in the party
      */
     @Override
-    public String getPlayerPartyRole(String party_id, Player player) {
-        String uuid = player.getUniqueId().toString();
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        String uuid = player.toString();
         String checkOwnerSql = "SELECT party_owner_id FROM party WHERE party_id = ?";
         String checkMemberSql = "SELECT 1 FROM party_member WHERE party_id = ? AND party_member_id = ? LIMIT 1";
 
-        try (PreparedStatement ownerStmt = conn.prepareStatement(checkOwnerSql)) {
-            ownerStmt.setInt(1, Integer.parseInt(party_id));
-            ResultSet ownerRs = ownerStmt.executeQuery();
-            if (ownerRs.next()) {
-                if (uuid.equals(ownerRs.getString("party_owner_id"))) {
-                    return "owner";
+        try (Connection conn = connection()) {
+            PreparedStatement ownerStmt = statements.prepare(conn, checkOwnerSql);
+            ownerStmt.setInt(1, partyId);
+            try (ResultSet ownerRs = ownerStmt.executeQuery()) {
+                if (ownerRs.next() && uuid.equals(ownerRs.getString("party_owner_id"))) {
+                    return MCEnginePartyRole.OWNER;
                 }
             }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check party owner: " + e.getMessage());
-            e.printStackTrace();
-        }
 
-        try (PreparedStatement memberStmt = conn.prepareStatement(checkMemberSql)) {
-            memberStmt.setInt(1, Integer.parseInt(party_id));
+            PreparedStatement memberStmt = statements.prepare(conn, checkMemberSql);
+            memberStmt.setInt(1, partyId);
             memberStmt.setString(2, uuid);
-            ResultSet memberRs = memberStmt.executeQuery();
-            if (memberRs.next()) {
-                return "member";
+            try (ResultSet memberRs = memberStmt.executeQuery()) {
+                if (memberRs.next()) {
+                    return MCEnginePartyRole.MEMBER;
+                }
             }
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check party member: " + e.getMessage());
+            plugin.getLogger().warning("Failed to check party role: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to check party role", e);
         }
 
         return null;
@@ -308,62 +442,673 @@ public class MCEnginePartyMySQL implements IMCEnginePartyDB {
 
     /**
      * Finds the party ID that the specified player belongs to.
-     * Returns the party ID as a string if the player is in a party, or null if not found.
      *
-     * @param player the player to look up
-     * @return party ID if found, or null
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY} if the player is not in a party
      */
     @Override
-    public String findPlayerPartyId(Player player) {
-        String uuid = player.getUniqueId().toString();
-        // Check if player is a party owner
+    public int findPlayerPartyId(UUID player) {
+        String uuid = player.toString();
         String sqlOwner = "SELECT party_id FROM party WHERE party_owner_id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sqlOwner)) {
-            stmt.setString(1, uuid);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return String.valueOf(rs.getInt("party_id"));
+        String sqlMember = "SELECT party_id FROM party_member WHERE party_member_id = ? LIMIT 1";
+
+        try (Connection conn = connection()) {
+            // Check if player is a party owner
+            PreparedStatement ownerStmt = statements.prepare(conn, sqlOwner);
+            ownerStmt.setString(1, uuid);
+            try (ResultSet rs = ownerStmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("party_id");
+                }
             }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check party ownership: " + e.getMessage());
-            e.printStackTrace();
-        }
 
-        // Check if player is a party member
-        String sqlMember = "SELECT party_id FROM party_member WHERE party_member_id = ? LIMIT 1";
-        try (PreparedStatement stmt = conn.prepareStatement(sqlMember)) {
-            stmt.setString(1, uuid);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return String.valueOf(rs.getInt("party_id"));
+            // Check if player is a party member
+            PreparedStatement memberStmt = statements.prepare(conn, sqlMember);
+            memberStmt.setString(1, uuid);
+            try (ResultSet rs = memberStmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("party_id");
+                }
             }
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check party membership: " + e.getMessage());
+            plugin.getLogger().warning("Failed to find player party: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to find player party", e);
         }
 
-        return null;
+        return NO_PARTY;
     }
 
     /**
      * Gets the number of members currently in the specified party.
      *
-     * @param party_id the ID of the party
+     * @param partyId the ID of the party
      * @return the count of members in the party
      */
     @Override
-    public int getPartyCount(String party_id) {
+    public int getPartyCount(int partyId) {
         String sql = "SELECT COUNT(*) AS cnt FROM party_member WHERE party_id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, Integer.parseInt(party_id));
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("cnt");
+        try (Connection conn = connection()) {
+            PreparedStatement stmt = statements.prepare(conn, sql);
+            stmt.setInt(1, partyId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("cnt");
+                }
             }
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to get party count: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to get party count", e);
         }
         return 0;
     }
+
+    /**
+     * Gets the UUID of the owner of the specified party.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null if the party does not exist
+     */
+    @Override
+    public UUID getPartyOwner(int partyId) {
+        String sql = "SELECT party_owner_id FROM party WHERE party_id = ?";
+        try (Connection conn = connection()) {
+            PreparedStatement stmt = statements.prepare(conn, sql);
+            stmt.setInt(1, partyId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return UUID.fromString(rs.getString("party_owner_id"));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to get party owner: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to get party owner", e);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the UUIDs of every member of the specified party, including the owner.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs, empty if the party has no members
+     */
+    @Override
+    public List<UUID> getPartyMembers(int partyId) {
+        String sql = "SELECT party_member_id FROM party_member WHERE party_id = ?";
+        List<UUID> members = new ArrayList<>();
+        try (Connection conn = connection()) {
+            PreparedStatement stmt = statements.prepare(conn, sql);
+            stmt.setInt(1, partyId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    members.add(UUID.fromString(rs.getString("party_member_id")));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to get party members: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to get party members", e);
+        }
+        return members;
+    }
+
+    /**
+     * Resolves the player's party, role, owner, party name and member count in one query.
+     * Ownership is preferred over plain membership, matching {@link #findPlayerPartyId(UUID)}.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    @Override
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        String uuid = player.toString();
+        String sql = """
+            SELECT p.party_id, p.party_owner_id, p.party_name,
+                   (SELECT COUNT(*) FROM party_member c WHERE c.party_id = p.party_id) AS member_count,
+                   0 AS preference
+            FROM party p
+            WHERE p.party_owner_id = ?
+            UNION ALL
+            SELECT p.party_id, p.party_owner_id, p.party_name,
+                   (SELECT COUNT(*) FROM party_member c WHERE c.party_id = p.party_id) AS member_count,
+                   1 AS preference
+            FROM party_member m
+            JOIN party p ON p.party_id = m.party_id
+            WHERE m.party_member_id = ?
+            ORDER BY preference
+            LIMIT 1
+        """;
+        try (Connection conn = connection()) {
+            PreparedStatement stmt = statements.prepare(conn, sql);
+            stmt.setString(1, uuid);
+            stmt.setString(2, uuid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    String ownerId = rs.getString("party_owner_id");
+                    return new MCEnginePartyMembership(
+                            rs.getInt("party_id"),
+                            uuid.equals(ownerId) ? MCEnginePartyRole.OWNER : MCEnginePartyRole.MEMBER,
+                            UUID.fromString(ownerId),
+                            rs.getString("party_name"),
+                            rs.getInt("member_count"));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to resolve party membership: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to resolve party membership", e);
+        }
+        return null;
+    }
+
+    /**
+     * Loads the owner, name and member list of a party in one query.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null if the party does not exist
+     */
+    @Override
+    public MCEnginePartyInfo getParty(int partyId) {
+        String sql = """
+            SELECT p.party_owner_id, p.party_name, m.party_member_id
+            FROM party p
+            LEFT JOIN party_member m ON m.party_id = p.party_id
+            WHERE p.party_id = ?
+        """;
+        try (Connection conn = connection()) {
+            PreparedStatement stmt = statements.prepare(conn, sql);
+            stmt.setInt(1, partyId);
+            String ownerId = null;
+            String name = null;
+            List<UUID> members = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ownerId = rs.getString("party_owner_id");
+                    name = rs.getString("party_name");
+                    String member = rs.getString("party_member_id");
+                    if (member != null) {
+                        members.add(UUID.fromString(member));
+                    }
+                }
+            }
+            if (ownerId != null) {
+                return new MCEnginePartyInfo(partyId, UUID.fromString(ownerId), name, members);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to load party: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to load party", e);
+        }
+        return null;
+    }
+
+    /**
+     * Finds the parties of many players with one {@code IN (...)} query per chunk of
+     * {@code database.bulk.chunk-size} players. Ownership is preferred over plain membership,
+     * matching {@link #findPlayerPartyId(UUID)}.
+     *
+     * @param players UUIDs of the players to look up
+     * @return map from each given player to their party ID, or {@link #NO_PARTY}
+     */
+    @Override
+    public Map<UUID, Integer> findPlayerPartyIds(Collection<UUID> players) {
+        Map<UUID, Integer> parties = new HashMap<>();
+        if (players.isEmpty()) {
+            return parties;
+        }
+        List<String> keys = new ArrayList<>(players.size());
+        for (UUID player : new LinkedHashSet<>(players)) {
+            keys.add(player.toString());
+        }
+        try (Connection conn = connection()) {
+            bulkPartyIds.run(conn, statements, keys, (stmt, index, key) -> stmt.setString(index, key), rs -> {
+                UUID player = UUID.fromString(rs.getString("player_id"));
+                if (rs.getInt("preference") == 0) {
+                    parties.put(player, rs.getInt("party_id"));
+                } else {
+                    parties.putIfAbsent(player, rs.getInt("party_id"));
+                }
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to find the parties of " + keys.size() + " players: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to find the parties of " + keys.size() + " players", e);
+        }
+        for (UUID player : players) {
+            parties.putIfAbsent(player, NO_PARTY);
+        }
+        return parties;
+    }
+
+    /**
+     * Gets the members of many parties with one {@code IN (...)} query per chunk of
+     * {@code database.bulk.chunk-size} parties.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member UUIDs, empty for parties without members
+     */
+    @Override
+    public Map<Integer, List<UUID>> getPartyMembers(Collection<Integer> partyIds) {
+        Map<Integer, List<UUID>> members = new HashMap<>();
+        if (partyIds.isEmpty()) {
+            return members;
+        }
+        List<Integer> keys = new ArrayList<>(new LinkedHashSet<>(partyIds));
+        for (int partyId : keys) {
+            members.put(partyId, new ArrayList<>());
+        }
+        try (Connection conn = connection()) {
+            bulkMembers.run(conn, statements, keys, (stmt, index, key) -> stmt.setInt(index, key), rs ->
+                    members.get(rs.getInt("party_id")).add(UUID.fromString(rs.getString("party_member_id"))));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to get the members of " + keys.size() + " parties: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to get the members of " + keys.size() + " parties", e);
+        }
+        return members;
+    }
+
+    /**
+     * Counts the members of many parties with one grouped {@code IN (...)} query per chunk of
+     * {@code database.bulk.chunk-size} parties.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member count, {@code 0} for parties without members
+     */
+    @Override
+    public Map<Integer, Integer> getPartyCounts(Collection<Integer> partyIds) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        if (partyIds.isEmpty()) {
+            return counts;
+        }
+        List<Integer> keys = new ArrayList<>(new LinkedHashSet<>(partyIds));
+        for (int partyId : keys) {
+            counts.put(partyId, 0);
+        }
+        try (Connection conn = connection()) {
+            bulkCounts.run(conn, statements, keys, (stmt, index, key) -> stmt.setInt(index, key), rs ->
+                    counts.put(rs.getInt("party_id"), rs.getInt("cnt")));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to count the members of " + keys.size() + " parties: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to count the members of " + keys.size() + " parties", e);
+        }
+        return counts;
+    }
+
+    /**
+     * Loads the parties of many players together with their owners, names and members, using one
+     * {@code IN (...)} query per chunk of {@code database.bulk.chunk-size} players.
+     *
+     * @param players UUIDs of the players
+     * @return map from party ID to party snapshot for every party one of the players belongs to
+     */
+    @Override
+    public Map<Integer, MCEnginePartyInfo> getPlayerParties(Collection<UUID> players) {
+        Map<Integer, MCEnginePartyInfo> parties = new HashMap<>();
+        if (players.isEmpty()) {
+            return parties;
+        }
+        List<String> keys = new ArrayList<>(players.size());
+        for (UUID player : new LinkedHashSet<>(players)) {
+            keys.add(player.toString());
+        }
+        // Members are collected first, so each snapshot is built once with its complete list
+        Map<Integer, List<UUID>> members = new HashMap<>();
+        try (Connection conn = connection()) {
+            bulkPlayerParties.run(conn, statements, keys, (stmt, index, key) -> stmt.setString(index, key), rs -> {
+                int partyId = rs.getInt("party_id");
+                if (!parties.containsKey(partyId)) {
+                    parties.put(partyId, new MCEnginePartyInfo(partyId, UUID.fromString(rs.getString("party_owner_id")),
+                            rs.getString("party_name"), List.of()));
+                }
+                List<UUID> partyMembers = members.computeIfAbsent(partyId, ignored -> new ArrayList<>());
+                String member = rs.getString("party_member_id");
+                if (member != null) {
+                    UUID memberId = UUID.fromString(member);
+                    // A party shared by players of different chunks is read once per chunk
+                    if (!partyMembers.contains(memberId)) {
+                        partyMembers.add(memberId);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to load the parties of " + keys.size() + " players: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to load the parties of " + keys.size() + " players", e);
+        }
+        parties.replaceAll((partyId, info) -> new MCEnginePartyInfo(partyId, info.ownerId(), info.partyName(),
+                members.getOrDefault(partyId, List.of())));
+        return parties;
+    }
+
+    /**
+     * Removes each player from their party in a single transaction using JDBC batches:
+     * parties owned by a leaving player are disbanded, then the players' memberships are deleted.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     */
+    @Override
+    public void leavePlayers(Collection<UUID> players) {
+        if (players.isEmpty()) {
+            return;
+        }
+        String disbandMembersSql = "DELETE FROM party_member WHERE party_id IN (SELECT party_id FROM party WHERE party_owner_id = ?)";
+        String disbandPartySql = "DELETE FROM party WHERE party_owner_id = ?";
+        String leaveSql = "DELETE FROM party_member WHERE party_member_id = ?";
+
+        try {
+            write(conn -> {
+                PreparedStatement disbandMembers = statements.prepare(conn, disbandMembersSql);
+                PreparedStatement disbandParty = statements.prepare(conn, disbandPartySql);
+                PreparedStatement leave = statements.prepare(conn, leaveSql);
+                PreparedStatement logDisbands = null;
+                PreparedStatement logLeaves = null;
+                for (UUID player : players) {
+                    if (changeLog != null) {
+                        logDisbands = changeLog.batchDisbands(conn, player);
+                        logLeaves = changeLog.batchLeaves(conn, player);
+                    }
+                    String uuid = player.toString();
+                    disbandMembers.setString(1, uuid);
+                    disbandMembers.addBatch();
+                    disbandParty.setString(1, uuid);
+                    disbandParty.addBatch();
+                    leave.setString(1, uuid);
+                    leave.addBatch();
+                }
+                // Change rows are selected from the rows about to be deleted
+                if (logDisbands != null) {
+                    logDisbands.executeBatch();
+                }
+                disbandMembers.executeBatch();
+                disbandParty.executeBatch();
+                if (logLeaves != null) {
+                    logLeaves.executeBatch();
+                }
+                leave.executeBatch();
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to remove " + players.size() + " players from their parties: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to remove " + players.size() + " players from their parties", e);
+        }
+    }
+
+    /**
+     * Runs the work on one connection in a single transaction. Operations the work performs on
+     * this backend from the same thread join the transaction; it is committed when the work
+     * returns and rolled back if it throws.
+     *
+     * @param work the operations to run
+     * @param <T>  result type
+     * @return the result of the work
+     * @throws MCEnginePartyDBException if the transaction could not be started or committed
+     */
+    @Override
+    public <T> T inTransaction(Function<IMCEnginePartyDB, T> work) {
+        if (transaction.get() != null) {
+            return work.apply(this);
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            transaction.set(conn);
+            Exception failure = null;
+            try {
+                T result = work.apply(this);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                failure = e;
+                rollback(conn, e);
+                // Drop statements that may still hold a half-executed batch
+                statements.invalidate(conn);
+                throw e;
+            } finally {
+                transaction.remove();
+                restoreAutoCommit(conn, failure);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to commit party transaction: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to commit party transaction", e);
+        }
+    }
+
+    /**
+     * Gets the change log written by every mutation.
+     *
+     * @return the change log, or null if {@code database.sync.enabled} is {@code false}
+     */
+    @Override
+    public MCEnginePartyChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Reads the changes after a sequence number.
+     *
+     * @param after the last sequence number already seen
+     * @param limit maximum number of changes to return
+     * @return the changes, in sequence order
+     */
+    @Override
+    public List<MCEnginePartyChange> readChanges(long after, int limit) {
+        try (Connection conn = connection()) {
+            return changeLog.read(conn, after, limit);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to read party changes: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to read party changes", e);
+        }
+    }
+
+    /**
+     * Reads specific changes.
+     *
+     * @param ids the sequence numbers to read
+     * @return the changes that exist, in sequence order
+     */
+    @Override
+    public List<MCEnginePartyChange> readChanges(Collection<Long> ids) {
+        try (Connection conn = connection()) {
+            return changeLog.read(conn, ids);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to read party changes: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to read party changes", e);
+        }
+    }
+
+    /**
+     * Gets the newest sequence number of the change log.
+     *
+     * @return the newest sequence number, or {@code 0} if the log is empty
+     */
+    @Override
+    public long getLatestChangeId() {
+        try (Connection conn = connection()) {
+            return changeLog.latest(conn);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to read party change log: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to read party change log", e);
+        }
+    }
+
+    /**
+     * Deletes changes recorded before the given time.
+     *
+     * @param before epoch milliseconds; older changes are deleted
+     * @return the number of deleted changes
+     */
+    @Override
+    public int pruneChanges(long before) {
+        try (Connection conn = connection()) {
+            return changeLog.prune(conn, before);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to prune party changes: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to prune party changes", e);
+        }
+    }
+
+    /**
+     * Deletes memberships of parties that no longer exist, scanning one page of party IDs in one write.
+     *
+     * @param after the last party ID already scanned
+     * @param limit maximum number of distinct party IDs to scan
+     * @return the step result
+     */
+    @Override
+    public MCEnginePartySweepStep sweepOrphanMembers(int after, int limit) {
+        try {
+            return write(conn -> sweep.orphanMembers(conn, after, limit));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to sweep orphaned party members: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to sweep orphaned party members", e);
+        }
+    }
+
+    /**
+     * Deletes parties whose owner is not a member, scanning one page of parties in one write.
+     *
+     * @param after the last party ID already scanned
+     * @param limit maximum number of parties to scan
+     * @return the step result
+     */
+    @Override
+    public MCEnginePartySweepStep sweepOwnerlessParties(int after, int limit) {
+        try {
+            return write(conn -> sweep.ownerlessParties(conn, after, limit));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to sweep ownerless parties: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to sweep ownerless parties", e);
+        }
+    }
+
+    /**
+     * Closes the connection pool. Cached statements are released with their connections.
+     */
+    @Override
+    public void close() {
+        pool.close();
+        statements.invalidateAll();
+    }
+
+    /**
+     * Gets the connection pool, exposing its size and acquire-timeout metrics.
+     *
+     * @return the MySQL connection pool
+     */
+    public MCEnginePartyMySQLPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Gets the prepared statement cache, exposing its hit and prepare counts.
+     *
+     * @return the statement cache of this backend
+     */
+    public MCEnginePartyStatementCache getStatementCache() {
+        return statements;
+    }
+
+    /**
+     * Gets a connection for one operation: the current thread's transaction connection, which
+     * stays open when the caller closes it, or a fresh lease from the pool.
+     *
+     * @return a connection the caller must close
+     * @throws SQLException if no connection could be obtained
+     */
+    private Connection connection() throws SQLException {
+        Connection conn = transaction.get();
+        if (conn == null) {
+            return pool.getConnection();
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Runs multi-statement work in one transaction, or as part of the current thread's transaction.
+     *
+     * @param work the work to run
+     * @param <T>  result type
+     * @return the result of the work
+     * @throws SQLException if the work or the commit fails; the work's changes are rolled back
+     */
+    private <T> T write(IMCEnginePartySQLWork<T> work) throws SQLException {
+        Connection bound = transaction.get();
+        if (bound != null) {
+            return work.run(bound);
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            Exception failure = null;
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                failure = e;
+                rollback(conn, e);
+                // Drop statements that may still hold a half-executed batch
+                statements.invalidate(conn);
+                throw e;
+            } finally {
+                restoreAutoCommit(conn, failure);
+            }
+        }
+    }
+
+    /**
+     * Rolls back a failed transaction. A rollback that fails too, e.g. on the dead connection that
+     * caused the failure, is attached to the original exception instead of replacing it.
+     *
+     * @param conn    the connection in the failed transaction
+     * @param failure the exception that failed the transaction
+     */
+    private static void rollback(Connection conn, Exception failure) {
+        try {
+            conn.rollback();
+        } catch (SQLException | RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Switches a connection back to auto-commit after a transaction. If the transaction already
+     * failed, an error here is attached to that exception so the original cause is kept.
+     *
+     * @param conn    the connection used for the transaction
+     * @param failure the exception that failed the transaction, or null if it succeeded
+     * @throws SQLException if auto-commit cannot be restored after a successful transaction
+     */
+    private static void restoreAutoCommit(Connection conn, Exception failure) throws SQLException {
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException | RuntimeException e) {
+            if (failure == null) {
+                throw e;
+            }
+            failure.addSuppressed(e);
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package io.github.mcengine.common.party.database.mysql;
+
+import io.github.mcengine.common.party.database.migration.MCEnginePartyMigration;
+
+import java.util.List;
+
+/**
+ * Ordered schema migrations for the MySQL party database.
+ * New migrations must be appended with the next version number; existing ones must never change.
+ */
+public final class MCEnginePartyMySQLMigrations {
+
+    /**
+     * Prepares the DDL chosen by {@link #unlessIndex} or {@link #unlessColumn}.
+     */
+    private static final String PREPARE_DDL = "PREPARE party_ddl FROM @party_ddl;";
+
+    /**
+     * Runs the prepared DDL.
+     */
+    private static final String EXECUTE_DDL = "EXECUTE party_ddl;";
+
+    /**
+     * Releases the prepared DDL.
+     */
+    private static final String DEALLOCATE_DDL = "DEALLOCATE PREPARE party_ddl;";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MCEnginePartyMySQLMigrations() {}
+
+    /**
+     * Gets every MySQL migration in version order.
+     *
+     * @return the migration list
+     */
+    public static List<MCEnginePartyMigration> all() {
+        return List.of(
+                new MCEnginePartyMigration(1, "Create party tables",
+                        """
+                        CREATE TABLE IF NOT EXISTS party (
+                            party_id INT AUTO_INCREMENT PRIMARY KEY,
+                            party_owner_id VARCHAR(36) NOT NULL,
+                            party_name VARCHAR(255) DEFAULT NULL
+                        );
+                        """,
+                        """
+                        CREATE TABLE IF NOT EXISTS party_member (
+                            party_member_id VARCHAR(36) NOT NULL,
+                            party_id INT NOT NULL,
+                            FOREIGN KEY (party_id) REFERENCES party(party_id)
+                        );
+                        """),
+                new MCEnginePartyMigration(2, "Index party lookups and make memberships unique",
+                        // MySQL commits each ALTER implicitly, so every step is guarded or idempotent
+                        // and the migration can be re-run after a partial failure.
+                        // party_member gets a row id so duplicates can be deleted in place
+                        unlessColumn("party_member", "party_member_row",
+                                "ALTER TABLE party_member ADD COLUMN party_member_row BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY"),
+                        PREPARE_DDL, EXECUTE_DDL, DEALLOCATE_DDL,
+                        """
+                        DELETE newer FROM party_member newer
+                        JOIN party_member older
+                            ON older.party_id = newer.party_id
+                            AND older.party_member_id = newer.party_member_id
+                            AND older.party_member_row < newer.party_member_row;
+                        """,
+                        unlessIndex("party_member", "uk_party_member_party_player",
+                                "ALTER TABLE party_member ADD UNIQUE KEY uk_party_member_party_player (party_id, party_member_id)"),
+                        PREPARE_DDL, EXECUTE_DDL, DEALLOCATE_DDL,
+                        unlessIndex("party_member", "idx_party_member_player",
+                                "ALTER TABLE party_member ADD KEY idx_party_member_player (party_member_id)"),
+                        PREPARE_DDL, EXECUTE_DDL, DEALLOCATE_DDL,
+                        unlessIndex("party", "idx_party_owner",
+                                "ALTER TABLE party ADD KEY idx_party_owner (party_owner_id)"),
+                        PREPARE_DDL, EXECUTE_DDL, DEALLOCATE_DDL),
+                new MCEnginePartyMigration(3, "Create party change log",
+                        """
+                        CREATE TABLE IF NOT EXISTS party_change (
+                            change_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            change_type TINYINT NOT NULL,
+                            party_id INT NOT NULL,
+                            player_id VARCHAR(36) DEFAULT NULL,
+                            party_name VARCHAR(255) DEFAULT NULL,
+                            origin_id BIGINT NOT NULL,
+                            changed_at BIGINT NOT NULL,
+                            KEY idx_party_change_time (changed_at)
+                        );
+                        """)
+        );
+    }
+
+    /**
+     * Builds a statement that selects the given DDL into {@code @party_ddl} unless the index exists,
+     * for MySQL versions without {@code ADD INDEX IF NOT EXISTS}. Follow it with
+     * {@link #PREPARE_DDL}, {@link #EXECUTE_DDL} and {@link #DEALLOCATE_DDL}.
+     *
+     * @param table the table name
+     * @param index the index name
+     * @param ddl   the statement creating the index, without quotes or a trailing semicolon
+     * @return the guard statement
+     */
+    private static String unlessIndex(String table, String index, String ddl) {
+        return "SET @party_ddl = IF((SELECT COUNT(*) FROM information_schema.statistics"
+                + " WHERE table_schema = DATABASE() AND table_name = '" + table + "' AND index_name = '" + index + "') = 0,"
+                + " '" + ddl + "', 'DO 0');";
+    }
+
+    /**
+     * Builds a statement that selects the given DDL into {@code @party_ddl} unless the column exists.
+     * Follow it with {@link #PREPARE_DDL}, {@link #EXECUTE_DDL} and {@link #DEALLOCATE_DDL}.
+     *
+     * @param table  the table name
+     * @param column the column name
+     * @param ddl    the statement adding the column, without quotes or a trailing semicolon
+     * @return the guard statement
+     */
+    private static String unlessColumn(String table, String column, String ddl) {
+        return "SET @party_ddl = IF((SELECT COUNT(*) FROM information_schema.columns"
+                + " WHERE table_schema = DATABASE() AND table_name = '" + table + "' AND column_name = '" + column + "') = 0,"
+                + " '" + ddl + "', 'DO 0');";
+    }
+}
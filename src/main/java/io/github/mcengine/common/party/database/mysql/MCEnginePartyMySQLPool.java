@@ -0,0 +1,530 @@
+package io.github.mcengine.common.party.database.mysql;
+
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Small built-in JDBC connection pool used by the MySQL backend.
+ * <p>
+ * Connections handed out by {@link #getConnection()} are proxies; calling {@link Connection#close()}
+ * returns the underlying connection to the pool instead of closing it. The pool supports:
+ * <ul>
+ *     <li>configurable minimum and maximum size</li>
+ *     <li>validation of idle connections on borrow</li>
+ *     <li>idle eviction and a maximum connection lifetime</li>
+ *     <li>an acquire timeout with wait-time and timeout metrics</li>
+ * </ul>
+ * Settings are read from {@code database.mysql.pool.*} in the plugin config.
+ */
+public class MCEnginePartyMySQLPool {
+
+    /**
+     * The plugin instance used for logging.
+     */
+    private final Plugin plugin;
+
+    /**
+     * JDBC URL of the MySQL database.
+     */
+    private final String jdbcUrl;
+
+    /**
+     * Database user.
+     */
+    private final String user;
+
+    /**
+     * Database password.
+     */
+    private final String password;
+
+    /**
+     * Number of connections kept open even when idle.
+     */
+    private final int minSize;
+
+    /**
+     * Maximum number of physical connections.
+     */
+    private final int maxSize;
+
+    /**
+     * Maximum time a caller waits for a connection, in milliseconds.
+     */
+    private final long acquireTimeoutMs;
+
+    /**
+     * Time after which an idle connection above {@link #minSize} is closed, in milliseconds.
+     */
+    private final long idleTimeoutMs;
+
+    /**
+     * Maximum age of a physical connection, in milliseconds.
+     */
+    private final long maxLifetimeMs;
+
+    /**
+     * Timeout passed to {@link Connection#isValid(int)} when validating on borrow, in seconds.
+     */
+    private final int validationTimeoutSeconds;
+
+    /**
+     * Idle connections, most recently used first.
+     */
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+    /**
+     * One permit per connection that may be borrowed concurrently.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Number of open physical connections, idle or borrowed.
+     */
+    private final AtomicInteger total = new AtomicInteger();
+
+    /**
+     * Number of connections currently borrowed.
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Number of successful acquisitions.
+     */
+    private final LongAdder acquires = new LongAdder();
+
+    /**
+     * Number of acquisitions that timed out.
+     */
+    private final LongAdder acquireTimeouts = new LongAdder();
+
+    /**
+     * Sum of acquisition wait times, in nanoseconds.
+     */
+    private final LongAdder acquireNanos = new LongAdder();
+
+    /**
+     * Longest acquisition wait time observed, in nanoseconds.
+     */
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Number of physical connections opened over the lifetime of the pool.
+     */
+    private final LongAdder created = new LongAdder();
+
+    /**
+     * Number of physical connections closed over the lifetime of the pool.
+     */
+    private final LongAdder closed = new LongAdder();
+
+    /**
+     * Background thread running idle eviction and lifetime checks.
+     */
+    private final ScheduledExecutorService housekeeper;
+
+    /**
+     * Whether {@link #close()} has been called.
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * Callback notified with each physical connection just before the pool closes it, or null.
+     */
+    private volatile Consumer<Connection> discardListener;
+
+    /**
+     * Creates the pool, opens {@code min-size} connections and starts the housekeeping thread.
+     *
+     * @param plugin   the Bukkit plugin instance
+     * @param jdbcUrl  JDBC URL of the MySQL database
+     * @param user     database user
+     * @param password database password
+     */
+    public MCEnginePartyMySQLPool(Plugin plugin, String jdbcUrl, String user, String password) {
+        this.plugin = plugin;
+        this.jdbcUrl = jdbcUrl;
+        this.user = user;
+        this.password = password;
+        this.maxSize = Math.max(1, plugin.getConfig().getInt("database.mysql.pool.max-size", 10));
+        this.minSize = Math.min(maxSize, Math.max(0, plugin.getConfig().getInt("database.mysql.pool.min-size", 2)));
+        this.acquireTimeoutMs = plugin.getConfig().getLong("database.mysql.pool.acquire-timeout-ms", 5000L);
+        this.idleTimeoutMs = plugin.getConfig().getLong("database.mysql.pool.idle-timeout-ms", 600000L);
+        this.maxLifetimeMs = plugin.getConfig().getLong("database.mysql.pool.max-lifetime-ms", 1800000L);
+        this.validationTimeoutSeconds = plugin.getConfig().getInt("database.mysql.pool.validation-timeout-seconds", 2);
+        this.permits = new Semaphore(maxSize, true);
+
+        fillToMinimum();
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MCEngineParty-MySQLPool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000L, Math.min(idleTimeoutMs, 30000L));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting up to {@code acquire-timeout-ms}.
+     * Idle connections are validated before being handed out; broken or expired ones are replaced.
+     * Closing the returned connection gives it back to the pool.
+     *
+     * @return a pooled connection
+     * @throws SQLException if no connection became available in time or a new one could not be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("MySQL connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + acquireTimeoutMs + "ms waiting for a MySQL connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a MySQL connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                discard(pooled);
+            }
+            if (pooled == null) {
+                pooled = open();
+            }
+            long waited = System.nanoTime() - start;
+            acquires.increment();
+            acquireNanos.add(waited);
+            maxAcquireNanos.accumulate(waited);
+            active.incrementAndGet();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Registers a callback that is notified with each physical connection just before the pool
+     * closes it, so per-connection state such as cached statements can be released.
+     *
+     * @param discardListener the callback, or null to remove it
+     */
+    public void setDiscardListener(Consumer<Connection> discardListener) {
+        this.discardListener = discardListener;
+    }
+
+    /**
+     * Closes every idle connection and stops housekeeping.
+     * Borrowed connections are closed when they are returned.
+     */
+    public void close() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * Gets the number of open physical connections, idle or borrowed.
+     *
+     * @return total connection count
+     */
+    public int getTotalConnections() {
+        return total.get();
+    }
+
+    /**
+     * Gets the number of connections currently borrowed.
+     *
+     * @return active connection count
+     */
+    public int getActiveConnections() {
+        return active.get();
+    }
+
+    /**
+     * Gets the number of idle connections waiting in the pool.
+     *
+     * @return idle connection count
+     */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * Gets the number of successful acquisitions.
+     *
+     * @return acquisition count
+     */
+    public long getAcquireCount() {
+        return acquires.sum();
+    }
+
+    /**
+     * Gets the number of acquisitions that timed out.
+     *
+     * @return acquire timeout count
+     */
+    public long getAcquireTimeoutCount() {
+        return acquireTimeouts.sum();
+    }
+
+    /**
+     * Gets the average time callers waited for a connection.
+     *
+     * @return mean acquisition wait in nanoseconds, or {@code 0} if nothing was acquired yet
+     */
+    public long getAverageAcquireNanos() {
+        long count = acquires.sum();
+        return count == 0 ? 0L : acquireNanos.sum() / count;
+    }
+
+    /**
+     * Gets the longest time a caller waited for a connection.
+     *
+     * @return maximum acquisition wait in nanoseconds
+     */
+    public long getMaxAcquireNanos() {
+        return maxAcquireNanos.get();
+    }
+
+    /**
+     * Gets the number of physical connections opened since the pool was created.
+     *
+     * @return created connection count
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    /**
+     * Gets the number of physical connections closed since the pool was created.
+     *
+     * @return closed connection count
+     */
+    public long getClosedCount() {
+        return closed.sum();
+    }
+
+    /**
+     * Opens a new physical connection.
+     *
+     * @return the new pooled connection
+     * @throws SQLException if the connection could not be opened
+     */
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(jdbcUrl, user, password);
+        total.incrementAndGet();
+        created.increment();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Checks that an idle connection has not expired and still answers a validation ping.
+     *
+     * @param pooled the idle connection
+     * @return true if the connection can be handed out
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.createdAt >= maxLifetimeMs) {
+            return false;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes a physical connection and removes it from the pool's accounting.
+     *
+     * @param pooled the connection to close
+     */
+    private void discard(PooledConnection pooled) {
+        total.decrementAndGet();
+        closed.increment();
+        Consumer<Connection> listener = discardListener;
+        if (listener != null) {
+            listener.accept(pooled.physical);
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // Connection is being thrown away anyway
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool, or closes it when it has expired,
+     * is broken, or the pool has been shut down.
+     *
+     * @param pooled the connection being returned
+     */
+    private void release(PooledConnection pooled) {
+        active.decrementAndGet();
+        try {
+            boolean reusable = !shutdown
+                    && System.currentTimeMillis() - pooled.createdAt < maxLifetimeMs
+                    && !pooled.physical.isClosed();
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                discard(pooled);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes idle connections that exceeded the idle timeout (down to {@code min-size}) or the
+     * maximum lifetime, then tops the pool back up to {@code min-size}.
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledConnection pooled = it.next();
+            boolean expired = now - pooled.createdAt >= maxLifetimeMs;
+            boolean stale = now - pooled.lastUsed >= idleTimeoutMs && total.get() > minSize;
+            if ((expired || stale) && idle.removeFirstOccurrence(pooled)) {
+                discard(pooled);
+            }
+        }
+        fillToMinimum();
+    }
+
+    /**
+     * Opens idle connections until the pool holds at least {@code min-size} connections.
+     */
+    private void fillToMinimum() {
+        while (!shutdown && total.get() < minSize) {
+            try {
+                PooledConnection pooled = open();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to open pooled MySQL connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private final class PooledConnection {
+
+        /**
+         * The underlying JDBC connection.
+         */
+        private final Connection physical;
+
+        /**
+         * Time the connection was opened, in epoch milliseconds.
+         */
+        private final long createdAt;
+
+        /**
+         * Time the connection was last returned to the pool, in epoch milliseconds.
+         */
+        private volatile long lastUsed;
+
+        /**
+         * Wraps a freshly opened connection.
+         *
+         * @param physical the underlying JDBC connection
+         */
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.createdAt = System.currentTimeMillis();
+            this.lastUsed = createdAt;
+        }
+
+        /**
+         * Creates the proxy handed to a borrower. Each lease can be closed exactly once.
+         *
+         * @return a connection proxy whose {@code close()} returns this connection to the pool
+         */
+        private Connection lease() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean released;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (!released) {
+                                released = true;
+                                release(PooledConnection.this);
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return released || physical.isClosed();
+                        }
+                        case "unwrap" -> {
+                            if (((Class<?>) args[0]).isInstance(physical)) {
+                                return physical;
+                            }
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            if (released) {
+                                throw new SQLException("Connection has already been returned to the pool");
+                            }
+                        }
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+    }
+}
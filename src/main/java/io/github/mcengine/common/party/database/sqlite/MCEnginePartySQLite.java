@@ -1,16 +1,47 @@
 package io.github.mcengine.common.party.database.sqlite;
 
 import io.github.mcengine.common.party.database.IMCEnginePartyDB;
-import org.bukkit.entity.Player;
+import io.github.mcengine.common.party.database.MCEnginePartyDBException;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import io.github.mcengine.common.party.database.migration.MCEnginePartyMigrator;
+import io.github.mcengine.common.party.database.statement.MCEnginePartyBulkQuery;
+import io.github.mcengine.common.party.database.statement.MCEnginePartyStatementCache;
+import io.github.mcengine.common.party.database.sweep.IMCEnginePartySweepable;
+import io.github.mcengine.common.party.database.sweep.MCEnginePartyOrphanSweep;
+import io.github.mcengine.common.party.database.sweep.MCEnginePartySweepStep;
+import io.github.mcengine.common.party.database.sync.IMCEnginePartyChangeSource;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChange;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChangeLog;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChangeType;
 import org.bukkit.plugin.Plugin;
 
 import java.io.File;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * SQLite implementation of the party system for MC Engine.
+ * <p>
+ * Connections are managed by {@link MCEnginePartySQLiteEngine}: in WAL mode reads run concurrently
+ * on a small pool of read-only connections while every write runs on one writer thread that groups
+ * concurrent writes into a single commit. Prepared statements are reused per connection through
+ * {@link MCEnginePartyStatementCache}. Each write runs atomically, so multi-statement operations
+ * never leave a half-written party behind.
+ * <p>
+ * With {@code database.sync.enabled}, every mutation also records a row in the {@code party_change}
+ * table in the same write (see {@link MCEnginePartyChangeLog}), so several servers, or several
+ * local test instances, sharing one database file can keep their caches in sync.
  */
-public class MCEnginePartySQLite implements IMCEnginePartyDB {
+public class MCEnginePartySQLite implements IMCEnginePartyDB, IMCEnginePartyChangeSource, IMCEnginePartySweepable {
 
     /**
      * The plugin instance used for configuration and logging.
@@ -18,63 +49,107 @@ public class MCEnginePartySQLite implements IMCEnginePartyDB {
     private final Plugin plugin;
 
     /**
-     * The persistent connection to the SQLite database.
+     * Prepared statements reused across calls, kept per connection.
      */
-    private final Connection conn;
+    private final MCEnginePartyStatementCache statements = new MCEnginePartyStatementCache();
 
     /**
-     * Constructs the SQLite handler and connects to the local SQLite database.
+     * Reader pool and writer thread of the SQLite database.
+     */
+    private final MCEnginePartySQLiteEngine engine;
+
+    /**
+     * Change log written by every mutation, or {@code null} if {@code database.sync.enabled} is {@code false}.
+     */
+    private final MCEnginePartyChangeLog changeLog;
+
+    /**
+     * Orphan sweep steps run by {@link io.github.mcengine.common.party.database.sweep.MCEnginePartySweeper}.
+     */
+    private final MCEnginePartyOrphanSweep sweep;
+
+    /**
+     * Finds the parties of many players; every key is bound twice, once per union branch.
+     */
+    private final MCEnginePartyBulkQuery bulkPartyIds;
+
+    /**
+     * Lists the members of many parties.
+     */
+    private final MCEnginePartyBulkQuery bulkMembers;
+
+    /**
+     * Counts the members of many parties.
+     */
+    private final MCEnginePartyBulkQuery bulkCounts;
+
+    /**
+     * Loads the parties of many players with their members; every key is bound twice, once per union branch.
+     */
+    private final MCEnginePartyBulkQuery bulkPlayerParties;
+
+    /**
+     * Constructs the SQLite handler, connects to the local SQLite database and migrates it.
+     * Engine settings are read from {@code database.sqlite.*}.
      *
      * @param plugin the Bukkit plugin instance
+     * @throws MCEnginePartyDBException if the database cannot be opened
      */
     public MCEnginePartySQLite(Plugin plugin) {
         this.plugin = plugin;
         String fileName = plugin.getConfig().getString("database.sqlite.path", "party.db");
+        this.changeLog = plugin.getConfig().getBoolean("database.sync.enabled", false)
+                ? new MCEnginePartyChangeLog(statements) : null;
+        this.sweep = new MCEnginePartyOrphanSweep(statements, changeLog);
+        int chunkSize = plugin.getConfig().getInt("database.bulk.chunk-size", 256);
+        this.bulkPartyIds = new MCEnginePartyBulkQuery("""
+            SELECT party_owner_id AS player_id, party_id, 0 AS preference FROM party WHERE party_owner_id IN (%s)
+            UNION ALL
+            SELECT party_member_id AS player_id, party_id, 1 AS preference FROM party_member WHERE party_member_id IN (%s)
+        """, chunkSize);
+        this.bulkMembers = new MCEnginePartyBulkQuery(
+                "SELECT party_id, party_member_id FROM party_member WHERE party_id IN (%s)", chunkSize);
+        this.bulkCounts = new MCEnginePartyBulkQuery(
+                "SELECT party_id, COUNT(*) AS cnt FROM party_member WHERE party_id IN (%s) GROUP BY party_id", chunkSize);
+        this.bulkPlayerParties = new MCEnginePartyBulkQuery("""
+            SELECT p.party_id, p.party_owner_id, p.party_name, m.party_member_id
+            FROM party p
+            LEFT JOIN party_member m ON m.party_id = p.party_id
+            WHERE p.party_id IN (
+                SELECT party_id FROM party WHERE party_owner_id IN (%s)
+                UNION
+                SELECT party_id FROM party_member WHERE party_member_id IN (%s)
+            )
+        """, chunkSize);
 
         File dbFile = new File(plugin.getDataFolder(), fileName);
         if (!plugin.getDataFolder().exists()) {
             plugin.getDataFolder().mkdirs();
         }
 
-        Connection tempConn = null;
         try {
-            tempConn = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+            this.engine = new MCEnginePartySQLiteEngine(plugin, dbFile, statements);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to connect to SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to connect to SQLite", e);
         }
-        this.conn = tempConn;
 
         init();
+        engine.start();
     }
 
     /**
-     * Initializes the SQLite tables for the party system if they do not already exist.
+     * Initializes the SQLite party schema by applying all pending versioned migrations
+     * (see {@link MCEnginePartySQLiteMigrations}). Existing databases are upgraded in place.
      * This method must be called before any other database operations are performed.
      */
     @Override
     public void init() {
-        String createPartyTable = """
-            CREATE TABLE IF NOT EXISTS party (
-                party_id INTEGER PRIMARY KEY AUTOINCREMENT,
-                party_owner_id TEXT NOT NULL,
-                party_name TEXT DEFAULT NULL
-            );
-        """;
-
-        String createPartyMemberTable = """
-            CREATE TABLE IF NOT EXISTS party_member (
-                party_member_id TEXT NOT NULL,
-                party_id INTEGER NOT NULL,
-                FOREIGN KEY (party_id) REFERENCES party(party_id)
-            );
-        """;
-
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(createPartyTable);
-            stmt.execute(createPartyMemberTable);
+        try {
+            engine.exclusive(conn -> new MCEnginePartyMigrator(plugin, "SQLite").migrate(conn, MCEnginePartySQLiteMigrations.all()));
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to create SQLite party tables: " + e.getMessage());
+            plugin.getLogger().warning("Failed to migrate SQLite party tables: " + e.getMessage());
             e.printStackTrace();
         }
     }
@@ -83,70 +158,95 @@ public class MCEnginePartySQLite implements IMCEnginePartyDB {
      * Creates a new party with the specified player as the owner and member.
      * Inserts the player as both the owner in the party table and as a member in the party_member table.
      *
-     * @param player the player who will be the owner of the new party
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return the ID of the newly created party, or {@link #NO_PARTY} if it could not be created
      */
     @Override
-    public void createParty(Player player) {
+    public int createParty(UUID owner) {
+        String uuid = owner.toString();
         String insertParty = "INSERT INTO party (party_owner_id) VALUES (?)";
         String insertMember = "INSERT INTO party_member (party_member_id, party_id) VALUES (?, ?)";
 
-        try (PreparedStatement stmt = conn.prepareStatement(insertParty, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, player.getUniqueId().toString());
-            stmt.executeUpdate();
-
-            ResultSet rs = stmt.getGeneratedKeys();
-            if (rs.next()) {
-                int partyId = rs.getInt(1);
-                try (PreparedStatement memberStmt = conn.prepareStatement(insertMember)) {
-                    memberStmt.setString(1, player.getUniqueId().toString());
-                    memberStmt.setInt(2, partyId);
-                    memberStmt.executeUpdate();
+        try {
+            return engine.write(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, insertParty, Statement.RETURN_GENERATED_KEYS);
+                stmt.setString(1, uuid);
+                stmt.executeUpdate();
+
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        int partyId = rs.getInt(1);
+                        PreparedStatement memberStmt = statements.prepare(conn, insertMember);
+                        memberStmt.setString(1, uuid);
+                        memberStmt.setInt(2, partyId);
+                        memberStmt.executeUpdate();
+                        if (changeLog != null) {
+                            changeLog.record(conn, MCEnginePartyChangeType.CREATE, partyId, owner, null);
+                        }
+                        return partyId;
+                    }
                 }
-            }
-
+                return NO_PARTY;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to create party in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to create party in SQLite", e);
         }
     }
 
     /**
      * Invites a player to an existing party by adding them as a member in the party_member table.
      *
-     * @param party_id the ID of the party to which the player is being invited
-     * @param player the player to be invited to the party
+     * @param partyId the ID of the party to which the player is being invited
+     * @param player  UUID of the player to be invited to the party
      */
     @Override
-    public void invitePlayerToParty(String party_id, Player player) {
+    public void invitePlayerToParty(int partyId, UUID player) {
         String insertSql = "INSERT INTO party_member (party_member_id, party_id) VALUES (?, ?)";
 
-        try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
-            stmt.setString(1, player.getUniqueId().toString());
-            stmt.setInt(2, Integer.parseInt(party_id));
-            stmt.executeUpdate();
+        try {
+            engine.write(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, insertSql);
+                stmt.setString(1, player.toString());
+                stmt.setInt(2, partyId);
+                stmt.executeUpdate();
+                if (changeLog != null) {
+                    changeLog.record(conn, MCEnginePartyChangeType.JOIN, partyId, player, null);
+                }
+                return null;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to invite player to party in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to invite player to party in SQLite", e);
         }
     }
 
     /**
      * Kicks a player from the specified party by removing their record from the party_member table.
      *
-     * @param party_id the ID of the party
-     * @param player the player to be removed from the party
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to be removed from the party
      */
     @Override
-    public void kickPlayerFromParty(String party_id, Player player) {
+    public void kickPlayerFromParty(int partyId, UUID player) {
         String deleteSql = "DELETE FROM party_member WHERE party_id = ? AND party_member_id = ?";
 
-        try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
-            stmt.setInt(1, Integer.parseInt(party_id));
-            stmt.setString(2, player.getUniqueId().toString());
-            stmt.executeUpdate();
+        try {
+            engine.write(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, deleteSql);
+                stmt.setInt(1, partyId);
+                stmt.setString(2, player.toString());
+                if (stmt.executeUpdate() > 0 && changeLog != null) {
+                    changeLog.record(conn, MCEnginePartyChangeType.LEAVE, partyId, player, null);
+                }
+                return null;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to kick player from party in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to kick player from party in SQLite", e);
         }
     }
 
@@ -155,213 +255,768 @@ public class MCEnginePartySQLite implements IMCEnginePartyDB {
      * If the player is the owner, the entire party and its members will be deleted.
      * If the player is a regular member, only their party_member record is removed.
      *
-     * @param party_id the ID of the party
-     * @param player the player who is leaving the party
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving the party
      */
     @Override
-    public void leaveParty(String party_id, Player player) {
+    public void leaveParty(int partyId, UUID player) {
+        String uuid = player.toString();
         String checkOwnerSql = "SELECT party_owner_id FROM party WHERE party_id = ?";
 
-        try (PreparedStatement stmt = conn.prepareStatement(checkOwnerSql)) {
-            stmt.setInt(1, Integer.parseInt(party_id));
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                String ownerUuid = rs.getString("party_owner_id");
-                if (ownerUuid.equals(player.getUniqueId().toString())) {
-                    try (
-                        PreparedStatement deleteMembers = conn.prepareStatement("DELETE FROM party_member WHERE party_id = ?");
-                        PreparedStatement deleteParty = conn.prepareStatement("DELETE FROM party WHERE party_id = ?")
-                    ) {
-                        deleteMembers.setInt(1, Integer.parseInt(party_id));
-                        deleteParty.setInt(1, Integer.parseInt(party_id));
-                        deleteMembers.executeUpdate();
-                        deleteParty.executeUpdate();
+        try {
+            engine.write(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, checkOwnerSql);
+                stmt.setInt(1, partyId);
+                String ownerUuid;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
                     }
-                } else {
-                    kickPlayerFromParty(party_id, player);
+                    ownerUuid = rs.getString("party_owner_id");
                 }
-            }
 
+                if (ownerUuid.equals(uuid)) {
+                    // Owner: delete party and members
+                    PreparedStatement deleteMembers = statements.prepare(conn, "DELETE FROM party_member WHERE party_id = ?");
+                    PreparedStatement deleteParty = statements.prepare(conn, "DELETE FROM party WHERE party_id = ?");
+                    deleteMembers.setInt(1, partyId);
+                    deleteParty.setInt(1, partyId);
+                    deleteMembers.executeUpdate();
+                    deleteParty.executeUpdate();
+                    if (changeLog != null) {
+                        changeLog.record(conn, MCEnginePartyChangeType.DISBAND, partyId, null, null);
+                    }
+                } else {
+                    // Member: remove from party on the same connection
+                    PreparedStatement deleteMember = statements.prepare(conn, "DELETE FROM party_member WHERE party_id = ? AND party_member_id = ?");
+                    deleteMember.setInt(1, partyId);
+                    deleteMember.setString(2, uuid);
+                    if (deleteMember.executeUpdate() > 0 && changeLog != null) {
+                        changeLog.record(conn, MCEnginePartyChangeType.LEAVE, partyId, player, null);
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to leave party in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to leave party in SQLite", e);
         }
     }
 
     /**
      * Checks whether the specified player is a member of the specified party.
      *
-     * @param party_id the ID of the party
-     * @param player the player to check
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
      * @return true if the player is a member of the party, false otherwise
      */
     @Override
-    public boolean isMember(String party_id, Player player) {
+    public boolean isMember(int partyId, UUID player) {
         String sql = "SELECT 1 FROM party_member WHERE party_id = ? AND party_member_id = ? LIMIT 1";
 
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, Integer.parseInt(party_id));
-            stmt.setString(2, player.getUniqueId().toString());
-            ResultSet rs = stmt.executeQuery();
-            return rs.next();
-        } catch (SQLException | NumberFormatException e) {
+        try {
+            return engine.read(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, sql);
+                stmt.setInt(1, partyId);
+                stmt.setString(2, player.toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next();
+                }
+            });
+        } catch (SQLException e) {
             plugin.getLogger().warning("Failed to check party membership in SQLite: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            throw new MCEnginePartyDBException("Failed to check party membership in SQLite", e);
         }
     }
 
     /**
      * Executes one or more raw SQL statements.
+     * Ad-hoc SQL is not cached. With the change log enabled, a reset is recorded so other
+     * servers drop their cached parties.
      *
      * @param sqls an array of SQL strings to execute
      */
     @Override
     public void executeSqls(String[] sqls) {
-        try (Statement stmt = conn.createStatement()) {
-            for (String sql : sqls) {
-                stmt.execute(sql);
-            }
+        try {
+            engine.exclusive(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : sqls) {
+                        stmt.execute(sql);
+                    }
+                }
+                if (changeLog != null) {
+                    changeLog.record(conn, MCEnginePartyChangeType.RESET, NO_PARTY, null, null);
+                }
+                return null;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to execute external SQL in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to execute external SQL in SQLite", e);
         }
     }
 
     /**
      * Sets the party name if the given player is the owner of the party.
      *
-     * @param party_id the ID of the party
-     * @param player the player attempting to set the name
-     * @param name the new name for the party
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party
      * @return true if the name was set, false otherwise
      */
     @Override
-    public boolean setPartyName(String party_id, Player player, String name) {
+    public boolean setPartyName(int partyId, UUID player, String name) {
         String checkOwnerSql = "SELECT party_owner_id FROM party WHERE party_id = ?";
         String updateNameSql = "UPDATE party SET party_name = ? WHERE party_id = ?";
-        try (PreparedStatement checkStmt = conn.prepareStatement(checkOwnerSql)) {
-            checkStmt.setInt(1, Integer.parseInt(party_id));
-            ResultSet rs = checkStmt.executeQuery();
-            if (rs.next()) {
-                String ownerUuid = rs.getString("party_owner_id");
-                if (ownerUuid.equals(player.getUniqueId().toString())) {
-                    try (PreparedStatement updateStmt = conn.prepareStatement(updateNameSql)) {
-                        updateStmt.setString(1, name);
-                        updateStmt.setInt(2, Integer.parseInt(party_id));
-                        updateStmt.executeUpdate();
-                        return true;
+        try {
+            return engine.write(conn -> {
+                PreparedStatement checkStmt = statements.prepare(conn, checkOwnerSql);
+                checkStmt.setInt(1, partyId);
+                try (ResultSet rs = checkStmt.executeQuery()) {
+                    if (!rs.next() || !rs.getString("party_owner_id").equals(player.toString())) {
+                        return false;
                     }
                 }
-            }
+                PreparedStatement updateStmt = statements.prepare(conn, updateNameSql);
+                updateStmt.setString(1, name);
+                updateStmt.setInt(2, partyId);
+                updateStmt.executeUpdate();
+                if (changeLog != null) {
+                    changeLog.record(conn, MCEnginePartyChangeType.RENAME, partyId, player, name);
+                }
+                return true;
+            });
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to set party name in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to set party name in SQLite", e);
         }
-        return false;
     }
 
     /**
      * Gets the role of the specified player in the party.
-     * Returns "owner" if the player is the owner, "member" if they are a member, or null if not found.
      *
-     * @param party_id the ID of the party
-     * @param player the player whose role is to be checked
-     * @return "owner", "member", or null
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return the player's role, or null if the player is not in the party
      */
     @Override
-    public String getPlayerPartyRole(String party_id, Player player) {
-        String uuid = player.getUniqueId().toString();
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        String uuid = player.toString();
         String checkOwnerSql = "SELECT party_owner_id FROM party WHERE party_id = ?";
         String checkMemberSql = "SELECT 1 FROM party_member WHERE party_id = ? AND party_member_id = ? LIMIT 1";
 
-        try (PreparedStatement ownerStmt = conn.prepareStatement(checkOwnerSql)) {
-            ownerStmt.setInt(1, Integer.parseInt(party_id));
-            ResultSet ownerRs = ownerStmt.executeQuery();
-            if (ownerRs.next()) {
-                if (uuid.equals(ownerRs.getString("party_owner_id"))) {
-                    return "owner";
+        try {
+            return engine.read(conn -> {
+                PreparedStatement ownerStmt = statements.prepare(conn, checkOwnerSql);
+                ownerStmt.setInt(1, partyId);
+                try (ResultSet ownerRs = ownerStmt.executeQuery()) {
+                    if (ownerRs.next() && uuid.equals(ownerRs.getString("party_owner_id"))) {
+                        return MCEnginePartyRole.OWNER;
+                    }
+                }
+
+                PreparedStatement memberStmt = statements.prepare(conn, checkMemberSql);
+                memberStmt.setInt(1, partyId);
+                memberStmt.setString(2, uuid);
+                try (ResultSet memberRs = memberStmt.executeQuery()) {
+                    if (memberRs.next()) {
+                        return MCEnginePartyRole.MEMBER;
+                    }
                 }
-            }
+                return null;
+            });
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check party owner in SQLite: " + e.getMessage());
+            plugin.getLogger().warning("Failed to check party role in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to check party role in SQLite", e);
         }
+    }
+
+    /**
+     * Finds the party ID that the specified player belongs to.
+     *
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY} if the player is not in a party
+     */
+    @Override
+    public int findPlayerPartyId(UUID player) {
+        String uuid = player.toString();
+        String sqlOwner = "SELECT party_id FROM party WHERE party_owner_id = ?";
+        String sqlMember = "SELECT party_id FROM party_member WHERE party_member_id = ? LIMIT 1";
 
-        try (PreparedStatement memberStmt = conn.prepareStatement(checkMemberSql)) {
-            memberStmt.setInt(1, Integer.parseInt(party_id));
-            memberStmt.setString(2, uuid);
-            ResultSet memberRs = memberStmt.executeQuery();
-            if (memberRs.next()) {
-                return "member";
-            }
+        try {
+            return engine.read(conn -> {
+                // Check if player is a party owner
+                PreparedStatement ownerStmt = statements.prepare(conn, sqlOwner);
+                ownerStmt.setString(1, uuid);
+                try (ResultSet rs = ownerStmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt("party_id");
+                    }
+                }
+
+                // Check if player is a party member
+                PreparedStatement memberStmt = statements.prepare(conn, sqlMember);
+                memberStmt.setString(1, uuid);
+                try (ResultSet rs = memberStmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt("party_id");
+                    }
+                }
+                return NO_PARTY;
+            });
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check party member in SQLite: " + e.getMessage());
+            plugin.getLogger().warning("Failed to find player party in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to find player party in SQLite", e);
         }
+    }
 
-        return null;
+    /**
+     * Gets the number of members currently in the specified party.
+     *
+     * @param partyId the ID of the party
+     * @return the count of members in the party
+     */
+    @Override
+    public int getPartyCount(int partyId) {
+        String sql = "SELECT COUNT(*) AS cnt FROM party_member WHERE party_id = ?";
+        try {
+            return engine.read(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, sql);
+                stmt.setInt(1, partyId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt("cnt");
+                    }
+                }
+                return 0;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to get party count in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to get party count in SQLite", e);
+        }
     }
 
     /**
-     * Finds the party ID that the specified player belongs to.
-     * Returns the party ID as a string if the player is in a party, or null if not found.
+     * Gets the UUID of the owner of the specified party.
      *
-     * @param player the player to look up
-     * @return party ID if found, or null
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null if the party does not exist
      */
     @Override
-    public String findPlayerPartyId(Player player) {
-        String uuid = player.getUniqueId().toString();
-        // Check if player is a party owner
-        String sqlOwner = "SELECT party_id FROM party WHERE party_owner_id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sqlOwner)) {
-            stmt.setString(1, uuid);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return String.valueOf(rs.getInt("party_id"));
-            }
+    public UUID getPartyOwner(int partyId) {
+        String sql = "SELECT party_owner_id FROM party WHERE party_id = ?";
+        try {
+            return engine.read(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, sql);
+                stmt.setInt(1, partyId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return UUID.fromString(rs.getString("party_owner_id"));
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check party ownership in SQLite: " + e.getMessage());
+            plugin.getLogger().warning("Failed to get party owner in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to get party owner in SQLite", e);
         }
+    }
 
-        // Check if player is a party member
-        String sqlMember = "SELECT party_id FROM party_member WHERE party_member_id = ? LIMIT 1";
-        try (PreparedStatement stmt = conn.prepareStatement(sqlMember)) {
-            stmt.setString(1, uuid);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return String.valueOf(rs.getInt("party_id"));
-            }
+    /**
+     * Gets the UUIDs of every member of the specified party, including the owner.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs, empty if the party has no members
+     */
+    @Override
+    public List<UUID> getPartyMembers(int partyId) {
+        String sql = "SELECT party_member_id FROM party_member WHERE party_id = ?";
+        List<UUID> members = new ArrayList<>();
+        try {
+            return engine.read(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, sql);
+                stmt.setInt(1, partyId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        members.add(UUID.fromString(rs.getString("party_member_id")));
+                    }
+                }
+                return members;
+            });
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check party membership in SQLite: " + e.getMessage());
+            plugin.getLogger().warning("Failed to get party members in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to get party members in SQLite", e);
         }
+    }
 
-        return null;
+    /**
+     * Resolves the player's party, role, owner, party name and member count in one query.
+     * Ownership is preferred over plain membership, matching {@link #findPlayerPartyId(UUID)}.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    @Override
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        String uuid = player.toString();
+        String sql = """
+            SELECT p.party_id, p.party_owner_id, p.party_name,
+                   (SELECT COUNT(*) FROM party_member c WHERE c.party_id = p.party_id) AS member_count,
+                   0 AS preference
+            FROM party p
+            WHERE p.party_owner_id = ?
+            UNION ALL
+            SELECT p.party_id, p.party_owner_id, p.party_name,
+                   (SELECT COUNT(*) FROM party_member c WHERE c.party_id = p.party_id) AS member_count,
+                   1 AS preference
+            FROM party_member m
+            JOIN party p ON p.party_id = m.party_id
+            WHERE m.party_member_id = ?
+            ORDER BY preference
+            LIMIT 1
+        """;
+        try {
+            return engine.read(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, sql);
+                stmt.setString(1, uuid);
+                stmt.setString(2, uuid);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        String ownerId = rs.getString("party_owner_id");
+                        return new MCEnginePartyMembership(
+                                rs.getInt("party_id"),
+                                uuid.equals(ownerId) ? MCEnginePartyRole.OWNER : MCEnginePartyRole.MEMBER,
+                                UUID.fromString(ownerId),
+                                rs.getString("party_name"),
+                                rs.getInt("member_count"));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to resolve party membership in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to resolve party membership in SQLite", e);
+        }
     }
 
     /**
-     * Gets the number of members currently in the specified party.
+     * Loads the owner, name and member list of a party in one query.
      *
-     * @param party_id the ID of the party
-     * @return the count of members in the party
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null if the party does not exist
      */
     @Override
-    public int getPartyCount(String party_id) {
-        String sql = "SELECT COUNT(*) AS cnt FROM party_member WHERE party_id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, Integer.parseInt(party_id));
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("cnt");
-            }
+    public MCEnginePartyInfo getParty(int partyId) {
+        String sql = """
+            SELECT p.party_owner_id, p.party_name, m.party_member_id
+            FROM party p
+            LEFT JOIN party_member m ON m.party_id = p.party_id
+            WHERE p.party_id = ?
+        """;
+        try {
+            return engine.read(conn -> {
+                PreparedStatement stmt = statements.prepare(conn, sql);
+                stmt.setInt(1, partyId);
+                String ownerId = null;
+                String name = null;
+                List<UUID> members = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ownerId = rs.getString("party_owner_id");
+                        name = rs.getString("party_name");
+                        String member = rs.getString("party_member_id");
+                        if (member != null) {
+                            members.add(UUID.fromString(member));
+                        }
+                    }
+                }
+                if (ownerId != null) {
+                    return new MCEnginePartyInfo(partyId, UUID.fromString(ownerId), name, members);
+                }
+                return null;
+            });
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to get party count in SQLite: " + e.getMessage());
+            plugin.getLogger().warning("Failed to load party in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to load party in SQLite", e);
+        }
+    }
+
+    /**
+     * Finds the parties of many players with one {@code IN (...)} query per chunk of
+     * {@code database.bulk.chunk-size} players. Ownership is preferred over plain membership,
+     * matching {@link #findPlayerPartyId(UUID)}.
+     *
+     * @param players UUIDs of the players to look up
+     * @return map from each given player to their party ID, or {@link #NO_PARTY}
+     */
+    @Override
+    public Map<UUID, Integer> findPlayerPartyIds(Collection<UUID> players) {
+        Map<UUID, Integer> parties = new HashMap<>();
+        if (players.isEmpty()) {
+            return parties;
+        }
+        List<String> keys = new ArrayList<>(players.size());
+        for (UUID player : new LinkedHashSet<>(players)) {
+            keys.add(player.toString());
+        }
+        try {
+            engine.read(conn -> {
+                bulkPartyIds.run(conn, statements, keys, (stmt, index, key) -> stmt.setString(index, key), rs -> {
+                    UUID player = UUID.fromString(rs.getString("player_id"));
+                    if (rs.getInt("preference") == 0) {
+                        parties.put(player, rs.getInt("party_id"));
+                    } else {
+                        parties.putIfAbsent(player, rs.getInt("party_id"));
+                    }
+                });
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to find the parties of " + keys.size() + " players in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to find the parties of " + keys.size() + " players in SQLite", e);
+        }
+        for (UUID player : players) {
+            parties.putIfAbsent(player, NO_PARTY);
+        }
+        return parties;
+    }
+
+    /**
+     * Gets the members of many parties with one {@code IN (...)} query per chunk of
+     * {@code database.bulk.chunk-size} parties.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member UUIDs, empty for parties without members
+     */
+    @Override
+    public Map<Integer, List<UUID>> getPartyMembers(Collection<Integer> partyIds) {
+        Map<Integer, List<UUID>> members = new HashMap<>();
+        if (partyIds.isEmpty()) {
+            return members;
+        }
+        List<Integer> keys = new ArrayList<>(new LinkedHashSet<>(partyIds));
+        for (int partyId : keys) {
+            members.put(partyId, new ArrayList<>());
+        }
+        try {
+            engine.read(conn -> {
+                bulkMembers.run(conn, statements, keys, (stmt, index, key) -> stmt.setInt(index, key), rs ->
+                        members.get(rs.getInt("party_id")).add(UUID.fromString(rs.getString("party_member_id"))));
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to get the members of " + keys.size() + " parties in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to get the members of " + keys.size() + " parties in SQLite", e);
+        }
+        return members;
+    }
+
+    /**
+     * Counts the members of many parties with one grouped {@code IN (...)} query per chunk of
+     * {@code database.bulk.chunk-size} parties.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member count, {@code 0} for parties without members
+     */
+    @Override
+    public Map<Integer, Integer> getPartyCounts(Collection<Integer> partyIds) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        if (partyIds.isEmpty()) {
+            return counts;
+        }
+        List<Integer> keys = new ArrayList<>(new LinkedHashSet<>(partyIds));
+        for (int partyId : keys) {
+            counts.put(partyId, 0);
+        }
+        try {
+            engine.read(conn -> {
+                bulkCounts.run(conn, statements, keys, (stmt, index, key) -> stmt.setInt(index, key), rs ->
+                        counts.put(rs.getInt("party_id"), rs.getInt("cnt")));
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to count the members of " + keys.size() + " parties in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to count the members of " + keys.size() + " parties in SQLite", e);
+        }
+        return counts;
+    }
+
+    /**
+     * Loads the parties of many players together with their owners, names and members, using one
+     * {@code IN (...)} query per chunk of {@code database.bulk.chunk-size} players.
+     *
+     * @param players UUIDs of the players
+     * @return map from party ID to party snapshot for every party one of the players belongs to
+     */
+    @Override
+    public Map<Integer, MCEnginePartyInfo> getPlayerParties(Collection<UUID> players) {
+        Map<Integer, MCEnginePartyInfo> parties = new HashMap<>();
+        if (players.isEmpty()) {
+            return parties;
+        }
+        List<String> keys = new ArrayList<>(players.size());
+        for (UUID player : new LinkedHashSet<>(players)) {
+            keys.add(player.toString());
+        }
+        // Members are collected first, so each snapshot is built once with its complete list
+        Map<Integer, List<UUID>> members = new HashMap<>();
+        try {
+            engine.read(conn -> {
+                bulkPlayerParties.run(conn, statements, keys, (stmt, index, key) -> stmt.setString(index, key), rs -> {
+                    int partyId = rs.getInt("party_id");
+                    if (!parties.containsKey(partyId)) {
+                        parties.put(partyId, new MCEnginePartyInfo(partyId, UUID.fromString(rs.getString("party_owner_id")),
+                                rs.getString("party_name"), List.of()));
+                    }
+                    List<UUID> partyMembers = members.computeIfAbsent(partyId, ignored -> new ArrayList<>());
+                    String member = rs.getString("party_member_id");
+                    if (member != null) {
+                        UUID memberId = UUID.fromString(member);
+                        // A party shared by players of different chunks is read once per chunk
+                        if (!partyMembers.contains(memberId)) {
+                            partyMembers.add(memberId);
+                        }
+                    }
+                });
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to load the parties of " + keys.size() + " players in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to load the parties of " + keys.size() + " players in SQLite", e);
+        }
+        parties.replaceAll((partyId, info) -> new MCEnginePartyInfo(partyId, info.ownerId(), info.partyName(),
+                members.getOrDefault(partyId, List.of())));
+        return parties;
+    }
+
+    /**
+     * Removes each player from their party in a single write using JDBC batches:
+     * parties owned by a leaving player are disbanded, then the players' memberships are deleted.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     */
+    @Override
+    public void leavePlayers(Collection<UUID> players) {
+        if (players.isEmpty()) {
+            return;
+        }
+        String disbandMembersSql = "DELETE FROM party_member WHERE party_id IN (SELECT party_id FROM party WHERE party_owner_id = ?)";
+        String disbandPartySql = "DELETE FROM party WHERE party_owner_id = ?";
+        String leaveSql = "DELETE FROM party_member WHERE party_member_id = ?";
+
+        try {
+            engine.write(conn -> {
+                PreparedStatement disbandMembers = statements.prepare(conn, disbandMembersSql);
+                PreparedStatement disbandParty = statements.prepare(conn, disbandPartySql);
+                PreparedStatement leave = statements.prepare(conn, leaveSql);
+                PreparedStatement logDisbands = null;
+                PreparedStatement logLeaves = null;
+                for (UUID player : players) {
+                    if (changeLog != null) {
+                        logDisbands = changeLog.batchDisbands(conn, player);
+                        logLeaves = changeLog.batchLeaves(conn, player);
+                    }
+                    String uuid = player.toString();
+                    disbandMembers.setString(1, uuid);
+                    disbandMembers.addBatch();
+                    disbandParty.setString(1, uuid);
+                    disbandParty.addBatch();
+                    leave.setString(1, uuid);
+                    leave.addBatch();
+                }
+                // Change rows are selected from the rows about to be deleted
+                if (logDisbands != null) {
+                    logDisbands.executeBatch();
+                }
+                disbandMembers.executeBatch();
+                disbandParty.executeBatch();
+                if (logLeaves != null) {
+                    logLeaves.executeBatch();
+                }
+                leave.executeBatch();
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to remove " + players.size() + " players from their parties in SQLite: " + e.getMessage());
             e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to remove " + players.size() + " players from their parties in SQLite", e);
         }
-        return 0;
+    }
+
+    /**
+     * Runs the work as a single write on the writer connection, so every operation it performs
+     * commits together (sharing the commit with other queued writes in WAL mode) or not at all.
+     * The work runs on the writer thread and must not wait for other party database calls
+     * made from other threads.
+     *
+     * @param work the operations to run
+     * @param <T>  result type
+     * @return the result of the work
+     * @throws MCEnginePartyDBException if the transaction could not be committed
+     */
+    @Override
+    public <T> T inTransaction(Function<IMCEnginePartyDB, T> work) {
+        try {
+            return engine.write(conn -> work.apply(this));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to commit party transaction in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to commit party transaction in SQLite", e);
+        }
+    }
+
+    /**
+     * Gets the change log written by every mutation.
+     *
+     * @return the change log, or null if {@code database.sync.enabled} is {@code false}
+     */
+    @Override
+    public MCEnginePartyChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Reads the changes after a sequence number on a reader connection.
+     *
+     * @param after the last sequence number already seen
+     * @param limit maximum number of changes to return
+     * @return the changes, in sequence order
+     */
+    @Override
+    public List<MCEnginePartyChange> readChanges(long after, int limit) {
+        try {
+            return engine.read(conn -> changeLog.read(conn, after, limit));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to read party changes in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to read party changes in SQLite", e);
+        }
+    }
+
+    /**
+     * Reads specific changes on a reader connection.
+     *
+     * @param ids the sequence numbers to read
+     * @return the changes that exist, in sequence order
+     */
+    @Override
+    public List<MCEnginePartyChange> readChanges(Collection<Long> ids) {
+        try {
+            return engine.read(conn -> changeLog.read(conn, ids));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to read party changes in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to read party changes in SQLite", e);
+        }
+    }
+
+    /**
+     * Gets the newest sequence number of the change log.
+     *
+     * @return the newest sequence number, or {@code 0} if the log is empty
+     */
+    @Override
+    public long getLatestChangeId() {
+        try {
+            return engine.read(changeLog::latest);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to read party change log in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to read party change log in SQLite", e);
+        }
+    }
+
+    /**
+     * Deletes changes recorded before the given time, as a queued write.
+     *
+     * @param before epoch milliseconds; older changes are deleted
+     * @return the number of deleted changes
+     */
+    @Override
+    public int pruneChanges(long before) {
+        try {
+            return engine.write(conn -> changeLog.prune(conn, before));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to prune party changes in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to prune party changes in SQLite", e);
+        }
+    }
+
+    /**
+     * Deletes memberships of parties that no longer exist, scanning one page of party IDs in one write.
+     *
+     * @param after the last party ID already scanned
+     * @param limit maximum number of distinct party IDs to scan
+     * @return the step result
+     */
+    @Override
+    public MCEnginePartySweepStep sweepOrphanMembers(int after, int limit) {
+        try {
+            return engine.write(conn -> sweep.orphanMembers(conn, after, limit));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to sweep orphaned party members in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to sweep orphaned party members in SQLite", e);
+        }
+    }
+
+    /**
+     * Deletes parties whose owner is not a member, scanning one page of parties in one write.
+     *
+     * @param after the last party ID already scanned
+     * @param limit maximum number of parties to scan
+     * @return the step result
+     */
+    @Override
+    public MCEnginePartySweepStep sweepOwnerlessParties(int after, int limit) {
+        try {
+            return engine.write(conn -> sweep.ownerlessParties(conn, after, limit));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to sweep ownerless parties in SQLite: " + e.getMessage());
+            e.printStackTrace();
+            throw new MCEnginePartyDBException("Failed to sweep ownerless parties in SQLite", e);
+        }
+    }
+
+    /**
+     * Waits for queued writes, then closes the cached statements and every SQLite connection.
+     */
+    @Override
+    public void close() {
+        engine.close();
+    }
+
+    /**
+     * Gets the prepared statement cache, exposing its hit and prepare counts.
+     *
+     * @return the statement cache of this backend
+     */
+    public MCEnginePartyStatementCache getStatementCache() {
+        return statements;
+    }
+
+    /**
+     * Gets the connection engine, exposing its mode and write queue.
+     *
+     * @return the SQLite engine of this backend
+     */
+    public MCEnginePartySQLiteEngine getEngine() {
+        return engine;
     }
 }
@@ -0,0 +1,538 @@
+package io.github.mcengine.common.party.database.sqlite;
+
+import io.github.mcengine.common.party.database.statement.IMCEnginePartySQLWork;
+import io.github.mcengine.common.party.database.statement.MCEnginePartyStatementCache;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection management for {@link MCEnginePartySQLite}.
+ * <p>
+ * In WAL mode ({@code database.sqlite.wal}, default {@code true}) the database uses write-ahead
+ * logging, so readers never block the writer and vice versa:
+ * <ul>
+ *     <li>Writes run on a single thread ({@code MCEngineParty-SQLiteWriter}) that owns the only
+ *     writable connection. Writes queued while a commit is in progress are grouped into one
+ *     transaction of at most {@code database.sqlite.group-commit-size} (default {@code 64}) writes,
+ *     each under its own savepoint, so a failing write is rolled back alone and a burst of writes
+ *     costs one commit.</li>
+ *     <li>Reads borrow one of {@code database.sqlite.readers} (default {@code 2}) query-only connections.</li>
+ * </ul>
+ * Every connection sets {@code synchronous} ({@code database.sqlite.synchronous}, default
+ * {@code NORMAL}, which is durable across application crashes in WAL mode),
+ * {@code cache_size} ({@code database.sqlite.cache-size-kib}, default {@code 8192}) and
+ * {@code mmap_size} ({@code database.sqlite.mmap-size-mb}, default {@code 64}).
+ * <p>
+ * With WAL mode disabled, a single connection serves every operation, serialized on this engine.
+ */
+public class MCEnginePartySQLiteEngine {
+
+    /**
+     * The plugin instance used for configuration and logging.
+     */
+    private final Plugin plugin;
+
+    /**
+     * Prepared statements of every connection, invalidated when a write fails or the engine closes.
+     */
+    private final MCEnginePartyStatementCache statements;
+
+    /**
+     * The writable connection; owned by {@link #writerThread} in WAL mode.
+     */
+    private final Connection writer;
+
+    /**
+     * Idle read-only connections, or null when WAL mode is disabled.
+     */
+    private final BlockingQueue<Connection> readers;
+
+    /**
+     * Every read-only connection, for closing.
+     */
+    private final List<Connection> allReaders = new ArrayList<>();
+
+    /**
+     * Writes waiting for the writer thread.
+     */
+    private final BlockingQueue<WriteTask<?>> writes = new LinkedBlockingQueue<>();
+
+    /**
+     * Maximum number of writes grouped into one commit.
+     */
+    private final int groupCommitSize;
+
+    /**
+     * Thread running queued writes, or null when WAL mode is disabled or before {@link #start()}.
+     */
+    private volatile Thread writerThread;
+
+    /**
+     * Set when the engine is closing; the writer thread drains the queue and exits.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Whether a transaction is open on the single connection (WAL mode disabled). Guarded by {@code this}.
+     */
+    private boolean inTransaction;
+
+    /**
+     * Opens the writable connection and, in WAL mode, the reader connections.
+     *
+     * @param plugin     the Bukkit plugin instance
+     * @param dbFile     the database file
+     * @param statements statement cache shared with the backend
+     * @throws SQLException if a connection cannot be opened or configured
+     */
+    public MCEnginePartySQLiteEngine(Plugin plugin, File dbFile, MCEnginePartyStatementCache statements) throws SQLException {
+        this.plugin = plugin;
+        this.statements = statements;
+        this.groupCommitSize = Math.max(1, plugin.getConfig().getInt("database.sqlite.group-commit-size", 64));
+        String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+        boolean wal = plugin.getConfig().getBoolean("database.sqlite.wal", true);
+
+        this.writer = DriverManager.getConnection(url);
+        configure(writer, wal);
+        if (!wal) {
+            this.readers = null;
+            return;
+        }
+
+        int readerCount = Math.max(1, plugin.getConfig().getInt("database.sqlite.readers", 2));
+        this.readers = new ArrayBlockingQueue<>(readerCount);
+        try {
+            for (int i = 0; i < readerCount; i++) {
+                Connection reader = DriverManager.getConnection(url);
+                allReaders.add(reader);
+                configure(reader, true);
+                try (Statement stmt = reader.createStatement()) {
+                    stmt.execute("PRAGMA query_only = ON");
+                }
+                readers.add(reader);
+            }
+        } catch (SQLException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the writer thread. Work submitted through {@link #exclusive(IMCEnginePartySQLWork)}
+     * before this runs on the calling thread, e.g. schema migrations.
+     */
+    public void start() {
+        if (readers == null || writerThread != null) {
+            return;
+        }
+        Thread thread = new Thread(this::runWriter, "MCEngineParty-SQLiteWriter");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Runs read-only work on a reader connection (or the single connection when WAL mode is disabled).
+     * The work sees every write that completed before it started.
+     *
+     * @param work the work to run
+     * @param <T>  result type
+     * @return the result of the work
+     * @throws SQLException if the work fails or no connection could be borrowed
+     */
+    public <T> T read(IMCEnginePartySQLWork<T> work) throws SQLException {
+        if (readers == null) {
+            synchronized (this) {
+                return work.run(writer);
+            }
+        }
+        if (Thread.currentThread() == writerThread) {
+            // Reads issued from inside a write must see its uncommitted changes
+            return work.run(writer);
+        }
+        Connection conn;
+        try {
+            conn = readers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a SQLite reader", e);
+        }
+        try {
+            return work.run(conn);
+        } finally {
+            readers.add(conn);
+        }
+    }
+
+    /**
+     * Runs work on the writable connection as one atomic unit and waits until it is committed.
+     * In WAL mode the work may share a commit with other queued writes.
+     *
+     * @param work the work to run
+     * @param <T>  result type
+     * @return the result of the work
+     * @throws SQLException if the work or the commit fails; the work's changes are rolled back
+     */
+    public <T> T write(IMCEnginePartySQLWork<T> work) throws SQLException {
+        return submit(work, false);
+    }
+
+    /**
+     * Runs work on the writable connection in auto-commit mode, outside any grouped transaction.
+     * Used for work that manages transactions itself, such as migrations and raw SQL.
+     *
+     * @param work the work to run
+     * @param <T>  result type
+     * @return the result of the work
+     * @throws SQLException if the work fails
+     */
+    public <T> T exclusive(IMCEnginePartySQLWork<T> work) throws SQLException {
+        return submit(work, true);
+    }
+
+    /**
+     * Stops the writer thread after it has run every queued write, then closes all connections.
+     */
+    public void close() {
+        closed = true;
+        Thread thread = writerThread;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        WriteTask<?> task;
+        while ((task = writes.poll()) != null) {
+            task.future.completeExceptionally(new SQLException("SQLite engine is closed"));
+        }
+        closeQuietly();
+    }
+
+    /**
+     * Checks whether the engine runs in WAL mode with a writer thread and reader pool.
+     *
+     * @return true in WAL mode
+     */
+    public boolean isWal() {
+        return readers != null;
+    }
+
+    /**
+     * Gets the number of writes waiting for the writer thread.
+     *
+     * @return queued write count
+     */
+    public int getQueuedWrites() {
+        return writes.size();
+    }
+
+    /**
+     * Runs work directly or hands it to the writer thread and waits for the outcome.
+     *
+     * @param work      the work to run
+     * @param exclusive whether the work runs in auto-commit mode
+     * @param <T>       result type
+     * @return the result of the work
+     * @throws SQLException if the work or its commit fails
+     */
+    private <T> T submit(IMCEnginePartySQLWork<T> work, boolean exclusive) throws SQLException {
+        Thread thread = writerThread;
+        if (thread == null) {
+            synchronized (this) {
+                // Nested writes join the transaction already running on this thread
+                return exclusive || inTransaction ? work.run(writer) : runTransaction(work);
+            }
+        }
+        if (Thread.currentThread() == thread) {
+            // Nested write: already inside the writer's transaction
+            return work.run(writer);
+        }
+        if (closed) {
+            throw new SQLException("SQLite engine is closed");
+        }
+        WriteTask<T> task = new WriteTask<>(work, exclusive);
+        writes.add(task);
+        if (closed && !thread.isAlive() && writes.remove(task)) {
+            // The writer exited between the closed check and the enqueue
+            throw new SQLException("SQLite engine is closed");
+        }
+        try {
+            return task.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the SQLite writer", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * Runs work in its own transaction on the single connection (WAL mode disabled or before start).
+     *
+     * @param work the work to run
+     * @param <T>  result type
+     * @return the result of the work
+     * @throws SQLException if the work or the commit fails
+     */
+    private <T> T runTransaction(IMCEnginePartySQLWork<T> work) throws SQLException {
+        writer.setAutoCommit(false);
+        inTransaction = true;
+        try {
+            T result = work.run(writer);
+            writer.commit();
+            return result;
+        } catch (Throwable e) {
+            // Errors must roll back too, or restoring auto-commit would commit the partial work
+            writer.rollback();
+            statements.invalidate(writer);
+            throw e;
+        } finally {
+            inTransaction = false;
+            writer.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Writer thread loop: takes every queued write (up to the group size) and commits them together.
+     * Nothing a write throws, not even an {@link Error}, may end the loop, since callers wait for
+     * their write without a timeout.
+     */
+    private void runWriter() {
+        List<WriteTask<?>> batch = new ArrayList<>(groupCommitSize);
+        while (!closed || !writes.isEmpty()) {
+            try {
+                WriteTask<?> first = writes.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                writes.drainTo(batch, groupCommitSize - 1);
+                runBatch(batch);
+            } catch (InterruptedException e) {
+                // Only close() stops the writer; keep draining
+            } catch (Throwable e) {
+                plugin.getLogger().warning("SQLite party writer failed: " + e);
+                e.printStackTrace();
+                for (WriteTask<?> task : batch) {
+                    task.future.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Runs a batch of writes in order. Consecutive grouped writes share one transaction;
+     * exclusive writes run on their own in auto-commit mode.
+     *
+     * @param batch the writes to run
+     */
+    private void runBatch(List<WriteTask<?>> batch) {
+        int start = 0;
+        while (start < batch.size()) {
+            WriteTask<?> task = batch.get(start);
+            if (task.exclusive) {
+                task.runExclusive(writer);
+                start++;
+                continue;
+            }
+            int end = start;
+            while (end < batch.size() && !batch.get(end).exclusive) {
+                end++;
+            }
+            runGroup(batch.subList(start, end));
+            start = end;
+        }
+    }
+
+    /**
+     * Runs grouped writes in one transaction, each under a savepoint, and completes them after the commit.
+     *
+     * @param group the writes to run
+     */
+    private void runGroup(List<WriteTask<?>> group) {
+        try {
+            writer.setAutoCommit(false);
+            try {
+                for (WriteTask<?> task : group) {
+                    task.runInSavepoint(writer, statements);
+                }
+                writer.commit();
+            } catch (Throwable e) {
+                writer.rollback();
+                statements.invalidate(writer);
+                throw e;
+            } finally {
+                writer.setAutoCommit(true);
+            }
+        } catch (Throwable e) {
+            plugin.getLogger().warning("Failed to commit " + group.size() + " SQLite party writes: " + e.getMessage());
+            e.printStackTrace();
+            for (WriteTask<?> task : group) {
+                task.future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (WriteTask<?> task : group) {
+            task.complete();
+        }
+    }
+
+    /**
+     * Applies the connection pragmas.
+     *
+     * @param conn the connection to configure
+     * @param wal  whether to enable WAL mode and the tuned pragmas
+     * @throws SQLException if a pragma fails
+     */
+    private void configure(Connection conn, boolean wal) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 5000");
+            if (!wal) {
+                return;
+            }
+            String synchronous = plugin.getConfig().getString("database.sqlite.synchronous", "NORMAL").toUpperCase();
+            if (!List.of("OFF", "NORMAL", "FULL", "EXTRA").contains(synchronous)) {
+                plugin.getLogger().warning("Unknown database.sqlite.synchronous '" + synchronous + "', using NORMAL");
+                synchronous = "NORMAL";
+            }
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA cache_size = -" + Math.max(0, plugin.getConfig().getInt("database.sqlite.cache-size-kib", 8192)));
+            stmt.execute("PRAGMA mmap_size = " + (Math.max(0L, plugin.getConfig().getLong("database.sqlite.mmap-size-mb", 64L)) << 20));
+            stmt.execute("PRAGMA temp_store = MEMORY");
+        }
+    }
+
+    /**
+     * Closes every connection and its cached statements, ignoring errors.
+     */
+    private void closeQuietly() {
+        List<Connection> all = new ArrayList<>(allReaders);
+        all.add(writer);
+        for (Connection conn : all) {
+            statements.invalidate(conn);
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to close SQLite connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A write waiting for the writer thread.
+     *
+     * @param <T> result type
+     */
+    private static final class WriteTask<T> {
+
+        /**
+         * The work to run.
+         */
+        private final IMCEnginePartySQLWork<T> work;
+
+        /**
+         * Whether the work runs in auto-commit mode.
+         */
+        private final boolean exclusive;
+
+        /**
+         * Completed with the result once the work is committed.
+         */
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        /**
+         * Result of the work, held until the commit succeeds.
+         */
+        private T result;
+
+        /**
+         * Failure of the work, held until the group finishes.
+         */
+        private Throwable failure;
+
+        /**
+         * Creates a task.
+         *
+         * @param work      the work to run
+         * @param exclusive whether the work runs in auto-commit mode
+         */
+        private WriteTask(IMCEnginePartySQLWork<T> work, boolean exclusive) {
+            this.work = work;
+            this.exclusive = exclusive;
+        }
+
+        /**
+         * Runs the work under a savepoint, rolling back only this work if it fails.
+         *
+         * @param conn       the writer connection, inside a transaction
+         * @param statements statement cache to invalidate after a failure
+         * @throws SQLException if the savepoint itself cannot be handled
+         */
+        private void runInSavepoint(Connection conn, MCEnginePartyStatementCache statements) throws SQLException {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                result = work.run(conn);
+                conn.releaseSavepoint(savepoint);
+            } catch (Throwable e) {
+                conn.rollback(savepoint);
+                conn.releaseSavepoint(savepoint);
+                // Drop statements that may still hold a half-executed batch
+                statements.invalidate(conn);
+                failure = e;
+            }
+        }
+
+        /**
+         * Runs the work in auto-commit mode and completes the task.
+         *
+         * @param conn the writer connection
+         */
+        private void runExclusive(Connection conn) {
+            try {
+                future.complete(work.run(conn));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Completes the task after its group was committed.
+         */
+        private void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.mcengine.common.party.database.sqlite;
+
+import io.github.mcengine.common.party.database.migration.MCEnginePartyMigration;
+
+import java.util.List;
+
+/**
+ * Ordered schema migrations for the SQLite party database.
+ * New migrations must be appended with the next version number; existing ones must never change.
+ */
+public final class MCEnginePartySQLiteMigrations {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MCEnginePartySQLiteMigrations() {}
+
+    /**
+     * Gets every SQLite migration in version order.
+     *
+     * @return the migration list
+     */
+    public static List<MCEnginePartyMigration> all() {
+        return List.of(
+                new MCEnginePartyMigration(1, "Create party tables",
+                        """
+                        CREATE TABLE IF NOT EXISTS party (
+                            party_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            party_owner_id TEXT NOT NULL,
+                            party_name TEXT DEFAULT NULL
+                        );
+                        """,
+                        """
+                        CREATE TABLE IF NOT EXISTS party_member (
+                            party_member_id TEXT NOT NULL,
+                            party_id INTEGER NOT NULL,
+                            FOREIGN KEY (party_id) REFERENCES party(party_id)
+                        );
+                        """),
+                new MCEnginePartyMigration(2, "Index party lookups and make memberships unique",
+                        // Keep the first of any duplicated memberships so the unique index can be built
+                        """
+                        DELETE FROM party_member
+                        WHERE rowid NOT IN (
+                            SELECT MIN(rowid) FROM party_member GROUP BY party_id, party_member_id
+                        );
+                        """,
+                        "CREATE UNIQUE INDEX IF NOT EXISTS uk_party_member_party_player ON party_member (party_id, party_member_id);",
+                        "CREATE INDEX IF NOT EXISTS idx_party_member_player ON party_member (party_member_id);",
+                        "CREATE INDEX IF NOT EXISTS idx_party_owner ON party (party_owner_id);"),
+                new MCEnginePartyMigration(3, "Create party change log",
+                        """
+                        CREATE TABLE IF NOT EXISTS party_change (
+                            change_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            change_type INTEGER NOT NULL,
+                            party_id INTEGER NOT NULL,
+                            player_id TEXT DEFAULT NULL,
+                            party_name TEXT DEFAULT NULL,
+                            origin_id INTEGER NOT NULL,
+                            changed_at INTEGER NOT NULL
+                        );
+                        """,
+                        "CREATE INDEX IF NOT EXISTS idx_party_change_time ON party_change (changed_at);")
+        );
+    }
+}
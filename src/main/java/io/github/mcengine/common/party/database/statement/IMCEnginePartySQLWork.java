@@ -0,0 +1,23 @@
+package io.github.mcengine.common.party.database.statement;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A unit of JDBC work run by a backend on a connection it chooses, e.g. a pooled reader or
+ * its writer thread. Implementations must not close the connection or change its auto-commit mode.
+ *
+ * @param <T> result type
+ */
+@FunctionalInterface
+public interface IMCEnginePartySQLWork<T> {
+
+    /**
+     * Runs the work.
+     *
+     * @param conn the connection to use
+     * @return the result of the work
+     * @throws SQLException if a statement fails
+     */
+    T run(Connection conn) throws SQLException;
+}
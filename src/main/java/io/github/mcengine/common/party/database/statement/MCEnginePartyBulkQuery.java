@@ -0,0 +1,121 @@
+package io.github.mcengine.common.party.database.statement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A query over many keys, executed as a series of {@code IN (...)} queries of at most
+ * {@code chunkSize} keys each, so looking up {@code N} keys costs {@code N / chunkSize} round trips.
+ * <p>
+ * The number of placeholders of each chunk is rounded up to a power of two and the unused ones
+ * repeat the chunk's last key, so at most {@code log2(chunkSize) + 1} distinct SQL texts exist and
+ * every chunk runs on a statement from the {@link MCEnginePartyStatementCache}. Repeated keys do not
+ * change the result of an {@code IN} predicate.
+ */
+public final class MCEnginePartyBulkQuery {
+
+    /**
+     * SQL text for each placeholder count {@code 2^i}, indexed by {@code i}.
+     */
+    private final String[] sqls;
+
+    /**
+     * Number of {@code %s} occurrences in the template; the chunk's keys are bound once per occurrence.
+     */
+    private final int copies;
+
+    /**
+     * Maximum number of keys per query, a power of two.
+     */
+    private final int chunkSize;
+
+    /**
+     * Creates a bulk query.
+     *
+     * @param template  SQL with one or more {@code %s} marking where the placeholder list goes,
+     *                  e.g. {@code "... WHERE party_id IN (%s)"}
+     * @param chunkSize maximum number of keys per query, rounded down to a power of two
+     */
+    public MCEnginePartyBulkQuery(String template, int chunkSize) {
+        this.chunkSize = Integer.highestOneBit(Math.max(1, chunkSize));
+        this.copies = template.split("%s", -1).length - 1;
+        int buckets = Integer.numberOfTrailingZeros(this.chunkSize) + 1;
+        this.sqls = new String[buckets];
+        for (int i = 0; i < buckets; i++) {
+            StringBuilder placeholders = new StringBuilder();
+            for (int p = 0; p < 1 << i; p++) {
+                placeholders.append(p == 0 ? "?" : ", ?");
+            }
+            sqls[i] = template.replace("%s", placeholders);
+        }
+    }
+
+    /**
+     * Runs the query for every chunk of the keys on one connection and passes each row to the reader.
+     *
+     * @param conn       the connection to query on
+     * @param statements the statement cache of the backend
+     * @param keys       the keys to look up; should not contain duplicates
+     * @param binder     binds one key to a placeholder
+     * @param reader     consumes each result row
+     * @param <K>        key type
+     * @throws SQLException if a query fails
+     */
+    public <K> void run(Connection conn, MCEnginePartyStatementCache statements, List<K> keys,
+                        Binder<K> binder, RowReader reader) throws SQLException {
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            int count = Math.min(chunkSize, keys.size() - from);
+            int bucket = 32 - Integer.numberOfLeadingZeros(count - 1);
+            int slots = 1 << bucket;
+            PreparedStatement stmt = statements.prepare(conn, sqls[bucket]);
+            int index = 1;
+            for (int copy = 0; copy < copies; copy++) {
+                for (int slot = 0; slot < slots; slot++) {
+                    binder.bind(stmt, index++, keys.get(from + Math.min(slot, count - 1)));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reader.read(rs);
+                }
+            }
+        }
+    }
+
+    /**
+     * Binds one key to a statement parameter.
+     *
+     * @param <K> key type
+     */
+    @FunctionalInterface
+    public interface Binder<K> {
+
+        /**
+         * Binds the key.
+         *
+         * @param stmt  the statement
+         * @param index the 1-based parameter index
+         * @param key   the key
+         * @throws SQLException if the parameter cannot be set
+         */
+        void bind(PreparedStatement stmt, int index, K key) throws SQLException;
+    }
+
+    /**
+     * Consumes one result row.
+     */
+    @FunctionalInterface
+    public interface RowReader {
+
+        /**
+         * Reads the current row.
+         *
+         * @param rs the result set, positioned on a row
+         * @throws SQLException if the row cannot be read
+         */
+        void read(ResultSet rs) throws SQLException;
+    }
+}
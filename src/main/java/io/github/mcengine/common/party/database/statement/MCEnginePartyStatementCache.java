@@ -0,0 +1,189 @@
+package io.github.mcengine.common.party.database.statement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of {@link PreparedStatement} objects owned by a party database backend.
+ * <p>
+ * Statements are kept per physical connection and keyed by their SQL text, so a backend that
+ * only issues constant SQL prepares each statement once per connection and reuses it afterwards.
+ * Pooled connection proxies are resolved to their physical connection via {@link Connection#unwrap(Class)},
+ * so every lease of the same pooled connection shares its statements.
+ * <p>
+ * Cached statements must not be closed by callers; their {@link java.sql.ResultSet}s must be.
+ * A cached statement may only be used by one thread at a time, which holds as long as its
+ * connection is. When a connection is closed or replaced, {@link #invalidate(Connection)} must be
+ * called so its statements are released.
+ * <p>
+ * A query timeout, if set, is applied to every statement when it is prepared, so a statement
+ * against an unresponsive server fails instead of blocking its caller indefinitely.
+ */
+public class MCEnginePartyStatementCache {
+
+    /**
+     * Physical connection -> statement key -> prepared statement.
+     */
+    private final Map<Connection, Map<Key, PreparedStatement>> statements = new ConcurrentHashMap<>();
+
+    /**
+     * Number of statements served from the cache.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Number of statements that had to be prepared.
+     */
+    private final LongAdder prepares = new LongAdder();
+
+    /**
+     * Query timeout applied to every prepared statement, in seconds; {@code 0} for none.
+     */
+    private final int queryTimeoutSeconds;
+
+    /**
+     * Creates a cache whose statements have no query timeout.
+     */
+    public MCEnginePartyStatementCache() {
+        this(0);
+    }
+
+    /**
+     * Creates a cache whose statements time out after the given number of seconds.
+     *
+     * @param queryTimeoutSeconds query timeout in seconds, {@code 0} for none
+     */
+    public MCEnginePartyStatementCache(int queryTimeoutSeconds) {
+        this.queryTimeoutSeconds = Math.max(0, queryTimeoutSeconds);
+    }
+
+    /**
+     * Returns the cached statement for the SQL on the given connection, preparing it on first use.
+     *
+     * @param conn the connection (or pooled proxy) the statement runs on
+     * @param sql  the constant SQL text
+     * @return a prepared statement that must not be closed by the caller
+     * @throws SQLException if the statement could not be prepared
+     */
+    public PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        return prepare(conn, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Returns the cached statement for the SQL on the given connection, preparing it on first use.
+     *
+     * @param conn              the connection (or pooled proxy) the statement runs on
+     * @param sql               the constant SQL text
+     * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+     * @return a prepared statement that must not be closed by the caller
+     * @throws SQLException if the statement could not be prepared
+     */
+    public PreparedStatement prepare(Connection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        Connection physical = conn.unwrap(Connection.class);
+        Map<Key, PreparedStatement> cached = statements.computeIfAbsent(physical, ignored -> new ConcurrentHashMap<>());
+        Key key = new Key(sql, autoGeneratedKeys);
+        PreparedStatement stmt = cached.get(key);
+        if (stmt != null && !stmt.isClosed()) {
+            hits.increment();
+            return stmt;
+        }
+        prepares.increment();
+        stmt = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (queryTimeoutSeconds > 0) {
+            stmt.setQueryTimeout(queryTimeoutSeconds);
+        }
+        cached.put(key, stmt);
+        return stmt;
+    }
+
+    /**
+     * Closes and forgets every statement prepared on the given connection.
+     * Call this before a connection is closed or after it has been replaced.
+     *
+     * @param conn the connection (or pooled proxy) whose statements should be dropped
+     */
+    public void invalidate(Connection conn) {
+        Connection physical;
+        try {
+            physical = conn.unwrap(Connection.class);
+        } catch (SQLException e) {
+            physical = conn;
+        }
+        Map<Key, PreparedStatement> cached = statements.remove(physical);
+        if (cached != null) {
+            closeAll(cached);
+        }
+    }
+
+    /**
+     * Closes and forgets every cached statement on every connection.
+     */
+    public void invalidateAll() {
+        for (Connection conn : statements.keySet()) {
+            Map<Key, PreparedStatement> cached = statements.remove(conn);
+            if (cached != null) {
+                closeAll(cached);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of statements served from the cache.
+     *
+     * @return cache hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of statements that had to be prepared.
+     *
+     * @return prepare count
+     */
+    public long getPrepares() {
+        return prepares.sum();
+    }
+
+    /**
+     * Gets the number of statements currently cached across all connections.
+     *
+     * @return cached statement count
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Key, PreparedStatement> cached : statements.values()) {
+            size += cached.size();
+        }
+        return size;
+    }
+
+    /**
+     * Closes the given statements, ignoring errors from already-broken connections.
+     *
+     * @param cached the statements to close
+     */
+    private static void closeAll(Map<Key, PreparedStatement> cached) {
+        for (PreparedStatement stmt : cached.values()) {
+            try {
+                stmt.close();
+            } catch (SQLException ignored) {
+                // The connection is going away anyway
+            }
+        }
+        cached.clear();
+    }
+
+    /**
+     * Cache key of a statement on one connection.
+     *
+     * @param sql               the SQL text
+     * @param autoGeneratedKeys the generated-keys flag the statement was prepared with
+     */
+    private record Key(String sql, int autoGeneratedKeys) {}
+}
@@ -0,0 +1,29 @@
+package io.github.mcengine.common.party.database.sweep;
+
+/**
+ * A SQL backend whose tables can be cleaned of orphaned rows by {@link MCEnginePartySweeper}.
+ * <p>
+ * Each step scans at most {@code limit} party IDs after a cursor, in ID order, and removes the
+ * orphans among them in one short write, so a sweep never holds locks for long.
+ */
+public interface IMCEnginePartySweepable {
+
+    /**
+     * Deletes {@code party_member} rows whose party no longer exists.
+     *
+     * @param after the last party ID already scanned, {@code 0} to start from the beginning
+     * @param limit maximum number of distinct party IDs to scan
+     * @return the step result
+     */
+    MCEnginePartySweepStep sweepOrphanMembers(int after, int limit);
+
+    /**
+     * Deletes parties whose owner is not a member, including empty parties, together with their
+     * remaining members.
+     *
+     * @param after the last party ID already scanned, {@code 0} to start from the beginning
+     * @param limit maximum number of parties to scan
+     * @return the step result
+     */
+    MCEnginePartySweepStep sweepOwnerlessParties(int after, int limit);
+}
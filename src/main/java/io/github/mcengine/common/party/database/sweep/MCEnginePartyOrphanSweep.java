@@ -0,0 +1,216 @@
+package io.github.mcengine.common.party.database.sweep;
+
+import io.github.mcengine.common.party.database.statement.MCEnginePartyStatementCache;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChangeLog;
+import io.github.mcengine.common.party.database.sync.MCEnginePartyChangeType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the steps of an orphan sweep on behalf of a SQL backend.
+ * <p>
+ * Steps page through party IDs with a keyset cursor ({@code party_id > ?}), which both tables
+ * index, so every step costs the same no matter how far the sweep has progressed. Each delete
+ * re-checks its condition, so a party that changed since the scan is left alone. Removed parties
+ * are recorded as {@link MCEnginePartyChangeType#DISBAND} when the change log is enabled, so other
+ * servers drop them from their caches. The SQL is shared by SQLite and MySQL.
+ */
+public class MCEnginePartyOrphanSweep {
+
+    /**
+     * Scans the next party IDs that have memberships and flags those without a party row.
+     */
+    private static final String SCAN_MEMBERS = """
+        SELECT m.party_id, CASE WHEN p.party_id IS NULL THEN 1 ELSE 0 END AS orphaned
+        FROM (SELECT DISTINCT party_id FROM party_member WHERE party_id > ? ORDER BY party_id LIMIT ?) m
+        LEFT JOIN party p ON p.party_id = m.party_id
+        ORDER BY m.party_id
+    """;
+
+    /**
+     * Scans the next parties and flags those whose owner is not a member.
+     */
+    private static final String SCAN_PARTIES = """
+        SELECT p.party_id,
+               CASE WHEN EXISTS (
+                   SELECT 1 FROM party_member m WHERE m.party_id = p.party_id AND m.party_member_id = p.party_owner_id
+               ) THEN 0 ELSE 1 END AS orphaned
+        FROM party p
+        WHERE p.party_id > ?
+        ORDER BY p.party_id
+        LIMIT ?
+    """;
+
+    /**
+     * Deletes the memberships of a party, provided the party does not exist.
+     */
+    private static final String DELETE_ORPHAN_MEMBERS = """
+        DELETE FROM party_member
+        WHERE party_id = ? AND NOT EXISTS (SELECT 1 FROM party WHERE party_id = ?)
+    """;
+
+    /**
+     * Deletes a party, provided its owner is not a member.
+     */
+    private static final String DELETE_OWNERLESS_PARTY = """
+        DELETE FROM party
+        WHERE party_id = ? AND party_owner_id NOT IN (SELECT party_member_id FROM party_member WHERE party_id = ?)
+    """;
+
+    /**
+     * Deletes the remaining memberships of a deleted party.
+     */
+    private static final String DELETE_MEMBERS = "DELETE FROM party_member WHERE party_id = ?";
+
+    /**
+     * Prepared statements of the owning backend.
+     */
+    private final MCEnginePartyStatementCache statements;
+
+    /**
+     * Change log of the owning backend, or {@code null} if sync is disabled.
+     */
+    private final MCEnginePartyChangeLog changeLog;
+
+    /**
+     * Creates the sweep for a backend.
+     *
+     * @param statements prepared statements of the owning backend
+     * @param changeLog  change log of the owning backend, or {@code null}
+     */
+    public MCEnginePartyOrphanSweep(MCEnginePartyStatementCache statements, MCEnginePartyChangeLog changeLog) {
+        this.statements = statements;
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Runs one step of {@link IMCEnginePartySweepable#sweepOrphanMembers(int, int)}.
+     *
+     * @param conn  connection of the write transaction
+     * @param after the last party ID already scanned
+     * @param limit maximum number of distinct party IDs to scan
+     * @return the step result
+     * @throws SQLException if a statement fails
+     */
+    public MCEnginePartySweepStep orphanMembers(Connection conn, int after, int limit) throws SQLException {
+        Scan scan = scan(conn, SCAN_MEMBERS, after, limit);
+        List<Integer> removed = new ArrayList<>();
+        int removedMembers = 0;
+        for (int partyId : scan.orphans) {
+            PreparedStatement stmt = statements.prepare(conn, DELETE_ORPHAN_MEMBERS);
+            stmt.setInt(1, partyId);
+            stmt.setInt(2, partyId);
+            int deleted = stmt.executeUpdate();
+            if (deleted > 0) {
+                removed.add(partyId);
+                removedMembers += deleted;
+                record(conn, partyId);
+            }
+        }
+        return new MCEnginePartySweepStep(scan.lastId, scan.scanned, removed, removedMembers);
+    }
+
+    /**
+     * Runs one step of {@link IMCEnginePartySweepable#sweepOwnerlessParties(int, int)}.
+     *
+     * @param conn  connection of the write transaction
+     * @param after the last party ID already scanned
+     * @param limit maximum number of parties to scan
+     * @return the step result
+     * @throws SQLException if a statement fails
+     */
+    public MCEnginePartySweepStep ownerlessParties(Connection conn, int after, int limit) throws SQLException {
+        Scan scan = scan(conn, SCAN_PARTIES, after, limit);
+        List<Integer> removed = new ArrayList<>();
+        int removedMembers = 0;
+        for (int partyId : scan.orphans) {
+            PreparedStatement party = statements.prepare(conn, DELETE_OWNERLESS_PARTY);
+            party.setInt(1, partyId);
+            party.setInt(2, partyId);
+            if (party.executeUpdate() == 0) {
+                continue;
+            }
+            PreparedStatement members = statements.prepare(conn, DELETE_MEMBERS);
+            members.setInt(1, partyId);
+            removedMembers += members.executeUpdate();
+            removed.add(partyId);
+            record(conn, partyId);
+        }
+        return new MCEnginePartySweepStep(scan.lastId, scan.scanned, removed, removedMembers);
+    }
+
+    /**
+     * Runs a scan query and collects the flagged party IDs.
+     *
+     * @param conn  the connection to query on
+     * @param sql   the scan query, selecting {@code party_id} and {@code orphaned}
+     * @param after the keyset cursor
+     * @param limit maximum number of rows
+     * @return the scan result
+     * @throws SQLException if the query fails
+     */
+    private Scan scan(Connection conn, String sql, int after, int limit) throws SQLException {
+        PreparedStatement stmt = statements.prepare(conn, sql);
+        stmt.setInt(1, after);
+        stmt.setInt(2, limit);
+        Scan scan = new Scan(after);
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                scan.lastId = rs.getInt("party_id");
+                scan.scanned++;
+                if (rs.getInt("orphaned") == 1) {
+                    scan.orphans.add(scan.lastId);
+                }
+            }
+        }
+        return scan;
+    }
+
+    /**
+     * Records the removal of a party in the change log, if enabled.
+     *
+     * @param conn    connection of the write transaction
+     * @param partyId the ID of the removed party
+     * @throws SQLException if the change cannot be recorded
+     */
+    private void record(Connection conn, int partyId) throws SQLException {
+        if (changeLog != null) {
+            changeLog.record(conn, MCEnginePartyChangeType.DISBAND, partyId, null, null);
+        }
+    }
+
+    /**
+     * Party IDs read by a scan query.
+     */
+    private static final class Scan {
+
+        /**
+         * IDs of the scanned parties that are orphaned.
+         */
+        private final List<Integer> orphans = new ArrayList<>();
+
+        /**
+         * The highest party ID scanned.
+         */
+        private int lastId;
+
+        /**
+         * Number of party IDs scanned.
+         */
+        private int scanned;
+
+        /**
+         * Creates an empty scan continuing after the given cursor.
+         *
+         * @param after the keyset cursor
+         */
+        private Scan(int after) {
+            this.lastId = after;
+        }
+    }
+}
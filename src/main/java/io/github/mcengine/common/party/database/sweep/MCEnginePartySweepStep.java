@@ -0,0 +1,14 @@
+package io.github.mcengine.common.party.database.sweep;
+
+import java.util.List;
+
+/**
+ * Result of one keyset-paginated step of an orphan sweep.
+ *
+ * @param lastId         the highest party ID scanned, where the next step continues
+ * @param scanned        number of party IDs scanned; fewer than the step limit means the end of the table was reached
+ * @param removedParties IDs of the parties whose rows were removed
+ * @param removedMembers number of {@code party_member} rows deleted
+ */
+public record MCEnginePartySweepStep(int lastId, int scanned, List<Integer> removedParties, int removedMembers) {
+}
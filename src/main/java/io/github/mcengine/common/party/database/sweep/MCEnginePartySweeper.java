@@ -0,0 +1,272 @@
+package io.github.mcengine.common.party.database.sweep;
+
+import io.github.mcengine.common.party.database.cache.MCEnginePartyCache;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background task that incrementally removes orphaned rows from a SQL backend.
+ * <p>
+ * Crashes, unclean quits and SQLite not enforcing the declared foreign key can leave
+ * {@code party_member} rows without a party and parties whose owner is gone. Every
+ * {@code interval-seconds} the sweeper runs steps of at most {@code batch-size} party IDs
+ * (see {@link IMCEnginePartySweepable}) until {@code budget-ms} is spent, first over memberships,
+ * then over parties. The cursor is kept between runs, so a large table is swept across several
+ * runs instead of in one long scan; a run ends early once a full pass is complete.
+ * Removed parties are dropped from the cache.
+ * <p>
+ * Settings are read from {@code database.sweep.*} in the plugin config.
+ */
+public class MCEnginePartySweeper {
+
+    /**
+     * The plugin instance used for configuration and logging.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The backend that is swept.
+     */
+    private final IMCEnginePartySweepable source;
+
+    /**
+     * The cache removed parties are dropped from, or {@code null}.
+     */
+    private final MCEnginePartyCache cache;
+
+    /**
+     * Seconds between runs.
+     */
+    private final long intervalSeconds;
+
+    /**
+     * Maximum number of party IDs scanned per step.
+     */
+    private final int batchSize;
+
+    /**
+     * Nanoseconds a run may spend before it stops after the current step.
+     */
+    private final long budgetNanos;
+
+    /**
+     * Background sweeper thread.
+     */
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Whether the current pass is sweeping parties rather than memberships. Only accessed by the sweeper thread.
+     */
+    private boolean partiesPhase;
+
+    /**
+     * Keyset cursor of the current phase. Only accessed by the sweeper thread.
+     */
+    private int cursor;
+
+    /**
+     * Number of runs.
+     */
+    private final LongAdder runs = new LongAdder();
+
+    /**
+     * Number of runs that stopped because their time budget was spent.
+     */
+    private final LongAdder overBudget = new LongAdder();
+
+    /**
+     * Number of completed passes over both tables.
+     */
+    private final LongAdder passes = new LongAdder();
+
+    /**
+     * Number of party IDs scanned.
+     */
+    private final LongAdder scanned = new LongAdder();
+
+    /**
+     * Number of orphaned parties removed.
+     */
+    private final LongAdder removedParties = new LongAdder();
+
+    /**
+     * Number of orphaned {@code party_member} rows removed.
+     */
+    private final LongAdder removedMembers = new LongAdder();
+
+    /**
+     * Duration of the last run in nanoseconds.
+     */
+    private volatile long lastRunNanos;
+
+    /**
+     * Duration of the longest run in nanoseconds.
+     */
+    private volatile long maxRunNanos;
+
+    /**
+     * Creates a sweeper for the given backend. Call {@link #start()} to begin sweeping.
+     *
+     * @param plugin the Bukkit plugin instance
+     * @param source the backend to sweep
+     * @param cache  the cache removed parties are dropped from, or {@code null}
+     */
+    public MCEnginePartySweeper(Plugin plugin, IMCEnginePartySweepable source, MCEnginePartyCache cache) {
+        this.plugin = plugin;
+        this.source = source;
+        this.cache = cache;
+        this.intervalSeconds = Math.max(1L, plugin.getConfig().getLong("database.sweep.interval-seconds", 300L));
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("database.sweep.batch-size", 200));
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, plugin.getConfig().getLong("database.sweep.budget-ms", 25L)));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MCEngineParty-Sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the first run one interval from now, then one run per interval.
+     */
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::run, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs steps until the time budget is spent or a pass completes.
+     * Failures are logged and the step is retried on the next run.
+     */
+    private void run() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        try {
+            while (true) {
+                MCEnginePartySweepStep step = partiesPhase
+                        ? source.sweepOwnerlessParties(cursor, batchSize)
+                        : source.sweepOrphanMembers(cursor, batchSize);
+                scanned.add(step.scanned());
+                removedParties.add(step.removedParties().size());
+                removedMembers.add(step.removedMembers());
+                if (cache != null) {
+                    for (int partyId : step.removedParties()) {
+                        cache.invalidateParty(partyId);
+                    }
+                }
+                if (step.scanned() < batchSize) {
+                    cursor = 0;
+                    partiesPhase = !partiesPhase;
+                    if (!partiesPhase) {
+                        passes.increment();
+                        break;
+                    }
+                } else {
+                    cursor = step.lastId();
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    overBudget.increment();
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to sweep orphaned parties: " + e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            lastRunNanos = elapsed;
+            if (elapsed > maxRunNanos) {
+                maxRunNanos = elapsed;
+            }
+            runs.increment();
+        }
+    }
+
+    /**
+     * Gets the number of runs.
+     *
+     * @return the run count
+     */
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    /**
+     * Gets the number of runs that stopped because their time budget was spent.
+     *
+     * @return the over-budget run count
+     */
+    public long getOverBudget() {
+        return overBudget.sum();
+    }
+
+    /**
+     * Gets the number of completed passes over both tables.
+     *
+     * @return the pass count
+     */
+    public long getPasses() {
+        return passes.sum();
+    }
+
+    /**
+     * Gets the number of party IDs scanned.
+     *
+     * @return the scanned count
+     */
+    public long getScanned() {
+        return scanned.sum();
+    }
+
+    /**
+     * Gets the number of orphaned parties removed.
+     *
+     * @return the removed party count
+     */
+    public long getRemovedParties() {
+        return removedParties.sum();
+    }
+
+    /**
+     * Gets the number of orphaned memberships removed.
+     *
+     * @return the removed membership count
+     */
+    public long getRemovedMembers() {
+        return removedMembers.sum();
+    }
+
+    /**
+     * Gets the duration of the last run.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getLastRunNanos() {
+        return lastRunNanos;
+    }
+
+    /**
+     * Gets the duration of the longest run.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getMaxRunNanos() {
+        return maxRunNanos;
+    }
+
+    /**
+     * Stops sweeping, waiting briefly for a run in progress.
+     */
+    public void close() {
+        sweeper.shutdown();
+        try {
+            if (!sweeper.awaitTermination(5, TimeUnit.SECONDS)) {
+                sweeper.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            sweeper.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
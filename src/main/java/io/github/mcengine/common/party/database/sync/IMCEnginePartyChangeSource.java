@@ -0,0 +1,50 @@
+package io.github.mcengine.common.party.database.sync;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A shared SQL backend that records every mutation in the {@code party_change} table,
+ * read by {@link MCEnginePartyChangePoller} to keep each server's cache in sync.
+ */
+public interface IMCEnginePartyChangeSource {
+
+    /**
+     * Gets the change log the backend writes to.
+     *
+     * @return the change log, or null if {@code database.sync.enabled} is {@code false}
+     */
+    MCEnginePartyChangeLog getChangeLog();
+
+    /**
+     * Reads the changes after a sequence number, in sequence order.
+     *
+     * @param after the last sequence number already seen
+     * @param limit maximum number of changes to return
+     * @return the changes
+     */
+    List<MCEnginePartyChange> readChanges(long after, int limit);
+
+    /**
+     * Reads specific changes, e.g. ones that were not yet committed on an earlier read.
+     *
+     * @param ids the sequence numbers to read
+     * @return the changes that exist, in sequence order
+     */
+    List<MCEnginePartyChange> readChanges(Collection<Long> ids);
+
+    /**
+     * Gets the newest sequence number.
+     *
+     * @return the newest sequence number, or {@code 0} if the log is empty
+     */
+    long getLatestChangeId();
+
+    /**
+     * Deletes changes recorded before the given time.
+     *
+     * @param before epoch milliseconds; older changes are deleted
+     * @return the number of deleted changes
+     */
+    int pruneChanges(long before);
+}
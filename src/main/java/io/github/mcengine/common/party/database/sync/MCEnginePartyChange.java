@@ -0,0 +1,16 @@
+package io.github.mcengine.common.party.database.sync;
+
+import java.util.UUID;
+
+/**
+ * A row of the {@code party_change} table.
+ *
+ * @param id      the change sequence number, increasing in insert order
+ * @param type    what changed
+ * @param partyId the ID of the party that changed
+ * @param player  UUID of the player concerned, or null for party-wide changes
+ * @param name    the new party name for {@link MCEnginePartyChangeType#RENAME}, otherwise null
+ * @param origin  identifier of the server instance that made the change
+ */
+public record MCEnginePartyChange(long id, MCEnginePartyChangeType type, int partyId, UUID player, String name, long origin) {
+}
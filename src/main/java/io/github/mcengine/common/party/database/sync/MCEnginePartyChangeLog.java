@@ -0,0 +1,262 @@
+package io.github.mcengine.common.party.database.sync;
+
+import io.github.mcengine.common.party.database.statement.MCEnginePartyStatementCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reads and writes the {@code party_change} table on behalf of a SQL backend.
+ * <p>
+ * Backends call the {@code record*} methods on the connection of the mutation they log, inside the
+ * same transaction, so a change row is committed exactly when the change is. Every row carries the
+ * {@link #getOrigin() origin} of this server instance, so a node can skip its own changes.
+ * The SQL is shared by SQLite and MySQL; only the table DDL differs per dialect.
+ */
+public class MCEnginePartyChangeLog {
+
+    /**
+     * Inserts a single change.
+     */
+    private static final String INSERT = """
+        INSERT INTO party_change (change_type, party_id, player_id, party_name, origin_id, changed_at)
+        VALUES (?, ?, ?, ?, ?, ?)
+    """;
+
+    /**
+     * Inserts a {@link MCEnginePartyChangeType#DISBAND} for every party owned by a player.
+     */
+    private static final String INSERT_DISBANDS = """
+        INSERT INTO party_change (change_type, party_id, player_id, party_name, origin_id, changed_at)
+        SELECT ?, party_id, NULL, NULL, ?, ? FROM party WHERE party_owner_id = ?
+    """;
+
+    /**
+     * Inserts a {@link MCEnginePartyChangeType#LEAVE} for every membership of a player.
+     */
+    private static final String INSERT_LEAVES = """
+        INSERT INTO party_change (change_type, party_id, player_id, party_name, origin_id, changed_at)
+        SELECT ?, party_id, party_member_id, NULL, ?, ? FROM party_member WHERE party_member_id = ?
+    """;
+
+    /**
+     * Reads the changes after a sequence number.
+     */
+    private static final String SELECT_AFTER = """
+        SELECT change_id, change_type, party_id, player_id, party_name, origin_id
+        FROM party_change
+        WHERE change_id > ?
+        ORDER BY change_id
+        LIMIT ?
+    """;
+
+    /**
+     * Reads the newest sequence number.
+     */
+    private static final String SELECT_LATEST = "SELECT MAX(change_id) FROM party_change";
+
+    /**
+     * Deletes changes older than a timestamp.
+     */
+    private static final String DELETE_BEFORE = "DELETE FROM party_change WHERE changed_at < ?";
+
+    /**
+     * Prepared statements of the owning backend.
+     */
+    private final MCEnginePartyStatementCache statements;
+
+    /**
+     * Random identifier of this server instance, stored with every change it records.
+     */
+    private final long origin = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * Creates a change log using the backend's statement cache.
+     *
+     * @param statements prepared statements of the owning backend
+     */
+    public MCEnginePartyChangeLog(MCEnginePartyStatementCache statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * Gets the identifier stored with every change this server instance records.
+     *
+     * @return the origin identifier
+     */
+    public long getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Records a single change.
+     *
+     * @param conn    connection of the transaction making the change
+     * @param type    what changed
+     * @param partyId the ID of the party
+     * @param player  UUID of the player concerned, or null
+     * @param name    the new party name, or null
+     * @throws SQLException if the row cannot be inserted
+     */
+    public void record(Connection conn, MCEnginePartyChangeType type, int partyId, UUID player, String name) throws SQLException {
+        PreparedStatement stmt = statements.prepare(conn, INSERT);
+        stmt.setInt(1, type.getCode());
+        stmt.setInt(2, partyId);
+        stmt.setString(3, player == null ? null : player.toString());
+        stmt.setString(4, name);
+        stmt.setLong(5, origin);
+        stmt.setLong(6, System.currentTimeMillis());
+        stmt.executeUpdate();
+    }
+
+    /**
+     * Adds a batch entry recording the disband of every party the player owns.
+     * Must be executed with {@link PreparedStatement#executeBatch()} before the parties are deleted.
+     *
+     * @param conn   connection of the transaction making the change
+     * @param player UUID of the owner
+     * @return the batched statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement batchDisbands(Connection conn, UUID player) throws SQLException {
+        return batch(conn, INSERT_DISBANDS, MCEnginePartyChangeType.DISBAND, player);
+    }
+
+    /**
+     * Adds a batch entry recording a leave for every membership of the player.
+     * Must be executed with {@link PreparedStatement#executeBatch()} before the memberships are deleted.
+     *
+     * @param conn   connection of the transaction making the change
+     * @param player UUID of the member
+     * @return the batched statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement batchLeaves(Connection conn, UUID player) throws SQLException {
+        return batch(conn, INSERT_LEAVES, MCEnginePartyChangeType.LEAVE, player);
+    }
+
+    /**
+     * Reads the changes after a sequence number, in sequence order.
+     *
+     * @param conn  the connection to read on
+     * @param after the last sequence number already seen
+     * @param limit maximum number of changes to return
+     * @return the changes
+     * @throws SQLException if the table cannot be read
+     */
+    public List<MCEnginePartyChange> read(Connection conn, long after, int limit) throws SQLException {
+        PreparedStatement stmt = statements.prepare(conn, SELECT_AFTER);
+        stmt.setLong(1, after);
+        stmt.setInt(2, limit);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return changes(rs);
+        }
+    }
+
+    /**
+     * Reads specific changes, in sequence order. The statement depends on the number of IDs,
+     * so it is not cached.
+     *
+     * @param conn the connection to read on
+     * @param ids  the sequence numbers to read
+     * @return the changes that exist
+     * @throws SQLException if the table cannot be read
+     */
+    public List<MCEnginePartyChange> read(Connection conn, Collection<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder sql = new StringBuilder(
+                "SELECT change_id, change_type, party_id, player_id, party_name, origin_id FROM party_change WHERE change_id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY change_id");
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (long id : ids) {
+                stmt.setLong(index++, id);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return changes(rs);
+            }
+        }
+    }
+
+    /**
+     * Reads the newest sequence number.
+     *
+     * @param conn the connection to read on
+     * @return the newest sequence number, or {@code 0} if the log is empty
+     * @throws SQLException if the table cannot be read
+     */
+    public long latest(Connection conn) throws SQLException {
+        PreparedStatement stmt = statements.prepare(conn, SELECT_LATEST);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    /**
+     * Deletes changes recorded before the given time.
+     *
+     * @param conn   the connection to write on
+     * @param before epoch milliseconds; older changes are deleted
+     * @return the number of deleted changes
+     * @throws SQLException if the rows cannot be deleted
+     */
+    public int prune(Connection conn, long before) throws SQLException {
+        PreparedStatement stmt = statements.prepare(conn, DELETE_BEFORE);
+        stmt.setLong(1, before);
+        return stmt.executeUpdate();
+    }
+
+    /**
+     * Binds one player to an {@code INSERT ... SELECT} change statement and adds it to the batch.
+     *
+     * @param conn   connection of the transaction making the change
+     * @param sql    the statement
+     * @param type   the recorded change type
+     * @param player UUID of the player
+     * @return the batched statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    private PreparedStatement batch(Connection conn, String sql, MCEnginePartyChangeType type, UUID player) throws SQLException {
+        PreparedStatement stmt = statements.prepare(conn, sql);
+        stmt.setInt(1, type.getCode());
+        stmt.setLong(2, origin);
+        stmt.setLong(3, System.currentTimeMillis());
+        stmt.setString(4, player.toString());
+        stmt.addBatch();
+        return stmt;
+    }
+
+    /**
+     * Maps change rows.
+     *
+     * @param rs the rows
+     * @return the changes
+     * @throws SQLException if a row cannot be read
+     */
+    private static List<MCEnginePartyChange> changes(ResultSet rs) throws SQLException {
+        List<MCEnginePartyChange> changes = new ArrayList<>();
+        while (rs.next()) {
+            String player = rs.getString("player_id");
+            changes.add(new MCEnginePartyChange(
+                    rs.getLong("change_id"),
+                    MCEnginePartyChangeType.fromCode(rs.getInt("change_type")),
+                    rs.getInt("party_id"),
+                    player == null ? null : UUID.fromString(player),
+                    rs.getString("party_name"),
+                    rs.getLong("origin_id")));
+        }
+        return changes;
+    }
+}
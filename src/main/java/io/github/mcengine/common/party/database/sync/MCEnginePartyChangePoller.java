@@ -0,0 +1,321 @@
+package io.github.mcengine.common.party.database.sync;
+
+import io.github.mcengine.common.party.database.cache.MCEnginePartyCache;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background poller that keeps a {@link MCEnginePartyCache} in sync with changes other servers
+ * make to a shared database.
+ * <p>
+ * Every {@code interval-ms} the poller reads the {@code party_change} rows after the last
+ * sequence number it has seen, at most {@code batch-size} at a time, and applies the changes of
+ * other server instances to the cache (see {@link MCEnginePartyCache#applyChange(MCEnginePartyChange)}).
+ * Changes of this instance are already in the cache and are skipped. Each node therefore reads
+ * only new rows and converges within one interval of a change being committed.
+ * <p>
+ * On MySQL, concurrent transactions may commit sequence numbers out of order. A number skipped
+ * by a read is remembered as a gap and re-read on later polls for up to {@code gap-timeout-ms};
+ * a change that shows up late is applied by evicting the affected entries instead, since it may
+ * be older than changes already applied. A gap that cannot be tracked (more than {@link #MAX_GAPS}
+ * open at once) or that is still missing at its timeout may hide a change committed later still, so
+ * the whole cache is invalidated instead of ignoring it. Rows older than {@code retention-minutes} are pruned.
+ * <p>
+ * Settings are read from {@code database.sync.*} in the plugin config.
+ */
+public class MCEnginePartyChangePoller {
+
+    /**
+     * Maximum number of gaps remembered at once; larger jumps in the sequence invalidate the cache.
+     */
+    private static final int MAX_GAPS = 1024;
+
+    /**
+     * Maximum number of gaps re-read per poll.
+     */
+    private static final int GAP_READ_LIMIT = 64;
+
+    /**
+     * Polls between two prunes of old rows.
+     */
+    private static final int PRUNE_EVERY = 60;
+
+    /**
+     * The plugin instance used for configuration and logging.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The backend whose change log is read.
+     */
+    private final IMCEnginePartyChangeSource source;
+
+    /**
+     * The cache the changes are applied to.
+     */
+    private final MCEnginePartyCache cache;
+
+    /**
+     * Origin of this server instance, whose changes are skipped.
+     */
+    private final long origin;
+
+    /**
+     * Milliseconds between polls.
+     */
+    private final long intervalMs;
+
+    /**
+     * Maximum number of rows read per poll.
+     */
+    private final int batchSize;
+
+    /**
+     * Nanoseconds a gap is re-read before it is given up.
+     */
+    private final long gapTimeoutNanos;
+
+    /**
+     * Milliseconds a change row is kept before it is pruned.
+     */
+    private final long retentionMs;
+
+    /**
+     * Background poller thread.
+     */
+    private final ScheduledExecutorService poller;
+
+    /**
+     * Sequence numbers that were skipped by a read -> {@link System#nanoTime()} at which they are given up.
+     * Only accessed by the poller thread.
+     */
+    private final NavigableMap<Long, Long> gaps = new TreeMap<>();
+
+    /**
+     * Highest sequence number read. Only written by the poller thread.
+     */
+    private volatile long lastSeen;
+
+    /**
+     * Polls since the last prune. Only accessed by the poller thread.
+     */
+    private int pollsSincePrune;
+
+    /**
+     * Number of changes of other servers applied to the cache.
+     */
+    private final LongAdder applied = new LongAdder();
+
+    /**
+     * Number of changes that were applied late, after a gap.
+     */
+    private final LongAdder late = new LongAdder();
+
+    /**
+     * Number of times the cache was invalidated because a gap could not be resolved.
+     */
+    private final LongAdder resets = new LongAdder();
+
+    /**
+     * Creates a poller for the given backend and cache. Call {@link #start()} to begin polling.
+     *
+     * @param plugin the Bukkit plugin instance
+     * @param source the backend whose change log is read; its change log must be enabled
+     * @param cache  the cache the changes are applied to
+     */
+    public MCEnginePartyChangePoller(Plugin plugin, IMCEnginePartyChangeSource source, MCEnginePartyCache cache) {
+        this.plugin = plugin;
+        this.source = source;
+        this.cache = cache;
+        this.origin = source.getChangeLog().getOrigin();
+        this.intervalMs = Math.max(50L, plugin.getConfig().getLong("database.sync.interval-ms", 1000L));
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("database.sync.batch-size", 500));
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, plugin.getConfig().getLong("database.sync.gap-timeout-ms", 10000L)));
+        this.retentionMs = TimeUnit.MINUTES.toMillis(Math.max(1L, plugin.getConfig().getLong("database.sync.retention-minutes", 60L)));
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MCEngineParty-Sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts polling from the current end of the log; the cache is assumed to hold nothing older.
+     */
+    public void start() {
+        lastSeen = source.getLatestChangeId();
+        poller.scheduleWithFixedDelay(this::poll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads and applies new changes, re-reads open gaps and occasionally prunes old rows.
+     * Failures are logged and retried on the next poll.
+     */
+    private void poll() {
+        try {
+            long now = System.nanoTime();
+            if (!gaps.isEmpty()) {
+                fillGaps(now);
+            }
+            List<MCEnginePartyChange> changes;
+            do {
+                changes = source.readChanges(lastSeen, batchSize);
+                for (MCEnginePartyChange change : changes) {
+                    trackGaps(change.id(), now);
+                    if (change.origin() != origin) {
+                        cache.applyChange(change);
+                        applied.increment();
+                    }
+                    lastSeen = change.id();
+                }
+            } while (changes.size() >= batchSize);
+
+            if (++pollsSincePrune >= PRUNE_EVERY) {
+                pollsSincePrune = 0;
+                source.pruneChanges(System.currentTimeMillis() - retentionMs);
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to poll party changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads skipped sequence numbers. Changes that appeared are applied conservatively.
+     * Gaps past their timeout are read one last time; if they are still missing (e.g. rolled-back
+     * transactions, or a change that has not committed yet) the cache is invalidated, since a
+     * change committed after this point would otherwise never be applied.
+     *
+     * @param now the current {@link System#nanoTime()}
+     */
+    private void fillGaps(long now) {
+        List<Long> ids = new ArrayList<>(Math.min(gaps.size(), GAP_READ_LIMIT));
+        for (Long id : gaps.keySet()) {
+            if (ids.size() >= GAP_READ_LIMIT) {
+                break;
+            }
+            ids.add(id);
+        }
+        for (MCEnginePartyChange change : source.readChanges(ids)) {
+            gaps.remove(change.id());
+            if (change.origin() != origin) {
+                cache.forgetChange(change);
+                late.increment();
+            }
+        }
+        List<Long> expired = new ArrayList<>();
+        Iterator<Map.Entry<Long, Long>> entries = gaps.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, Long> gap = entries.next();
+            if (gap.getValue() - now <= 0) {
+                expired.add(gap.getKey());
+                entries.remove();
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        List<MCEnginePartyChange> found = source.readChanges(expired);
+        for (MCEnginePartyChange change : found) {
+            if (change.origin() != origin) {
+                cache.forgetChange(change);
+                late.increment();
+            }
+        }
+        if (found.size() < expired.size()) {
+            reset(expired.size() - found.size() + " sequence numbers stayed missing");
+        }
+    }
+
+    /**
+     * Remembers the sequence numbers between the last seen one and the given one as gaps.
+     *
+     * @param id  the sequence number just read
+     * @param now the current {@link System#nanoTime()}
+     */
+    private void trackGaps(long id, long now) {
+        long missing = id - lastSeen - 1;
+        if (missing <= 0) {
+            return;
+        }
+        if (gapTimeoutNanos == 0 || gaps.size() + missing > MAX_GAPS) {
+            reset(missing + " sequence numbers were skipped and cannot be tracked");
+            return;
+        }
+        long deadline = now + gapTimeoutNanos;
+        for (long gap = lastSeen + 1; gap < id; gap++) {
+            gaps.put(gap, deadline);
+        }
+    }
+
+    /**
+     * Invalidates the whole cache because changes may have been missed.
+     *
+     * @param reason why the changes may have been missed, for the log
+     */
+    private void reset(String reason) {
+        plugin.getLogger().warning("Invalidating the party cache: " + reason);
+        cache.invalidateAll();
+        resets.increment();
+    }
+
+    /**
+     * Gets the highest sequence number read.
+     *
+     * @return the last seen sequence number
+     */
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    /**
+     * Gets the number of changes of other servers applied to the cache.
+     *
+     * @return the applied change count
+     */
+    public long getApplied() {
+        return applied.sum();
+    }
+
+    /**
+     * Gets the number of changes that were committed out of order and applied late.
+     *
+     * @return the late change count
+     */
+    public long getLate() {
+        return late.sum();
+    }
+
+    /**
+     * Gets the number of times the cache was invalidated because a gap could not be resolved.
+     *
+     * @return the reset count
+     */
+    public long getResets() {
+        return resets.sum();
+    }
+
+    /**
+     * Stops polling, waiting briefly for a poll in progress.
+     */
+    public void close() {
+        poller.shutdown();
+        try {
+            if (!poller.awaitTermination(5, TimeUnit.SECONDS)) {
+                poller.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            poller.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
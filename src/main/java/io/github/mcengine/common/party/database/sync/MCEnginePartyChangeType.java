@@ -0,0 +1,75 @@
+package io.github.mcengine.common.party.database.sync;
+
+/**
+ * Kind of a row in the {@code party_change} table. The numeric code is what is stored.
+ */
+public enum MCEnginePartyChangeType {
+
+    /**
+     * Raw SQL was executed; any party may have changed.
+     */
+    RESET(0),
+
+    /**
+     * A party was created with {@code player} as owner and only member.
+     */
+    CREATE(1),
+
+    /**
+     * {@code player} joined the party.
+     */
+    JOIN(2),
+
+    /**
+     * {@code player} left or was kicked from the party.
+     */
+    LEAVE(3),
+
+    /**
+     * The party was renamed to {@code name}.
+     */
+    RENAME(4),
+
+    /**
+     * The party and all of its memberships were deleted.
+     */
+    DISBAND(5);
+
+    /**
+     * Change types indexed by code.
+     */
+    private static final MCEnginePartyChangeType[] BY_CODE = values();
+
+    /**
+     * The code stored in the {@code change_type} column.
+     */
+    private final int code;
+
+    /**
+     * Creates a change type.
+     *
+     * @param code the stored code, equal to the ordinal
+     */
+    MCEnginePartyChangeType(int code) {
+        this.code = code;
+    }
+
+    /**
+     * Gets the code stored in the {@code change_type} column.
+     *
+     * @return the change type code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Resolves a stored change type code.
+     *
+     * @param code the value of the {@code change_type} column
+     * @return the change type, or {@link #RESET} for an unknown code written by a newer version
+     */
+    public static MCEnginePartyChangeType fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : RESET;
+    }
+}
@@ -0,0 +1,640 @@
+package io.github.mcengine.common.party.database.watchdog;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decorator that finds party database calls made on the server thread, where they stall the tick.
+ * <p>
+ * Calls from other threads pass straight through. Calls on the server thread are timed and added
+ * to the current tick's total, which a task running every tick compares against
+ * {@code tick-budget-ms}. Every {@code sample-rate}-th call, and every call that alone exceeds the
+ * budget, captures the caller's stack (at most {@code stack-depth} frames below the database layer),
+ * so the report shows which plugin code, including add-ons using
+ * {@link io.github.mcengine.common.party.MCEnginePartyCommon#getApi()}, queries the database
+ * synchronously and how often. Calls nested in a transaction count as part of the transaction.
+ * <p>
+ * Settings are read from {@code database.watchdog.*} in the plugin config.
+ */
+public class MCEnginePartyWatchdogDB implements IMCEnginePartyDB {
+
+    /**
+     * Package prefix of the database layer, whose frames are dropped from sampled stacks.
+     */
+    private static final String DATABASE_PACKAGE = "io.github.mcengine.common.party.database.";
+
+    /**
+     * The plugin instance used to schedule the tick task.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The watched backend stack.
+     */
+    private final IMCEnginePartyDB delegate;
+
+    /**
+     * Nanoseconds of database calls the server thread may spend per tick.
+     */
+    private final long budgetNanos;
+
+    /**
+     * One in this many server-thread calls has its stack sampled.
+     */
+    private final int sampleRate;
+
+    /**
+     * Maximum number of frames kept per sampled stack.
+     */
+    private final int stackDepth;
+
+    /**
+     * Operation name -> server-thread totals. Guarded by this watchdog's lock.
+     */
+    private final Map<String, Operation> operations = new HashMap<>();
+
+    /**
+     * Operation name and stack -> sampled call site. Guarded by this watchdog's lock.
+     */
+    private final Map<SiteKey, Site> sites = new HashMap<>();
+
+    /**
+     * Depth of nested calls on the server thread; only the outermost call is measured. Only accessed by the server thread.
+     */
+    private int depth;
+
+    /**
+     * Server-thread calls since the last sample. Only accessed by the server thread.
+     */
+    private int sinceSample;
+
+    /**
+     * Nanoseconds spent in database calls during the current tick. Guarded by this watchdog's lock.
+     */
+    private long tickNanos;
+
+    /**
+     * Number of ticks measured. Guarded by this watchdog's lock.
+     */
+    private long ticks;
+
+    /**
+     * Number of ticks whose database calls exceeded the budget. Guarded by this watchdog's lock.
+     */
+    private long ticksOverBudget;
+
+    /**
+     * Most time spent in database calls during one tick, in nanoseconds. Guarded by this watchdog's lock.
+     */
+    private long worstTickNanos;
+
+    /**
+     * Task closing each tick's total, or {@code null} before {@link #start()}.
+     */
+    private BukkitTask tickTask;
+
+    /**
+     * Creates the watchdog around the given backend stack. Call {@link #start()} to begin measuring ticks.
+     *
+     * @param plugin   the Bukkit plugin instance
+     * @param delegate the backend stack to watch
+     */
+    public MCEnginePartyWatchdogDB(Plugin plugin, IMCEnginePartyDB delegate) {
+        this.plugin = plugin;
+        this.delegate = delegate;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, plugin.getConfig().getLong("database.watchdog.tick-budget-ms", 2L)));
+        this.sampleRate = Math.max(1, plugin.getConfig().getInt("database.watchdog.sample-rate", 10));
+        this.stackDepth = Math.max(1, plugin.getConfig().getInt("database.watchdog.stack-depth", 8));
+    }
+
+    /**
+     * Starts the task that closes each tick's total at the end of the tick.
+     */
+    public void start() {
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::endTick, 1L, 1L);
+    }
+
+    /**
+     * Initializes the backend stack.
+     */
+    @Override
+    public void init() {
+        delegate.init();
+    }
+
+/**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param owner UUID of the party owner
+     * @return the new party ID
+     */
+    @Override
+    public int createParty(UUID owner) {
+        return call("createParty", () -> delegate.createParty(owner));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     */
+    @Override
+    public void invitePlayerToParty(int partyId, UUID player) {
+        run("invitePlayerToParty", () -> delegate.invitePlayerToParty(partyId, player));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     */
+    @Override
+    public void kickPlayerFromParty(int partyId, UUID player) {
+        run("kickPlayerFromParty", () -> delegate.kickPlayerFromParty(partyId, player));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     */
+    @Override
+    public void leaveParty(int partyId, UUID player) {
+        run("leaveParty", () -> delegate.leaveParty(partyId, player));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     * @return true if the player is a member
+     */
+    @Override
+    public boolean isMember(int partyId, UUID player) {
+        return call("isMember", () -> delegate.isMember(partyId, player));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param sqls the SQL statements
+     */
+    @Override
+    public void executeSqls(String[] sqls) {
+        run("executeSqls", () -> delegate.executeSqls(sqls));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player renaming the party
+     * @param name    the new name
+     * @return true if the party was renamed
+     */
+    @Override
+    public boolean setPartyName(int partyId, UUID player, String name) {
+        return call("setPartyName", () -> delegate.setPartyName(partyId, player, name));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player
+     * @return the player's role
+     */
+    @Override
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        return call("getPlayerPartyRole", () -> delegate.getPlayerPartyRole(partyId, player));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY}
+     */
+    @Override
+    public int findPlayerPartyId(UUID player) {
+        return call("findPlayerPartyId", () -> delegate.findPlayerPartyId(player));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @return the member count
+     */
+    @Override
+    public int getPartyCount(int partyId) {
+        return call("getPartyCount", () -> delegate.getPartyCount(partyId));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null
+     */
+    @Override
+    public UUID getPartyOwner(int partyId) {
+        return call("getPartyOwner", () -> delegate.getPartyOwner(partyId));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs
+     */
+    @Override
+    public List<UUID> getPartyMembers(int partyId) {
+        return call("getPartyMembers", () -> delegate.getPartyMembers(partyId));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null
+     */
+    @Override
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        return call("getPlayerMembership", () -> delegate.getPlayerMembership(player));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null
+     */
+    @Override
+    public MCEnginePartyInfo getParty(int partyId) {
+        return call("getParty", () -> delegate.getParty(partyId));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param players UUIDs of the players to look up
+     * @return map from each given player to their party ID
+     */
+    @Override
+    public Map<UUID, Integer> findPlayerPartyIds(Collection<UUID> players) {
+        return call("findPlayerPartyIds", () -> delegate.findPlayerPartyIds(players));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member UUIDs
+     */
+    @Override
+    public Map<Integer, List<UUID>> getPartyMembers(Collection<Integer> partyIds) {
+        return call("getPartyMembers(bulk)", () -> delegate.getPartyMembers(partyIds));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member count
+     */
+    @Override
+    public Map<Integer, Integer> getPartyCounts(Collection<Integer> partyIds) {
+        return call("getPartyCounts", () -> delegate.getPartyCounts(partyIds));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param players UUIDs of the players
+     * @return map from party ID to party snapshot
+     */
+    @Override
+    public Map<Integer, MCEnginePartyInfo> getPlayerParties(Collection<UUID> players) {
+        return call("getPlayerParties", () -> delegate.getPlayerParties(players));
+    }
+
+    /**
+     * Delegates, timing the call when it runs on the server thread.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     */
+    @Override
+    public void leavePlayers(Collection<UUID> players) {
+        run("leavePlayers", () -> delegate.leavePlayers(players));
+    }
+
+    /**
+     * Runs the transaction, timing it as one call when it runs on the server thread.
+     *
+     * @param work the operations to run atomically
+     * @param <T>  result type
+     * @return the result of the work
+     */
+    @Override
+    public <T> T inTransaction(Function<IMCEnginePartyDB, T> work) {
+        return call("inTransaction", () -> delegate.inTransaction(ignored -> work.apply(this)));
+    }
+
+    /**
+     * Stops the tick task and closes the backend stack.
+     */
+    @Override
+    public void close() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        delegate.close();
+    }
+
+    /**
+     * Gets the per-tick budget for database calls on the server thread.
+     *
+     * @return the budget in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Gets the number of server-thread calls per sampled stack.
+     *
+     * @return the sample rate
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Gets the number of ticks measured.
+     *
+     * @return the tick count
+     */
+    public synchronized long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the number of ticks whose database calls on the server thread exceeded the budget.
+     *
+     * @return the over-budget tick count
+     */
+    public synchronized long getTicksOverBudget() {
+        return ticksOverBudget;
+    }
+
+    /**
+     * Gets the most time spent in database calls on the server thread during one tick.
+     *
+     * @return the duration in nanoseconds
+     */
+    public synchronized long getWorstTickNanos() {
+        return worstTickNanos;
+    }
+
+    /**
+     * Takes a snapshot of the server-thread totals per operation, slowest total first.
+     *
+     * @return the operation totals
+     */
+    public synchronized List<MCEnginePartyWatchdogOperation> getOperations() {
+        List<MCEnginePartyWatchdogOperation> snapshot = new ArrayList<>(operations.size());
+        for (Map.Entry<String, Operation> entry : operations.entrySet()) {
+            Operation op = entry.getValue();
+            snapshot.add(new MCEnginePartyWatchdogOperation(entry.getKey(), op.calls, op.overBudget, op.totalNanos, op.maxNanos));
+        }
+        snapshot.sort(Comparator.comparingLong(MCEnginePartyWatchdogOperation::totalNanos).reversed());
+        return snapshot;
+    }
+
+    /**
+     * Takes a snapshot of the sampled call sites, most sampled first.
+     *
+     * @param limit maximum number of sites to return
+     * @return the call sites
+     */
+    public synchronized List<MCEnginePartyWatchdogSite> getSites(int limit) {
+        List<MCEnginePartyWatchdogSite> snapshot = new ArrayList<>(sites.size());
+        for (Map.Entry<SiteKey, Site> entry : sites.entrySet()) {
+            Site site = entry.getValue();
+            snapshot.add(new MCEnginePartyWatchdogSite(entry.getKey().operation(), List.of(entry.getKey().frames()),
+                    site.samples, site.totalNanos, site.maxNanos));
+        }
+        snapshot.sort(Comparator.comparingLong(MCEnginePartyWatchdogSite::samples)
+                .thenComparingLong(MCEnginePartyWatchdogSite::totalNanos).reversed());
+        return snapshot.size() > limit ? new ArrayList<>(snapshot.subList(0, limit)) : snapshot;
+    }
+
+    /**
+     * Clears every total and sampled call site.
+     */
+    public synchronized void reset() {
+        operations.clear();
+        sites.clear();
+        ticks = 0;
+        ticksOverBudget = 0;
+        worstTickNanos = 0;
+    }
+
+    /**
+     * Runs a call, timing it when it is the outermost call on the server thread.
+     *
+     * @param operation the operation name
+     * @param call      the delegated call
+     * @param <T>       result type
+     * @return the call's result
+     */
+    private <T> T call(String operation, Supplier<T> call) {
+        if (!Bukkit.isPrimaryThread()) {
+            return call.get();
+        }
+        if (depth++ > 0) {
+            try {
+                return call.get();
+            } finally {
+                depth--;
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            depth--;
+            record(operation, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs a call without a result, timing it when it is the outermost call on the server thread.
+     *
+     * @param operation the operation name
+     * @param call      the delegated call
+     */
+    private void run(String operation, Runnable call) {
+        call(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Adds a server-thread call to the totals and samples its stack when due.
+     *
+     * @param operation the operation name
+     * @param nanos     the duration of the call
+     */
+    private void record(String operation, long nanos) {
+        boolean overBudget = nanos > budgetNanos;
+        StackTraceElement[] frames = null;
+        if (overBudget || ++sinceSample >= sampleRate) {
+            sinceSample = 0;
+            frames = callerFrames();
+        }
+        synchronized (this) {
+            tickNanos += nanos;
+            Operation op = operations.computeIfAbsent(operation, ignored -> new Operation());
+            op.calls++;
+            op.totalNanos += nanos;
+            op.maxNanos = Math.max(op.maxNanos, nanos);
+            if (overBudget) {
+                op.overBudget++;
+            }
+            if (frames != null) {
+                Site site = sites.computeIfAbsent(new SiteKey(operation, frames), ignored -> new Site());
+                site.samples++;
+                site.totalNanos += nanos;
+                site.maxNanos = Math.max(site.maxNanos, nanos);
+            }
+        }
+    }
+
+    /**
+     * Captures the current stack below the database layer.
+     *
+     * @return at most {@code stack-depth} frames, innermost first
+     */
+    private StackTraceElement[] callerFrames() {
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        int from = 0;
+        while (from < stack.length && stack[from].getClassName().startsWith(DATABASE_PACKAGE)) {
+            from++;
+        }
+        return Arrays.copyOfRange(stack, from, Math.min(stack.length, from + stackDepth));
+    }
+
+    /**
+     * Closes the current tick's total. Runs on the server thread once per tick.
+     */
+    private synchronized void endTick() {
+        ticks++;
+        if (tickNanos > budgetNanos) {
+            ticksOverBudget++;
+        }
+        worstTickNanos = Math.max(worstTickNanos, tickNanos);
+        tickNanos = 0;
+    }
+
+    /**
+     * Server-thread totals of one operation.
+     */
+    private static final class Operation {
+
+        /**
+         * Number of calls.
+         */
+        private long calls;
+
+        /**
+         * Number of calls that alone exceeded the budget.
+         */
+        private long overBudget;
+
+        /**
+         * Total duration in nanoseconds.
+         */
+        private long totalNanos;
+
+        /**
+         * Slowest call in nanoseconds.
+         */
+        private long maxNanos;
+    }
+
+    /**
+     * Counters of one sampled call site.
+     */
+    private static final class Site {
+
+        /**
+         * Number of samples.
+         */
+        private long samples;
+
+        /**
+         * Total duration of the sampled calls in nanoseconds.
+         */
+        private long totalNanos;
+
+        /**
+         * Slowest sampled call in nanoseconds.
+         */
+        private long maxNanos;
+    }
+
+    /**
+     * Identity of a call site: the operation and the caller's frames.
+     *
+     * @param operation the operation name
+     * @param frames    the caller's frames
+     */
+    private record SiteKey(String operation, StackTraceElement[] frames) {
+
+        /**
+         * Compares the operation and the frames element by element.
+         *
+         * @param other the object to compare with
+         * @return true if both keys describe the same call site
+         */
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SiteKey key && operation.equals(key.operation) && Arrays.equals(frames, key.frames);
+        }
+
+        /**
+         * Hashes the operation and the frames element by element.
+         *
+         * @return the hash code
+         */
+        @Override
+        public int hashCode() {
+            return 31 * operation.hashCode() + Arrays.hashCode(frames);
+        }
+    }
+}
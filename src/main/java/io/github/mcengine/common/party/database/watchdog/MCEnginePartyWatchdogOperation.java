@@ -0,0 +1,14 @@
+package io.github.mcengine.common.party.database.watchdog;
+
+/**
+ * Totals of one database operation called on the server thread, as measured by
+ * {@link MCEnginePartyWatchdogDB}.
+ *
+ * @param operation  the database operation
+ * @param calls      number of calls made on the server thread
+ * @param overBudget number of calls that alone took longer than the per-tick budget
+ * @param totalNanos total duration of the calls in nanoseconds
+ * @param maxNanos   duration of the slowest call in nanoseconds
+ */
+public record MCEnginePartyWatchdogOperation(String operation, long calls, long overBudget, long totalNanos, long maxNanos) {
+}
@@ -0,0 +1,16 @@
+package io.github.mcengine.common.party.database.watchdog;
+
+import java.util.List;
+
+/**
+ * A call site that queried the party database on the server thread, as sampled by
+ * {@link MCEnginePartyWatchdogDB}.
+ *
+ * @param operation  the database operation that was called
+ * @param frames     the caller's stack, innermost first, starting below the database layer
+ * @param samples    number of times this stack was sampled
+ * @param totalNanos total duration of the sampled calls in nanoseconds
+ * @param maxNanos   duration of the slowest sampled call in nanoseconds
+ */
+public record MCEnginePartyWatchdogSite(String operation, List<StackTraceElement> frames, long samples, long totalNanos, long maxNanos) {
+}
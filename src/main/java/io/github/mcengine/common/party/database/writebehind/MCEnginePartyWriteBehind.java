@@ -0,0 +1,708 @@
+package io.github.mcengine.common.party.database.writebehind;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.MCEnginePartyDBException;
+import io.github.mcengine.common.party.database.MCEnginePartyInfo;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.database.MCEnginePartyRole;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Write-behind decorator that batches quit-driven party leaves.
+ * <p>
+ * {@link #enqueueLeave(UUID)} only records the player in a bounded queue; a background writer
+ * applies queued leaves through {@link IMCEnginePartyDB#leavePlayers(Collection)}, one transaction
+ * per batch, every {@code interval-ms} or as soon as {@code batch-size} leaves are waiting.
+ * A quit storm therefore becomes a handful of transactions instead of several statements per player.
+ * <p>
+ * Ordering: an operation flushes the queued leaves on the calling thread only when a leave it could
+ * observe is still pending: the player it concerns is queued, or the owner or a member of the party
+ * it concerns is. Reads and writes therefore observe every relevant leave enqueued before them (e.g. a
+ * player who quits and rejoins is never removed from a party joined after the quit), while calls about
+ * other players, usually answered by the cache below, never write on the caller's thread. If such a
+ * leave cannot be written, the operation fails with {@link MCEnginePartyDBException} instead of running
+ * ahead of it.
+ * <p>
+ * A batch that fails is re-queued and retried on later flushes, up to {@code max-retries} times per
+ * player, so leaves survive a short database outage.
+ * <p>
+ * Settings are read from {@code database.write-behind.*} in the plugin config.
+ */
+public class MCEnginePartyWriteBehind implements IMCEnginePartyDB {
+
+    /**
+     * The plugin instance used for logging.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The database the batched leaves are written to.
+     */
+    private final IMCEnginePartyDB delegate;
+
+    /**
+     * Bounded queue of players whose leave has not been written yet.
+     */
+    private final BlockingQueue<UUID> queue;
+
+    /**
+     * Players currently queued or being written, used to drop duplicate quits.
+     */
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Maximum number of leaves written in one transaction.
+     */
+    private final int batchSize;
+
+    /**
+     * Number of failed writes after which a queued leave is dropped.
+     */
+    private final int maxRetries;
+
+    /**
+     * Failed write attempts per queued player, for players whose batch failed.
+     */
+    private final Map<UUID, Integer> attempts = new ConcurrentHashMap<>();
+
+    /**
+     * Guards draining and the batch sequence. Never held while the backend is called.
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Sequence number of the last batch drained from the queue. Guarded by {@link #flushLock}.
+     */
+    private long drainedSeq;
+
+    /**
+     * Sequence numbers of drained batches that are still being written. Guarded by {@link #flushLock}.
+     */
+    private final NavigableSet<Long> inFlight = new TreeSet<>();
+
+    /**
+     * Whether a size-triggered flush has already been submitted to the writer.
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Background writer thread.
+     */
+    private final ScheduledExecutorService writer;
+
+    /**
+     * Number of leaves written.
+     */
+    private final LongAdder written = new LongAdder();
+
+    /**
+     * Number of transactions used to write them.
+     */
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * Number of leaves dropped after {@code max-retries} failed writes or because the queue was full.
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Creates the write-behind queue in front of the given database and starts the writer.
+     *
+     * @param plugin   the Bukkit plugin instance
+     * @param delegate the database the leaves are written to
+     */
+    public MCEnginePartyWriteBehind(Plugin plugin, IMCEnginePartyDB delegate) {
+        this.plugin = plugin;
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, plugin.getConfig().getInt("database.write-behind.queue", 4096)));
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("database.write-behind.batch-size", 200));
+        this.maxRetries = Math.max(0, plugin.getConfig().getInt("database.write-behind.max-retries", 20));
+        long intervalMs = Math.max(10L, plugin.getConfig().getLong("database.write-behind.interval-ms", 250L));
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MCEngineParty-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a quit-driven leave for the player. Safe to call from the main thread; never blocks.
+     *
+     * @param player UUID of the player who quit
+     * @return true if the leave was queued (or already pending), false if the queue is full
+     *         and the caller must apply the leave itself
+     */
+    public boolean enqueueLeave(UUID player) {
+        if (!pending.add(player)) {
+            return true;
+        }
+        if (!queue.offer(player)) {
+            pending.remove(player);
+            return false;
+        }
+        if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes every queued leave now, in batches of {@code batch-size}, on the calling thread, then
+     * waits for batches other threads drained earlier, so every leave queued before the call is written.
+     * Batches are drained under a lock but written outside it, so a flush never holds a lock while it
+     * waits for the backend. Batches never share a player (a player stays pending until its batch is
+     * written), so batches written concurrently cannot reorder one player's leaves.
+     * A failed batch is logged and re-queued without failing the operation that flushed; it is
+     * retried by the next flush rather than this one, so an outage costs one attempt per flush.
+     */
+    public void flush() {
+        int remaining = queue.size();
+        while (remaining > 0) {
+            List<UUID> batch = new ArrayList<>(batchSize);
+            long seq;
+            synchronized (flushLock) {
+                if (queue.drainTo(batch, Math.min(batchSize, remaining)) == 0) {
+                    break;
+                }
+                seq = ++drainedSeq;
+                inFlight.add(seq);
+            }
+            remaining -= batch.size();
+            try {
+                delegate.leavePlayers(batch);
+                written.add(batch.size());
+                batches.increment();
+                attempts.keySet().removeAll(batch);
+                pending.removeAll(batch);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Failed to write " + batch.size() + " queued party leaves: " + e.getMessage());
+                requeue(batch);
+            } finally {
+                synchronized (flushLock) {
+                    inFlight.remove(seq);
+                    flushLock.notifyAll();
+                }
+            }
+        }
+        synchronized (flushLock) {
+            long target = drainedSeq;
+            try {
+                while (!inFlight.isEmpty() && inFlight.first() <= target) {
+                    flushLock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Puts the players of a failed batch back in the queue, dropping those that have failed
+     * {@code max-retries} times or no longer fit.
+     *
+     * @param batch the players whose leave failed to write
+     */
+    private void requeue(List<UUID> batch) {
+        int lost = 0;
+        for (UUID player : batch) {
+            if (attempts.merge(player, 1, Integer::sum) > maxRetries || !queue.offer(player)) {
+                attempts.remove(player);
+                pending.remove(player);
+                lost++;
+            }
+        }
+        if (lost > 0) {
+            dropped.add(lost);
+            plugin.getLogger().warning("Dropped " + lost + " queued party leaves that could not be written");
+        }
+    }
+
+    /**
+     * Gets the number of leaves waiting to be written.
+     *
+     * @return queued leave count
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of leaves written so far.
+     *
+     * @return written leave count
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * Gets the number of batches (transactions) used to write them.
+     *
+     * @return batch count
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Gets the number of leaves dropped after repeated write failures.
+     *
+     * @return dropped leave count
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Initializes the underlying database.
+     */
+    @Override
+    public void init() {
+        delegate.init();
+    }
+
+    /**
+     * Flushes queued leaves if the owner's leave is pending, then delegates.
+     *
+     * @param owner UUID of the player who will be the owner of the new party
+     * @return the ID of the newly created party, or {@link #NO_PARTY}
+     */
+    @Override
+    public int createParty(UUID owner) {
+        flushIfPending(owner);
+        return delegate.createParty(owner);
+    }
+
+    /**
+     * Flushes queued leaves if the player's or the party's are pending, then delegates.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to add
+     */
+    @Override
+    public void invitePlayerToParty(int partyId, UUID player) {
+        flushIfPending(player);
+        flushIfAffected(partyId);
+        delegate.invitePlayerToParty(partyId, player);
+    }
+
+    /**
+     * Flushes queued leaves if the player's or the party's are pending, then delegates.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to remove
+     */
+    @Override
+    public void kickPlayerFromParty(int partyId, UUID player) {
+        flushIfPending(player);
+        flushIfAffected(partyId);
+        delegate.kickPlayerFromParty(partyId, player);
+    }
+
+    /**
+     * Flushes queued leaves if the player's or the party's are pending, then delegates.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player who is leaving
+     */
+    @Override
+    public void leaveParty(int partyId, UUID player) {
+        flushIfPending(player);
+        flushIfAffected(partyId);
+        delegate.leaveParty(partyId, player);
+    }
+
+    /**
+     * Flushes queued leaves if the player's or the party's are pending, then delegates.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player to check
+     * @return true if the player is a member of the party, false otherwise
+     */
+    @Override
+    public boolean isMember(int partyId, UUID player) {
+        flushIfPending(player);
+        flushIfAffected(partyId);
+        return delegate.isMember(partyId, player);
+    }
+
+    /**
+     * Flushes every queued leave, since the statements may touch any party, then delegates.
+     *
+     * @param sqls an array of SQL statements to execute
+     */
+    @Override
+    public void executeSqls(String[] sqls) {
+        flushPending();
+        delegate.executeSqls(sqls);
+    }
+
+    /**
+     * Flushes queued leaves if the player's or the party's are pending, then delegates.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player attempting to set the name
+     * @param name    the new name for the party
+     * @return true if the name was set, false otherwise
+     */
+    @Override
+    public boolean setPartyName(int partyId, UUID player, String name) {
+        flushIfPending(player);
+        flushIfAffected(partyId);
+        return delegate.setPartyName(partyId, player, name);
+    }
+
+    /**
+     * Flushes queued leaves if the player's or the party's are pending, then delegates.
+     *
+     * @param partyId the ID of the party
+     * @param player  UUID of the player whose role is to be checked
+     * @return the player's role, or null if the player is not in the party
+     */
+    @Override
+    public MCEnginePartyRole getPlayerPartyRole(int partyId, UUID player) {
+        flushIfPending(player);
+        flushIfAffected(partyId);
+        return delegate.getPlayerPartyRole(partyId, player);
+    }
+
+    /**
+     * Flushes queued leaves if the player's is pending, then delegates; reads again if a leave
+     * pending in the player's party had to be flushed.
+     *
+     * @param player UUID of the player to look up
+     * @return the party ID, or {@link #NO_PARTY} if the player is not in a party
+     */
+    @Override
+    public int findPlayerPartyId(UUID player) {
+        flushIfPending(player);
+        int partyId = delegate.findPlayerPartyId(player);
+        if (partyId != NO_PARTY && flushIfAffected(partyId)) {
+            partyId = delegate.findPlayerPartyId(player);
+        }
+        return partyId;
+    }
+
+    /**
+     * Flushes queued leaves if the party's are pending, then delegates.
+     *
+     * @param partyId the ID of the party
+     * @return the count of members in the party
+     */
+    @Override
+    public int getPartyCount(int partyId) {
+        flushIfAffected(partyId);
+        return delegate.getPartyCount(partyId);
+    }
+
+    /**
+     * Flushes queued leaves if the party's are pending, then delegates.
+     *
+     * @param partyId the ID of the party
+     * @return the owner's UUID, or null if the party does not exist
+     */
+    @Override
+    public UUID getPartyOwner(int partyId) {
+        flushIfAffected(partyId);
+        return delegate.getPartyOwner(partyId);
+    }
+
+    /**
+     * Flushes queued leaves if any of the players' are pending, then delegates; reads again if a
+     * leave pending in one of their parties had to be flushed.
+     *
+     * @param players UUIDs of the players to look up
+     * @return map from each given player to their party ID, or {@link #NO_PARTY}
+     */
+    @Override
+    public Map<UUID, Integer> findPlayerPartyIds(Collection<UUID> players) {
+        flushIfAnyPending(players);
+        Map<UUID, Integer> partyIds = delegate.findPlayerPartyIds(players);
+        if (!pending.isEmpty() && flushIfAnyAffected(partyIds.values())) {
+            partyIds = delegate.findPlayerPartyIds(players);
+        }
+        return partyIds;
+    }
+
+    /**
+     * Flushes queued leaves if any of the parties' are pending, then delegates.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member UUIDs
+     */
+    @Override
+    public Map<Integer, List<UUID>> getPartyMembers(Collection<Integer> partyIds) {
+        flushIfAnyAffected(partyIds);
+        return delegate.getPartyMembers(partyIds);
+    }
+
+    /**
+     * Flushes queued leaves if any of the parties' are pending, then delegates.
+     *
+     * @param partyIds the IDs of the parties
+     * @return map from each given party ID to its member count
+     */
+    @Override
+    public Map<Integer, Integer> getPartyCounts(Collection<Integer> partyIds) {
+        flushIfAnyAffected(partyIds);
+        return delegate.getPartyCounts(partyIds);
+    }
+
+    /**
+     * Flushes queued leaves if any of the players' are pending, then delegates; reads again if a
+     * leave pending in one of the returned parties had to be flushed.
+     *
+     * @param players UUIDs of the players
+     * @return map from party ID to party snapshot
+     */
+    @Override
+    public Map<Integer, MCEnginePartyInfo> getPlayerParties(Collection<UUID> players) {
+        flushIfAnyPending(players);
+        Map<Integer, MCEnginePartyInfo> parties = delegate.getPlayerParties(players);
+        if (!pending.isEmpty() && parties.values().stream().anyMatch(this::isAffected)) {
+            flush();
+            for (MCEnginePartyInfo party : parties.values()) {
+                requireWritten(party);
+            }
+            parties = delegate.getPlayerParties(players);
+        }
+        return parties;
+    }
+
+    /**
+     * Flushes queued leaves if the party's are pending, then delegates.
+     *
+     * @param partyId the ID of the party
+     * @return list of member UUIDs, empty if the party has no members
+     */
+    @Override
+    public List<UUID> getPartyMembers(int partyId) {
+        flushIfAffected(partyId);
+        return delegate.getPartyMembers(partyId);
+    }
+
+    /**
+     * Flushes queued leaves if the player's is pending, then delegates; reads again if a leave
+     * pending in the player's party had to be flushed.
+     *
+     * @param player UUID of the player to look up
+     * @return the player's membership, or null if the player is not in a party
+     */
+    @Override
+    public MCEnginePartyMembership getPlayerMembership(UUID player) {
+        flushIfPending(player);
+        MCEnginePartyMembership membership = delegate.getPlayerMembership(player);
+        if (membership != null && flushIfAffected(membership.partyId())) {
+            membership = delegate.getPlayerMembership(player);
+        }
+        return membership;
+    }
+
+    /**
+     * Reads the party, then flushes and reads again if a leave of its owner or a member is pending.
+     *
+     * @param partyId the ID of the party
+     * @return the party snapshot, or null if the party does not exist
+     */
+    @Override
+    public MCEnginePartyInfo getParty(int partyId) {
+        MCEnginePartyInfo party = delegate.getParty(partyId);
+        if (party != null && !pending.isEmpty() && isAffected(party)) {
+            flush();
+            requireWritten(party);
+            party = delegate.getParty(partyId);
+        }
+        return party;
+    }
+
+    /**
+     * Writes queued leaves of the given players first, then removes the players directly.
+     *
+     * @param players UUIDs of the players who are leaving their parties
+     */
+    @Override
+    public void leavePlayers(Collection<UUID> players) {
+        flushIfAnyPending(players);
+        delegate.leavePlayers(players);
+    }
+
+    /**
+     * Writes any queued leaves first, then runs the transaction on the undecorated database.
+     * The work may run on the backend's writer thread, so it must never flush: a flush could wait
+     * for a batch that is itself waiting for that writer thread.
+     *
+     * @param work the operations to run
+     * @param <T>  result type
+     * @return the result of the work
+     */
+    @Override
+    public <T> T inTransaction(Function<IMCEnginePartyDB, T> work) {
+        flushPending();
+        return delegate.inTransaction(work);
+    }
+
+    /**
+     * Stops the writer, writes every remaining queued leave and closes the underlying database.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        delegate.close();
+    }
+
+    /**
+     * Flushes queued leaves if there are any, so the next operation observes them.
+     */
+    private void flushPending() {
+        if (!pending.isEmpty()) {
+            flush();
+        }
+    }
+
+    /**
+     * Flushes queued leaves if the player's leave is among them.
+     *
+     * @param player UUID of the player
+     * @throws MCEnginePartyDBException if the player's leave could not be written
+     */
+    private void flushIfPending(UUID player) {
+        if (pending.contains(player)) {
+            flush();
+            if (pending.contains(player)) {
+                throw unwritten();
+            }
+        }
+    }
+
+    /**
+     * Flushes queued leaves if any of the players' leaves is among them.
+     *
+     * @param players UUIDs of the players
+     * @throws MCEnginePartyDBException if one of their leaves could not be written
+     */
+    private void flushIfAnyPending(Collection<UUID> players) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (UUID player : players) {
+            if (pending.contains(player)) {
+                flush();
+                for (UUID other : players) {
+                    if (pending.contains(other)) {
+                        throw unwritten();
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Flushes queued leaves if the owner or a member of the party has a pending leave,
+     * since an owner's leave disbands the party and a member's changes its roster.
+     *
+     * @param partyId the ID of the party
+     * @return true if leaves were flushed
+     * @throws MCEnginePartyDBException if one of the party's leaves could not be written
+     */
+    private boolean flushIfAffected(int partyId) {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        MCEnginePartyInfo party = delegate.getParty(partyId);
+        if (party == null || !isAffected(party)) {
+            return false;
+        }
+        flush();
+        requireWritten(party);
+        return true;
+    }
+
+    /**
+     * Flushes queued leaves if any of the parties has an owner or member with a pending leave.
+     *
+     * @param partyIds the IDs of the parties; {@link #NO_PARTY} entries are ignored
+     * @return true if leaves were flushed
+     */
+    private boolean flushIfAnyAffected(Collection<Integer> partyIds) {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        for (int partyId : Set.copyOf(partyIds)) {
+            if (partyId != NO_PARTY && flushIfAffected(partyId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fails if a leave of the party's owner or a member is still pending after a flush, i.e. its
+     * batch failed and was re-queued.
+     *
+     * @param party the party snapshot taken before the flush
+     * @throws MCEnginePartyDBException if a leave concerning the party is still pending
+     */
+    private void requireWritten(MCEnginePartyInfo party) {
+        if (!pending.isEmpty() && isAffected(party)) {
+            throw unwritten();
+        }
+    }
+
+    /**
+     * Creates the exception thrown when an operation would run ahead of a queued leave that
+     * could not be written.
+     *
+     * @return the exception to throw
+     */
+    private static MCEnginePartyDBException unwritten() {
+        return new MCEnginePartyDBException("A queued party leave this operation depends on could not be written yet", null);
+    }
+
+    /**
+     * Checks whether the owner or a member of the party has a pending leave.
+     *
+     * @param party the party snapshot
+     * @return true if a pending leave would change the party
+     */
+    private boolean isAffected(MCEnginePartyInfo party) {
+        return pending.contains(party.ownerId()) || party.members().stream().anyMatch(pending::contains);
+    }
+}
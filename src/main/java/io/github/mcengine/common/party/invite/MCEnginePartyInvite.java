@@ -0,0 +1,96 @@
+package io.github.mcengine.common.party.invite;
+
+import java.util.UUID;
+
+/**
+ * A pending invitation of a player to a party.
+ * <p>
+ * Besides the invite data, each instance is its own node in a {@link MCEnginePartyInviteWheel}
+ * slot list, so scheduling and cancelling it never allocates or searches.
+ */
+public final class MCEnginePartyInvite {
+
+    /**
+     * The ID of the party the player is invited to.
+     */
+    private final int partyId;
+
+    /**
+     * UUID of the player who sent the invite.
+     */
+    private final UUID inviter;
+
+    /**
+     * UUID of the invited player.
+     */
+    private final UUID target;
+
+    /**
+     * Wheel slot holding this invite, or {@code -1} while it is not scheduled.
+     */
+    int slot = -1;
+
+    /**
+     * Full wheel revolutions left before the invite expires when its slot is reached.
+     */
+    long rounds;
+
+    /**
+     * Previous invite in the same wheel slot, or {@code null} if this is the slot head.
+     */
+    MCEnginePartyInvite prev;
+
+    /**
+     * Next invite in the same wheel slot, or {@code null} if this is the slot tail.
+     */
+    MCEnginePartyInvite next;
+
+    /**
+     * Creates a pending invite.
+     *
+     * @param partyId the ID of the party
+     * @param inviter UUID of the player who sent the invite
+     * @param target  UUID of the invited player
+     */
+    public MCEnginePartyInvite(int partyId, UUID inviter, UUID target) {
+        this.partyId = partyId;
+        this.inviter = inviter;
+        this.target = target;
+    }
+
+    /**
+     * Gets the ID of the party the player is invited to.
+     *
+     * @return the party ID
+     */
+    public int getPartyId() {
+        return partyId;
+    }
+
+    /**
+     * Gets the player who sent the invite.
+     *
+     * @return the inviter's UUID
+     */
+    public UUID getInviter() {
+        return inviter;
+    }
+
+    /**
+     * Gets the invited player.
+     *
+     * @return the target's UUID
+     */
+    public UUID getTarget() {
+        return target;
+    }
+
+    /**
+     * Checks whether the invite is waiting in a wheel, i.e. has been neither accepted, denied nor expired.
+     *
+     * @return true if the invite is scheduled
+     */
+    public boolean isPending() {
+        return slot >= 0;
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.mcengine.common.party.invite;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel of pending invites.
+ * <p>
+ * The wheel is a ring of slots, each an intrusive doubly linked list of invites. An invite due in
+ * {@code d} ticks goes into slot {@code (cursor + d) mod slots} with {@code (d - 1) / slots} extra
+ * revolutions to wait, so scheduling and cancelling are O(1) regardless of how many invites are
+ * outstanding. Every {@link #advance(Consumer)} moves the cursor one slot and only visits the invites
+ * hashed there; when the wheel covers the invite timeout, each of them expires on that visit.
+ * <p>
+ * Not thread-safe; the owner ({@link MCEnginePartyInvites}) guards all access.
+ */
+public final class MCEnginePartyInviteWheel {
+
+    /**
+     * Head of each slot list.
+     */
+    private final MCEnginePartyInvite[] heads;
+
+    /**
+     * {@code slots - 1}; the slot count is a power of two.
+     */
+    private final int mask;
+
+    /**
+     * Slot of the current tick.
+     */
+    private int cursor;
+
+    /**
+     * Number of scheduled invites.
+     */
+    private int size;
+
+    /**
+     * Creates a wheel with at least the given number of slots, rounded up to a power of two.
+     *
+     * @param slots minimum number of slots; ideally the longest delay in ticks, so no invite waits extra revolutions
+     */
+    public MCEnginePartyInviteWheel(int slots) {
+        int capacity = Integer.highestOneBit(Math.max(2, slots) - 1) << 1;
+        this.heads = new MCEnginePartyInvite[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Schedules an invite to expire after the given number of ticks.
+     *
+     * @param invite an invite that is not yet scheduled
+     * @param delay  ticks until expiry; values below {@code 1} expire on the next tick
+     * @throws IllegalStateException if the invite is already scheduled
+     */
+    public void schedule(MCEnginePartyInvite invite, long delay) {
+        if (invite.slot >= 0) {
+            throw new IllegalStateException("Invite is already scheduled");
+        }
+        long ticks = Math.max(1L, delay);
+        int slot = (int) ((cursor + ticks) & mask);
+        invite.rounds = (ticks - 1) / heads.length;
+        invite.slot = slot;
+        invite.prev = null;
+        invite.next = heads[slot];
+        if (invite.next != null) {
+            invite.next.prev = invite;
+        }
+        heads[slot] = invite;
+        size++;
+    }
+
+    /**
+     * Removes an invite before it expires. Does nothing if the invite is not scheduled.
+     *
+     * @param invite the invite to cancel
+     * @return true if the invite was scheduled
+     */
+    public boolean cancel(MCEnginePartyInvite invite) {
+        if (invite.slot < 0) {
+            return false;
+        }
+        unlink(invite);
+        return true;
+    }
+
+    /**
+     * Advances the wheel by one tick, removing and reporting every invite that expires on it.
+     *
+     * @param expired receives each expired invite, already removed from the wheel
+     */
+    public void advance(Consumer<MCEnginePartyInvite> expired) {
+        cursor = (cursor + 1) & mask;
+        MCEnginePartyInvite invite = heads[cursor];
+        while (invite != null) {
+            MCEnginePartyInvite next = invite.next;
+            if (invite.rounds <= 0) {
+                unlink(invite);
+                expired.accept(invite);
+            } else {
+                invite.rounds--;
+            }
+            invite = next;
+        }
+    }
+
+    /**
+     * Gets the number of scheduled invites.
+     *
+     * @return the scheduled invite count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of slots.
+     *
+     * @return the slot count, a power of two
+     */
+    public int slots() {
+        return heads.length;
+    }
+
+    /**
+     * Removes every invite.
+     */
+    public void clear() {
+        for (int i = 0; i < heads.length; i++) {
+            MCEnginePartyInvite invite = heads[i];
+            while (invite != null) {
+                MCEnginePartyInvite next = invite.next;
+                invite.slot = -1;
+                invite.prev = null;
+                invite.next = null;
+                invite = next;
+            }
+            heads[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Unlinks a scheduled invite from its slot list.
+     *
+     * @param invite the invite to unlink
+     */
+    private void unlink(MCEnginePartyInvite invite) {
+        if (invite.prev != null) {
+            invite.prev.next = invite.next;
+        } else {
+            heads[invite.slot] = invite.next;
+        }
+        if (invite.next != null) {
+            invite.next.prev = invite.prev;
+        }
+        invite.slot = -1;
+        invite.prev = null;
+        invite.next = null;
+        size--;
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.mcengine.common.party.invite;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory store of pending party invites.
+ * <p>
+ * Each player holds at most one pending invite; a newer invite replaces the older one. Invites
+ * expire after {@code invite.expire-seconds} (default {@value #DEFAULT_EXPIRE_SECONDS}) through a
+ * {@link MCEnginePartyInviteWheel} advanced once per second by a single repeating scheduler task, so
+ * there is no per-invite Bukkit task and both scheduling and expiring an invite are O(1).
+ * <p>
+ * Methods may be called from any thread. Expiry notices are sent from the main thread.
+ */
+public class MCEnginePartyInvites {
+
+    /**
+     * Default number of seconds before a pending invite expires.
+     */
+    public static final int DEFAULT_EXPIRE_SECONDS = 60;
+
+    /**
+     * Server ticks per wheel tick; the wheel has a resolution of one second.
+     */
+    private static final long TICK_PERIOD = 20L;
+
+    /**
+     * Upper bound on the wheel size; longer timeouts wait extra revolutions instead.
+     */
+    private static final int MAX_SLOTS = 4096;
+
+    /**
+     * The Bukkit plugin instance, used to schedule the wheel task.
+     */
+    private final Plugin plugin;
+
+    /**
+     * Seconds (wheel ticks) before a pending invite expires.
+     */
+    private final int expireSeconds;
+
+    /**
+     * Expiry wheel holding every pending invite. Guarded by {@code this}.
+     */
+    private final MCEnginePartyInviteWheel wheel;
+
+    /**
+     * Invited player UUID -> pending invite. Guarded by {@code this}.
+     */
+    private final Map<UUID, MCEnginePartyInvite> byTarget = new HashMap<>();
+
+    /**
+     * Repeating task advancing the wheel, or {@code null} before {@link #start()} and after {@link #shutdown()}.
+     */
+    private BukkitTask task;
+
+    /**
+     * Creates the invite store. Call {@link #start()} to begin expiring invites.
+     *
+     * @param plugin the Bukkit plugin instance
+     */
+    public MCEnginePartyInvites(Plugin plugin) {
+        this.plugin = plugin;
+        this.expireSeconds = Math.max(1, plugin.getConfig().getInt("invite.expire-seconds", DEFAULT_EXPIRE_SECONDS));
+        this.wheel = new MCEnginePartyInviteWheel(Math.min(expireSeconds, MAX_SLOTS));
+    }
+
+    /**
+     * Starts the repeating task that advances the expiry wheel once per second.
+     */
+    public synchronized void start() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, TICK_PERIOD, TICK_PERIOD);
+        }
+    }
+
+    /**
+     * Records a pending invite, replacing any invite the target already has.
+     *
+     * @param partyId the ID of the party
+     * @param inviter UUID of the player sending the invite
+     * @param target  UUID of the invited player
+     * @return the replaced invite, or null if the target had none
+     */
+    public synchronized MCEnginePartyInvite invite(int partyId, UUID inviter, UUID target) {
+        MCEnginePartyInvite invite = new MCEnginePartyInvite(partyId, inviter, target);
+        MCEnginePartyInvite previous = byTarget.put(target, invite);
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        wheel.schedule(invite, expireSeconds);
+        return previous;
+    }
+
+    /**
+     * Removes and returns the pending invite of a player, e.g. to accept or deny it.
+     *
+     * @param target UUID of the invited player
+     * @return the pending invite, or null if the player has none
+     */
+    public synchronized MCEnginePartyInvite take(UUID target) {
+        MCEnginePartyInvite invite = byTarget.remove(target);
+        if (invite != null) {
+            wheel.cancel(invite);
+        }
+        return invite;
+    }
+
+    /**
+     * Gets the pending invite of a player without removing it.
+     *
+     * @param target UUID of the invited player
+     * @return the pending invite, or null if the player has none
+     */
+    public synchronized MCEnginePartyInvite peek(UUID target) {
+        return byTarget.get(target);
+    }
+
+    /**
+     * Drops the pending invite of a player who left the server.
+     *
+     * @param target UUID of the player
+     */
+    public void forget(UUID target) {
+        take(target);
+    }
+
+    /**
+     * Gets the number of pending invites.
+     *
+     * @return the pending invite count
+     */
+    public synchronized int size() {
+        return byTarget.size();
+    }
+
+    /**
+     * Gets the number of seconds before a pending invite expires.
+     *
+     * @return the invite lifetime in seconds
+     */
+    public int getExpireSeconds() {
+        return expireSeconds;
+    }
+
+    /**
+     * Stops the wheel task and drops every pending invite.
+     */
+    public synchronized void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        wheel.clear();
+        byTarget.clear();
+    }
+
+    /**
+     * Advances the wheel by one second and notifies the players of each invite that expired.
+     * Runs on the main thread; messages are sent after releasing the lock.
+     */
+    private void tick() {
+        List<MCEnginePartyInvite> expired = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(invite -> {
+                byTarget.remove(invite.getTarget());
+                expired.add(invite);
+            });
+        }
+        for (MCEnginePartyInvite invite : expired) {
+            Player target = Bukkit.getPlayer(invite.getTarget());
+            Player inviter = Bukkit.getPlayer(invite.getInviter());
+            if (target != null) {
+                target.sendMessage(ChatColor.YELLOW + "Your party invite"
+                        + (inviter != null ? " from " + inviter.getName() : "") + " has expired.");
+            }
+            if (inviter != null) {
+                inviter.sendMessage(ChatColor.YELLOW + "Your party invite"
+                        + (target != null ? " to " + target.getName() : "") + " has expired.");
+            }
+        }
+    }
+}
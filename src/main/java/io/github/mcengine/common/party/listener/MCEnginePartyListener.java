@@ -3,14 +3,18 @@ package io.github.mcengine.common.party.listener;
 import io.github.mcengine.common.party.MCEnginePartyCommon;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 /**
  * Listener for player-related party events in the MC Engine Party plugin.
  * <p>
  * When a player leaves the server, if they are a member of a party, 
- * they will automatically leave the party.
+ * they will automatically leave the party. Joins and quits also keep the
+ * online name index used for tab completion up to date, and a quit drops
+ * the player's pending invite.
  */
 public class MCEnginePartyListener implements Listener {
 
@@ -28,18 +32,33 @@ public class MCEnginePartyListener implements Listener {
         this.partyCommon = partyCommon;
     }
 
+    /**
+     * Adds the joining player to the online name index used for tab completion.
+     *
+     * @param event The player join event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        partyCommon.getNameIndex().add(player.getUniqueId(), player.getName());
+    }
+
     /**
      * Handles the PlayerQuitEvent. If the player is a member of a party,
-     * this will remove the player from the party automatically.
+     * this will remove the player from the party automatically. Any pending
+     * invite of the player is dropped.
+     * The leave is queued and written in a batch by a background writer
+     * (see {@link MCEnginePartyCommon#leaveOnQuit(java.util.UUID)}), so a quit storm
+     * does not stall the main thread or issue several statements per player.
+     * The player's cached party state is released at the same time, so the cache
+     * only holds players who are online.
      *
      * @param event The player quit event.
      */
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
-        Player player = event.getPlayer();
-        String partyId = partyCommon.findPlayerPartyId(player);
-        if (partyId != null) {
-            partyCommon.leaveParty(partyId, player);
-        }
+        partyCommon.getNameIndex().remove(event.getPlayer().getUniqueId());
+        partyCommon.getInvites().forget(event.getPlayer().getUniqueId());
+        partyCommon.leaveOnQuit(event.getPlayer().getUniqueId());
     }
 }
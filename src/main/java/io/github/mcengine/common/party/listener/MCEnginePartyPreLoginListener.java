@@ -0,0 +1,47 @@
+package io.github.mcengine.common.party.listener;
+
+import io.github.mcengine.common.party.MCEnginePartyCommon;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+
+import java.util.List;
+
+/**
+ * Listener that loads a joining player's party into the membership cache before the player
+ * reaches the world.
+ * <p>
+ * {@link AsyncPlayerPreLoginEvent} is fired on a login thread, so the database lookup never
+ * runs on the main thread, and the first {@code /party} command or add-on lookup after login
+ * is answered from memory. Registered by {@link MCEnginePartyCommon} when the cache is enabled.
+ */
+public class MCEnginePartyPreLoginListener implements Listener {
+
+    /**
+     * Reference to the common party logic handler.
+     */
+    private final MCEnginePartyCommon partyCommon;
+
+    /**
+     * Constructs the listener with the party logic handler.
+     *
+     * @param partyCommon The party logic API instance.
+     */
+    public MCEnginePartyPreLoginListener(MCEnginePartyCommon partyCommon) {
+        this.partyCommon = partyCommon;
+    }
+
+    /**
+     * Prefetches the membership and party members of a player whose login was allowed.
+     * Runs last, so logins denied by other plugins cost no query.
+     *
+     * @param event The asynchronous pre-login event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            partyCommon.prefetch(List.of(event.getUniqueId()));
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package io.github.mcengine.common.party.tabcompleter;
 
-import org.bukkit.Bukkit;
+import io.github.mcengine.common.party.MCEnginePartyCommon;
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.IMCEnginePartyMembershipIndex;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Tab completer for the /party command and its subcommands.
  * <p>
- * - First argument: suggests create, invite, kick, leave, set, find.
- * - Second argument: for invite/kick/find, suggests online player names.
+ * - First argument: suggests create, invite, accept, deny, kick, leave, set, find.
+ * - Second argument: for invite/kick/find, suggests online player names from the
+ *   {@link MCEnginePartyNameIndex}, filtered by party membership held in memory
+ *   (see {@link #suggestPlayers(String, Player, String)}).
  * - For /party set, suggests "name" as the second argument.
  */
 public class MCEnginePartyCompleter implements TabCompleter {
@@ -28,6 +34,8 @@ public class MCEnginePartyCompleter implements TabCompleter {
         List<String> cmds = new ArrayList<>();
         cmds.add("create");
         cmds.add("invite");
+        cmds.add("accept");
+        cmds.add("deny");
         cmds.add("kick");
         cmds.add("leave");
         cmds.add("set");
@@ -66,16 +74,7 @@ public class MCEnginePartyCompleter implements TabCompleter {
         if (args.length == 2) {
             String sub = args[0].toLowerCase();
             if (sub.equals("invite") || sub.equals("kick") || sub.equals("find")) {
-                String current = args[1].toLowerCase();
-                List<String> suggestions = new ArrayList<>();
-                for (Player online : Bukkit.getOnlinePlayers()) {
-                    // For kick, don't suggest self
-                    if (sub.equals("kick") && online.equals(sender)) continue;
-                    if (online.getName().toLowerCase().startsWith(current)) {
-                        suggestions.add(online.getName());
-                    }
-                }
-                return suggestions;
+                return suggestPlayers(sub, player, args[1]);
             }
             // /party set <...>
             if (sub.equals("set")) {
@@ -96,4 +95,61 @@ public class MCEnginePartyCompleter implements TabCompleter {
 
         return Collections.emptyList();
     }
+
+    /**
+     * Suggests online players for invite, kick or find, filtered by the in-memory membership
+     * index so that no database query runs on the tab-complete path:
+     * <ul>
+     *     <li>kick: online members of the sender's party, except the sender</li>
+     *     <li>invite: online players not known to be in a party, except the sender</li>
+     *     <li>find: online players known to be in a party</li>
+     * </ul>
+     * Players whose membership is not in memory are treated as having no party. Without an index
+     * (SQL backend with the cache disabled) every matching online player is suggested.
+     *
+     * @param sub    the subcommand, lower-cased
+     * @param sender the player completing the command
+     * @param prefix the typed prefix of the player name
+     * @return matching player names, at most {@link MCEnginePartyCommon#getTabCompleteLimit()}
+     */
+    private static List<String> suggestPlayers(String sub, Player sender, String prefix) {
+        MCEnginePartyCommon api = MCEnginePartyCommon.getApi();
+        MCEnginePartyNameIndex names = api.getNameIndex();
+        IMCEnginePartyMembershipIndex memberships = api.getMembershipIndex();
+        int limit = api.getTabCompleteLimit();
+        UUID self = sender.getUniqueId();
+        List<String> suggestions = new ArrayList<>();
+
+        if (sub.equals("kick") && memberships != null) {
+            // Walk the (small) party rather than every online player
+            Integer partyId = memberships.peekPlayerPartyId(self);
+            Collection<UUID> members = partyId == null || partyId == IMCEnginePartyDB.NO_PARTY
+                    ? null : memberships.peekPartyMembers(partyId);
+            if (members == null) {
+                return suggestions;
+            }
+            for (UUID member : members) {
+                String name = member.equals(self) ? null : names.getName(member);
+                if (name != null && name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    suggestions.add(name);
+                }
+            }
+            suggestions.sort(String.CASE_INSENSITIVE_ORDER);
+            return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+        }
+
+        for (MCEnginePartyNameIndex.Entry online : names.range(prefix)) {
+            if (suggestions.size() >= limit) {
+                break;
+            }
+            if (!sub.equals("find") && online.id().equals(self)) continue;
+            if (memberships != null) {
+                Integer partyId = memberships.peekPlayerPartyId(online.id());
+                boolean inParty = partyId != null && partyId != IMCEnginePartyDB.NO_PARTY;
+                if (sub.equals("invite") == inParty) continue;
+            }
+            suggestions.add(online.name());
+        }
+        return suggestions;
+    }
 }
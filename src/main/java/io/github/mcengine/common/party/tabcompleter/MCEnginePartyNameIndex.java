@@ -0,0 +1,137 @@
+package io.github.mcengine.common.party.tabcompleter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Case-insensitive prefix index of online player names for tab completion.
+ * <p>
+ * Names are kept in a sorted map keyed by the lower-cased name, so the players matching a
+ * prefix are one contiguous range: a completion costs a logarithmic seek plus one step per
+ * result, and never lower-cases or copies the names of non-matching players. The index is
+ * maintained incrementally on join and quit (see {@link io.github.mcengine.common.party.listener.MCEnginePartyListener})
+ * and is safe to read from any thread.
+ */
+public class MCEnginePartyNameIndex {
+
+    /**
+     * Separates the lower-cased name from the UUID in a key, sorting before every name character,
+     * so players whose names differ only in case (offline mode) get distinct keys.
+     */
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * Lower-cased name + {@link #SEPARATOR} + UUID -> online player.
+     */
+    private final NavigableMap<String, Entry> byName = new ConcurrentSkipListMap<>();
+
+    /**
+     * Player UUID -> key in {@link #byName}, so a player can be removed without knowing the indexed name.
+     */
+    private final Map<UUID, String> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Adds an online player, replacing any previous entry for the same UUID (e.g. after a rename).
+     *
+     * @param id   the player's UUID
+     * @param name the player's name
+     */
+    public void add(UUID id, String name) {
+        String key = name.toLowerCase(Locale.ROOT) + SEPARATOR + id;
+        String previous = keys.put(id, key);
+        if (previous != null && !previous.equals(key)) {
+            byName.remove(previous);
+        }
+        byName.put(key, new Entry(id, name));
+    }
+
+    /**
+     * Removes a player who went offline.
+     *
+     * @param id the player's UUID
+     */
+    public void remove(UUID id) {
+        String key = keys.remove(id);
+        if (key != null) {
+            byName.remove(key);
+        }
+    }
+
+    /**
+     * Gets the name of an online player.
+     *
+     * @param id the player's UUID
+     * @return the player's name, or null if the player is not online
+     */
+    public String getName(UUID id) {
+        String key = keys.get(id);
+        Entry entry = key == null ? null : byName.get(key);
+        return entry == null ? null : entry.name();
+    }
+
+    /**
+     * Finds the names of online players starting with the prefix, ignoring case, in alphabetical order.
+     *
+     * @param prefix the typed prefix
+     * @param limit  maximum number of names to return
+     * @return the matching names
+     */
+    public List<String> complete(String prefix, int limit) {
+        List<String> names = new ArrayList<>(Math.min(limit, 16));
+        for (Entry entry : range(prefix)) {
+            if (names.size() >= limit) {
+                break;
+            }
+            names.add(entry.name());
+        }
+        return names;
+    }
+
+    /**
+     * Gets the online players whose names start with the prefix, ignoring case, in alphabetical order.
+     * The returned view is backed by the index and evaluated lazily.
+     *
+     * @param prefix the typed prefix
+     * @return the matching players
+     */
+    public Iterable<Entry> range(String prefix) {
+        if (prefix.isEmpty()) {
+            return Collections.unmodifiableCollection(byName.values());
+        }
+        String from = prefix.toLowerCase(Locale.ROOT);
+        // Every key with the prefix sorts below the prefix followed by the largest char
+        return Collections.unmodifiableCollection(byName.subMap(from, true, from + Character.MAX_VALUE, false).values());
+    }
+
+    /**
+     * Gets the number of indexed players.
+     *
+     * @return the online player count seen by the index
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Removes every player.
+     */
+    public void clear() {
+        keys.clear();
+        byName.clear();
+    }
+
+    /**
+     * An indexed online player.
+     *
+     * @param id   the player's UUID
+     * @param name the player's name, in its original case
+     */
+    public record Entry(UUID id, String name) {}
+}
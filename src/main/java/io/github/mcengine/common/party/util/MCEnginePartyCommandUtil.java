@@ -1,15 +1,94 @@
 package io.github.mcengine.common.party.util;
 
 import io.github.mcengine.common.party.MCEnginePartyCommon;
+import io.github.mcengine.common.party.database.IMCEnginePartyAsyncDB;
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.MCEnginePartyMembership;
+import io.github.mcengine.common.party.invite.MCEnginePartyInvite;
+import io.github.mcengine.common.party.invite.MCEnginePartyInvites;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Utility class containing static handler methods for /party subcommands.
+ * <p>
+ * Handlers resolve online players on the calling (main) thread, run all database work through
+ * {@link MCEnginePartyCommon#getAsync()} and only return to the main thread to send messages.
+ * Commands that change a party check the issuing player's membership and apply the change in one
+ * {@link IMCEnginePartyAsyncDB#inTransactionAsync(java.util.function.Function)} task, so a concurrent
+ * command cannot change the party between the check and the change. Other party members are
+ * told about joins, leaves, kicks, disbands and renames through
+ * {@link MCEnginePartyCommon#broadcast(int, String, UUID)}.
  */
 public final class MCEnginePartyCommandUtil {
 
+    /**
+     * Outcome of accepting an invite.
+     */
+    private enum AcceptResult {
+        /** The player joined the party. */
+        JOINED,
+        /** The player is already in a party. */
+        IN_PARTY,
+        /** The party was disbanded after the invite was sent. */
+        DISBANDED,
+        /** The party reached the size limit after the invite was sent. */
+        FULL
+    }
+
+    /**
+     * Outcome of a checked party change.
+     */
+    private enum ChangeResult {
+        /** The change was applied. */
+        DONE,
+        /** The owner left, disbanding the party. */
+        DISBANDED,
+        /** The player is already in a party. */
+        IN_PARTY,
+        /** The player is not in a party. */
+        NOT_IN_PARTY,
+        /** The player does not own their party. */
+        NOT_OWNER,
+        /** The party has reached the size limit. */
+        FULL,
+        /** The target is already in the party. */
+        ALREADY_MEMBER,
+        /** The target is not in the party. */
+        NOT_MEMBER,
+        /** The player tried to kick themselves. */
+        SELF,
+        /** The new party name is too long. */
+        TOO_LONG,
+        /** The database refused the change. */
+        FAILED
+    }
+
+    /**
+     * Result of a checked party change together with the state it was checked against.
+     *
+     * @param result     what happened
+     * @param membership the issuing player's membership when checked, or null if not in a party
+     * @param members    the party's members before a disband, empty otherwise
+     */
+    private record ChangeOutcome(ChangeResult result, MCEnginePartyMembership membership, List<UUID> members) {
+
+        /**
+         * Creates an outcome without captured members.
+         *
+         * @param result     what happened
+         * @param membership the issuing player's membership when checked, or null
+         */
+        private ChangeOutcome(ChangeResult result, MCEnginePartyMembership membership) {
+            this(result, membership, List.of());
+        }
+    }
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -22,17 +101,28 @@ public final class MCEnginePartyCommandUtil {
      * @param partyCommon The party API handler
      */
     public static void handleCreate(Player player, MCEnginePartyCommon partyCommon) {
-        String partyId = partyCommon.findPlayerPartyId(player);
-        if (partyId != null) {
-            player.sendMessage(ChatColor.RED + "You are already in a party.");
-            return;
-        }
-        partyCommon.createParty(player);
-        player.sendMessage(ChatColor.GREEN + "Party created! You are the party owner.");
+        UUID id = player.getUniqueId();
+        partyCommon.getAsync().inTransactionAsync(db -> {
+                    if (db.findPlayerPartyId(id) != IMCEnginePartyDB.NO_PARTY) {
+                        return ChangeResult.IN_PARTY;
+                    }
+                    return db.createParty(id) == IMCEnginePartyDB.NO_PARTY ? ChangeResult.FAILED : ChangeResult.DONE;
+                })
+                .thenAccept(result -> {
+                    switch (result) {
+                        case DONE -> reply(partyCommon, player, ChatColor.GREEN + "Party created! You are the party owner.");
+                        case IN_PARTY -> reply(partyCommon, player, ChatColor.RED + "You are already in a party.");
+                        default -> reply(partyCommon, player, ChatColor.RED + "Failed to create the party.");
+                    }
+                })
+                .exceptionally(error -> fail(partyCommon, player, error));
     }
 
     /**
      * Handles the /party invite command.
+     * Enforces the configured party size limit ({@link MCEnginePartyCommon#getPartyLimit()},
+     * {@code 0} meaning unlimited), then records a pending invite that the target accepts or
+     * denies (see {@link #handleAccept(Player, MCEnginePartyCommon)}) before it expires.
      *
      * @param player      The player issuing the invite
      * @param targetName  The name of the player to invite
@@ -45,26 +135,109 @@ public final class MCEnginePartyCommandUtil {
             return;
         }
 
-        String partyId = partyCommon.findPlayerPartyId(player);
-        if (partyId == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a party. Use /party create first.");
-            return;
-        }
+        UUID id = player.getUniqueId();
+        UUID targetId = target.getUniqueId();
+        int limit = partyCommon.getPartyLimit();
+        MCEnginePartyInvites invites = partyCommon.getInvites();
+        partyCommon.getAsync().inTransactionAsync(db -> {
+                    MCEnginePartyMembership membership = db.getPlayerMembership(id);
+                    if (membership == null) {
+                        return new ChangeOutcome(ChangeResult.NOT_IN_PARTY, null);
+                    }
+                    if (limit > 0 && membership.memberCount() >= limit) {
+                        return new ChangeOutcome(ChangeResult.FULL, membership);
+                    }
+                    if (!membership.isOwner()) {
+                        return new ChangeOutcome(ChangeResult.NOT_OWNER, membership);
+                    }
+                    if (db.isMember(membership.partyId(), targetId)) {
+                        return new ChangeOutcome(ChangeResult.ALREADY_MEMBER, membership);
+                    }
+                    invites.invite(membership.partyId(), id, targetId);
+                    return new ChangeOutcome(ChangeResult.DONE, membership);
+                })
+                .thenAccept(outcome -> {
+                    switch (outcome.result()) {
+                        case DONE -> {
+                            reply(partyCommon, player, ChatColor.GREEN + "Invited " + target.getName() + " to the party. The invite expires in "
+                                    + invites.getExpireSeconds() + " seconds.");
+                            reply(partyCommon, target, ChatColor.YELLOW + "You have been invited to join a party by " + player.getName()
+                                    + ". Use /party default accept or /party default deny.");
+                        }
+                        case NOT_IN_PARTY -> reply(partyCommon, player, ChatColor.RED + "You are not in a party. Use /party create first.");
+                        case FULL -> reply(partyCommon, player, ChatColor.RED + "Your party is full ("
+                                + outcome.membership().memberCount() + "/" + limit + ").");
+                        case NOT_OWNER -> reply(partyCommon, player, ChatColor.RED + "Only the party owner can invite players.");
+                        default -> reply(partyCommon, player, ChatColor.RED + "Player is already in your party.");
+                    }
+                })
+                .exceptionally(error -> fail(partyCommon, player, error));
+    }
 
-        String role = partyCommon.getPlayerPartyRole(partyId, player);
-        if (!"owner".equals(role)) {
-            player.sendMessage(ChatColor.RED + "Only the party owner can invite players.");
+    /**
+     * Handles the /party accept command.
+     * Consumes the player's pending invite, then joins the party in one transaction after
+     * re-checking that the player is not in a party and that the party still exists and has room.
+     *
+     * @param player      The player accepting the invite
+     * @param partyCommon The party API handler
+     */
+    public static void handleAccept(Player player, MCEnginePartyCommon partyCommon) {
+        MCEnginePartyInvite invite = partyCommon.getInvites().take(player.getUniqueId());
+        if (invite == null) {
+            player.sendMessage(ChatColor.RED + "You have no pending party invite.");
             return;
         }
 
-        if (partyCommon.isMember(partyId, target)) {
-            player.sendMessage(ChatColor.RED + "Player is already in your party.");
+        UUID id = player.getUniqueId();
+        int partyId = invite.getPartyId();
+        int limit = partyCommon.getPartyLimit();
+        partyCommon.getAsync().inTransactionAsync(db -> {
+                    if (db.findPlayerPartyId(id) != IMCEnginePartyDB.NO_PARTY) {
+                        return AcceptResult.IN_PARTY;
+                    }
+                    int count = db.getPartyCount(partyId);
+                    if (count == 0) {
+                        return AcceptResult.DISBANDED;
+                    }
+                    if (limit > 0 && count >= limit) {
+                        return AcceptResult.FULL;
+                    }
+                    db.invitePlayerToParty(partyId, id);
+                    return AcceptResult.JOINED;
+                })
+                .thenAccept(result -> {
+                    switch (result) {
+                        case JOINED -> {
+                            reply(partyCommon, player, ChatColor.GREEN + "You have joined the party.");
+                            partyCommon.broadcast(partyId, ChatColor.GREEN + player.getName() + " has joined the party.", id);
+                        }
+                        case IN_PARTY -> reply(partyCommon, player, ChatColor.RED + "You are already in a party.");
+                        case DISBANDED -> reply(partyCommon, player, ChatColor.RED + "That party no longer exists.");
+                        case FULL -> reply(partyCommon, player, ChatColor.RED + "That party is full (" + limit + "/" + limit + ").");
+                    }
+                })
+                .exceptionally(error -> fail(partyCommon, player, error));
+    }
+
+    /**
+     * Handles the /party deny command.
+     * Discards the player's pending invite and tells the inviter if they are online.
+     *
+     * @param player      The player denying the invite
+     * @param partyCommon The party API handler
+     */
+    public static void handleDeny(Player player, MCEnginePartyCommon partyCommon) {
+        MCEnginePartyInvite invite = partyCommon.getInvites().take(player.getUniqueId());
+        if (invite == null) {
+            player.sendMessage(ChatColor.RED + "You have no pending party invite.");
             return;
         }
-
-        partyCommon.invitePlayerToParty(partyId, target);
-        player.sendMessage(ChatColor.GREEN + "Invited " + target.getName() + " to the party.");
-        target.sendMessage(ChatColor.YELLOW + "You have been invited to join a party by " + player.getName() + ".");
+        player.sendMessage(ChatColor.YELLOW + "You have denied the party invite.");
+        Player inviter = Bukkit.getPlayer(invite.getInviter());
+        if (inviter != null) {
+            inviter.sendMessage(ChatColor.YELLOW + player.getName() + " has denied your party invite.");
+        }
     }
 
     /**
@@ -81,31 +254,40 @@ public final class MCEnginePartyCommandUtil {
             return;
         }
 
-        String partyId = partyCommon.findPlayerPartyId(player);
-        if (partyId == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a party.");
-            return;
-        }
-
-        String role = partyCommon.getPlayerPartyRole(partyId, player);
-        if (!"owner".equals(role)) {
-            player.sendMessage(ChatColor.RED + "Only the party owner can kick members.");
-            return;
-        }
-
-        if (!partyCommon.isMember(partyId, target)) {
-            player.sendMessage(ChatColor.RED + "Player is not in your party.");
-            return;
-        }
-
-        if (player.equals(target)) {
-            player.sendMessage(ChatColor.RED + "You cannot kick yourself. Use /party leave to disband the party.");
-            return;
-        }
-
-        partyCommon.kickPlayerFromParty(partyId, target);
-        player.sendMessage(ChatColor.GREEN + "Kicked " + target.getName() + " from the party.");
-        target.sendMessage(ChatColor.RED + "You have been kicked from the party by " + player.getName() + ".");
+        UUID id = player.getUniqueId();
+        UUID targetId = target.getUniqueId();
+        partyCommon.getAsync().inTransactionAsync(db -> {
+                    MCEnginePartyMembership membership = db.getPlayerMembership(id);
+                    if (membership == null) {
+                        return new ChangeOutcome(ChangeResult.NOT_IN_PARTY, null);
+                    }
+                    if (!membership.isOwner()) {
+                        return new ChangeOutcome(ChangeResult.NOT_OWNER, membership);
+                    }
+                    if (!db.isMember(membership.partyId(), targetId)) {
+                        return new ChangeOutcome(ChangeResult.NOT_MEMBER, membership);
+                    }
+                    if (id.equals(targetId)) {
+                        return new ChangeOutcome(ChangeResult.SELF, membership);
+                    }
+                    db.kickPlayerFromParty(membership.partyId(), targetId);
+                    return new ChangeOutcome(ChangeResult.DONE, membership);
+                })
+                .thenAccept(outcome -> {
+                    switch (outcome.result()) {
+                        case DONE -> {
+                            reply(partyCommon, player, ChatColor.GREEN + "Kicked " + target.getName() + " from the party.");
+                            reply(partyCommon, target, ChatColor.RED + "You have been kicked from the party by " + player.getName() + ".");
+                            partyCommon.broadcast(outcome.membership().partyId(), ChatColor.YELLOW + target.getName()
+                                    + " was kicked from the party by " + player.getName() + ".", id);
+                        }
+                        case NOT_IN_PARTY -> reply(partyCommon, player, ChatColor.RED + "You are not in a party.");
+                        case NOT_OWNER -> reply(partyCommon, player, ChatColor.RED + "Only the party owner can kick members.");
+                        case NOT_MEMBER -> reply(partyCommon, player, ChatColor.RED + "Player is not in your party.");
+                        default -> reply(partyCommon, player, ChatColor.RED + "You cannot kick yourself. Use /party leave to disband the party.");
+                    }
+                })
+                .exceptionally(error -> fail(partyCommon, player, error));
     }
 
     /**
@@ -115,21 +297,35 @@ public final class MCEnginePartyCommandUtil {
      * @param partyCommon The party API handler
      */
     public static void handleLeave(Player player, MCEnginePartyCommon partyCommon) {
-        String partyId = partyCommon.findPlayerPartyId(player);
-        if (partyId == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a party.");
-            return;
-        }
-
-        String role = partyCommon.getPlayerPartyRole(partyId, player);
-        partyCommon.leaveParty(partyId, player);
-
-        if ("owner".equals(role)) {
-            player.sendMessage(ChatColor.YELLOW + "You have disbanded the party.");
-            // Optionally notify other members, requires tracking party members.
-        } else {
-            player.sendMessage(ChatColor.YELLOW + "You have left the party.");
-        }
+        UUID id = player.getUniqueId();
+        partyCommon.getAsync().inTransactionAsync(db -> {
+                    MCEnginePartyMembership membership = db.getPlayerMembership(id);
+                    if (membership == null) {
+                        return new ChangeOutcome(ChangeResult.NOT_IN_PARTY, null);
+                    }
+                    if (!membership.isOwner()) {
+                        db.leaveParty(membership.partyId(), id);
+                        return new ChangeOutcome(ChangeResult.DONE, membership);
+                    }
+                    // The members are gone once the party is disbanded, so capture them first
+                    List<UUID> members = List.copyOf(db.getPartyMembers(membership.partyId()));
+                    db.leaveParty(membership.partyId(), id);
+                    return new ChangeOutcome(ChangeResult.DISBANDED, membership, members);
+                })
+                .thenAccept(outcome -> {
+                    switch (outcome.result()) {
+                        case DONE -> {
+                            reply(partyCommon, player, ChatColor.YELLOW + "You have left the party.");
+                            partyCommon.broadcast(outcome.membership().partyId(), ChatColor.YELLOW + player.getName() + " has left the party.", null);
+                        }
+                        case DISBANDED -> {
+                            reply(partyCommon, player, ChatColor.YELLOW + "You have disbanded the party.");
+                            partyCommon.broadcast(outcome.members(), ChatColor.RED + "The party has been disbanded by " + player.getName() + ".", id);
+                        }
+                        default -> reply(partyCommon, player, ChatColor.RED + "You are not in a party.");
+                    }
+                })
+                .exceptionally(error -> fail(partyCommon, player, error));
     }
 
     /**
@@ -140,26 +336,35 @@ public final class MCEnginePartyCommandUtil {
      * @param partyCommon The party API handler
      */
     public static void handleSetName(Player player, String name, MCEnginePartyCommon partyCommon) {
-        String partyId = partyCommon.findPlayerPartyId(player);
-        if (partyId == null) {
-            player.sendMessage(ChatColor.RED + "You are not in a party.");
-            return;
-        }
-        String role = partyCommon.getPlayerPartyRole(partyId, player);
-        if (!"owner".equals(role)) {
-            player.sendMessage(ChatColor.RED + "Only the party owner can set the party name.");
-            return;
-        }
-        if (name.length() > 32) {
-            player.sendMessage(ChatColor.RED + "Party name is too long (max 32 chars).");
-            return;
-        }
-        boolean success = partyCommon.setPartyName(partyId, player, name);
-        if (success) {
-            player.sendMessage(ChatColor.GREEN + "Party name set to: " + ChatColor.AQUA + name);
-        } else {
-            player.sendMessage(ChatColor.RED + "Failed to set party name.");
-        }
+        UUID id = player.getUniqueId();
+        partyCommon.getAsync().inTransactionAsync(db -> {
+                    MCEnginePartyMembership membership = db.getPlayerMembership(id);
+                    if (membership == null) {
+                        return new ChangeOutcome(ChangeResult.NOT_IN_PARTY, null);
+                    }
+                    if (!membership.isOwner()) {
+                        return new ChangeOutcome(ChangeResult.NOT_OWNER, membership);
+                    }
+                    if (name.length() > 32) {
+                        return new ChangeOutcome(ChangeResult.TOO_LONG, membership);
+                    }
+                    boolean success = db.setPartyName(membership.partyId(), id, name);
+                    return new ChangeOutcome(success ? ChangeResult.DONE : ChangeResult.FAILED, membership);
+                })
+                .thenAccept(outcome -> {
+                    switch (outcome.result()) {
+                        case DONE -> {
+                            reply(partyCommon, player, ChatColor.GREEN + "Party name set to: " + ChatColor.AQUA + name);
+                            partyCommon.broadcast(outcome.membership().partyId(), ChatColor.GREEN + player.getName() + " renamed the party to: "
+                                    + ChatColor.AQUA + name, id);
+                        }
+                        case NOT_IN_PARTY -> reply(partyCommon, player, ChatColor.RED + "You are not in a party.");
+                        case NOT_OWNER -> reply(partyCommon, player, ChatColor.RED + "Only the party owner can set the party name.");
+                        case TOO_LONG -> reply(partyCommon, player, ChatColor.RED + "Party name is too long (max 32 chars).");
+                        default -> reply(partyCommon, player, ChatColor.RED + "Failed to set party name.");
+                    }
+                })
+                .exceptionally(error -> fail(partyCommon, player, error));
     }
 
     /**
@@ -180,12 +385,44 @@ public final class MCEnginePartyCommandUtil {
             player.sendMessage(ChatColor.RED + "Player not found.");
             return;
         }
-        String partyId = partyCommon.findPlayerPartyId(target);
-        if (partyId == null) {
-            player.sendMessage(ChatColor.YELLOW + "Player " + target.getName() + " is not in a party.");
-        } else {
-            String role = partyCommon.getPlayerPartyRole(partyId, target);
-            player.sendMessage(ChatColor.GREEN + "Player " + target.getName() + " is in party ID: " + ChatColor.AQUA + partyId + ChatColor.GREEN + " as " + ChatColor.GOLD + role);
+        partyCommon.getAsync().getPlayerMembershipAsync(target.getUniqueId())
+                .thenAccept(membership -> {
+                    if (membership == null) {
+                        reply(partyCommon, player, ChatColor.YELLOW + "Player " + target.getName() + " is not in a party.");
+                    } else {
+                        reply(partyCommon, player, ChatColor.GREEN + "Player " + target.getName() + " is in party ID: " + ChatColor.AQUA + membership.partyId() + ChatColor.GREEN + " as " + ChatColor.GOLD + membership.role().getName());
+                    }
+                })
+                .exceptionally(error -> fail(partyCommon, player, error));
+    }
+
+    /**
+     * Sends a message to a player from the server main thread.
+     * Safe to call from database executor threads.
+     *
+     * @param partyCommon The party API handler
+     * @param player      The recipient
+     * @param message     The message to send
+     */
+    private static void reply(MCEnginePartyCommon partyCommon, Player player, String message) {
+        if (Bukkit.isPrimaryThread()) {
+            player.sendMessage(message);
+        } else if (partyCommon.getPlugin().isEnabled()) {
+            Bukkit.getScheduler().runTask(partyCommon.getPlugin(), () -> player.sendMessage(message));
         }
     }
+
+    /**
+     * Logs a failed asynchronous command and informs the player.
+     *
+     * @param partyCommon The party API handler
+     * @param player      The player who issued the command
+     * @param error       The failure
+     * @return always {@code null}, for use in {@link CompletableFuture#exceptionally}
+     */
+    private static Void fail(MCEnginePartyCommon partyCommon, Player player, Throwable error) {
+        partyCommon.getPlugin().getLogger().warning("Party command failed for " + player.getName() + ": " + error.getMessage());
+        reply(partyCommon, player, ChatColor.RED + "A database error occurred. Please try again later.");
+        return null;
+    }
 }
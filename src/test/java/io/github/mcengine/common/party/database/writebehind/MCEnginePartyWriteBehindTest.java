@@ -0,0 +1,147 @@
+package io.github.mcengine.common.party.database.writebehind;
+
+import io.github.mcengine.common.party.database.IMCEnginePartyDB;
+import io.github.mcengine.common.party.database.MCEnginePartyDBException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link MCEnginePartyWriteBehind}.
+ */
+class MCEnginePartyWriteBehindTest {
+
+    /**
+     * Operations that reached the backend, in order, e.g. {@code "leave"} and {@code "create"}.
+     */
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+
+    /**
+     * Whether the backend fails writes of queued leaves.
+     */
+    private volatile boolean leavesFail;
+
+    /**
+     * The decorator under test.
+     */
+    private MCEnginePartyWriteBehind writeBehind;
+
+    /**
+     * Creates the write-behind queue in front of a recording backend. The background writer
+     * is slowed down so that only the flushes the test triggers write.
+     */
+    @BeforeEach
+    void setUp() {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("database.write-behind.interval-ms", 3_600_000L);
+        writeBehind = new MCEnginePartyWriteBehind(plugin(config), backend());
+    }
+
+    /**
+     * Stops the writer.
+     */
+    @AfterEach
+    void tearDown() {
+        leavesFail = false;
+        writeBehind.close();
+    }
+
+    /**
+     * A player who quit and rejoins must not create a party while their quit-leave is still
+     * queued, or the leave written later would remove them from the new party.
+     */
+    @Test
+    void createFailsWhileOwnersQueuedLeaveCannotBeWritten() {
+        UUID player = UUID.randomUUID();
+        leavesFail = true;
+        assertTrue(writeBehind.enqueueLeave(player));
+
+        assertThrows(MCEnginePartyDBException.class, () -> writeBehind.createParty(player));
+        assertEquals(List.of("leave"), calls);
+        assertEquals(1, writeBehind.getQueuedCount());
+
+        leavesFail = false;
+        assertEquals(1, writeBehind.createParty(player));
+        assertEquals(List.of("leave", "leave", "create"), calls);
+        assertEquals(0, writeBehind.getQueuedCount());
+    }
+
+    /**
+     * Operations about players without a queued leave run without flushing.
+     */
+    @Test
+    void createForOtherPlayerDoesNotFlush() {
+        leavesFail = true;
+        assertTrue(writeBehind.enqueueLeave(UUID.randomUUID()));
+
+        assertEquals(1, writeBehind.createParty(UUID.randomUUID()));
+        assertEquals(List.of("create"), calls);
+        assertEquals(1, writeBehind.getQueuedCount());
+    }
+
+    /**
+     * Creates a backend that records leaves and creates and knows no parties.
+     *
+     * @return the backend stub
+     */
+    private IMCEnginePartyDB backend() {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "leavePlayers" -> {
+                    calls.add("leave");
+                    if (leavesFail) {
+                        throw new MCEnginePartyDBException("database unavailable", null);
+                    }
+                    return null;
+                }
+                case "createParty" -> {
+                    calls.add("create");
+                    return 1;
+                }
+                default -> {
+                    if (method.isDefault()) {
+                        return InvocationHandler.invokeDefault(proxy, method, args);
+                    }
+                    return method.getReturnType() == boolean.class ? Boolean.FALSE
+                            : method.getReturnType() == int.class ? IMCEnginePartyDB.NO_PARTY : null;
+                }
+            }
+        };
+        return (IMCEnginePartyDB) Proxy.newProxyInstance(
+                IMCEnginePartyDB.class.getClassLoader(), new Class<?>[]{IMCEnginePartyDB.class}, handler);
+    }
+
+    /**
+     * Creates a plugin that only provides the given config and a logger.
+     *
+     * @param config the plugin configuration
+     * @return the plugin stub
+     */
+    private static Plugin plugin(YamlConfiguration config) {
+        Logger logger = Logger.getLogger("MCEngineParty-Test");
+        return (Plugin) Proxy.newProxyInstance(
+                Plugin.class.getClassLoader(),
+                new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getConfig" -> config;
+                    case "getLogger" -> logger;
+                    case "getName", "toString" -> "MCEngineParty-Test";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                });
+    }
+}